@@ -0,0 +1,236 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IExtensionRegistry;
+import org.eclipse.core.runtime.RegistryFactory;
+import org.eclipse.equinox.internal.p2.core.ProvisioningAgent;
+import org.eclipse.equinox.internal.p2.core.ProvisioningEventBus;
+import org.eclipse.equinox.internal.p2.core.helpers.SecureXMLUtil;
+import org.eclipse.equinox.internal.p2.engine.ProvisioningPlan;
+import org.eclipse.equinox.internal.p2.engine.SimpleProfileRegistry;
+import org.eclipse.equinox.internal.p2.metadata.MetadataInterner;
+import org.eclipse.equinox.internal.provisional.p2.core.eventbus.IProvisioningEventBus;
+import org.eclipse.equinox.p2.core.IAgentLocation;
+import org.eclipse.equinox.p2.core.spi.IAgentServiceFactory;
+import org.eclipse.equinox.p2.engine.IEngine;
+import org.eclipse.equinox.p2.engine.IProfile;
+import org.eclipse.equinox.p2.engine.IProfileRegistry;
+import org.eclipse.equinox.p2.engine.ProvisioningContext;
+import org.eclipse.osgi.service.datalocation.Location;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.FrameworkUtil;
+import org.osgi.framework.ServiceReference;
+import org.xml.sax.SAXException;
+
+/**
+ * A provisioning agent for running p2 outside of OSGi. The services the
+ * benchmarks need are registered directly with the agent, since there is no
+ * service registry to create them from their {@link IAgentServiceFactory}. The
+ * bundles that need framework services are started with a bundle context that
+ * only provides those.
+ */
+public class BenchmarkAgent {
+
+	private static final BundleContext CONTEXT = createContext(Map.of(//
+			SAXParserFactory.class.getName(), createParserFactory(), //
+			Location.class.getName(), createLocationService()));
+
+	private BenchmarkAgent() {
+		// static helpers only
+	}
+
+	/**
+	 * Creates an agent whose location is the given directory.
+	 */
+	public static ProvisioningAgent create(File location) {
+		initializeRegistry();
+		startBundles();
+		ProvisioningAgent agent = new ProvisioningAgent();
+		// Services that have not been registered with the agent are looked up
+		// in the service registry, which only has the framework services.
+		agent.setBundleContext(CONTEXT);
+		agent.setLocation(location.toURI());
+		agent.registerService(IProvisioningEventBus.SERVICE_NAME, new ProvisioningEventBus());
+		agent.registerService(MetadataInterner.SERVICE_NAME, new MetadataInterner());
+		agent.registerService(IEngine.SERVICE_NAME, createEngine());
+		IAgentLocation agentLocation = agent.getService(IAgentLocation.class);
+		agent.registerService(IProfileRegistry.SERVICE_NAME, new SimpleProfileRegistry(agent, SimpleProfileRegistry.getDefaultRegistryDirectory(agentLocation)));
+		return agent;
+	}
+
+	/**
+	 * Starts the activators of the bundles that look up framework services
+	 * through their bundle context: the repository bundle gets its parser
+	 * factory from it, and the simple artifact repository its mapping filters
+	 * and the location it locks.
+	 */
+	private static synchronized void startBundles() {
+		if (org.eclipse.equinox.internal.p2.artifact.repository.Activator.getContext() != null)
+			return;
+		try {
+			new org.eclipse.equinox.internal.p2.repository.Activator().start(CONTEXT);
+			new org.eclipse.equinox.internal.p2.artifact.repository.Activator().start(CONTEXT);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Creates the bundle context of the bundles, which has the framework
+	 * services of the given map and no bundles, properties or listeners.
+	 */
+	private static BundleContext createContext(Map<String, Object> services) {
+		Map<String, ServiceReference<?>> references = new HashMap<>();
+		Map<ServiceReference<?>, Object> registered = new HashMap<>();
+		services.forEach((name, service) -> {
+			ServiceReference<?> reference = newProxy(ServiceReference.class, BenchmarkAgent::defaultValue);
+			references.put(name, reference);
+			registered.put(reference, service);
+		});
+		return newProxy(BundleContext.class, (proxy, method, args) -> {
+			switch (method.getName()) {
+				case "createFilter" : //$NON-NLS-1$
+					return FrameworkUtil.createFilter((String) args[0]);
+				case "getServiceReference" : //$NON-NLS-1$
+					return references.get(serviceName(args[0]));
+				case "getServiceReferences" : //$NON-NLS-1$
+					// the filter is ignored, the services are registered without properties
+					ServiceReference<?> reference = references.get(serviceName(args[0]));
+					if (method.getReturnType() == Collection.class)
+						return reference == null ? List.of() : List.of(reference);
+					return reference == null ? null : new ServiceReference<?>[] {reference};
+				case "getService" : //$NON-NLS-1$
+					return registered.get(args[0]);
+				default :
+					return defaultValue(proxy, method, args);
+			}
+		});
+	}
+
+	private static String serviceName(Object type) {
+		return type instanceof Class<?> clazz ? clazz.getName() : (String) type;
+	}
+
+	/**
+	 * Answers the methods of a proxy that does nothing.
+	 */
+	private static Object defaultValue(Object proxy, Method method, Object[] args) {
+		if (method.getDeclaringClass() == Object.class)
+			return objectMethod(proxy, method, args);
+		return method.getReturnType() == boolean.class ? Boolean.FALSE : null;
+	}
+
+	/**
+	 * Creates a location service whose locations are never read-only and are
+	 * not locked, since the repositories are only used by one benchmark at a
+	 * time.
+	 */
+	private static Location createLocationService() {
+		return newProxy(Location.class, (proxy, method, args) -> {
+			if (method.getName().equals("createLocation")) //$NON-NLS-1$
+				return createLocationService();
+			return defaultValue(proxy, method, args);
+		});
+	}
+
+	private static <T> T newProxy(Class<T> type, InvocationHandler handler) {
+		return type.cast(Proxy.newProxyInstance(BenchmarkAgent.class.getClassLoader(), new Class<?>[] {type}, handler));
+	}
+
+	/**
+	 * Installs an empty extension registry as the default registry. The
+	 * extensions p2 contributes, such as the checksum algorithms and the
+	 * touchpoints, are not available.
+	 */
+	private static synchronized void initializeRegistry() {
+		if (RegistryFactory.getRegistry() != null)
+			return;
+		Object token = new Object();
+		IExtensionRegistry registry = RegistryFactory.createRegistry(null, token, token);
+		try {
+			RegistryFactory.setDefaultRegistryProvider(() -> registry);
+		} catch (CoreException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static SAXParserFactory createParserFactory() {
+		try {
+			return SecureXMLUtil.newSecureSAXParserFactory();
+		} catch (ParserConfigurationException | SAXException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Creates an engine that can create plans, which is all the planner needs
+	 * from it. The real engine loads its touchpoints from the extension
+	 * registry.
+	 */
+	private static IEngine createEngine() {
+		return newProxy(IEngine.class, (proxy, method, args) -> {
+			if (method.getDeclaringClass() == Object.class)
+				return objectMethod(proxy, method, args);
+			if (method.getName().equals("createPlan")) //$NON-NLS-1$
+				return new ProvisioningPlan((IProfile) args[0], null, (ProvisioningContext) args[1]);
+			throw new UnsupportedOperationException(method.getName());
+		});
+	}
+
+	private static Object objectMethod(Object proxy, Method method, Object[] args) {
+		switch (method.getName()) {
+			case "equals" : //$NON-NLS-1$
+				return proxy == args[0];
+			case "hashCode" : //$NON-NLS-1$
+				return System.identityHashCode(proxy);
+			default :
+				return proxy.getClass().getInterfaces()[0].getSimpleName();
+		}
+	}
+
+	/**
+	 * Creates a new temporary directory.
+	 */
+	public static File createTempDirectory(String prefix) throws IOException {
+		return Files.createTempDirectory(prefix).toFile();
+	}
+
+	/**
+	 * Deletes a directory with all its content.
+	 */
+	public static void delete(File directory) throws IOException {
+		if (directory == null || !directory.exists())
+			return;
+		try (Stream<Path> paths = Files.walk(directory.toPath())) {
+			paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+}
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.benchmarks;
+
+import java.io.*;
+import java.net.URI;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Random;
+import org.eclipse.equinox.internal.p2.artifact.repository.simple.SimpleArtifactRepositoryFactory;
+import org.eclipse.equinox.internal.p2.metadata.ArtifactKey;
+import org.eclipse.equinox.internal.p2.metadata.repository.LocalMetadataRepository;
+import org.eclipse.equinox.internal.p2.metadata.repository.MetadataRepositoryIO;
+import org.eclipse.equinox.p2.core.IProvisioningAgent;
+import org.eclipse.equinox.p2.core.ProvisionException;
+import org.eclipse.equinox.p2.metadata.*;
+import org.eclipse.equinox.p2.repository.IRepositoryReference;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactDescriptor;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactRepository;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactRepositoryManager;
+import org.eclipse.equinox.p2.repository.metadata.IMetadataRepositoryManager;
+import org.eclipse.equinox.p2.repository.metadata.spi.AbstractMetadataRepository.RepositoryState;
+
+/**
+ * Writes synthetic metadata and artifact repositories to disk.
+ */
+public class SyntheticRepositories {
+
+	private SyntheticRepositories() {
+		// static helpers only
+	}
+
+	/**
+	 * Creates an in-memory metadata repository holding the given units.
+	 */
+	public static LocalMetadataRepository createMetadataRepository(IProvisioningAgent agent, URI location, Collection<IInstallableUnit> units) {
+		RepositoryState state = new RepositoryState();
+		state.Name = "Synthetic repository"; //$NON-NLS-1$
+		state.Type = IMetadataRepositoryManager.TYPE_SIMPLE_REPOSITORY;
+		state.Version = Version.createOSGi(1, 0, 0);
+		state.Location = location;
+		state.Properties = new HashMap<>();
+		state.Units = units.toArray(new IInstallableUnit[units.size()]);
+		state.Repositories = new IRepositoryReference[0];
+		LocalMetadataRepository repository = new LocalMetadataRepository(agent);
+		repository.initialize(state);
+		return repository;
+	}
+
+	/**
+	 * Writes a <code>content.xml</code> holding the given units to the given
+	 * directory.
+	 *
+	 * @return the written file
+	 */
+	public static File writeMetadataRepository(IProvisioningAgent agent, File directory, Collection<IInstallableUnit> units) throws IOException {
+		LocalMetadataRepository repository = createMetadataRepository(agent, directory.toURI(), units);
+		directory.mkdirs();
+		File content = new File(directory, "content.xml"); //$NON-NLS-1$
+		try (OutputStream output = new BufferedOutputStream(new FileOutputStream(content))) {
+			new MetadataRepositoryIO(agent).write(repository, output);
+		}
+		return content;
+	}
+
+	/**
+	 * Creates a simple artifact repository in the given directory holding
+	 * <code>count</code> artifacts of <code>size</code> bytes each.
+	 */
+	public static IArtifactRepository createArtifactRepository(IProvisioningAgent agent, File directory, int count, int size) throws IOException, ProvisionException {
+		SimpleArtifactRepositoryFactory factory = new SimpleArtifactRepositoryFactory();
+		factory.setAgent(agent);
+		IArtifactRepository repository = factory.create(directory.toURI(), "Synthetic artifacts", IArtifactRepositoryManager.TYPE_SIMPLE_REPOSITORY, new HashMap<>()); //$NON-NLS-1$
+		byte[] content = new byte[size];
+		Random random = new Random(42);
+		for (int i = 0; i < count; i++) {
+			IArtifactKey key = artifactKey(i);
+			IArtifactDescriptor descriptor = repository.createArtifactDescriptor(key);
+			random.nextBytes(content);
+			try (OutputStream output = repository.getOutputStream(descriptor)) {
+				output.write(content);
+			}
+		}
+		return repository;
+	}
+
+	public static IArtifactKey artifactKey(int index) {
+		return new ArtifactKey(SyntheticUnits.NAMESPACE_BUNDLE, SyntheticUnits.unitId(index), SyntheticUnits.unitVersion(index));
+	}
+}
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.eclipse.equinox.internal.p2.metadata.ArtifactKey;
+import org.eclipse.equinox.p2.metadata.IArtifactKey;
+import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+import org.eclipse.equinox.p2.metadata.IProvidedCapability;
+import org.eclipse.equinox.p2.metadata.IRequirement;
+import org.eclipse.equinox.p2.metadata.MetadataFactory;
+import org.eclipse.equinox.p2.metadata.MetadataFactory.InstallableUnitDescription;
+import org.eclipse.equinox.p2.metadata.Version;
+import org.eclipse.equinox.p2.metadata.VersionRange;
+
+/**
+ * Generates installable units that look like the bundles of a typical
+ * repository. Each unit provides its own id, a bundle capability and a few
+ * packages, and imports packages of units generated before it, so that the
+ * dependencies form an acyclic graph. Every fifth bundle is available in a
+ * second, newer micro version, which gives the planner a choice to make. The
+ * same seed always generates the same units.
+ */
+public class SyntheticUnits {
+	public static final String NAMESPACE_BUNDLE = "osgi.bundle"; //$NON-NLS-1$
+	public static final String NAMESPACE_PACKAGE = "java.package"; //$NON-NLS-1$
+	public static final String ROOT_ID = "org.example.product"; //$NON-NLS-1$
+
+	private static final int PACKAGES_PER_UNIT = 3;
+	private static final int IMPORTS_PER_UNIT = 4;
+	private static final int ALTERNATIVES_EVERY = 5;
+	private static final VersionRange PACKAGE_RANGE = new VersionRange(Version.createOSGi(1, 0, 0), true, Version.createOSGi(2, 0, 0), false);
+
+	private final Random random;
+	private int bundles;
+
+	public SyntheticUnits(long seed) {
+		random = new Random(seed);
+	}
+
+	public static String unitId(int index) {
+		return "org.example.bundle" + index; //$NON-NLS-1$
+	}
+
+	public static String packageName(int unit, int pkg) {
+		return "org.example.bundle" + unit + ".pkg" + pkg; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	public static Version unitVersion(int index) {
+		return Version.createOSGi(1, index % 10, 0);
+	}
+
+	/**
+	 * Generates the given number of units.
+	 */
+	public List<IInstallableUnit> generate(int count) {
+		List<IInstallableUnit> units = new ArrayList<>(count);
+		while (units.size() < count) {
+			int index = bundles++;
+			units.add(createUnit(index, unitVersion(index)));
+			if (index % ALTERNATIVES_EVERY == 0 && units.size() < count)
+				units.add(createUnit(index, Version.createOSGi(1, index % 10, 1)));
+		}
+		return units;
+	}
+
+	/**
+	 * Returns the number of distinct bundles generated so far.
+	 */
+	public int getBundleCount() {
+		return bundles;
+	}
+
+	/**
+	 * Creates the unit of a bundle that has not been generated yet.
+	 */
+	public IInstallableUnit createUnit(int index) {
+		return createUnit(index, unitVersion(index));
+	}
+
+	/**
+	 * Creates a unit that requires <code>roots</code> of the generated bundles,
+	 * evenly spread over the bundles, like a product would.
+	 */
+	public IInstallableUnit createRoot(int roots) {
+		InstallableUnitDescription iu = new InstallableUnitDescription();
+		iu.setId(ROOT_ID);
+		iu.setVersion(Version.createOSGi(1, 0, 0));
+		iu.addProvidedCapabilities(List.of(MetadataFactory.createProvidedCapability(IInstallableUnit.NAMESPACE_IU_ID, ROOT_ID, iu.getVersion())));
+		List<IRequirement> requires = new ArrayList<>(roots);
+		int step = Math.max(1, bundles / roots);
+		for (int index = bundles - 1; index >= 0 && requires.size() < roots; index -= step)
+			requires.add(MetadataFactory.createRequirement(IInstallableUnit.NAMESPACE_IU_ID, unitId(index), new VersionRange(Version.createOSGi(1, 0, 0), true, Version.createOSGi(2, 0, 0), false), null, false, false));
+		iu.addRequirements(requires);
+		return MetadataFactory.createInstallableUnit(iu);
+	}
+
+	/**
+	 * Returns a requirement on a package provided by one of the first
+	 * <code>count</code> bundles.
+	 */
+	public IRequirement randomPackageRequirement(int count) {
+		return packageRequirement(random.nextInt(count), random.nextInt(PACKAGES_PER_UNIT));
+	}
+
+	public static IRequirement packageRequirement(int unit, int pkg) {
+		return MetadataFactory.createRequirement(NAMESPACE_PACKAGE, packageName(unit, pkg), PACKAGE_RANGE, null, false, false);
+	}
+
+	private IInstallableUnit createUnit(int index, Version version) {
+		String id = unitId(index);
+		InstallableUnitDescription iu = new InstallableUnitDescription();
+		iu.setId(id);
+		iu.setVersion(version);
+		List<IProvidedCapability> provides = new ArrayList<>(PACKAGES_PER_UNIT + 2);
+		provides.add(MetadataFactory.createProvidedCapability(IInstallableUnit.NAMESPACE_IU_ID, id, version));
+		provides.add(MetadataFactory.createProvidedCapability(NAMESPACE_BUNDLE, id, version));
+		for (int p = 0; p < PACKAGES_PER_UNIT; p++)
+			provides.add(MetadataFactory.createProvidedCapability(NAMESPACE_PACKAGE, packageName(index, p), version));
+		iu.addProvidedCapabilities(provides);
+		iu.setArtifacts(new IArtifactKey[] {new ArtifactKey(NAMESPACE_BUNDLE, id, version)});
+		if (index > 0) {
+			List<IRequirement> requires = new ArrayList<>(IMPORTS_PER_UNIT);
+			for (int r = 0; r < IMPORTS_PER_UNIT; r++)
+				requires.add(packageRequirement(random.nextInt(index), random.nextInt(PACKAGES_PER_UNIT)));
+			iu.addRequirements(requires);
+		}
+		iu.setProperty(IInstallableUnit.PROP_NAME, "Bundle " + index); //$NON-NLS-1$
+		return MetadataFactory.createInstallableUnit(iu);
+	}
+}
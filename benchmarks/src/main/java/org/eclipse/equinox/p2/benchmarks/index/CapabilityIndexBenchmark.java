@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.benchmarks.index;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.equinox.internal.p2.metadata.InstallableUnit;
+import org.eclipse.equinox.internal.p2.metadata.index.CapabilityIndex;
+import org.eclipse.equinox.internal.p2.metadata.index.IndexProvider;
+import org.eclipse.equinox.p2.benchmarks.SyntheticUnits;
+import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+import org.eclipse.equinox.p2.metadata.IRequirement;
+import org.eclipse.equinox.p2.metadata.index.IIndex;
+import org.eclipse.equinox.p2.query.IQuery;
+import org.eclipse.equinox.p2.query.IQueryResult;
+import org.eclipse.equinox.p2.query.QueryUtil;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Compares the array based {@link CapabilityIndex} with the map based
+ * {@link LegacyCapabilityIndex}: building the index, looking up the
+ * providers of a requirement, and keeping the index current while a unit is
+ * added and removed again. Run with <code>-prof gc</code> to compare the
+ * allocations, and see {@link CapabilityIndexFootprint} for the retained size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CapabilityIndexBenchmark {
+
+	@Param({"1000", "10000", "100000"})
+	public int units;
+
+	@Param({"postings", "legacy"})
+	public String implementation;
+
+	private List<IInstallableUnit> ius;
+	private IIndex<IInstallableUnit> index;
+	private IndexQueryable queryable;
+	private IInstallableUnit extra;
+	private IRequirement[] requirements;
+	private int next;
+
+	/**
+	 * Queries the units through a fixed index, the way a repository does.
+	 */
+	static class IndexQueryable extends IndexProvider<IInstallableUnit> {
+		IIndex<IInstallableUnit> index;
+		final List<IInstallableUnit> units;
+
+		IndexQueryable(IIndex<IInstallableUnit> index, List<IInstallableUnit> units) {
+			this.index = index;
+			this.units = units;
+		}
+
+		@Override
+		public IIndex<IInstallableUnit> getIndex(String memberName) {
+			return InstallableUnit.MEMBER_PROVIDED_CAPABILITIES.equals(memberName) ? index : null;
+		}
+
+		@Override
+		public Iterator<IInstallableUnit> everything() {
+			return units.iterator();
+		}
+
+		@Override
+		public boolean contains(IInstallableUnit element) {
+			return units.contains(element);
+		}
+
+		@Override
+		public Object getManagedProperty(Object client, String memberName, Object key) {
+			return null;
+		}
+	}
+
+	@Setup
+	public void setUp() {
+		SyntheticUnits generator = new SyntheticUnits(42);
+		ius = generator.generate(units);
+		extra = generator.createUnit(generator.getBundleCount());
+		requirements = new IRequirement[1024];
+		for (int i = 0; i < requirements.length; i++)
+			requirements[i] = generator.randomPackageRequirement(generator.getBundleCount());
+		index = build();
+		queryable = new IndexQueryable(index, ius);
+	}
+
+	private IIndex<IInstallableUnit> build() {
+		return "legacy".equals(implementation) ? new LegacyCapabilityIndex(ius.iterator()) : new CapabilityIndex(ius.iterator());
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public IIndex<IInstallableUnit> buildIndex() {
+		return build();
+	}
+
+	@Benchmark
+	public IQueryResult<IInstallableUnit> lookup() {
+		IRequirement requirement = requirements[next++ & (requirements.length - 1)];
+		IQuery<IInstallableUnit> query = QueryUtil.createMatchQuery(requirement.getMatches());
+		return queryable.query(query, null);
+	}
+
+	/**
+	 * Adds a unit and removes it again. The legacy index cannot be updated and
+	 * has to be rebuilt after each change, like the repositories did.
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public IIndex<IInstallableUnit> addAndRemove() {
+		if (index instanceof CapabilityIndex) {
+			CapabilityIndex capabilityIndex = (CapabilityIndex) index;
+			capabilityIndex.addInstallableUnit(extra);
+			capabilityIndex.removeInstallableUnit(extra);
+			return capabilityIndex;
+		}
+		ius.add(extra);
+		index = build();
+		ius.remove(ius.size() - 1);
+		queryable.index = index = build();
+		return index;
+	}
+}
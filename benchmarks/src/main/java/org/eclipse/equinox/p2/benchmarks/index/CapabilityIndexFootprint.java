@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.benchmarks.index;
+
+import java.lang.ref.Reference;
+import java.util.List;
+import org.eclipse.equinox.internal.p2.metadata.index.CapabilityIndex;
+import org.eclipse.equinox.p2.benchmarks.SyntheticUnits;
+import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+
+/**
+ * Prints the heap retained by the capability indexes of synthetic
+ * repositories. JMH measures time and allocation but not retained memory, so
+ * this is a plain main class:
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar org.eclipse.equinox.p2.benchmarks.index.CapabilityIndexFootprint 1000 10000 100000
+ * </pre>
+ */
+public class CapabilityIndexFootprint {
+
+	public static void main(String[] args) {
+		String[] sizes = args.length > 0 ? args : new String[] {"1000", "10000", "100000"};
+		for (String size : sizes) {
+			List<IInstallableUnit> units = new SyntheticUnits(42).generate(Integer.parseInt(size));
+			long before = usedMemory();
+			Object legacy = new LegacyCapabilityIndex(units.iterator());
+			long legacySize = usedMemory() - before;
+			before = usedMemory();
+			Object postings = new CapabilityIndex(units.iterator());
+			long postingsSize = usedMemory() - before;
+			System.out.println(size + " units: legacy " + legacySize / 1024 + " KB, postings " + postingsSize / 1024 + " KB"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			// keep both indexes reachable until they have been measured
+			Reference.reachabilityFence(legacy);
+			Reference.reachabilityFence(postings);
+		}
+	}
+
+	private static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 4; i++)
+			System.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.benchmarks.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.equinox.internal.p2.artifact.repository.ArtifactRequest;
+import org.eclipse.equinox.internal.p2.artifact.repository.simple.SimpleArtifactRepository;
+import org.eclipse.equinox.internal.p2.core.ProvisioningAgent;
+import org.eclipse.equinox.p2.benchmarks.BenchmarkAgent;
+import org.eclipse.equinox.p2.benchmarks.SyntheticRepositories;
+import org.eclipse.equinox.p2.core.ProvisionException;
+import org.eclipse.equinox.p2.metadata.IArtifactKey;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactDescriptor;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactRepository;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactRequest;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Reads all artifacts of a local simple artifact repository through
+ * {@link SimpleArtifactRepository#getArtifacts(IArtifactRequest[], IProgressMonitor)},
+ * sequentially or with the download jobs the repository uses for remote
+ * repositories.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ArtifactRepositoryBenchmark {
+
+	@Param({"100", "1000"})
+	public int artifacts;
+
+	@Param({"65536"})
+	public int size;
+
+	@Param({"false", "true"})
+	public boolean threading;
+
+	private File location;
+	private ProvisioningAgent agent;
+	private IArtifactRepository repository;
+
+	/**
+	 * Reads an artifact in its raw form, the way a raw mirror request does,
+	 * and discards its content. The signature verification that processing an
+	 * artifact includes needs the signed content service of the framework.
+	 */
+	static class ReadRequest extends ArtifactRequest {
+		ReadRequest(IArtifactKey key) {
+			super(key, null);
+		}
+
+		@Override
+		public void perform(IArtifactRepository sourceRepository, IProgressMonitor monitor) {
+			IArtifactDescriptor[] descriptors = sourceRepository.getArtifactDescriptors(getArtifactKey());
+			setResult(sourceRepository.getRawArtifact(descriptors[0], OutputStream.nullOutputStream(), monitor));
+		}
+	}
+
+	@Setup
+	public void setUp() throws IOException, ProvisionException {
+		if (threading)
+			System.setProperty(SimpleArtifactRepository.PROP_FORCE_THREADING, Boolean.TRUE.toString());
+		location = BenchmarkAgent.createTempDirectory("p2-artifacts"); //$NON-NLS-1$
+		agent = BenchmarkAgent.create(location);
+		repository = SyntheticRepositories.createArtifactRepository(agent, new File(location, "repository"), artifacts, size); //$NON-NLS-1$
+		IStatus status = getArtifacts();
+		if (!status.isOK())
+			throw new IllegalStateException(status.toString());
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		System.clearProperty(SimpleArtifactRepository.PROP_FORCE_THREADING);
+		agent.stop();
+		BenchmarkAgent.delete(location);
+	}
+
+	@Benchmark
+	public IStatus getArtifacts() {
+		IArtifactRequest[] requests = new IArtifactRequest[artifacts];
+		for (int i = 0; i < artifacts; i++)
+			requests[i] = new ReadRequest(SyntheticRepositories.artifactKey(i));
+		return repository.getArtifacts(requests, new NullProgressMonitor());
+	}
+}
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.benchmarks.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.equinox.internal.p2.artifact.processors.checksum.ChecksumVerifier;
+import org.eclipse.equinox.internal.p2.artifact.processors.checksum.MultiDigestProcessingStep;
+import org.eclipse.equinox.internal.p2.repository.helpers.ChecksumHelper;
+import org.eclipse.equinox.internal.provisional.p2.artifact.repository.processing.ProcessingStep;
+import org.eclipse.equinox.internal.provisional.p2.artifact.repository.processing.ProcessingStepHandler;
+import org.eclipse.equinox.p2.repository.artifact.spi.ProcessingStepDescriptor;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Writes an artifact of <code>size</code> bytes through MD5, SHA-256 and
+ * SHA-512 checksum verifiers linked by {@link ProcessingStepHandler}, either
+ * chained one after the other or fused into a {@link MultiDigestProcessingStep}
+ * (<code>fuse</code>). The artifact is written in the blocks an input stream
+ * transfers, without any I/O.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ArtifactVerificationBenchmark {
+	private static final String[][] ALGORITHMS = {{"MD5", "md5"}, {"SHA-256", "sha-256"}, {"SHA-512", "sha-512"}}; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+	private static final int BLOCK_SIZE = 16 * 1024;
+
+	@Param({"268435456"})
+	public int size;
+
+	@Param({"false", "true"})
+	public boolean fuse;
+
+	private final byte[] block = new byte[1024 * 1024];
+	private String[] checksums;
+
+	@Setup
+	public void setUp() throws NoSuchAlgorithmException {
+		System.setProperty(MultiDigestProcessingStep.PROP_FUSE, Boolean.toString(fuse));
+		new Random(42).nextBytes(block);
+		checksums = new String[ALGORITHMS.length];
+		for (int i = 0; i < ALGORITHMS.length; i++) {
+			MessageDigest digest = MessageDigest.getInstance(ALGORITHMS[i][0]);
+			for (int written = 0; written < size; written += block.length)
+				digest.update(block, 0, Math.min(block.length, size - written));
+			checksums[i] = ChecksumHelper.toHexString(digest.digest());
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		System.clearProperty(MultiDigestProcessingStep.PROP_FUSE);
+	}
+
+	@Benchmark
+	public IStatus verify() throws IOException {
+		ProcessingStep[] steps = new ProcessingStep[ALGORITHMS.length];
+		for (int i = 0; i < ALGORITHMS.length; i++) {
+			ChecksumVerifier verifier = new ChecksumVerifier(ALGORITHMS[i][0], null, ALGORITHMS[i][1], false, 0);
+			verifier.initialize(null, new ProcessingStepDescriptor(null, checksums[i], true), null);
+			steps[i] = verifier;
+		}
+		OutputStream stream = new ProcessingStepHandler().link(steps, OutputStream.nullOutputStream(), new NullProgressMonitor());
+		try (stream) {
+			for (int written = 0; written < size;) {
+				int offset = written % block.length;
+				int length = Math.min(Math.min(BLOCK_SIZE, block.length - offset), size - written);
+				stream.write(block, offset, length);
+				written += length;
+			}
+		}
+		IStatus status = ProcessingStepHandler.checkStatus(stream);
+		if (!status.isOK())
+			throw new IllegalStateException(status.toString());
+		return status;
+	}
+}
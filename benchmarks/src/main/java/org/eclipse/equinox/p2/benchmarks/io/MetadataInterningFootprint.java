@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.benchmarks.io;
+
+import java.io.*;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.equinox.internal.p2.core.ProvisioningAgent;
+import org.eclipse.equinox.internal.p2.metadata.MetadataInterner;
+import org.eclipse.equinox.internal.p2.metadata.repository.MetadataRepositoryIO;
+import org.eclipse.equinox.p2.benchmarks.BenchmarkAgent;
+import org.eclipse.equinox.p2.benchmarks.SyntheticRepositories;
+import org.eclipse.equinox.p2.benchmarks.SyntheticUnits;
+import org.eclipse.equinox.p2.repository.metadata.spi.AbstractMetadataRepository.RepositoryState;
+
+/**
+ * Prints the heap retained by several metadata repositories loaded at the
+ * same time, with and without the {@link MetadataInterner}. The arguments are
+ * directories holding a <code>content.xml</code> or <code>content.jar</code>,
+ * for example local copies of a few release train repositories:
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar org.eclipse.equinox.p2.benchmarks.io.MetadataInterningFootprint 2024-03 2024-06 2024-09
+ * </pre>
+ *
+ * Without arguments, four synthetic repositories of 5000 to 20000 units are
+ * generated, each one holding the units of the previous one and more, as
+ * successive releases do.
+ */
+public class MetadataInterningFootprint {
+
+	public static void main(String[] args) throws Exception {
+		File location = BenchmarkAgent.createTempDirectory("p2-interning"); //$NON-NLS-1$
+		try {
+			List<File> repositories = new ArrayList<>();
+			if (args.length > 0) {
+				for (String arg : args)
+					repositories.add(new File(arg));
+			} else {
+				ProvisioningAgent agent = BenchmarkAgent.create(location);
+				for (int i = 1; i <= 4; i++) {
+					File directory = new File(location, "repository" + i); //$NON-NLS-1$
+					SyntheticRepositories.writeMetadataRepository(agent, directory, new SyntheticUnits(42).generate(i * 5000));
+					repositories.add(directory);
+				}
+				agent.stop();
+			}
+			long plain = measure(location, repositories, false);
+			long interned = measure(location, repositories, true);
+			System.out.println(repositories.size() + " repositories: " + plain / 1024 + " KB without interning, " + interned / 1024 + " KB with interning"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		} finally {
+			BenchmarkAgent.delete(location);
+		}
+	}
+
+	private static long measure(File location, List<File> repositories, boolean interning) throws Exception {
+		ProvisioningAgent agent = BenchmarkAgent.create(new File(location, "agent")); //$NON-NLS-1$
+		MetadataInterner interner = new MetadataInterner(interning);
+		agent.registerService(MetadataInterner.SERVICE_NAME, interner);
+		long before = usedMemory();
+		List<RepositoryState> states = new ArrayList<>();
+		for (File repository : repositories)
+			states.add(read(agent, repository));
+		long retained = usedMemory() - before;
+		int units = 0;
+		for (RepositoryState state : states)
+			units += state.Units.length;
+		System.out.println(units + " units, " + interner); //$NON-NLS-1$
+		// keep the repositories reachable until they have been measured
+		Reference.reachabilityFence(states);
+		agent.stop();
+		return retained;
+	}
+
+	private static RepositoryState read(ProvisioningAgent agent, File repository) throws Exception {
+		File jar = new File(repository, "content.jar"); //$NON-NLS-1$
+		InputStream input;
+		if (jar.isFile()) {
+			JarInputStream jarInput = new JarInputStream(new BufferedInputStream(new FileInputStream(jar)));
+			JarEntry entry = jarInput.getNextJarEntry();
+			while (entry != null && !entry.getName().endsWith(".xml")) //$NON-NLS-1$
+				entry = jarInput.getNextJarEntry();
+			input = jarInput;
+		} else {
+			input = new BufferedInputStream(new FileInputStream(new File(repository, "content.xml"))); //$NON-NLS-1$
+		}
+		return new MetadataRepositoryIO(agent).readState(repository.toURI().toURL(), input, new NullProgressMonitor());
+	}
+
+	private static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 4; i++)
+			System.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
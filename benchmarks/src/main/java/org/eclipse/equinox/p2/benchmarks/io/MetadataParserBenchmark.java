@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.benchmarks.io;
+
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.equinox.internal.p2.core.ProvisioningAgent;
+import org.eclipse.equinox.internal.p2.metadata.repository.MetadataRepositoryIO;
+import org.eclipse.equinox.p2.benchmarks.BenchmarkAgent;
+import org.eclipse.equinox.p2.benchmarks.SyntheticRepositories;
+import org.eclipse.equinox.p2.benchmarks.SyntheticUnits;
+import org.eclipse.equinox.p2.core.ProvisionException;
+import org.eclipse.equinox.p2.repository.metadata.spi.AbstractMetadataRepository.RepositoryState;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Parses the <code>content.xml</code> of a simple metadata repository into
+ * installable units, which is most of the time spent loading a repository.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetadataParserBenchmark {
+
+	@Param({"1000", "10000", "100000"})
+	public int units;
+
+	private File location;
+	private ProvisioningAgent agent;
+	private File content;
+
+	@Setup
+	public void setUp() throws IOException {
+		location = BenchmarkAgent.createTempDirectory("p2-parser"); //$NON-NLS-1$
+		agent = BenchmarkAgent.create(location);
+		content = SyntheticRepositories.writeMetadataRepository(agent, new File(location, "repository"), new SyntheticUnits(42).generate(units)); //$NON-NLS-1$
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		agent.stop();
+		BenchmarkAgent.delete(location);
+	}
+
+	@Benchmark
+	public RepositoryState parse() throws IOException, ProvisionException {
+		try (InputStream input = new BufferedInputStream(new FileInputStream(content))) {
+			return new MetadataRepositoryIO(agent).readState(content.toURI().toURL(), input, new NullProgressMonitor());
+		}
+	}
+}
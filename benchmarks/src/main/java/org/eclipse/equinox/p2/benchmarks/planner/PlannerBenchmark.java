@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.benchmarks.planner;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.equinox.internal.p2.director.ProfileChangeRequest;
+import org.eclipse.equinox.internal.p2.director.SimplePlanner;
+import org.eclipse.equinox.internal.p2.engine.Profile;
+import org.eclipse.equinox.p2.engine.IProfile;
+import org.eclipse.equinox.p2.engine.IProvisioningPlan;
+import org.eclipse.equinox.p2.engine.ProvisioningContext;
+import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+import org.eclipse.equinox.p2.query.IQueryable;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Computes the provisioning plan that installs the root unit into an empty
+ * profile, from slicing the available units to extracting the solution and
+ * creating the plan. With a <code>cacheSize</code> above 0 every invocation
+ * after the first one is answered from the planner cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PlannerBenchmark {
+
+	@Param({"1000", "10000"})
+	public int units;
+
+	@Param({"100"})
+	public int roots;
+
+	@Param({"0", "16"})
+	public int cacheSize;
+
+	private PlannerFixture fixture;
+	private SimplePlanner planner;
+	private IProfile profile;
+	private ProvisioningContext context;
+
+	@Setup
+	public void setUp() throws IOException {
+		fixture = new PlannerFixture(units, roots);
+		planner = new SimplePlanner(fixture.agent, cacheSize);
+		Map<String, String> properties = new HashMap<>();
+		properties.put(IProfile.PROP_INSTALL_FOLDER, fixture.location.getAbsolutePath());
+		profile = new Profile(fixture.agent, "Benchmark", null, properties); //$NON-NLS-1$
+		context = new ProvisioningContext(fixture.agent) {
+			@Override
+			public IQueryable<IInstallableUnit> getMetadata(IProgressMonitor monitor) {
+				return fixture.repository;
+			}
+		};
+		IProvisioningPlan plan = plan();
+		if (!plan.getStatus().isOK())
+			throw new IllegalStateException(plan.getStatus().toString());
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		fixture.dispose();
+	}
+
+	@Benchmark
+	public IProvisioningPlan plan() {
+		ProfileChangeRequest request = new ProfileChangeRequest(profile);
+		request.add(fixture.root);
+		return planner.getProvisioningPlan(request, context, new NullProgressMonitor());
+	}
+}
@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.benchmarks.planner;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.equinox.internal.p2.core.ProvisioningAgent;
+import org.eclipse.equinox.p2.benchmarks.BenchmarkAgent;
+import org.eclipse.equinox.p2.benchmarks.SyntheticRepositories;
+import org.eclipse.equinox.p2.benchmarks.SyntheticUnits;
+import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+import org.eclipse.equinox.p2.repository.metadata.IMetadataRepository;
+
+/**
+ * The units the planner benchmarks resolve: a repository of synthetic bundles
+ * and a root unit that requires a number of them, the way a product requires
+ * its features.
+ */
+class PlannerFixture {
+	final File location;
+	final ProvisioningAgent agent;
+	final List<IInstallableUnit> units;
+	final IInstallableUnit root;
+	final IMetadataRepository repository;
+	final Map<String, String> context = new HashMap<>();
+
+	PlannerFixture(int count, int roots) throws IOException {
+		location = BenchmarkAgent.createTempDirectory("p2-planner"); //$NON-NLS-1$
+		agent = BenchmarkAgent.create(location);
+		SyntheticUnits generator = new SyntheticUnits(42);
+		units = new ArrayList<>(generator.generate(count));
+		root = generator.createRoot(roots);
+		units.add(root);
+		repository = SyntheticRepositories.createMetadataRepository(agent, new File(location, "repository").toURI(), units); //$NON-NLS-1$
+	}
+
+	void dispose() throws IOException {
+		agent.stop();
+		BenchmarkAgent.delete(location);
+	}
+}
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.benchmarks.planner;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.equinox.internal.p2.director.Projector;
+import org.eclipse.equinox.internal.p2.director.QueryableArray;
+import org.eclipse.equinox.internal.p2.director.Slicer;
+import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+import org.eclipse.equinox.p2.metadata.IRequirement;
+import org.eclipse.equinox.p2.metadata.MetadataFactory;
+import org.eclipse.equinox.p2.metadata.MetadataFactory.InstallableUnitDescription;
+import org.eclipse.equinox.p2.metadata.Version;
+import org.eclipse.equinox.p2.metadata.VersionRange;
+import org.eclipse.equinox.p2.query.IQueryable;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Encodes the slice of the root unit into a SAT problem, and solves the
+ * encoded problem. The slice is computed once, so that the benchmarks measure
+ * the projector only.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProjectorBenchmark {
+
+	@Param({"1000", "10000"})
+	public int units;
+
+	@Param({"100"})
+	public int roots;
+
+	private PlannerFixture fixture;
+	private IQueryable<IInstallableUnit> slice;
+	private IInstallableUnit entryPoint;
+	private final IQueryable<IInstallableUnit> installed = new QueryableArray(List.of());
+	private Projector encoded;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		fixture = new PlannerFixture(units, roots);
+		Slicer slicer = new Slicer(fixture.repository, fixture.context, false);
+		slice = slicer.slice(List.of(fixture.root), new NullProgressMonitor());
+		if (slice == null)
+			throw new IllegalStateException(slicer.getStatus().toString());
+		// The unit the planner creates to represent the requested profile
+		InstallableUnitDescription description = new InstallableUnitDescription();
+		description.setId("benchmark.profile"); //$NON-NLS-1$
+		description.setVersion(Version.createOSGi(0, 0, 0));
+		description.setRequirements(new IRequirement[] {MetadataFactory.createRequirement(IInstallableUnit.NAMESPACE_IU_ID, fixture.root.getId(), new VersionRange(fixture.root.getVersion(), true, fixture.root.getVersion(), true), null, false, false)});
+		entryPoint = MetadataFactory.createInstallableUnit(description);
+		IStatus status = encode().invokeSolver(new NullProgressMonitor());
+		if (!status.isOK())
+			throw new IllegalStateException(status.toString());
+	}
+
+	@Setup(Level.Invocation)
+	public void encodeForSolve() {
+		encoded = encode();
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		fixture.dispose();
+	}
+
+	@Benchmark
+	public Projector encode() {
+		Projector projector = new Projector(slice, fixture.context, Set.of(), false);
+		projector.encode(entryPoint, new IInstallableUnit[0], installed, List.of(fixture.root), new NullProgressMonitor());
+		return projector;
+	}
+
+	/**
+	 * Solves a freshly encoded problem. The encoding happens in an invocation
+	 * level setup, which JMH excludes from the measured time.
+	 */
+	@Benchmark
+	public IStatus invokeSolver() {
+		return encoded.invokeSolver(new NullProgressMonitor());
+	}
+}
@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.benchmarks.planner;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.equinox.internal.p2.director.Slicer;
+import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+import org.eclipse.equinox.p2.query.IQueryable;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Slices the units reachable from the root unit out of the repository,
+ * sequentially and with several threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SlicerBenchmark {
+
+	@Param({"1000", "10000", "100000", "200000"})
+	public int units;
+
+	@Param({"100"})
+	public int roots;
+
+	@Param({"1", "4"})
+	public int threads;
+
+	private PlannerFixture fixture;
+
+	@Setup
+	public void setUp() throws IOException {
+		fixture = new PlannerFixture(units, roots);
+		Slicer slicer = createSlicer();
+		if (slice(slicer) == null)
+			throw new IllegalStateException(slicer.getStatus().toString());
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		fixture.dispose();
+	}
+
+	@Benchmark
+	public IQueryable<IInstallableUnit> slice() {
+		return slice(createSlicer());
+	}
+
+	private Slicer createSlicer() {
+		Slicer slicer = new Slicer(fixture.repository, fixture.context, false);
+		slicer.setThreads(threads);
+		return slicer;
+	}
+
+	private IQueryable<IInstallableUnit> slice(Slicer slicer) {
+		return slicer.slice(List.of(fixture.root), new NullProgressMonitor());
+	}
+}
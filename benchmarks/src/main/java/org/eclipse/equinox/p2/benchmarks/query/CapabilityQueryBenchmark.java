@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.benchmarks.query;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.equinox.internal.p2.core.ProvisioningAgent;
+import org.eclipse.equinox.p2.benchmarks.BenchmarkAgent;
+import org.eclipse.equinox.p2.benchmarks.SyntheticRepositories;
+import org.eclipse.equinox.p2.benchmarks.SyntheticUnits;
+import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+import org.eclipse.equinox.p2.metadata.IRequirement;
+import org.eclipse.equinox.p2.query.IQuery;
+import org.eclipse.equinox.p2.query.IQueryResult;
+import org.eclipse.equinox.p2.query.QueryUtil;
+import org.eclipse.equinox.p2.repository.metadata.IMetadataRepository;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Queries a metadata repository the way the slicer and the UI do. The
+ * requirement and id queries are answered through the indexes of the
+ * repository, the latest query has to look at every unit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CapabilityQueryBenchmark {
+	// a power of two, to pick the next query with a mask
+	private static final int QUERIES = 1024;
+
+	@Param({"1000", "10000", "100000", "200000"})
+	public int units;
+
+	private File location;
+	private ProvisioningAgent agent;
+	private IMetadataRepository repository;
+	private final List<IQuery<IInstallableUnit>> requirementQueries = new ArrayList<>(QUERIES);
+	private final List<IQuery<IInstallableUnit>> idQueries = new ArrayList<>(QUERIES);
+	private int next;
+
+	@Setup
+	public void setUp() throws IOException {
+		location = BenchmarkAgent.createTempDirectory("p2-query"); //$NON-NLS-1$
+		agent = BenchmarkAgent.create(location);
+		SyntheticUnits generator = new SyntheticUnits(42);
+		List<IInstallableUnit> ius = generator.generate(units);
+		repository = SyntheticRepositories.createMetadataRepository(agent, location.toURI(), ius);
+		requirementQueries.clear();
+		idQueries.clear();
+		for (int i = 0; i < QUERIES; i++) {
+			IRequirement requirement = generator.randomPackageRequirement(generator.getBundleCount());
+			requirementQueries.add(QueryUtil.createMatchQuery(requirement.getMatches()));
+			idQueries.add(QueryUtil.createIUQuery(ius.get((i * 7919) % ius.size()).getId()));
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		agent.stop();
+		BenchmarkAgent.delete(location);
+	}
+
+	@Benchmark
+	public IQueryResult<IInstallableUnit> providers() {
+		return repository.query(requirementQueries.get(next++ & (QUERIES - 1)), null);
+	}
+
+	@Benchmark
+	public IQueryResult<IInstallableUnit> byId() {
+		return repository.query(idQueries.get(next++ & (QUERIES - 1)), null);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public IQueryResult<IInstallableUnit> latest() {
+		return repository.query(QueryUtil.createLatestIUQuery(), null);
+	}
+}
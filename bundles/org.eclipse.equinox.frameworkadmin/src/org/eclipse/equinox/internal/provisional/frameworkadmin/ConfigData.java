@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2007, 2019 IBM Corporation and others.
+ *  Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -21,6 +21,8 @@ import org.eclipse.equinox.frameworkadmin.BundleInfo;
  * This object is instantiated by {@link Manipulator#getConfigData()}; The class
  * that keeps some parameters of the {@link Manipulator} created this object.
  * The manipulating of the parameters will affect the {@link Manipulator}.
+ * The methods of this object can be called from several threads, as the
+ * provisioning engine does when it installs several bundles at the same time.
  * 
  * @see Manipulator
  */
@@ -44,15 +46,15 @@ public class ConfigData {
 		this.initialize();
 	}
 
-	public void addBundle(BundleInfo bundleInfo) {
+	public synchronized void addBundle(BundleInfo bundleInfo) {
 		bundlesList.add(bundleInfo);
 	}
 
-	public int getBeginingFwStartLevel() {
+	public synchronized int getBeginingFwStartLevel() {
 		return beginningFwStartLevel;
 	}
 
-	public BundleInfo[] getBundles() {
+	public synchronized BundleInfo[] getBundles() {
 		if (bundlesList.size() == 0)
 			return new BundleInfo[0];
 		BundleInfo[] ret = new BundleInfo[bundlesList.size()];
@@ -60,11 +62,11 @@ public class ConfigData {
 		return ret;
 	}
 
-	public String getProperty(String key) {
+	public synchronized String getProperty(String key) {
 		return properties.getProperty(key);
 	}
 
-	public Properties getProperties() {
+	public synchronized Properties getProperties() {
 		Properties ret = new Properties();
 		ret.putAll(properties);
 		return ret;
@@ -78,7 +80,7 @@ public class ConfigData {
 		return fwVersion;
 	}
 
-	public int getInitialBundleStartLevel() {
+	public synchronized int getInitialBundleStartLevel() {
 		return initialBundleStartLevel;
 	}
 
@@ -90,7 +92,7 @@ public class ConfigData {
 		return launcherVersion;
 	}
 
-	public void initialize() {
+	public synchronized void initialize() {
 		beginningFwStartLevel = BundleInfo.NO_LEVEL;
 		initialBundleStartLevel = BundleInfo.NO_LEVEL;
 		bundlesList.clear();
@@ -98,45 +100,45 @@ public class ConfigData {
 		properties.clear();
 	}
 
-	public boolean removeBundle(BundleInfo bundleInfo) {
+	public synchronized boolean removeBundle(BundleInfo bundleInfo) {
 		if (bundleInfo == null)
 			throw new IllegalArgumentException("Bundle info can't be null:" + bundleInfo); //$NON-NLS-1$
 		return bundlesList.remove(bundleInfo);
 	}
 
-	public void setBeginningFwStartLevel(int startLevel) {
+	public synchronized void setBeginningFwStartLevel(int startLevel) {
 		beginningFwStartLevel = startLevel;
 	}
 
-	public void setBundles(BundleInfo[] bundleInfos) {
+	public synchronized void setBundles(BundleInfo[] bundleInfos) {
 		bundlesList.clear();
 		if (bundleInfos != null)
 			for (BundleInfo bundleInfo : bundleInfos)
 				bundlesList.add(bundleInfo);
 	}
 
-	public void setProperty(String key, String value) {
+	public synchronized void setProperty(String key, String value) {
 		if (value == null)
 			properties.remove(key);
 		else
 			properties.setProperty(key, value);
 	}
 
-	public void appendProperties(Properties props) {
+	public synchronized void appendProperties(Properties props) {
 		properties.putAll(props);
 	}
 
-	public void setProperties(Properties props) {
+	public synchronized void setProperties(Properties props) {
 		properties.clear();
 		properties.putAll(props);
 	}
 
-	public void setInitialBundleStartLevel(int startLevel) {
+	public synchronized void setInitialBundleStartLevel(int startLevel) {
 		initialBundleStartLevel = startLevel;
 	}
 
 	@Override
-	public String toString() {
+	public synchronized String toString() {
 		StringBuilder sb = new StringBuilder();
 		sb.append("Class:" + getClass().getName() + "\n"); //$NON-NLS-1$ //$NON-NLS-2$
 		sb.append("============Independent===============\n"); //$NON-NLS-1$
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015, 2022 Mykola Nikishov and others.
+ * Copyright (c) 2015, 2026 Mykola Nikishov and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -32,6 +32,7 @@ import org.eclipse.osgi.util.NLS;
 public class ChecksumUtilities {
 
 	private static final String ARTIFACT_CHECKSUMS_POINT = "org.eclipse.equinox.p2.artifact.repository.artifactChecksums"; //$NON-NLS-1$
+	private static final int BUFFER_SIZE = 64 * 1024;
 
 	/**
 	 * Instances of checksum verifiers applicable for the artifact descriptor
@@ -129,17 +130,15 @@ public class ChecksumUtilities {
 		if (digestMap.isEmpty()) {
 			return status;
 		}
-		try {
-			// chain all streams together
-			InputStream stream = new FileInputStream(pathOnDisk);
-			try {
-				for (MessageDigest md : digestMap.values()) {
-					stream = new DigestInputStream(stream, md);
+		MessageDigest[] digests = digestMap.values().toArray(new MessageDigest[digestMap.size()]);
+		try (InputStream stream = new FileInputStream(pathOnDisk)) {
+			// read the file once, handing each block to all digests
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int read;
+			while ((read = stream.read(buffer)) >= 0) {
+				for (MessageDigest digest : digests) {
+					digest.update(buffer, 0, read);
 				}
-				// read all bytes and discard them
-				stream.transferTo(OutputStream.nullOutputStream());
-			} finally {
-				stream.close();
 			}
 			// now all digest contains the required data
 			for (var entry : digestMap.entrySet()) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018, 2018 Mykola Nikishov.
+ * Copyright (c) 2018, 2026 Mykola Nikishov and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -40,6 +40,17 @@ public abstract class MessageDigestProcessingStep extends ProcessingStep {
 		buffer.put((byte) b);
 	}
 
+	@Override
+	public final void write(byte[] b, int off, int len) throws IOException {
+		getDestination().write(b, off, len);
+
+		// digest the given array directly rather than copying it into the buffer
+		if (buffer.position() > 0) {
+			processBufferredBytes();
+		}
+		messageDigest.update(b, off, len);
+	}
+
 	private void processBufferredBytes() {
 		buffer.flip();
 		updateDigest();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015, 2018 Mykola Nikishov.
+ * Copyright (c) 2015, 2026 Mykola Nikishov and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -22,6 +22,7 @@ public class Messages extends NLS {
 	public static String Error_invalid_checksum;
 	public static String Error_checksum_unavailable;
 	public static String Error_unexpected_checksum;
+	public static String verification_results;
 
 	static {
 		// initialize resource bundle
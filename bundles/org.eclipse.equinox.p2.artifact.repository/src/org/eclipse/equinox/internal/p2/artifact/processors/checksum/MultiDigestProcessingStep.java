@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.artifact.processors.checksum;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.core.runtime.*;
+import org.eclipse.equinox.internal.p2.artifact.processors.pgp.PGPSignatureVerifier;
+import org.eclipse.equinox.internal.p2.artifact.repository.Activator;
+import org.eclipse.equinox.internal.provisional.p2.artifact.repository.processing.ProcessingStep;
+
+/**
+ * A processing step feeding the data written to it once to several verifying
+ * steps, such as {@link ChecksumVerifier}s and the {@link PGPSignatureVerifier},
+ * and passing it on unchanged. Chained, every verifier would pass each block on
+ * to the next one; fused, the block is written once to the destination and
+ * handed to each verifier as is.
+ * <p>
+ * The verifiers are linked to a stream that discards the data and, when the
+ * destination of this step is adaptable, adapts to what it adapts to, so that
+ * a verifier updating the descriptor of the destination artifact still finds
+ * it. The status of this step combines the statuses of the verifiers.
+ * </p>
+ * <p>
+ * Fusing can be disabled by setting the system property {@value #PROP_FUSE}
+ * to <code>false</code>.
+ * </p>
+ * @noreference This class is not intended to be referenced by clients.
+ */
+public final class MultiDigestProcessingStep extends ProcessingStep {
+	public static final String PROP_FUSE = "eclipse.p2.artifact.fuseVerifiers"; //$NON-NLS-1$
+
+	private final ProcessingStep[] verifiers;
+
+	public MultiDigestProcessingStep(ProcessingStep... verifiers) {
+		this.verifiers = verifiers;
+	}
+
+	/**
+	 * Returns whether the given step only computes information about the data
+	 * written to it, without transforming it, and so can be fused.
+	 */
+	public static boolean canFuse(ProcessingStep step) {
+		return step instanceof MessageDigestProcessingStep || step instanceof PGPSignatureVerifier;
+	}
+
+	/**
+	 * Replaces each run of consecutive steps that can be fused by a single
+	 * step. The other steps are kept in place, so that the verifiers still see
+	 * the data as transformed by the steps before them.
+	 *
+	 * @param steps the steps, the first one being written to first
+	 * @return the given steps if none can be fused, the fused steps otherwise
+	 */
+	public static ProcessingStep[] fuse(ProcessingStep[] steps) {
+		if (steps.length < 2 || "false".equalsIgnoreCase(System.getProperty(PROP_FUSE))) //$NON-NLS-1$
+			return steps;
+		List<ProcessingStep> result = new ArrayList<>(steps.length);
+		List<ProcessingStep> run = new ArrayList<>();
+		for (ProcessingStep step : steps) {
+			if (canFuse(step)) {
+				run.add(step);
+				continue;
+			}
+			addRun(result, run);
+			result.add(step);
+		}
+		addRun(result, run);
+		return result.size() == steps.length ? steps : result.toArray(new ProcessingStep[result.size()]);
+	}
+
+	private static void addRun(List<ProcessingStep> result, List<ProcessingStep> run) {
+		if (run.size() == 1)
+			result.add(run.get(0));
+		else if (run.size() > 1)
+			result.add(new MultiDigestProcessingStep(run.toArray(new ProcessingStep[run.size()])));
+		run.clear();
+	}
+
+	/**
+	 * Returns the verifiers fused by this step.
+	 */
+	public ProcessingStep[] getVerifiers() {
+		return verifiers.clone();
+	}
+
+	@Override
+	public void link(OutputStream destination, IProgressMonitor monitor) {
+		super.link(destination, monitor);
+		OutputStream sink = destination instanceof IAdaptable ? new AdaptableSink() : OutputStream.nullOutputStream();
+		for (ProcessingStep verifier : verifiers)
+			verifier.link(sink, monitor);
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		getDestination().write(b);
+		for (ProcessingStep verifier : verifiers)
+			verifier.write(b);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		getDestination().write(b, off, len);
+		for (ProcessingStep verifier : verifiers)
+			verifier.write(b, off, len);
+	}
+
+	@Override
+	public void close() throws IOException {
+		IOException failure = null;
+		for (ProcessingStep verifier : verifiers) {
+			try {
+				verifier.close();
+			} catch (IOException e) {
+				if (failure == null)
+					failure = e;
+			}
+		}
+		super.close();
+		if (failure != null)
+			throw failure;
+	}
+
+	@Override
+	public IStatus getStatus() {
+		List<IStatus> problems = new ArrayList<>();
+		IStatus own = super.getStatus();
+		if (!own.isOK())
+			problems.add(own);
+		for (ProcessingStep verifier : verifiers) {
+			IStatus status = verifier.getStatus();
+			if (!status.isOK())
+				problems.add(status);
+		}
+		if (problems.isEmpty())
+			return Status.OK_STATUS;
+		if (problems.size() == 1)
+			return problems.get(0);
+		return new MultiStatus(Activator.ID, 0, problems.toArray(new IStatus[problems.size()]), Messages.verification_results, null);
+	}
+
+	/**
+	 * The destination of the fused verifiers when the destination of the fused
+	 * step is adaptable. It discards the data, which has already been written
+	 * to the destination of the fused step.
+	 */
+	private final class AdaptableSink extends OutputStream implements IAdaptable {
+		@Override
+		public void write(int b) {
+			// already written to the destination
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			// already written to the destination
+		}
+
+		@Override
+		public <T> T getAdapter(Class<T> adapter) {
+			return ((IAdaptable) getDestination()).getAdapter(adapter);
+		}
+	}
+}
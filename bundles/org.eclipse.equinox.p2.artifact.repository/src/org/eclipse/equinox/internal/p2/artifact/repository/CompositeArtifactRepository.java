@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2017 IBM Corporation and others.
+ * Copyright (c) 2008, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -23,6 +23,8 @@ import org.eclipse.core.runtime.*;
 import org.eclipse.equinox.internal.p2.core.helpers.LogHelper;
 import org.eclipse.equinox.internal.p2.persistence.CompositeRepositoryIO;
 import org.eclipse.equinox.internal.p2.persistence.CompositeRepositoryState;
+import org.eclipse.equinox.internal.p2.repository.helpers.CompositeChildLoader;
+import org.eclipse.equinox.internal.p2.repository.helpers.CompositeChildLoader.ChildResult;
 import org.eclipse.equinox.internal.p2.repository.helpers.RepositoryHelper;
 import org.eclipse.equinox.p2.core.IProvisioningAgent;
 import org.eclipse.equinox.p2.core.ProvisionException;
@@ -45,6 +47,8 @@ public class CompositeArtifactRepository extends AbstractArtifactRepository impl
 
 	static final public boolean ATOMIC_LOADING_DEFAULT = Boolean.parseBoolean(Activator.getContext().getProperty("eclipse.p2.atomic.composite.loading.default")); //$NON-NLS-1$
 
+	static final private String LOADING_THREADS_DEFAULT = Activator.getContext().getProperty(CompositeChildLoader.PROP_LOADING_THREADS_DEFAULT);
+
 	// keep a list of the child URIs. they can be absolute or relative. they may or may not point
 	// to a valid reachable repo
 	private List<URI> childrenURIs = new ArrayList<>();
@@ -75,6 +79,11 @@ public class CompositeArtifactRepository extends AbstractArtifactRepository impl
 		SubMonitor sub = SubMonitor.convert(monitor, 100 * state.getChildren().length);
 		List<URI> repositoriesToBeRemovedOnFailure = new ArrayList<>();
 		boolean failOnChildFailure = shouldFailOnChildFailure(state);
+		int threads = CompositeChildLoader.getLoadingThreads(state.getProperties(), LOADING_THREADS_DEFAULT);
+		if (threads > 1 && state.getChildren().length > 1) {
+			addChildren(state.getChildren(), threads, sub, failOnChildFailure, repositoriesToBeRemovedOnFailure);
+			return;
+		}
 		for (URI child : state.getChildren())
 			addChild(child, false, sub.newChild(100), failOnChildFailure, repositoriesToBeRemovedOnFailure);
 	}
@@ -169,6 +178,46 @@ public class CompositeArtifactRepository extends AbstractArtifactRepository impl
 		}
 	}
 
+	/*
+	 * Loads the given children concurrently. The children are added to this composite in the given
+	 * order, regardless of the order in which their loads complete.
+	 */
+	private void addChildren(URI[] children, int threads, IProgressMonitor monitor, boolean propagateException, List<URI> repositoriesToBeRemovedOnFailure) throws ProvisionException {
+		List<URI> toLoad = new ArrayList<>(children.length);
+		for (URI childURI : children) {
+			URI absolute = URIUtil.makeAbsolute(childURI, getLocation());
+			if (childrenURIs.contains(childURI) || childrenURIs.contains(absolute))
+				continue;
+			childrenURIs.add(childURI);
+			toLoad.add(absolute);
+		}
+		List<ChildResult<LoadedChild>> results = CompositeChildLoader.loadChildren(toLoad, threads, propagateException, (child, childMonitor) -> {
+			boolean currentLoaded = getManager().contains(child);
+			return new LoadedChild(load(child, childMonitor), currentLoaded);
+		}, monitor);
+		ProvisionException failure = null;
+		for (ChildResult<LoadedChild> result : results) {
+			if (result.repository() != null) {
+				if (!result.repository().previouslyLoaded() && propagateException)
+					repositoriesToBeRemovedOnFailure.add(result.child());
+				loadedRepos.add(new ChildInfo(result.repository().repository()));
+			} else if (result.failure() != null) {
+				//repository failed to load. fall through
+				LogHelper.log(result.failure());
+				if (failure == null)
+					failure = result.failure();
+			}
+		}
+		if (failure != null && propagateException) {
+			removeFromRepoManager(repositoriesToBeRemovedOnFailure);
+			String msg = NLS.bind(Messages.io_failedRead, getLocation());
+			throw new ProvisionException(new Status(IStatus.ERROR, Activator.ID, ProvisionException.REPOSITORY_FAILED_READ, msg, failure));
+		}
+	}
+
+	private record LoadedChild(IArtifactRepository repository, boolean previouslyLoaded) {
+	}
+
 	//	public boolean addChild(URI childURI, String comparatorID) {
 	//		try {
 	//			IArtifactRepository repo = load(childURI);
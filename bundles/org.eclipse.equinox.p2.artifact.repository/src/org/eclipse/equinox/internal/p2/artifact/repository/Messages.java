@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2018 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -27,6 +27,7 @@ public class Messages extends NLS {
 	public static String io_failedWrite;
 	public static String io_incompatibleVersion;
 	public static String io_invalidLocation;
+	public static String io_journalFailedRead;
 	public static String SignatureVerification_failedRead;
 	public static String SignatureVerification_invalidContent;
 	public static String SignatureVerification_invalidFileContent;
@@ -0,0 +1,258 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.artifact.repository.simple;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+import org.eclipse.equinox.internal.p2.metadata.ArtifactKey;
+import org.eclipse.equinox.p2.metadata.IArtifactKey;
+import org.eclipse.equinox.p2.metadata.Version;
+import org.eclipse.equinox.p2.repository.artifact.IProcessingStepDescriptor;
+import org.eclipse.equinox.p2.repository.artifact.spi.ProcessingStepDescriptor;
+
+/**
+ * An append-only log of the descriptors added to and removed from a
+ * {@link SimpleArtifactRepository} since its index was last written in full.
+ * Appending a change costs the size of the change rather than the size of the
+ * repository; loading the repository replays the log over the index.
+ * <p>
+ * Each record carries its length and checksum, so a record torn by a crash
+ * while it was appended is detected when reading. The log is only read up to
+ * the first invalid record, which is cut off before anything else is appended.
+ * Replaying a record whose change is already in the index has no effect, so
+ * the log stays valid if a crash happens after the index has been written in
+ * full but before the log has been deleted.
+ * </p>
+ */
+class DescriptorJournal {
+	static final String FILE_NAME = SimpleArtifactRepository.CONTENT_FILENAME + ".journal"; //$NON-NLS-1$
+
+	private static final int MAGIC = 0x50324a4c; // "P2JL"
+	private static final int VERSION = 1;
+	private static final int HEADER_LENGTH = 8;
+	private static final byte ADD = 1;
+	private static final byte REMOVE = 2;
+
+	/**
+	 * A change recorded in the log.
+	 */
+	record Entry(boolean added, SimpleArtifactDescriptor descriptor) {
+		// the descriptor was added, or removed
+	}
+
+	private final File file;
+	/** The length of the file when last read or written by this journal, -1 if unknown. */
+	private long knownLength = -1;
+	private long knownModified;
+	/** The length of the valid records, header included. */
+	private long validLength;
+	private int size;
+
+	DescriptorJournal(File file) {
+		this.file = file;
+	}
+
+	File getFile() {
+		return file;
+	}
+
+	/**
+	 * Returns the number of records in the log.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Reads the valid records of the log, in the order they were appended.
+	 */
+	List<Entry> read() throws IOException {
+		List<Entry> entries = new ArrayList<>();
+		size = 0;
+		validLength = 0;
+		knownLength = file.length();
+		knownModified = file.lastModified();
+		if (!file.isFile())
+			return entries;
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (knownLength < HEADER_LENGTH || input.readInt() != MAGIC || input.readInt() != VERSION)
+				return entries;
+			validLength = HEADER_LENGTH;
+			long position = HEADER_LENGTH;
+			CRC32 crc = new CRC32();
+			while (position + 8 <= knownLength) {
+				int length = input.readInt();
+				int checksum = input.readInt();
+				if (length <= 0 || position + 8 + length > knownLength)
+					break;
+				byte[] payload = new byte[length];
+				input.readFully(payload);
+				crc.reset();
+				crc.update(payload);
+				if ((int) crc.getValue() != checksum)
+					break;
+				Entry entry = decode(payload);
+				if (entry == null)
+					break;
+				entries.add(entry);
+				position += 8 + length;
+				validLength = position;
+				size++;
+			}
+		}
+		return entries;
+	}
+
+	/**
+	 * Appends the given changes to the log and forces them to the disk.
+	 */
+	void append(Collection<SimpleArtifactDescriptor> added, Collection<SimpleArtifactDescriptor> removed) throws IOException {
+		if (added.isEmpty() && removed.isEmpty())
+			return;
+		// another process may have appended to or compacted the log
+		if (knownLength < 0 || file.length() != knownLength || file.lastModified() != knownModified)
+			read();
+		ByteArrayOutputStream records = new ByteArrayOutputStream();
+		DataOutputStream output = new DataOutputStream(records);
+		for (SimpleArtifactDescriptor descriptor : removed)
+			writeRecord(output, REMOVE, descriptor);
+		for (SimpleArtifactDescriptor descriptor : added)
+			writeRecord(output, ADD, descriptor);
+		output.flush();
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+			long position = validLength;
+			if (position < HEADER_LENGTH) {
+				ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH).putInt(MAGIC).putInt(VERSION).flip();
+				channel.truncate(0);
+				while (header.hasRemaining())
+					channel.write(header, header.position());
+				position = HEADER_LENGTH;
+			} else if (channel.size() > position) {
+				// cut off a record torn by a crash
+				channel.truncate(position);
+			}
+			ByteBuffer buffer = ByteBuffer.wrap(records.toByteArray());
+			while (buffer.hasRemaining())
+				position += channel.write(buffer, position);
+			channel.force(false);
+			validLength = position;
+		}
+		knownLength = file.length();
+		knownModified = file.lastModified();
+		size += removed.size() + added.size();
+	}
+
+	/**
+	 * Deletes the log, once its changes have been written to the index.
+	 */
+	void delete() {
+		file.delete();
+		knownLength = -1;
+		validLength = 0;
+		size = 0;
+	}
+
+	private static void writeRecord(DataOutputStream output, byte type, SimpleArtifactDescriptor descriptor) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream payload = new DataOutputStream(bytes);
+		payload.writeByte(type);
+		IArtifactKey key = descriptor.getArtifactKey();
+		writeString(payload, key.getClassifier());
+		writeString(payload, key.getId());
+		writeString(payload, key.getVersion().toString());
+		writeMap(payload, descriptor.getProperties());
+		writeMap(payload, descriptor.getRepositoryProperties());
+		IProcessingStepDescriptor[] steps = descriptor.getProcessingSteps();
+		payload.writeInt(steps.length);
+		for (IProcessingStepDescriptor step : steps) {
+			writeString(payload, step.getProcessorId());
+			writeNullable(payload, step.getData());
+			payload.writeBoolean(step.isRequired());
+		}
+		payload.flush();
+
+		CRC32 crc = new CRC32();
+		crc.update(bytes.toByteArray());
+		output.writeInt(bytes.size());
+		output.writeInt((int) crc.getValue());
+		bytes.writeTo(output);
+	}
+
+	private static Entry decode(byte[] payload) throws IOException {
+		DataInputStream input = new DataInputStream(new ByteArrayInputStream(payload));
+		byte type = input.readByte();
+		if (type != ADD && type != REMOVE)
+			return null;
+		try {
+			SimpleArtifactDescriptor descriptor = new SimpleArtifactDescriptor(new ArtifactKey(readString(input), readString(input), Version.create(readString(input))));
+			descriptor.addProperties(readMap(input));
+			descriptor.addRepositoryProperties(readMap(input));
+			IProcessingStepDescriptor[] steps = new IProcessingStepDescriptor[input.readInt()];
+			for (int i = 0; i < steps.length; i++)
+				steps[i] = new ProcessingStepDescriptor(readString(input), readNullable(input), input.readBoolean());
+			descriptor.setProcessingSteps(steps);
+			return new Entry(type == ADD, descriptor);
+		} catch (IllegalArgumentException | EOFException e) {
+			return null;
+		}
+	}
+
+	private static void writeMap(DataOutputStream output, Map<String, String> map) throws IOException {
+		output.writeInt(map.size());
+		for (Map.Entry<String, String> entry : map.entrySet()) {
+			writeString(output, entry.getKey());
+			writeNullable(output, entry.getValue());
+		}
+	}
+
+	private static Map<String, String> readMap(DataInputStream input) throws IOException {
+		int size = input.readInt();
+		Map<String, String> map = new LinkedHashMap<>();
+		for (int i = 0; i < size; i++)
+			map.put(readString(input), readNullable(input));
+		return map;
+	}
+
+	private static void writeNullable(DataOutputStream output, String value) throws IOException {
+		output.writeBoolean(value != null);
+		if (value != null)
+			writeString(output, value);
+	}
+
+	private static String readNullable(DataInputStream input) throws IOException {
+		return input.readBoolean() ? readString(input) : null;
+	}
+
+	// unlike writeUTF, not limited to 64k, as some properties hold whole keys
+	private static void writeString(DataOutputStream output, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		output.writeInt(bytes.length);
+		output.write(bytes);
+	}
+
+	private static String readString(DataInputStream input) throws IOException {
+		int length = input.readInt();
+		if (length < 0 || length > input.available())
+			throw new EOFException();
+		byte[] bytes = new byte[length];
+		input.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2018 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -84,6 +84,24 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 	 */
 	public static final String PROP_FORCE_THREADING = "eclipse.p2.force.threading"; //$NON-NLS-1$
 
+	/**
+	 * The key for a boolean property that makes concurrent downloads run on
+	 * virtual threads instead of jobs, when the VM provides them. Set on the
+	 * agent, it also makes the engine's download scheduler, which asks the
+	 * repositories for one artifact at a time, download on virtual threads.
+	 */
+	public static final String PROP_VIRTUAL_THREADS = "eclipse.p2.virtual.threads"; //$NON-NLS-1$
+
+	/**
+	 * The key for a boolean property that makes the descriptors added to and
+	 * removed from a local repository be appended to a journal next to its index
+	 * rather than rewriting the whole index. The index is written in full once
+	 * the journal holds {@value #JOURNAL_COMPACTION_THRESHOLD} changes.
+	 */
+	public static final String PROP_JOURNAL = "eclipse.p2.journal"; //$NON-NLS-1$
+
+	private static final int JOURNAL_COMPACTION_THRESHOLD = 1000;
+
 	/**
 	 * Location of the repository lock
 	 */
@@ -264,6 +282,11 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 	private static final String XML_EXTENSION = ".xml"; //$NON-NLS-1$
 	protected Set<SimpleArtifactDescriptor> artifactDescriptors = new HashSet<>();
 	private Set<SimpleArtifactDescriptor> addedDescriptors = new HashSet<>();
+	/**
+	 * The descriptors added (true) or removed (false) since the index was last saved.
+	 */
+	private Map<SimpleArtifactDescriptor, Boolean> unsavedDescriptors = new LinkedHashMap<>();
+	private transient DescriptorJournal journal;
 	/**
 	 * Map<IArtifactKey,List<IArtifactDescriptor>> containing the index of artifacts in the repository.
 	 */
@@ -275,6 +298,8 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 
 	private static final int DEFAULT_MAX_THREADS = 4;
 
+	private static final int DEFAULT_MAX_VIRTUAL_THREADS = 64;
+
 	protected String[][] mappingRules = DEFAULT_MAPPING_RULES;
 
 	private MirrorSelector mirrors;
@@ -321,6 +346,7 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 	private synchronized void mapDescriptor(SimpleArtifactDescriptor descriptor, boolean added) {
 		if (added) {
 			addedDescriptors.add(descriptor);
+			unsavedDescriptors.put(descriptor, Boolean.TRUE);
 		}
 		IArtifactKey key = descriptor.getArtifactKey();
 		if (snapshotNeeded) {
@@ -338,6 +364,8 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 
 	private synchronized void unmapDescriptor(IArtifactDescriptor descriptor) {
 		addedDescriptors.remove(descriptor);
+		if (descriptor instanceof SimpleArtifactDescriptor simple)
+			unsavedDescriptors.put(simple, Boolean.FALSE);
 		IArtifactKey key = descriptor.getArtifactKey();
 		List<IArtifactDescriptor> descriptors = artifactMap.get(key);
 		if (descriptors == null)
@@ -398,7 +426,7 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 			SimpleArtifactDescriptor internalDescriptor = createInternalDescriptor(toAdd);
 			artifactDescriptors.add(internalDescriptor);
 			mapDescriptor(internalDescriptor, true);
-			save();
+			saveDescriptors();
 		} finally {
 			if (lockAcquired)
 				unlock();
@@ -444,7 +472,7 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 				artifactDescriptors.add(internalDescriptor);
 				mapDescriptor(internalDescriptor, true);
 			}
-			save();
+			saveDescriptors();
 		} finally {
 			if (lockAcquired)
 				unlock();
@@ -912,6 +940,13 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 			} finally {
 				subMonitor.done();
 			}
+		} else if (isVirtualThreading()) {
+			monitor.beginTask(NLS.bind(Messages.sar_downloading, Integer.toString(requests.length)), requests.length);
+			try {
+				new VirtualThreadDownloader(this, getMaximumThreads(DEFAULT_MAX_VIRTUAL_THREADS)).download(requests, monitor, overallStatus);
+			} finally {
+				monitor.done();
+			}
 		} else {
 			// initialize the various jobs needed to process the get artifact requests
 			monitor.beginTask(NLS.bind(Messages.sar_downloading, Integer.toString(requests.length)), requests.length);
@@ -1008,7 +1043,11 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 	 */
 
 	private int getMaximumThreads() {
-		int maxThreads = DEFAULT_MAX_THREADS;
+		return getMaximumThreads(DEFAULT_MAX_THREADS);
+	}
+
+	private int getMaximumThreads(int defaultMaxThreads) {
+		int maxThreads = defaultMaxThreads;
 		try {
 			String maxThreadString = getAgentPropertyWithFallback(getProvisioningAgent(), PROP_MAX_THREADS);
 			if (maxThreadString != null)
@@ -1119,6 +1158,7 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 	// use this method to setup any transient fields etc after the object has been restored from a stream
 	public synchronized void initializeAfterLoad(URI repoLocation) {
 		this.initializeAfterLoad(repoLocation, true);
+		replayJournal();
 	}
 
 	private synchronized void initializeAfterLoad(URI repoLocation, boolean updateTimestamp) {
@@ -1170,6 +1210,19 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 		return TRUE.equals(getProperties().get(PROP_FORCE_THREADING));
 	}
 
+	/**
+	 * Returns whether concurrent downloads run on virtual threads.
+	 */
+	private boolean isVirtualThreading() {
+		if (!VirtualThreadDownloader.isSupported())
+			return false;
+		String property = getAgentPropertyWithFallback(getProvisioningAgent(), PROP_VIRTUAL_THREADS);
+		if (property != null) {
+			return TRUE.equals(property);
+		}
+		return TRUE.equals(getProperties().get(PROP_VIRTUAL_THREADS));
+	}
+
 	private boolean isLocal() {
 		return "file".equalsIgnoreCase(getLocation().getScheme()); //$NON-NLS-1$
 	}
@@ -1222,7 +1275,7 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 			}
 
 			if (doRemoveArtifact(descriptor))
-				save();
+				saveDescriptors();
 		} finally {
 			if (lockAcquired)
 				unlock();
@@ -1244,7 +1297,7 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 			for (IArtifactDescriptor descriptor : descriptors)
 				changed |= doRemoveArtifact(descriptor);
 			if (changed)
-				save();
+				saveDescriptors();
 		} finally {
 			if (lockAcquired)
 				unlock();
@@ -1275,7 +1328,7 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 					}
 			}
 			if (changed)
-				save();
+				saveDescriptors();
 		} finally {
 			if (lockAcquired)
 				unlock();
@@ -1298,7 +1351,7 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 			for (IArtifactDescriptor element : toRemove)
 				changed |= doRemoveArtifact(element);
 			if (changed)
-				save();
+				saveDescriptors();
 		} finally {
 			if (lockAcquired)
 				unlock();
@@ -1358,6 +1411,7 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 	private void save(boolean compress) {
 		assertModifiable();
 		OutputStream os = null;
+		boolean written = false;
 		try {
 			try {
 				URI actualLocation = getActualLocation(getLocation(), false);
@@ -1385,12 +1439,15 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 				}
 				super.setProperty(IRepository.PROP_TIMESTAMP, Long.toString(System.currentTimeMillis()), new NullProgressMonitor());
 				new SimpleArtifactRepositoryIO(getProvisioningAgent()).write(this, os);
+				written = true;
 			} catch (IOException e) {
 				// TODO proper exception handling
 				e.printStackTrace();
 			} finally {
 				if (os != null)
 					os.close();
+				if (written)
+					clearJournal();
 				updateTimestamp();
 			}
 		} catch (IOException e) {
@@ -1398,6 +1455,107 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 		}
 	}
 
+	/**
+	 * Saves the descriptors added and removed since the index was last saved,
+	 * appending them to the journal when enabled rather than writing the whole
+	 * index. The index is written in full instead when the journal has grown
+	 * large or cannot be written.
+	 */
+	private void saveDescriptors() {
+		if (disableSave)
+			return;
+		DescriptorJournal descriptorJournal = isJournaling() ? getJournal() : null;
+		if (descriptorJournal == null || descriptorJournal.size() + unsavedDescriptors.size() >= JOURNAL_COMPACTION_THRESHOLD) {
+			save();
+			return;
+		}
+		assertModifiable();
+		List<SimpleArtifactDescriptor> added = new ArrayList<>();
+		List<SimpleArtifactDescriptor> removed = new ArrayList<>();
+		for (Entry<SimpleArtifactDescriptor, Boolean> entry : unsavedDescriptors.entrySet())
+			(entry.getValue().booleanValue() ? added : removed).add(entry.getKey());
+		try {
+			descriptorJournal.append(added, removed);
+		} catch (IOException e) {
+			save();
+			return;
+		}
+		unsavedDescriptors.clear();
+		updateTimestamp();
+	}
+
+	private boolean isJournaling() {
+		String property = getAgentPropertyWithFallback(getProvisioningAgent(), PROP_JOURNAL);
+		if (property != null) {
+			return TRUE.equals(property);
+		}
+		return TRUE.equals(getProperties().get(PROP_JOURNAL));
+	}
+
+	/**
+	 * Returns the journal of this repository, or <code>null</code> if it is not local.
+	 */
+	private DescriptorJournal getJournal() {
+		if (!isLocal())
+			return null;
+		File folder = URIUtil.toFile(getLocation());
+		if (folder == null)
+			return null;
+		File file = new File(folder, DescriptorJournal.FILE_NAME);
+		if (journal == null || !journal.getFile().equals(file))
+			journal = new DescriptorJournal(file);
+		return journal;
+	}
+
+	/**
+	 * Applies the changes recorded in the journal since the index was last
+	 * written in full.
+	 */
+	private void replayJournal() {
+		DescriptorJournal descriptorJournal = getJournal();
+		if (descriptorJournal == null || !descriptorJournal.getFile().isFile())
+			return;
+		try {
+			for (DescriptorJournal.Entry entry : descriptorJournal.read()) {
+				SimpleArtifactDescriptor descriptor = entry.descriptor();
+				if (entry.added()) {
+					if (artifactDescriptors.add(descriptor)) {
+						descriptor.setRepository(this);
+						mapDescriptor(descriptor, false);
+					}
+				} else if (artifactDescriptors.remove(descriptor)) {
+					unmapDescriptor(descriptor);
+				}
+			}
+		} catch (IOException e) {
+			LogHelper.log(new Status(IStatus.WARNING, Activator.ID, NLS.bind(Messages.io_journalFailedRead, getLocation()), e));
+		}
+		unsavedDescriptors.clear();
+	}
+
+	/**
+	 * Forgets the changes recorded in the journal once the whole index has
+	 * been written.
+	 */
+	private void clearJournal() {
+		unsavedDescriptors.clear();
+		DescriptorJournal descriptorJournal = getJournal();
+		if (descriptorJournal != null)
+			descriptorJournal.delete();
+	}
+
+	/**
+	 * Returns when the given index file or the journal was last modified, so
+	 * that changes appended to the journal cause the repository to be reloaded.
+	 */
+	private long getLastModified(File localFile) {
+		long lastModified = localFile.lastModified();
+		DescriptorJournal descriptorJournal = getJournal();
+		if (descriptorJournal != null)
+			lastModified = Math.max(lastModified, descriptorJournal.getFile().lastModified());
+		return lastModified;
+	}
+
 	private String doSetProperty(String key, String newValue, IProgressMonitor monitor, boolean save) {
 		monitor = IProgressMonitor.nullSafe(monitor);
 		String oldValue = super.setProperty(key, newValue, new NullProgressMonitor());
@@ -1653,7 +1811,7 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 		try {
 			SimpleArtifactRepositoryFactory repositoryFactory = new SimpleArtifactRepositoryFactory();
 			File localFile = repositoryFactory.getLocalFile(getLocation(), new NullProgressMonitor());
-			long lastModified = localFile.lastModified();
+			long lastModified = getLastModified(localFile);
 			if (lastModified > 0)
 				cacheTimestamp = lastModified;
 		} catch (Exception e) {
@@ -1675,7 +1833,7 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 			SubMonitor subMonitor = SubMonitor.convert(monitor, 4);
 			try {
 				File localFile = repositoryFactory.getLocalFile(getLocation(), subMonitor.newChild(1));
-				long lastModified = localFile.lastModified();
+				long lastModified = getLastModified(localFile);
 				if (lastModified <= cacheTimestamp)
 					return;
 				cacheTimestamp = lastModified;
@@ -1712,6 +1870,7 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 				this.artifactDescriptors = ((SimpleArtifactRepository) repositoryOnDisk).artifactDescriptors;
 				this.artifactMap = ((SimpleArtifactRepository) repositoryOnDisk).artifactMap;
 				this.addedDescriptors.clear();
+				this.unsavedDescriptors.clear();
 			}
 		} finally {
 			monitor.done();
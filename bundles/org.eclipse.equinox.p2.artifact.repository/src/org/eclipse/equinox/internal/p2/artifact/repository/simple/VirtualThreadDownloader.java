@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.artifact.repository.simple;
+
+import java.util.concurrent.*;
+import org.eclipse.core.runtime.*;
+import org.eclipse.equinox.internal.p2.artifact.repository.Activator;
+import org.eclipse.equinox.internal.p2.core.helpers.ThreadPoolHelper;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactRequest;
+
+/**
+ * Performs the requests given to
+ * {@link SimpleArtifactRepository#getArtifacts(IArtifactRequest[], IProgressMonitor)}
+ * on one thread per request, which is a virtual thread when the runtime
+ * provides them. Unlike the {@link DownloadJob}s, a blocked download then does
+ * not hold a platform thread, so many more downloads can be in flight.
+ * <p>
+ * The downloads are scoped to the call: the calling thread starts them,
+ * reports the progress of each completed request and returns once all of
+ * them are done. After a cancellation no further request is started and the
+ * ones in flight see the cancellation through their monitor.
+ * </p>
+ */
+class VirtualThreadDownloader {
+	private static final long POLL_INTERVAL = 100;
+	private static final ThreadFactory VIRTUAL_THREADS = ThreadPoolHelper.newVirtualThreadFactory("download"); //$NON-NLS-1$
+
+	private final SimpleArtifactRepository repository;
+	private final int maxConcurrent;
+	private final ThreadFactory threadFactory;
+
+	VirtualThreadDownloader(SimpleArtifactRepository repository, int maxConcurrent) {
+		this(repository, maxConcurrent, VIRTUAL_THREADS);
+	}
+
+	VirtualThreadDownloader(SimpleArtifactRepository repository, int maxConcurrent, ThreadFactory threadFactory) {
+		this.repository = repository;
+		this.maxConcurrent = Math.max(1, maxConcurrent);
+		this.threadFactory = threadFactory;
+	}
+
+	/**
+	 * Returns whether the running VM provides virtual threads.
+	 */
+	static boolean isSupported() {
+		return VIRTUAL_THREADS != null;
+	}
+
+	/**
+	 * Gives each request a monitor that only follows the cancellation of the
+	 * caller's monitor. Progress is reported by the calling thread.
+	 */
+	private static class RequestMonitor extends NullProgressMonitor {
+		private final IProgressMonitor master;
+
+		RequestMonitor(IProgressMonitor master) {
+			this.master = master;
+		}
+
+		@Override
+		public boolean isCanceled() {
+			return super.isCanceled() || master.isCanceled();
+		}
+	}
+
+	void download(IArtifactRequest[] requests, IProgressMonitor monitor, MultiStatus overallStatus) {
+		BlockingQueue<IStatus> completed = new LinkedBlockingQueue<>();
+		IProgressMonitor requestMonitor = new RequestMonitor(monitor);
+		int started = 0;
+		int done = 0;
+		boolean interrupted = false;
+		try {
+			while (done < started || (started < requests.length && !monitor.isCanceled() && !interrupted)) {
+				while (started - done < maxConcurrent && started < requests.length && !monitor.isCanceled() && !interrupted) {
+					IArtifactRequest request = requests[started++];
+					threadFactory.newThread(() -> {
+						IStatus status = null;
+						try {
+							status = repository.getArtifact(request, requestMonitor);
+						} catch (RuntimeException | Error e) {
+							status = new Status(IStatus.ERROR, Activator.ID, e.getMessage(), e);
+						} finally {
+							completed.add(status != null ? status : Status.OK_STATUS);
+						}
+					}).start();
+				}
+				IStatus status;
+				try {
+					status = completed.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+				} catch (InterruptedException e) {
+					// stop starting downloads, but still wait for the ones in flight
+					interrupted = true;
+					continue;
+				}
+				if (status != null) {
+					done++;
+					monitor.worked(1);
+					if (!status.isOK())
+						overallStatus.add(status);
+				}
+			}
+		} finally {
+			if (interrupted)
+				Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
-* Copyright (c) 2007, 2018 compeople AG and others.
+* Copyright (c) 2007, 2026 compeople AG and others.
 *
 * This program and the accompanying materials
 * are made available under the terms of the Eclipse Public License 2.0
@@ -23,6 +23,7 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 import org.eclipse.core.runtime.*;
+import org.eclipse.equinox.internal.p2.artifact.processors.checksum.MultiDigestProcessingStep;
 import org.eclipse.equinox.internal.p2.artifact.repository.Activator;
 import org.eclipse.equinox.internal.p2.artifact.repository.simple.SimpleArtifactRepository.ArtifactOutputStream;
 import org.eclipse.equinox.internal.p2.core.helpers.LogHelper;
@@ -204,14 +205,24 @@ public class ProcessingStepHandler {
 		return link(steps, output, monitor);
 	}
 
+	/**
+	 * Links the given steps into a chain writing to the given output. Runs of
+	 * consecutive steps that only verify the data, such as checksum and PGP
+	 * signature verifiers, are fused into a single step so that each block of
+	 * data is handed to all of them at once.
+	 *
+	 * @return the first step of the chain, or the output if there are no steps
+	 * @see MultiDigestProcessingStep
+	 */
 	public OutputStream link(ProcessingStep[] steps, OutputStream output, IProgressMonitor monitor) {
+		ProcessingStep[] chain = MultiDigestProcessingStep.fuse(steps);
 		OutputStream previous = output;
-		for (int i = steps.length - 1; i >= 0; i--) {
-			ProcessingStep step = steps[i];
+		for (int i = chain.length - 1; i >= 0; i--) {
+			ProcessingStep step = chain[i];
 			step.link(previous, monitor);
 			previous = step;
 		}
-		if (steps.length == 0)
+		if (chain.length == 0)
 			return previous;
 		// now link the artifact stream to the first stream in the new chain 
 		ArtifactOutputStream lastLink = getArtifactStream(previous);
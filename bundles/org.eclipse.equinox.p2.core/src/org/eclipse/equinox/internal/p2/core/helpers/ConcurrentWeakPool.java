@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.core.helpers;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.eclipse.equinox.p2.core.IPool;
+
+/**
+ * An object pool backed by weak references that can be shared by concurrent
+ * threads. Unlike {@link org.eclipse.equinox.p2.core.WeakPool} it does not
+ * synchronize the lookups, holds a single weak reference per pooled object and
+ * counts the lookups that returned a pooled object (hits) and the ones that
+ * added the given object (misses).
+ */
+public final class ConcurrentWeakPool<T> implements IPool<T> {
+	private final ConcurrentHashMap<Object, Ref<T>> pool = new ConcurrentHashMap<>();
+	private final ReferenceQueue<T> queue = new ReferenceQueue<>();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * The weak reference to a pooled object, used as both key and value of the
+	 * map. A cleared reference is only equal to itself so that it can still be
+	 * removed.
+	 */
+	private static final class Ref<T> extends WeakReference<T> {
+		private final int hash;
+
+		Ref(T referent, ReferenceQueue<T> queue) {
+			super(referent, queue);
+			this.hash = referent.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this)
+				return true;
+			if (!(obj instanceof Ref<?> other) || other.hash != hash)
+				return false;
+			Object referent = get();
+			return referent != null && referent.equals(other.get());
+		}
+	}
+
+	/**
+	 * The key used to look an object up without allocating a weak reference.
+	 */
+	private static final class Lookup {
+		private final Object object;
+
+		Lookup(Object object) {
+			this.object = object;
+		}
+
+		@Override
+		public int hashCode() {
+			return object.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Ref<?> ref && object.equals(ref.get());
+		}
+	}
+
+	@Override
+	public T add(T newObject) {
+		if (newObject == null)
+			return null;
+		expungeStaleReferences();
+		Ref<T> ref = pool.get(new Lookup(newObject));
+		while (true) {
+			if (ref != null) {
+				T pooled = ref.get();
+				if (pooled != null) {
+					hits.increment();
+					return pooled;
+				}
+				pool.remove(ref, ref);
+			}
+			Ref<T> newRef = new Ref<>(newObject, queue);
+			ref = pool.putIfAbsent(newRef, newRef);
+			if (ref == null) {
+				misses.increment();
+				return newObject;
+			}
+			// another thread pooled an equal object in the meantime
+			newRef.clear();
+		}
+	}
+
+	/**
+	 * Returns the number of objects currently pooled, including the ones that
+	 * have been collected but not yet removed.
+	 */
+	public int size() {
+		return pool.size();
+	}
+
+	/**
+	 * Returns the number of calls to {@link #add(Object)} that returned an
+	 * object already in the pool.
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Returns the number of calls to {@link #add(Object)} that added the given
+	 * object to the pool.
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	private void expungeStaleReferences() {
+		Object ref;
+		while ((ref = queue.poll()) != null)
+			pool.remove(ref, ref);
+	}
+}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.core.helpers;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Helper methods for the thread pools that p2 creates for the duration of a
+ * single operation.
+ */
+public class ThreadPoolHelper {
+
+	private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+	/**
+	 * Returns a factory of daemon threads named
+	 * <code>p2-&lt;name&gt;-&lt;pool&gt;-&lt;thread&gt;</code>, where the pool
+	 * number is unique to the factory, so that the threads of concurrent
+	 * operations can be told apart.
+	 *
+	 * @param name the name of the threads, such as <code>unzip</code>
+	 * @return the thread factory
+	 */
+	public static ThreadFactory newDaemonThreadFactory(String name) {
+		String prefix = "p2-" + name + "-" + POOL_COUNT.incrementAndGet() + "-"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		AtomicInteger threadCount = new AtomicInteger();
+		return runnable -> {
+			Thread thread = new Thread(runnable, prefix + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	/**
+	 * Returns a factory of virtual threads named
+	 * <code>p2-&lt;name&gt;-&lt;pool&gt;-&lt;thread&gt;</code>, or
+	 * <code>null</code> if the running VM does not provide virtual threads.
+	 * The bundle is compiled against Java 17, hence the reflection.
+	 *
+	 * @param name the name of the threads, such as <code>download</code>
+	 * @return the thread factory, or <code>null</code> before Java 21
+	 */
+	public static ThreadFactory newVirtualThreadFactory(String name) {
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null); //$NON-NLS-1$
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder"); //$NON-NLS-1$
+			builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "p2-" + name + "-" + POOL_COUNT.incrementAndGet() + "-", 1L); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			return (ThreadFactory) builderClass.getMethod("factory").invoke(builder); //$NON-NLS-1$
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Creates a pool of the given number of daemon threads, named as
+	 * described in {@link #newDaemonThreadFactory(String)}.
+	 *
+	 * @param name the name of the threads
+	 * @param threads the number of threads
+	 * @return the thread pool
+	 */
+	public static ExecutorService newFixedDaemonThreadPool(String name, int threads) {
+		return Executors.newFixedThreadPool(threads, newDaemonThreadFactory(name));
+	}
+
+	/**
+	 * Waits until the tasks of a pool that has been shut down are finished,
+	 * for instance so that none of them outlives the operation after a failure
+	 * or a cancellation. An interruption does not stop the wait, and the
+	 * interrupt status of the thread is restored before returning.
+	 *
+	 * @param executor the pool that has been shut down
+	 */
+	public static void awaitTermination(ExecutorService executor) {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				if (executor.awaitTermination(1, TimeUnit.SECONDS))
+					break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+}
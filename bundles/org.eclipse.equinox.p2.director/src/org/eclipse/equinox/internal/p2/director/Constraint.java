@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.director;
+
+import org.sat4j.pb.tools.DependencyHelper;
+import org.sat4j.pb.tools.WeightedObject;
+import org.sat4j.specs.ContradictionException;
+
+/**
+ * A constraint of the encoding of a planning problem, as the {@link Projector}
+ * adds it to a solver. The constraints are recorded so that they can be given
+ * to other solvers: the ones of the {@link PortfolioSolver}, and the ones with
+ * which the {@link ProgressiveExplanation} looks for the constraints that make
+ * a problem unsatisfiable.
+ */
+sealed interface Constraint {
+
+	/**
+	 * Returns what the constraint stands for in an explanation.
+	 */
+	Explanation explanation();
+
+	/**
+	 * Adds the constraint to the given helper.
+	 */
+	void addTo(DependencyHelper<Object, Explanation> helper) throws ContradictionException;
+
+	/**
+	 * Adds the constraint to the given helper so that it only holds when the
+	 * given selector variable is true.
+	 */
+	void addTo(DependencyHelper<Object, Explanation> helper, Object selector) throws ContradictionException;
+
+	/**
+	 * The variable must be false.
+	 */
+	record False(Object variable, Explanation explanation) implements Constraint {
+		@Override
+		public void addTo(DependencyHelper<Object, Explanation> helper) throws ContradictionException {
+			helper.setFalse(variable, explanation);
+		}
+
+		@Override
+		public void addTo(DependencyHelper<Object, Explanation> helper, Object selector) throws ContradictionException {
+			helper.implication(selector).impliesNot(variable);
+		}
+	}
+
+	/**
+	 * When all the variables on the left are true, one of the variables on the
+	 * right must be true.
+	 */
+	record Implication(Object[] left, Object[] right, Explanation explanation) implements Constraint {
+		@Override
+		public void addTo(DependencyHelper<Object, Explanation> helper) throws ContradictionException {
+			helper.implication(left).implies(right).named(explanation);
+		}
+
+		@Override
+		public void addTo(DependencyHelper<Object, Explanation> helper, Object selector) throws ContradictionException {
+			helper.implication(withSelector(left, selector)).implies(right);
+		}
+	}
+
+	/**
+	 * When all the variables on the left are true, the variable on the right
+	 * must be false.
+	 */
+	record NegativeImplication(Object[] left, Object right, Explanation explanation) implements Constraint {
+		@Override
+		public void addTo(DependencyHelper<Object, Explanation> helper) throws ContradictionException {
+			helper.implication(left).impliesNot(right).named(explanation);
+		}
+
+		@Override
+		public void addTo(DependencyHelper<Object, Explanation> helper, Object selector) throws ContradictionException {
+			helper.implication(withSelector(left, selector)).impliesNot(right);
+		}
+	}
+
+	/**
+	 * At most one of the variables can be true.
+	 */
+	record AtMostOne(Object[] variables, Explanation explanation) implements Constraint {
+		@Override
+		public void addTo(DependencyHelper<Object, Explanation> helper) throws ContradictionException {
+			helper.atMost(1, variables).named(explanation);
+		}
+
+		@Override
+		public void addTo(DependencyHelper<Object, Explanation> helper, Object selector) throws ContradictionException {
+			if (variables.length < 2)
+				return;
+			// the selector takes all the room but one when it is true
+			@SuppressWarnings("unchecked")
+			WeightedObject<Object>[] weights = (WeightedObject<Object>[]) new WeightedObject<?>[variables.length + 1];
+			for (int i = 0; i < variables.length; i++)
+				weights[i] = WeightedObject.newWO(variables[i], 1);
+			weights[variables.length] = WeightedObject.newWO(selector, variables.length - 1);
+			helper.atMost(explanation, variables.length, weights);
+		}
+	}
+
+	private static Object[] withSelector(Object[] left, Object selector) {
+		Object[] result = new Object[left.length + 1];
+		System.arraycopy(left, 0, result, 0, left.length);
+		result[left.length] = selector;
+		return result;
+	}
+}
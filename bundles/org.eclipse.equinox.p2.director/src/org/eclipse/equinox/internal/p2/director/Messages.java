@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2007, 2010 IBM Corporation and others.
+ *  Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -63,6 +63,7 @@ public class Messages extends NLS {
 	public static String Planner_Unsatisfiable_problem;
 	public static String Planner_Unsatisfied_dependency;
 	public static String Planner_NoSolution;
+	public static String Planner_Explanation_Progress;
 	public static String Planner_Unexpected_problem;
 	public static String Planner_actions_and_software_incompatible;
 	public static String Planner_can_not_install_preq;
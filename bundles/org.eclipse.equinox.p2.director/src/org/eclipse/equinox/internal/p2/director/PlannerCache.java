@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.director;
+
+import java.util.*;
+import org.eclipse.equinox.internal.p2.core.helpers.Tracing;
+import org.eclipse.equinox.p2.engine.IProfile;
+import org.eclipse.equinox.p2.metadata.*;
+import org.eclipse.equinox.p2.query.QueryUtil;
+
+/**
+ * A bounded cache of the solutions computed by the {@link SimplePlanner}.
+ * A solution is stored under a key that captures everything the slicer and
+ * the projector look at: the requirements of the request, the units installed
+ * in the profile with their profile properties, the available units and the
+ * selection context. The installed and available units are represented by
+ * fingerprints, so that the cache does not keep them reachable.
+ * <p>
+ * The least recently used solution is evicted once the cache holds its
+ * maximum number of entries.
+ * </p>
+ */
+public class PlannerCache {
+	/**
+	 * Agent property giving the number of solutions the planner caches. The
+	 * default of 0 disables the cache.
+	 */
+	public static final String PROP_CACHE_SIZE = "eclipse.p2.planner.cache.size"; //$NON-NLS-1$
+
+	private final int maxEntries;
+	private final Map<Key, PlannerSolution> entries;
+	private int hits;
+	private int misses;
+
+	/**
+	 * Fingerprint of a set of units. Two independent 64 bit sums make an
+	 * accidental collision between different sets of the same size unlikely.
+	 */
+	record Fingerprint(int size, long sum, long mixed) {
+		static Fingerprint of(Iterable<IInstallableUnit> units, IProfile profile) {
+			int size = 0;
+			long sum = 0;
+			long mixed = 0;
+			for (IInstallableUnit iu : units) {
+				long hash = hash(iu);
+				if (profile != null) {
+					hash = hash * 31 + profile.getInstallableUnitProperties(iu).hashCode();
+				}
+				size++;
+				sum += mix(hash);
+				mixed += mix(hash ^ 0x9E3779B97F4A7C15L);
+			}
+			return new Fingerprint(size, sum, mixed);
+		}
+
+		private static long hash(IInstallableUnit iu) {
+			// FNV-1a over the id, the version hash is good enough on top of it
+			long hash = 0xcbf29ce484222325L;
+			String id = iu.getId();
+			for (int i = 0; i < id.length(); i++) {
+				hash ^= id.charAt(i);
+				hash *= 0x100000001b3L;
+			}
+			return hash * 31 + iu.getVersion().hashCode();
+		}
+
+		private static long mix(long z) {
+			z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+			z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+			return z ^ (z >>> 31);
+		}
+	}
+
+	/**
+	 * The inputs of a resolution.
+	 */
+	record Key(Set<IRequirement> requirements, Set<IInstallableUnit> existingRoots, Set<IInstallableUnit> additions,
+			Map<String, String> selectionContext, boolean metaRequirements, boolean userDefined, Fingerprint installed,
+			Fingerprint available) {
+	}
+
+	public PlannerCache(int maxEntries) {
+		this.maxEntries = maxEntries;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, PlannerSolution> eldest) {
+				return size() > PlannerCache.this.maxEntries;
+			}
+		};
+	}
+
+	public boolean isEnabled() {
+		return maxEntries > 0;
+	}
+
+	static Key createKey(IInstallableUnit entryPoint, IInstallableUnit[] existingRoots,
+			Collection<IInstallableUnit> additions, Map<String, String> selectionContext, boolean metaRequirements,
+			boolean userDefined, IProfile profile, Collection<IInstallableUnit> available) {
+		Fingerprint installed = Fingerprint.of(profile.query(QueryUtil.createIUAnyQuery(), null), profile);
+		return new Key(new HashSet<>(entryPoint.getRequirements()), new HashSet<>(Arrays.asList(existingRoots)),
+				new HashSet<>(additions), new HashMap<>(selectionContext), metaRequirements, userDefined, installed,
+				Fingerprint.of(available, null));
+	}
+
+	synchronized PlannerSolution get(Key key) {
+		PlannerSolution solution = entries.get(key);
+		if (solution != null) {
+			hits++;
+		} else {
+			misses++;
+		}
+		if (Tracing.DEBUG_PLANNER_OPERANDS) {
+			Tracing.debug("Planner cache " + (solution != null ? "hit" : "miss") + ", " + entries.size() + " entries"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		}
+		return solution;
+	}
+
+	synchronized void put(Key key, PlannerSolution solution) {
+		entries.put(key, solution);
+	}
+
+	/**
+	 * Removes all cached solutions.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized int getHits() {
+		return hits;
+	}
+
+	public synchronized int getMisses() {
+		return misses;
+	}
+}
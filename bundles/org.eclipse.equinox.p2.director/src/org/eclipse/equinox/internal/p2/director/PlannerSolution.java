@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.director;
+
+import java.util.*;
+import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+import org.eclipse.equinox.p2.metadata.IInstallableUnitFragment;
+
+/**
+ * The outcome of a successful resolution, detached from the {@link Projector}
+ * that computed it so that the solver can be released and the outcome can be
+ * kept in the {@link PlannerCache}.
+ */
+class PlannerSolution {
+	private final List<IInstallableUnit> solution;
+	private final Map<IInstallableUnitFragment, List<IInstallableUnit>> fragmentAssociation;
+
+	PlannerSolution(Projector projector) {
+		this.solution = List.copyOf(projector.extractSolution());
+		this.fragmentAssociation = Collections.unmodifiableMap(projector.getFragmentAssociation());
+	}
+
+	/**
+	 * Returns the units of the solution. The returned collection is a copy that
+	 * callers are free to modify.
+	 */
+	Collection<IInstallableUnit> extractSolution() {
+		return new ArrayList<>(solution);
+	}
+
+	Map<IInstallableUnitFragment, List<IInstallableUnit>> getFragmentAssociation() {
+		return fragmentAssociation;
+	}
+}
@@ -0,0 +1,271 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.director;
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.equinox.internal.p2.core.helpers.ThreadPoolHelper;
+import org.sat4j.minisat.core.IPhaseSelectionStrategy;
+import org.sat4j.minisat.core.RestartStrategy;
+import org.sat4j.minisat.learning.MiniSATLearning;
+import org.sat4j.minisat.orders.NegativeLiteralSelectionStrategy;
+import org.sat4j.minisat.orders.RSATPhaseSelectionStrategy;
+import org.sat4j.minisat.restarts.*;
+import org.sat4j.pb.*;
+import org.sat4j.pb.constraints.CompetResolutionPBLongMixedWLClauseCardConstrDataStructure;
+import org.sat4j.pb.constraints.CompetResolutionPBMixedHTClauseCardConstrDataStructure;
+import org.sat4j.pb.core.PBDataStructureFactory;
+import org.sat4j.pb.core.PBSolverResolution;
+import org.sat4j.pb.orders.VarOrderHeapObjective;
+import org.sat4j.pb.tools.DependencyHelper;
+import org.sat4j.pb.tools.WeightedObject;
+import org.sat4j.specs.TimeoutException;
+
+/**
+ * Solves the encoding of a planning problem with several differently configured
+ * SAT solvers at the same time. As soon as one of them proves that the problem
+ * has no solution, the other solvers are stopped. Otherwise the answers are
+ * taken in the order of the configurations: the solution of a configuration is
+ * kept once it is proven optimal and all the configurations before it ran out
+ * of conflicts, and the later solvers are then stopped. Since the solvers are
+ * bounded by a number of conflicts rather than by time, the solution kept does
+ * not depend on which solver finishes first: a problem with several optimal
+ * solutions gets the one of the first configuration, the default solver,
+ * whenever it proves it. If no solver proves its answer, the solution of the
+ * first configuration that found one is kept.
+ * <p>
+ * The {@link Projector} encodes the problem into the solver of the first
+ * configuration and records the constraints it adds, so that the solvers of the
+ * other configurations are given the same encoding in their own thread.
+ * </p>
+ */
+public class PortfolioSolver {
+	/**
+	 * The name of a property that, set to <code>true</code>, has the projector
+	 * solve the problems it encodes with the default optimization function with
+	 * all {@link Configuration configurations} at the same time, up to the number
+	 * of processors.
+	 */
+	public static final String PROP_PORTFOLIO = "eclipse.p2.projector.portfolio"; //$NON-NLS-1$
+
+	/**
+	 * A configuration of the SAT solver.
+	 */
+	public enum Configuration {
+		/** The solver p2 uses on its own. */
+		DEFAULT,
+		/** Restarts following the Luby series rather than a geometric one. */
+		LUBY_RESTARTS,
+		/** Assigns variables to false first, favouring smaller solutions. */
+		NEGATIVE_PHASE,
+		/** Watched literals and MiniSat restarts. */
+		WATCHED_LITERALS;
+
+		IPBSolver createSolver() {
+			return switch (this) {
+				case DEFAULT -> SolverFactory.newEclipseP2();
+				case LUBY_RESTARTS -> createSolver(new CompetResolutionPBMixedHTClauseCardConstrDataStructure(), new RSATPhaseSelectionStrategy(), new LubyRestarts(512));
+				case NEGATIVE_PHASE -> createSolver(new CompetResolutionPBMixedHTClauseCardConstrDataStructure(), new NegativeLiteralSelectionStrategy(), new ArminRestarts());
+				case WATCHED_LITERALS -> createSolver(new CompetResolutionPBLongMixedWLClauseCardConstrDataStructure(), new RSATPhaseSelectionStrategy(), new MiniSATRestarts());
+			};
+		}
+
+		// built like SolverFactory.newEclipseP2()
+		private static IPBSolver createSolver(PBDataStructureFactory dataStructure, IPhaseSelectionStrategy phase, RestartStrategy restarts) {
+			MiniSATLearning<PBDataStructureFactory> learning = new MiniSATLearning<>();
+			PBSolverResolution solver = new PBSolverResolution(learning, dataStructure, new VarOrderHeapObjective(phase), restarts);
+			learning.setDataStructureFactory(solver.getDSFactory());
+			learning.setVarActivityListener(solver);
+			solver.setVerbose(false);
+			solver.setLearnedConstraintsDeletionStrategy(solver.activity_based_low_memory);
+			return new OptToPBSATAdapter(new PseudoOptDecorator(solver));
+		}
+	}
+
+	/**
+	 * The answer of one of the solvers.
+	 */
+	static final class Answer {
+		final Configuration configuration;
+		final DependencyHelper<Object, Explanation> helper;
+		final IPBSolver solver;
+		volatile boolean stopped;
+		boolean satisfiable;
+		Exception failure;
+
+		Answer(Configuration configuration, DependencyHelper<Object, Explanation> helper, IPBSolver solver) {
+			this.configuration = configuration;
+			this.helper = helper;
+			this.solver = solver;
+		}
+
+		/**
+		 * Returns whether the solver proved its answer, rather than running out
+		 * of conflicts.
+		 */
+		boolean isProven() {
+			if (failure != null)
+				return false;
+			return !satisfiable || solver instanceof OptToPBSATAdapter adapter && adapter.isOptimal();
+		}
+
+		void stop() {
+			stopped = true;
+			helper.stopSolver();
+		}
+	}
+
+	private final List<Configuration> configurations;
+	private final int timeout;
+	private final List<Constraint> constraints;
+	private WeightedObject<Object>[] objective;
+
+	/**
+	 * @param constraints the constraints of the encoding, which the projector
+	 *        records as it adds them
+	 */
+	PortfolioSolver(List<Configuration> configurations, int timeout, List<Constraint> constraints) {
+		this.configurations = configurations;
+		this.timeout = timeout;
+		this.constraints = constraints;
+	}
+
+	/**
+	 * Returns the configurations to solve with according to the
+	 * {@link #PROP_PORTFOLIO} property.
+	 */
+	static List<Configuration> getConfigurations() {
+		String value = DirectorActivator.context.map(ctx -> ctx.getProperty(PROP_PORTFOLIO))
+				.orElseGet(() -> System.getProperty(PROP_PORTFOLIO));
+		if (!Boolean.parseBoolean(value))
+			return List.of(Configuration.DEFAULT);
+		int size = Math.min(Configuration.values().length, Math.max(2, Runtime.getRuntime().availableProcessors()));
+		return List.of(Configuration.values()).subList(0, size);
+	}
+
+	IPBSolver createSolver(Configuration configuration) {
+		IPBSolver solver = configuration.createSolver();
+		solver.setTimeoutOnConflicts(timeout);
+		return solver;
+	}
+
+	void recordObjective(WeightedObject<Object>[] weights) {
+		objective = weights;
+	}
+
+	/**
+	 * Solves the problem with all the configurations, the first one with the
+	 * given helper into which the problem has already been encoded.
+	 *
+	 * @return the answer kept
+	 * @throws TimeoutException if none of the solvers found an answer
+	 */
+	Answer solve(DependencyHelper<Object, Explanation> helper, IPBSolver solver, Collection<Object> assumptions, IProgressMonitor monitor) throws TimeoutException {
+		List<Answer> answers = new ArrayList<>();
+		answers.add(new Answer(configurations.get(0), helper, solver));
+		for (Configuration configuration : configurations.subList(1, configurations.size())) {
+			IPBSolver other = createSolver(configuration);
+			answers.add(new Answer(configuration, new DependencyHelper<>(other), other));
+		}
+
+		ExecutorService executor = ThreadPoolHelper.newFixedDaemonThreadPool("portfolio-solver", answers.size()); //$NON-NLS-1$
+		CompletionService<Answer> completion = new ExecutorCompletionService<>(executor);
+		List<Future<Answer>> futures = new ArrayList<>(answers.size());
+		Answer kept = null;
+		try {
+			futures.add(completion.submit(() -> solve(answers.get(0), assumptions)));
+			for (Answer answer : answers.subList(1, answers.size())) {
+				futures.add(completion.submit(() -> {
+					for (Constraint constraint : constraints)
+						constraint.addTo(answer.helper);
+					if (objective != null)
+						answer.helper.setObjectiveFunction(objective);
+					return solve(answer, assumptions);
+				}));
+			}
+			// the configurations before the first one whose answer is not known yet
+			int decided = 0;
+			for (int pending = answers.size(); pending > 0;) {
+				if (monitor.isCanceled())
+					throw new OperationCanceledException();
+				Future<Answer> done = completion.poll(100, TimeUnit.MILLISECONDS);
+				if (done == null)
+					continue;
+				pending--;
+				Answer answer = getAnswer(done);
+				// any solver can prove that there is no solution
+				if (answer != null && answer.isProven() && !answer.satisfiable) {
+					kept = answer;
+					return kept;
+				}
+				// an optimal solution is only kept when the earlier configurations have none
+				for (; decided < futures.size() && futures.get(decided).isDone(); decided++) {
+					Answer earlier = getAnswer(futures.get(decided));
+					if (earlier != null && earlier.isProven()) {
+						kept = earlier;
+						return kept;
+					}
+				}
+			}
+			// no solver could prove its answer, prefer the configurations in order
+			for (Answer answer : answers) {
+				if (answer.satisfiable && answer.failure == null) {
+					kept = answer;
+					return kept;
+				}
+			}
+			for (Answer answer : answers) {
+				if (answer.failure instanceof RuntimeException e)
+					throw e;
+			}
+			throw new TimeoutException();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} finally {
+			for (Answer answer : answers) {
+				if (answer != kept)
+					answer.stop();
+			}
+			executor.shutdownNow();
+		}
+	}
+
+	private static Answer solve(Answer answer, Collection<Object> assumptions) {
+		if (answer.stopped)
+			return answer;
+		try {
+			answer.satisfiable = answer.helper.hasASolution(assumptions);
+		} catch (TimeoutException | RuntimeException e) {
+			answer.failure = e;
+		}
+		return answer;
+	}
+
+	private static Answer getAnswer(Future<Answer> done) {
+		try {
+			return done.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} catch (ExecutionException e) {
+			// a constraint could not be added, which the first solver reports
+			if (e.getCause() instanceof Error error)
+				throw error;
+			return null;
+		}
+	}
+}
@@ -0,0 +1,304 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.director;
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.equinox.internal.p2.core.helpers.ThreadPoolHelper;
+import org.sat4j.pb.IPBSolver;
+import org.sat4j.pb.SolverFactory;
+import org.sat4j.pb.tools.DependencyHelper;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.IteratorInt;
+import org.sat4j.specs.TimeoutException;
+
+/**
+ * Finds the constraints that make a planning problem unsatisfiable in two
+ * steps, so that an explanation is available early on large problems.
+ * <p>
+ * Every constraint of the encoding is first given its own selector variable,
+ * and the problem is solved once assuming all the selectors: the selectors the
+ * solver needed to prove that there is no solution give a first set of
+ * conflicting constraints, which is usually small but not minimal. The set is
+ * then reduced by removing one constraint at a time, keeping the constraints
+ * without which the rest has a solution, until either all of them are needed
+ * or the time budget runs out. As a set with no solution is found, the set is
+ * replaced by the constraints its solver needed, which usually drops several
+ * constraints at once.
+ * </p>
+ * <p>
+ * The removals of several constraints are checked at the same time, each on a
+ * solver of its own given only the constraints of the current set. The results
+ * are taken in the order of the constraints, so the explanation does not
+ * depend on which check finishes first.
+ * </p>
+ */
+class ProgressiveExplanation {
+	/**
+	 * The name of a property specifying the time, in milliseconds, given to
+	 * look for a smaller explanation once a first one is found.
+	 */
+	static final String PROP_EXPLANATION_TIMEOUT = "eclipse.p2.projector.explanationTimeout"; //$NON-NLS-1$
+	private static final long DEFAULT_EXPLANATION_TIMEOUT = 30000;
+
+	/**
+	 * The variable that turns the constraint of the given index on.
+	 */
+	private record Selector(int index) {
+	}
+
+	private final List<Constraint> constraints;
+	private final Collection<Object> assumptions;
+	private final int timeout;
+	private final long budget;
+	private final int threads;
+	private final Set<DependencyHelper<Object, Explanation>> running = ConcurrentHashMap.newKeySet();
+	private volatile boolean stopped;
+	private volatile Set<Explanation> current;
+	private volatile boolean minimal;
+
+	/**
+	 * @param constraints the constraints of the encoding
+	 * @param assumptions the variables assumed true when solving
+	 * @param timeout the timeout of the solvers, in number of conflicts
+	 * @param budget the time given to reduce the first explanation, in
+	 *        milliseconds
+	 * @param threads the number of checks to run at the same time
+	 */
+	ProgressiveExplanation(List<Constraint> constraints, Collection<Object> assumptions, int timeout, long budget, int threads) {
+		this.constraints = constraints;
+		this.assumptions = assumptions;
+		this.timeout = timeout;
+		this.budget = budget;
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Returns the time budget according to the {@link #PROP_EXPLANATION_TIMEOUT}
+	 * property.
+	 */
+	static long getBudget() {
+		String value = DirectorActivator.context.map(ctx -> ctx.getProperty(PROP_EXPLANATION_TIMEOUT))
+				.orElseGet(() -> System.getProperty(PROP_EXPLANATION_TIMEOUT));
+		if (value != null) {
+			try {
+				return Math.max(0, Long.parseLong(value.trim()));
+			} catch (NumberFormatException e) {
+				// use the default
+			}
+		}
+		return DEFAULT_EXPLANATION_TIMEOUT;
+	}
+
+	/**
+	 * Returns the smallest explanation found so far, or <code>null</code> if
+	 * none was found yet.
+	 */
+	Set<Explanation> getCurrent() {
+		return current;
+	}
+
+	/**
+	 * Returns whether the explanation found is minimal: none of its constraints
+	 * can be removed.
+	 */
+	boolean isMinimal() {
+		return minimal;
+	}
+
+	/**
+	 * Stops the computation, which returns the smallest explanation found so
+	 * far.
+	 */
+	void stop() {
+		stopped = true;
+		for (DependencyHelper<Object, Explanation> helper : running)
+			helper.stopSolver();
+	}
+
+	/**
+	 * Computes the explanation.
+	 *
+	 * @return the explanation, or <code>null</code> if the constraints have a
+	 *         solution
+	 * @throws TimeoutException if the first explanation could not be found
+	 */
+	Set<Explanation> explain() throws TimeoutException {
+		List<Integer> all = new ArrayList<>(constraints.size());
+		for (int i = 0; i < constraints.size(); i++)
+			all.add(i);
+		List<Integer> core = findCore(all);
+		if (core == null)
+			return null;
+		publish(core);
+
+		ExecutorService executor = ThreadPoolHelper.newFixedDaemonThreadPool("explanation", threads); //$NON-NLS-1$
+		long deadline = System.currentTimeMillis() + budget;
+		Set<Integer> needed = new HashSet<>();
+		try {
+			while (!stopped) {
+				List<Integer> candidates = new ArrayList<>(threads);
+				for (Integer index : core) {
+					if (!needed.contains(index) && candidates.size() < threads)
+						candidates.add(index);
+				}
+				if (candidates.isEmpty()) {
+					minimal = true;
+					break;
+				}
+				List<Future<List<Integer>>> checks = new ArrayList<>(candidates.size());
+				for (Integer candidate : candidates) {
+					List<Integer> rest = new ArrayList<>(core);
+					rest.remove(candidate);
+					checks.add(executor.submit(() -> findCore(rest)));
+				}
+				List<Integer> smaller = null;
+				boolean undecided = false;
+				for (int i = 0; i < checks.size(); i++) {
+					List<Integer> result;
+					try {
+						result = getCheck(checks.get(i), deadline);
+					} catch (TimeoutException e) {
+						// whether the constraint is needed is not known
+						undecided = smaller == null;
+						break;
+					}
+					if (stopped)
+						break;
+					// once a constraint is removed, the later checks were made on a larger set
+					if (smaller != null)
+						continue;
+					if (result == null)
+						needed.add(candidates.get(i));
+					else
+						smaller = result;
+				}
+				if (smaller != null) {
+					core = smaller;
+					publish(core);
+				}
+				if (undecided)
+					break;
+			}
+		} finally {
+			stop();
+			executor.shutdownNow();
+		}
+		return current;
+	}
+
+	/**
+	 * Waits for the given check until the deadline.
+	 *
+	 * @return the smaller set of constraints found by the check, or
+	 *         <code>null</code> if the constraint removed is needed or the
+	 *         computation is stopped
+	 * @throws TimeoutException if the solver of the check could not tell
+	 */
+	private List<Integer> getCheck(Future<List<Integer>> check, long deadline) throws TimeoutException {
+		long remaining = deadline - System.currentTimeMillis();
+		if (remaining <= 0) {
+			stop();
+			return null;
+		}
+		try {
+			return check.get(remaining, TimeUnit.MILLISECONDS);
+		} catch (java.util.concurrent.TimeoutException e) {
+			stop();
+			return null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			stop();
+			throw new OperationCanceledException();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException runtime)
+				throw runtime;
+			if (e.getCause() instanceof Error error)
+				throw error;
+			throw (TimeoutException) e.getCause();
+		}
+	}
+
+	/**
+	 * Solves the problem made of the given constraints, each behind its
+	 * selector.
+	 *
+	 * @return the constraints whose selectors the solver needed to prove that
+	 *         there is no solution, by increasing index, or <code>null</code>
+	 *         if and only if there is one
+	 * @throws TimeoutException if the solver could not tell
+	 */
+	private List<Integer> findCore(List<Integer> indices) throws TimeoutException {
+		if (stopped)
+			throw new TimeoutException();
+		IPBSolver solver = SolverFactory.newDefault();
+		solver.setTimeoutOnConflicts(timeout);
+		DependencyHelper<Object, Explanation> helper = new DependencyHelper<>(solver, false);
+		running.add(helper);
+		try {
+			List<Object> selected = new ArrayList<>(assumptions.size() + indices.size());
+			selected.addAll(assumptions);
+			for (Integer index : indices) {
+				Selector selector = new Selector(index);
+				constraints.get(index).addTo(helper, selector);
+				selected.add(selector);
+			}
+			// the solver may have been stopped before it was known
+			if (stopped)
+				throw new TimeoutException();
+			if (helper.hasASolution(selected))
+				return null;
+			return getCore(helper.getSolver().unsatExplanation(), helper.getMappingToDomain(), indices);
+		} catch (ContradictionException e) {
+			// the selectors keep the constraints from contradicting each other
+			throw new IllegalStateException(e);
+		} finally {
+			running.remove(helper);
+			helper.reset();
+		}
+	}
+
+	/**
+	 * Returns the constraints whose selectors are in the explanation the solver
+	 * gave for the given constraints having no solution, by increasing index.
+	 * When the explanation names none of the selectors, all the given
+	 * constraints are returned: they still have no solution.
+	 *
+	 * @param explanation the literals the solver needed, or <code>null</code>
+	 * @param domain the variables of the literals
+	 * @param indices the constraints that were given to the solver
+	 */
+	static List<Integer> getCore(IVecInt explanation, Map<Integer, Object> domain, List<Integer> indices) {
+		List<Integer> core = new ArrayList<>();
+		if (explanation != null) {
+			for (IteratorInt it = explanation.iterator(); it.hasNext();) {
+				if (domain.get(Math.abs(it.next())) instanceof Selector selector)
+					core.add(selector.index());
+			}
+		}
+		if (core.isEmpty())
+			core.addAll(indices);
+		core.sort(null);
+		return core;
+	}
+
+	private void publish(List<Integer> core) {
+		Set<Explanation> explanation = new TreeSet<>();
+		for (Integer index : core)
+			explanation.add(constraints.get(index).explanation());
+		current = explanation;
+	}
+}
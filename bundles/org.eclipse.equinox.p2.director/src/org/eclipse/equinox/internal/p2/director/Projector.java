@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2022 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This
  * program and the accompanying materials are made available under the terms of
@@ -23,6 +23,7 @@ package org.eclipse.equinox.internal.p2.director;
 
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.function.Consumer;
 import org.eclipse.core.runtime.*;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.equinox.internal.p2.core.helpers.Tracing;
@@ -88,6 +89,16 @@ public class Projector {
 	private boolean emptyBecauseFiltered;
 	private boolean userDefinedFunction;
 
+	private List<PortfolioSolver.Configuration> portfolioConfigurations;
+	private PortfolioSolver portfolio;
+	private IPBSolver primarySolver;
+	private int solverTimeout = DEFAULT_SOLVER_TIMEOUT;
+	// the encoding, for the solvers of the portfolio and of the explanation; the
+	// records and their variable arrays take memory of the same order as the
+	// constraints of the solver, until the projector is closed
+	private List<Constraint> constraints = new ArrayList<>();
+	private ProgressiveExplanation explainer;
+
 	static class AbstractVariable {
 		//		private String name;
 
@@ -111,9 +122,13 @@ public class Projector {
 	 */
 	class ExplanationJob extends Job {
 		private Set<Explanation> explanation;
+		// when the explanation of the solver must be stopped, 0 when it is not running
+		private volatile long fallbackDeadline;
+		private final long budget;
 
-		public ExplanationJob() {
+		public ExplanationJob(long budget) {
 			super(Messages.Planner_NoSolution);
+			this.budget = budget;
 			//explanations cannot be canceled directly, so don't show it to the user
 			setSystem(true);
 		}
@@ -126,6 +141,7 @@ public class Projector {
 		@Override
 		protected void canceling() {
 			super.canceling();
+			explainer.stop();
 			dependencyHelper.stopExplanation();
 		}
 
@@ -133,6 +149,20 @@ public class Projector {
 			return explanation;
 		}
 
+		/**
+		 * Stops the explanation of the solver once it took the time budget of
+		 * the explanation.
+		 */
+		void checkBudget() {
+			long deadline = fallbackDeadline;
+			if (deadline != 0 && System.currentTimeMillis() >= deadline) {
+				fallbackDeadline = 0;
+				if (DEBUG)
+					Tracing.debug("Explanation of the solver stopped after " + budget + "ms"); //$NON-NLS-1$ //$NON-NLS-2$
+				dependencyHelper.stopExplanation();
+			}
+		}
+
 		@Override
 		protected IStatus run(IProgressMonitor monitor) {
 			long start = 0;
@@ -141,10 +171,25 @@ public class Projector {
 				Tracing.debug("Determining cause of failure: " + start); //$NON-NLS-1$
 			}
 			try {
-				explanation = dependencyHelper.why();
+				if (!DEBUG_ENCODING) {
+					try {
+						explanation = explainer.explain();
+					} catch (TimeoutException e) {
+						if (DEBUG)
+							Tracing.debug("Timeout while explaining the recorded constraints"); //$NON-NLS-1$
+					}
+				}
+				// the recorded constraints could not be explained, explain the solver within the same budget
+				if (explanation == null && !monitor.isCanceled()) {
+					if (DEBUG)
+						Tracing.debug("No explanation of the recorded constraints, explaining the solver"); //$NON-NLS-1$
+					fallbackDeadline = System.currentTimeMillis() + Math.max(1, budget);
+					explanation = dependencyHelper.why();
+					fallbackDeadline = 0;
+				}
 				if (DEBUG) {
 					long stop = System.currentTimeMillis();
-					Tracing.debug("Explanation found: " + (stop - start)); //$NON-NLS-1$
+					Tracing.debug("Explanation found: " + (stop - start) + (explainer.isMinimal() ? "" : " (not minimal)")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 					Tracing.debug("Explanation:"); //$NON-NLS-1$
 					for (Explanation ex : explanation) {
 						Tracing.debug(ex.toString());
@@ -155,6 +200,8 @@ public class Projector {
 					Tracing.debug("Timeout while computing explanations"); //$NON-NLS-1$
 			} finally {
 				//must never have a null result, because caller is waiting on result to be non-null
+				if (explanation == null)
+					explanation = explainer.getCurrent();
 				if (explanation == null)
 					explanation = Collections.emptySet();
 			}
@@ -189,19 +236,6 @@ public class Projector {
 				start = System.currentTimeMillis();
 				Tracing.debug("Start projection: " + start); //$NON-NLS-1$
 			}
-			IPBSolver solver;
-			if (DEBUG_ENCODING) {
-				solver = new UserFriendlyPBStringSolver<>();
-			} else {
-				if (userDefinedFunction) {
-					PBSolverResolution mysolver = SolverFactory.newCompetPBResLongWLMixedConstraintsObjectiveExpSimp();
-					mysolver.setSimplifier(mysolver.SIMPLE_SIMPLIFICATION);
-					mysolver.setRestartStrategy(new LubyRestarts(512));
-					solver = mysolver;
-				} else {
-					solver = SolverFactory.newEclipseP2();
-				}
-			}
 			int timeout = DEFAULT_SOLVER_TIMEOUT;
 			String timeoutString = null;
 			try {
@@ -218,10 +252,28 @@ public class Projector {
 				System.err.println("Ignoring user-specified 'eclipse.p2.projector.timeout' value of: " + timeoutString); //$NON-NLS-1$
 				e.printStackTrace();
 			}
+			IPBSolver solver;
+			if (DEBUG_ENCODING) {
+				solver = new UserFriendlyPBStringSolver<>();
+			} else {
+				if (userDefinedFunction) {
+					PBSolverResolution mysolver = SolverFactory.newCompetPBResLongWLMixedConstraintsObjectiveExpSimp();
+					mysolver.setSimplifier(mysolver.SIMPLE_SIMPLIFICATION);
+					mysolver.setRestartStrategy(new LubyRestarts(512));
+					solver = mysolver;
+				} else {
+					List<PortfolioSolver.Configuration> configurations = portfolioConfigurations != null ? portfolioConfigurations : PortfolioSolver.getConfigurations();
+					solver = configurations.get(0).createSolver();
+					if (configurations.size() > 1)
+						portfolio = new PortfolioSolver(configurations, timeout, constraints);
+				}
+			}
+			solverTimeout = timeout;
 			if (userDefinedFunction)
 				solver.setTimeoutOnConflicts(timeout / 4);
 			else
 				solver.setTimeoutOnConflicts(timeout);
+			primarySolver = solver;
 
 			IQueryResult<IInstallableUnit> queryResult = picker.query(QueryUtil.createIUAnyQuery(), null);
 			if (DEBUG_ENCODING) {
@@ -270,7 +322,7 @@ public class Projector {
 			AbstractVariable var = getNonGreedyVariable(iu);
 			List<Object> providers = nonGreedyProvider.get(var);
 			if (providers == null || providers.size() == 0) {
-				dependencyHelper.setFalse(var, new Explanation.MissingGreedyIU(iu));
+				addConstraint(new Constraint.False(var, new Explanation.MissingGreedyIU(iu)));
 			} else {
 				createImplication(var, providers, Explanation.OPTIONAL_REQUIREMENT);//FIXME
 			}
@@ -314,6 +366,8 @@ public class Projector {
 		@SuppressWarnings("unchecked")
 		WeightedObject<Object>[] array = (WeightedObject<Object>[]) weightedObjects.toArray(new WeightedObject<?>[weightedObjects.size()]);
 		dependencyHelper.setObjectiveFunction(array);
+		if (portfolio != null)
+			portfolio.recordObjective(array);
 	}
 
 	private void createMustHave(IInstallableUnit iu, IInstallableUnit[] alreadyExistingRoots) throws ContradictionException {
@@ -329,7 +383,7 @@ public class Projector {
 		if (DEBUG) {
 			Tracing.debug(iu + "=0"); //$NON-NLS-1$
 		}
-		dependencyHelper.setFalse(iu, new Explanation.MissingIU(iu, req, iu == this.entryPoint));
+		addConstraint(new Constraint.False(iu, new Explanation.MissingIU(iu, req, iu == this.entryPoint)));
 	}
 
 	// Check whether the requirement is applicable
@@ -389,7 +443,7 @@ public class Projector {
 		if (req.getMin() > 0) {
 			if (matches.isEmpty()) {
 				if (iu == entryPoint && emptyBecauseFiltered) {
-					dependencyHelper.setFalse(iu, new NotInstallableRoot(req));
+					addConstraint(new Constraint.False(iu, new NotInstallableRoot(req)));
 				} else {
 					missingRequirement(iu, req);
 				}
@@ -864,21 +918,21 @@ public class Projector {
 			Tracing.debug(name + ": " + left + "->" + right); //$NON-NLS-1$ //$NON-NLS-2$
 		}
 		for (Object r : right)
-			dependencyHelper.implication(new Object[] {left}).impliesNot(r).named(name);
+			addConstraint(new Constraint.NegativeImplication(new Object[] {left}, r, name));
 	}
 
 	private void createImplication(Object left, List<?> right, Explanation name) throws ContradictionException {
 		if (DEBUG) {
 			Tracing.debug(name + ": " + left + "->" + right); //$NON-NLS-1$ //$NON-NLS-2$
 		}
-		dependencyHelper.implication(new Object[] {left}).implies(right.toArray()).named(name);
+		addConstraint(new Constraint.Implication(new Object[] {left}, right.toArray(), name));
 	}
 
 	private void createImplication(Object[] left, List<?> right, Explanation name) throws ContradictionException {
 		if (DEBUG) {
 			Tracing.debug(name + ": " + Arrays.asList(left) + "->" + right); //$NON-NLS-1$ //$NON-NLS-2$
 		}
-		dependencyHelper.implication(left).implies(right.toArray()).named(name);
+		addConstraint(new Constraint.Implication(left, right.toArray(), name));
 	}
 
 	//Return IUPatches that are applicable for the given iu
@@ -933,7 +987,18 @@ public class Projector {
 			}
 			Tracing.debug("At most 1 of " + b); //$NON-NLS-1$
 		}
-		dependencyHelper.atMost(1, (Object[]) ius).named(new Explanation.Singleton(ius));
+		// the array is reused for the next constraint
+		IInstallableUnit[] variables = ius.clone();
+		addConstraint(new Constraint.AtMostOne(variables, new Explanation.Singleton(variables)));
+	}
+
+	/**
+	 * Adds a constraint to the encoding, recording it for the other solvers of
+	 * the portfolio and of the explanation.
+	 */
+	private void addConstraint(Constraint constraint) throws ContradictionException {
+		constraints.add(constraint);
+		constraint.addTo(dependencyHelper);
 	}
 
 	private AbstractVariable getAbstractVariable(IRequirement req) {
@@ -967,7 +1032,7 @@ public class Projector {
 		try {
 			if (monitor.isCanceled())
 				return Status.CANCEL_STATUS;
-			if (dependencyHelper.hasASolution(assumptions)) {
+			if (hasASolution(monitor)) {
 				if (DEBUG) {
 					Tracing.debug("Satisfiable !"); //$NON-NLS-1$
 				}
@@ -986,6 +1051,8 @@ public class Projector {
 			}
 		} catch (TimeoutException e) {
 			result.merge(Status.error(Messages.Planner_Timeout));
+		} catch (OperationCanceledException e) {
+			return Status.CANCEL_STATUS;
 		} catch (Exception e) {
 			result.merge(Status.error(Messages.Planner_Unexpected_problem, e));
 		}
@@ -994,6 +1061,17 @@ public class Projector {
 		return result;
 	}
 
+	private boolean hasASolution(IProgressMonitor monitor) throws TimeoutException {
+		if (portfolio == null)
+			return dependencyHelper.hasASolution(assumptions);
+		PortfolioSolver.Answer answer = portfolio.solve(dependencyHelper, primarySolver, assumptions, monitor);
+		if (DEBUG)
+			Tracing.debug("Solver answer kept from: " + answer.configuration); //$NON-NLS-1$
+		// the solution, the fragments and the explanation now come from this solver
+		dependencyHelper = answer.helper;
+		return answer.satisfiable;
+	}
+
 	private void backToIU() {
 		solution = new ArrayList<>();
 		IVec<Object> sat4jSolution = dependencyHelper.getSolution();
@@ -1024,12 +1102,37 @@ public class Projector {
 		return solution;
 	}
 
+	/**
+	 * Returns the constraints that make the problem unsatisfiable. A first,
+	 * possibly larger than needed, set of constraints is found quickly and then
+	 * reduced for at most the time of the
+	 * {@link ProgressiveExplanation#PROP_EXPLANATION_TIMEOUT} property, using
+	 * several processors. The size of the smallest explanation found so far is
+	 * reported as the sub task of the given monitor.
+	 */
 	public Set<Explanation> getExplanation(IProgressMonitor monitor) {
-		ExplanationJob job = new ExplanationJob();
+		return getExplanation(monitor, null);
+	}
+
+	/**
+	 * Returns the constraints that make the problem unsatisfiable, as
+	 * {@link #getExplanation(IProgressMonitor)} does, passing the smallest
+	 * explanation found so far to the given consumer, in the calling thread,
+	 * whenever a smaller one is found. The last explanation passed is the one
+	 * returned, unless it is empty.
+	 *
+	 * @param progress the consumer of the intermediate explanations, or
+	 *        <code>null</code>
+	 */
+	public Set<Explanation> getExplanation(IProgressMonitor monitor, Consumer<Set<Explanation>> progress) {
+		long budget = ProgressiveExplanation.getBudget();
+		explainer = new ProgressiveExplanation(constraints, assumptions, solverTimeout, budget, Runtime.getRuntime().availableProcessors());
+		ExplanationJob job = new ExplanationJob(budget);
 		job.schedule();
 		monitor.setTaskName(Messages.Planner_NoSolution);
 		IProgressMonitor pm = new InfiniteProgress(monitor);
 		pm.beginTask(Messages.Planner_NoSolution, 1000);
+		Set<Explanation> reported = null;
 		try {
 			synchronized (job) {
 				while (job.getExplanationResult() == null && job.getState() != Job.NONE) {
@@ -1037,6 +1140,14 @@ public class Projector {
 						job.cancel();
 						throw new OperationCanceledException();
 					}
+					Set<Explanation> current = explainer.getCurrent();
+					if (current != reported) {
+						pm.subTask(NLS.bind(Messages.Planner_Explanation_Progress, Integer.toString(current.size())));
+						if (progress != null)
+							progress.accept(Collections.unmodifiableSet(current));
+						reported = current;
+					}
+					job.checkBudget();
 					pm.worked(1);
 					try {
 						job.wait(100);
@@ -1049,7 +1160,10 @@ public class Projector {
 		} finally {
 			monitor.done();
 		}
-		return job.getExplanationResult();
+		Set<Explanation> result = job.getExplanationResult();
+		if (progress != null && result != null && result != reported && !result.isEmpty())
+			progress.accept(Collections.unmodifiableSet(result));
+		return result;
 	}
 
 	public Map<IInstallableUnitFragment, List<IInstallableUnit>> getFragmentAssociation() {
@@ -1083,10 +1197,25 @@ public class Projector {
 		userDefinedFunction = containsKey;
 	}
 
+	/**
+	 * Sets the configurations of the SAT solvers to solve with, rather than the
+	 * ones of the {@link PortfolioSolver#PROP_PORTFOLIO} property. The problem is
+	 * encoded into the solver of the first configuration; with more than one, the
+	 * problem is solved with all of them at the same time. This has no effect on
+	 * problems with a user defined optimization function.
+	 */
+	public void setPortfolio(List<PortfolioSolver.Configuration> configurations) {
+		portfolioConfigurations = configurations;
+	}
+
 	public void close() {
 		if (dependencyHelper != null) {
 			dependencyHelper.reset();
 			dependencyHelper = null;
 		}
+		portfolio = null;
+		primarySolver = null;
+		constraints = null;
+		explainer = null;
 	}
 }
\ No newline at end of file
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2017 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This
  * program and the accompanying materials are made available under the terms of
@@ -31,12 +31,17 @@ import org.eclipse.equinox.internal.p2.core.helpers.Tracing;
 import org.eclipse.equinox.internal.p2.director.Explanation.MissingIU;
 import org.eclipse.equinox.internal.p2.director.Explanation.Singleton;
 import org.eclipse.equinox.internal.p2.metadata.IRequiredCapability;
+import org.eclipse.equinox.internal.p2.metadata.MetadataInterner;
 import org.eclipse.equinox.internal.p2.metadata.query.UpdateQuery;
 import org.eclipse.equinox.internal.p2.rollback.FormerState;
+import org.eclipse.equinox.internal.provisional.p2.core.eventbus.IProvisioningEventBus;
+import org.eclipse.equinox.internal.provisional.p2.core.eventbus.ProvisioningListener;
 import org.eclipse.equinox.internal.provisional.p2.director.PlannerStatus;
 import org.eclipse.equinox.internal.provisional.p2.director.RequestStatus;
+import org.eclipse.equinox.internal.provisional.p2.repository.RepositoryEvent;
 import org.eclipse.equinox.p2.core.IAgentLocation;
 import org.eclipse.equinox.p2.core.IProvisioningAgent;
+import org.eclipse.equinox.p2.core.spi.IAgentService;
 import org.eclipse.equinox.p2.engine.*;
 import org.eclipse.equinox.p2.engine.query.IUProfilePropertyQuery;
 import org.eclipse.equinox.p2.metadata.*;
@@ -45,7 +50,7 @@ import org.eclipse.equinox.p2.planner.*;
 import org.eclipse.equinox.p2.query.*;
 import org.eclipse.osgi.util.NLS;
 
-public class SimplePlanner implements IPlanner {
+public class SimplePlanner implements IPlanner, IAgentService {
 	private static final boolean DEBUG = Tracing.DEBUG_PLANNER_OPERANDS;
 
 	private static final int ExpandWork = 12;
@@ -60,6 +65,10 @@ public class SimplePlanner implements IPlanner {
 	private final IProvisioningAgent agent;
 	private final IProfileRegistry profileRegistry;
 	private final IEngine engine;
+	private final PlannerCache cache;
+	private final MetadataInterner interner;
+	private IProvisioningEventBus bus;
+	private ProvisioningListener cacheInvalidator;
 
 	private IProvisioningPlan generateProvisioningPlan(Collection<IInstallableUnit> fromState,
 			Collection<IInstallableUnit> toState, ProfileChangeRequest changeRequest, IProvisioningPlan installerPlan,
@@ -357,12 +366,75 @@ public class SimplePlanner implements IPlanner {
 	}
 
 	public SimplePlanner(IProvisioningAgent agent) {
+		this(agent, getDefaultCacheSize(agent));
+	}
+
+	/**
+	 * Creates a planner that keeps up to <code>cacheSize</code> solutions, see
+	 * {@link PlannerCache}. The cached solutions are discarded whenever a
+	 * repository is added, removed, refreshed, enabled or disabled.
+	 */
+	public SimplePlanner(IProvisioningAgent agent, int cacheSize) {
 		Assert.isNotNull(agent);
 		this.agent = agent;
 		this.engine = agent.getService(IEngine.class);
 		this.profileRegistry = agent.getService(IProfileRegistry.class);
+		this.interner = agent.getService(MetadataInterner.class);
 		Assert.isNotNull(engine);
 		Assert.isNotNull(profileRegistry);
+		this.cache = new PlannerCache(cacheSize);
+		if (cache.isEnabled()) {
+			bus = agent.getService(IProvisioningEventBus.class);
+			if (bus != null) {
+				cacheInvalidator = event -> {
+					if (event instanceof RepositoryEvent)
+						cache.clear();
+				};
+				bus.addListener(cacheInvalidator);
+			}
+		}
+	}
+
+	@Override
+	public void start() {
+		// the cache listens to the event bus from the creation of the planner
+	}
+
+	/**
+	 * Stops listening to the repository events and discards the cached
+	 * solutions. The agent stops the planner it created when it is stopped; a
+	 * planner created directly has to be stopped by its creator.
+	 */
+	@Override
+	public void stop() {
+		if (cacheInvalidator != null) {
+			bus.removeListener(cacheInvalidator);
+			cacheInvalidator = null;
+		}
+		cache.clear();
+	}
+
+	private static int getDefaultCacheSize(IProvisioningAgent agent) {
+		String size = agent.getProperty(PlannerCache.PROP_CACHE_SIZE);
+		if (size == null)
+			return 0;
+		try {
+			return Math.max(0, Integer.parseInt(size.trim()));
+		} catch (NumberFormatException e) {
+			LogHelper.log(Status.warning("Invalid planner cache size: " + size, e)); //$NON-NLS-1$
+			return 0;
+		}
+	}
+
+	public PlannerCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * Discards the solutions cached by this planner.
+	 */
+	public void clearCache() {
+		cache.clear();
 	}
 
 	private boolean satisfyMetaRequirements(Map<String, String> props) {
@@ -381,8 +453,8 @@ public class SimplePlanner implements IPlanner {
 	 * @param context              The context for the resolution pass
 	 * @param monitor
 	 *
-	 * @return Return a {@link Projector} that captures the complete future state of
-	 *         the profile that satisfies the request. If the request can't be
+	 * @return Return a {@link PlannerSolution} that captures the complete future
+	 *         state of the profile that satisfies the request. If the request can't be
 	 *         satisfied return an {@link IProvisioningPlan} where the error is
 	 *         captured in {@link IProvisioningPlan#getStatus()}
 	 */
@@ -407,6 +479,17 @@ public class SimplePlanner implements IPlanner {
 
 			Collection<IInstallableUnit> availableIUs = gatherAvailableInstallableUnits(extraIUs, context,
 					sub.newChild(ExpandWork / 4));
+			boolean userDefined = profileChangeRequest.getPropertiesToAdd().containsKey("_internal_user_defined_"); //$NON-NLS-1$
+			PlannerCache.Key key = null;
+			if (cache.isEnabled()) {
+				key = PlannerCache.createKey((IInstallableUnit) updatedPlan[0], (IInstallableUnit[]) updatedPlan[1],
+						profileChangeRequest.getAdditions(), newSelectionContext,
+						satisfyMetaRequirements(profileChangeRequest.getProfileProperties()), userDefined, profile,
+						availableIUs);
+				PlannerSolution cached = cache.get(key);
+				if (cached != null)
+					return cached;
+			}
 			Slicer slicer = new Slicer(new QueryableArray(availableIUs), newSelectionContext,
 					satisfyMetaRequirements(profileChangeRequest.getProfileProperties()));
 			IQueryable<IInstallableUnit> slice = slicer.slice(List.of((IInstallableUnit) updatedPlan[0]),
@@ -419,7 +502,7 @@ public class SimplePlanner implements IPlanner {
 			slice = new CompoundQueryable<>(List.of(slice, new QueryableArray(profileChangeRequest.getAdditions())));
 			Projector projector = new Projector(slice, newSelectionContext, slicer.getNonGreedyIUs(),
 					satisfyMetaRequirements(profileChangeRequest.getProfileProperties()));
-			projector.setUserDefined(profileChangeRequest.getPropertiesToAdd().containsKey("_internal_user_defined_")); //$NON-NLS-1$
+			projector.setUserDefined(userDefined);
 			projector.encode((IInstallableUnit) updatedPlan[0], (IInstallableUnit[]) updatedPlan[1], profile,
 					profileChangeRequest.getAdditions(), sub.newChild(ExpandWork / 4));
 
@@ -462,7 +545,7 @@ public class SimplePlanner implements IPlanner {
 			// The resolution succeeded. We can forget about the warnings since there is a
 			// solution.
 			case OK: {
-				return projector;
+				return createSolution(projector, key);
 			}
 
 			// Log the unexpected status type, but continue
@@ -470,7 +553,7 @@ public class SimplePlanner implements IPlanner {
 				if (Tracing.DEBUG) {
 					LogHelper.log(s);
 				}
-				return projector;
+				return createSolution(projector, key);
 			}
 			}
 		} finally {
@@ -478,6 +561,14 @@ public class SimplePlanner implements IPlanner {
 		}
 	}
 
+	private PlannerSolution createSolution(Projector projector, PlannerCache.Key key) {
+		PlannerSolution solution = new PlannerSolution(projector);
+		projector.close();
+		if (key != null)
+			cache.put(key, solution);
+		return solution;
+	}
+
 	@Override
 	public IProvisioningPlan getProvisioningPlan(IProfileChangeRequest request, ProvisioningContext context,
 			IProgressMonitor monitor) {
@@ -492,14 +583,13 @@ public class SimplePlanner implements IPlanner {
 				return plan;
 			}
 
-			Projector projector = (Projector) resolutionResult;
-			Collection<IInstallableUnit> newState = projector.extractSolution();
+			PlannerSolution solution = (PlannerSolution) resolutionResult;
+			Collection<IInstallableUnit> newState = solution.extractSolution();
 			Collection<IInstallableUnit> fullState = new ArrayList<>();
 			fullState.addAll(newState);
-			newState = AttachmentHelper.attachFragments(newState.stream(), projector.getFragmentAssociation());
+			newState = AttachmentHelper.attachFragments(newState.stream(), solution.getFragmentAssociation());
 
-			IProvisioningPlan temporaryPlan = generatePlan(projector, newState, pcr, context);
-			projector.close();
+			IProvisioningPlan temporaryPlan = generatePlan(solution, newState, pcr, context);
 
 			// Create a plan for installing necessary pieces to complete the installation
 			// (e.g touchpoint actions)
@@ -690,7 +780,7 @@ public class SimplePlanner implements IPlanner {
 		}
 
 		initialPlan
-				.setInstallerPlan(generatePlan((Projector) externalInstallerPlan, null, agentRequest, initialContext));
+				.setInstallerPlan(generatePlan((PlannerSolution) externalInstallerPlan, null, agentRequest, initialContext));
 		return initialPlan;
 	}
 
@@ -752,10 +842,10 @@ public class SimplePlanner implements IPlanner {
 
 		// Compute the installer plan. It is the difference between what is currently in
 		// the profile and the solution we just computed
-		Collection<IInstallableUnit> agentState = ((Projector) agentSolution).extractSolution();
+		Collection<IInstallableUnit> agentState = ((PlannerSolution) agentSolution).extractSolution();
 		agentState.remove(metaRequirementIU); // Remove the fake IU
 		agentState = AttachmentHelper.attachFragments(agentState.stream(),
-				((Projector) agentSolution).getFragmentAssociation());
+				((PlannerSolution) agentSolution).getFragmentAssociation());
 
 		ProvisioningContext noRepoContext = createNoRepoContext(initialRequest);
 		// ...This computes the attachment of what is currently in the profile
@@ -770,7 +860,7 @@ public class SimplePlanner implements IPlanner {
 		}
 		var profileState = initialRequest.getProfile().query(QueryUtil.createIUAnyQuery(), null).stream();
 		Collection<IInstallableUnit> initialState = AttachmentHelper.attachFragments(profileState,
-				((Projector) initialSolution).getFragmentAssociation());
+				((PlannerSolution) initialSolution).getFragmentAssociation());
 
 		IProvisioningPlan agentPlan = generateProvisioningPlan(initialState, agentState, initialRequest, null,
 				initialContext);
@@ -781,7 +871,7 @@ public class SimplePlanner implements IPlanner {
 	}
 
 	// Compute the set of operands based on the solution obtained previously
-	private IProvisioningPlan generatePlan(Projector newSolution, Collection<IInstallableUnit> newState,
+	private IProvisioningPlan generatePlan(PlannerSolution newSolution, Collection<IInstallableUnit> newState,
 			ProfileChangeRequest request, ProvisioningContext context) {
 		// Compute the attachment of the new state if not provided
 		if (newState == null) {
@@ -802,7 +892,7 @@ public class SimplePlanner implements IPlanner {
 		}
 		Stream<IInstallableUnit> profileState = request.getProfile().query(QueryUtil.createIUAnyQuery(), null).stream();
 		Collection<IInstallableUnit> initialState = AttachmentHelper.attachFragments(profileState,
-				((Projector) initialSolution).getFragmentAssociation());
+				((PlannerSolution) initialSolution).getFragmentAssociation());
 
 		// Generate the plan
 		return generateProvisioningPlan(initialState, newState, request, null, context);
@@ -840,7 +930,7 @@ public class SimplePlanner implements IPlanner {
 		List<IProvidedCapability> providedCapabilities = new ArrayList<>();
 		IProvidedCapability providedCapability = MetadataFactory
 				.createProvidedCapability(IInstallableUnit.NAMESPACE_IU_ID, id, version);
-		providedCapabilities.add(providedCapability);
+		providedCapabilities.add(intern(providedCapability));
 		description.addProvidedCapabilities(providedCapabilities);
 
 		return MetadataFactory.createInstallableUnit(description);
@@ -944,13 +1034,22 @@ public class SimplePlanner implements IPlanner {
 	}
 
 	private IRequirement createOptionalRequirement(IInstallableUnit iu) {
-		return MetadataFactory.createRequirement(IInstallableUnit.NAMESPACE_IU_ID, iu.getId(),
-				new VersionRange(iu.getVersion(), true, iu.getVersion(), true), null, true, false, true);
+		return intern(MetadataFactory.createRequirement(IInstallableUnit.NAMESPACE_IU_ID, iu.getId(),
+				new VersionRange(iu.getVersion(), true, iu.getVersion(), true), null, true, false, true));
 	}
 
 	private IRequirement createStrictRequirement(IInstallableUnit iu) {
-		return MetadataFactory.createRequirement(IInstallableUnit.NAMESPACE_IU_ID, iu.getId(),
-				new VersionRange(iu.getVersion(), true, iu.getVersion(), true), null, false, false, true);
+		return intern(MetadataFactory.createRequirement(IInstallableUnit.NAMESPACE_IU_ID, iu.getId(),
+				new VersionRange(iu.getVersion(), true, iu.getVersion(), true), null, false, false, true));
+	}
+
+	// the requirements on the roots of a profile are the same from one plan to the next
+	private IRequirement intern(IRequirement requirement) {
+		return interner == null ? requirement : interner.intern(requirement);
+	}
+
+	private IProvidedCapability intern(IProvidedCapability capability) {
+		return interner == null ? capability : interner.intern(capability);
 	}
 
 	@Override
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2007, 2022 IBM Corporation and others.
+ *  Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -16,6 +16,8 @@
 package org.eclipse.equinox.internal.p2.director;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import org.eclipse.core.runtime.*;
 import org.eclipse.equinox.internal.p2.core.helpers.LogHelper;
 import org.eclipse.equinox.internal.p2.core.helpers.Tracing;
@@ -27,6 +29,13 @@ import org.eclipse.equinox.p2.query.*;
 import org.eclipse.osgi.util.NLS;
 
 public class Slicer {
+	/**
+	 * Framework property giving the number of threads used to expand the
+	 * requirements of the units being sliced. The default of 1 slices
+	 * sequentially.
+	 */
+	public static final String PROP_SLICER_THREADS = "eclipse.p2.slicer.threads"; //$NON-NLS-1$
+
 	private static boolean DEBUG = false;
 	private final IQueryable<IInstallableUnit> possibilites;
 	private final boolean considerMetaRequirements;
@@ -38,6 +47,14 @@ public class Slicer {
 	private Queue<IInstallableUnit> toProcess;
 	private Set<IInstallableUnit> considered; // IUs to add to the slice
 	private final Set<IInstallableUnit> nonGreedyIUs = new HashSet<>(); // IUs that are brought in by non greedy dependencies
+	private int threads = getDefaultThreads();
+
+	/**
+	 * The outcome of expanding the requirements of a unit, before it is merged
+	 * into the slice.
+	 */
+	private record Expansion(IInstallableUnit iu, List<IInstallableUnit> matches, List<IRequirement> unsatisfied) {
+	}
 
 	public Slicer(IQueryable<IInstallableUnit> input, Map<String, String> context, boolean considerMetaRequirements) {
 		this(input, InstallableUnit.contextIU(context), considerMetaRequirements);
@@ -50,6 +67,34 @@ public class Slicer {
 		this.considerMetaRequirements = considerMetaRequirements;
 	}
 
+	private static int getDefaultThreads() {
+		String value = DirectorActivator.context.map(c -> c.getProperty(PROP_SLICER_THREADS))
+				.orElseGet(() -> System.getProperty(PROP_SLICER_THREADS));
+		if (value != null) {
+			try {
+				return Math.max(1, Integer.parseInt(value.trim()));
+			} catch (NumberFormatException e) {
+				// use the default
+			}
+		}
+		return 1;
+	}
+
+	/**
+	 * Sets the number of threads used to expand requirements. With more than
+	 * one thread, the units found at the same distance from the roots are
+	 * expanded concurrently, which requires the queryable to support
+	 * concurrent queries. The result and status are the same as when slicing
+	 * sequentially.
+	 * <p>
+	 * Subclasses are sliced sequentially unless they opt in through
+	 * {@link #supportsConcurrentSlicing()}.
+	 * </p>
+	 */
+	public void setThreads(int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
 	public IQueryable<IInstallableUnit> slice(Collection<IInstallableUnit> ius, IProgressMonitor monitor) {
 		monitor = IProgressMonitor.nullSafe(monitor);
 		try {
@@ -61,12 +106,13 @@ public class Slicer {
 			validateInput(ius);
 			considered = new HashSet<>(ius);
 			toProcess = new LinkedList<>(considered);
-			while (!toProcess.isEmpty()) {
-				if (monitor.isCanceled()) {
-					result.merge(Status.CANCEL_STATUS);
-					throw new OperationCanceledException();
+			if (threads > 1 && supportsConcurrentSlicing()) {
+				sliceConcurrently(monitor);
+			} else {
+				while (!toProcess.isEmpty()) {
+					checkCanceled(monitor);
+					processIU(toProcess.remove());
 				}
-				processIU(toProcess.remove());
 			}
 			computeNonGreedyIUs();
 			if (DEBUG) {
@@ -85,6 +131,65 @@ public class Slicer {
 		return new QueryableArray(considered);
 	}
 
+	/**
+	 * Returns whether the units may be expanded concurrently when more than one
+	 * thread is set. The concurrent slicer expands and merges the units itself,
+	 * without going through {@link #processIU(IInstallableUnit)}, and calls the
+	 * other methods of the slicer from several threads. This slicer and the
+	 * {@link PermissiveSlicer} support it; a subclass returns <code>true</code>
+	 * to declare that it does not override <code>processIU</code> and is safe
+	 * to call concurrently.
+	 *
+	 * @return <code>true</code> if the slicer supports concurrent slicing
+	 */
+	protected boolean supportsConcurrentSlicing() {
+		return getClass() == Slicer.class || getClass() == PermissiveSlicer.class;
+	}
+
+	private void checkCanceled(IProgressMonitor monitor) {
+		if (monitor.isCanceled()) {
+			result.merge(Status.CANCEL_STATUS);
+			throw new OperationCanceledException();
+		}
+	}
+
+	/*
+	 * Processes the queue one generation at a time: the units of a generation
+	 * are expanded concurrently, and the expansions are then merged in queue
+	 * order, which is the order in which the sequential slicer processes them.
+	 */
+	private void sliceConcurrently(IProgressMonitor monitor) {
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			while (!toProcess.isEmpty()) {
+				List<IInstallableUnit> generation = new ArrayList<>(toProcess);
+				toProcess.clear();
+				List<Expansion> expansions;
+				if (generation.size() == 1) {
+					expansions = List.of(expand(generation.get(0)));
+				} else {
+					try {
+						expansions = pool.submit(() -> generation.parallelStream().map(this::expand).toList()).get();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new OperationCanceledException();
+					} catch (ExecutionException e) {
+						if (e.getCause() instanceof RuntimeException runtime) {
+							throw runtime;
+						}
+						throw new IllegalStateException(e.getCause());
+					}
+				}
+				for (Expansion expansion : expansions) {
+					checkCanceled(monitor);
+					merge(expansion);
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
 	private void computeNonGreedyIUs() {
 		IQueryable<IInstallableUnit> queryable = new QueryableArray(considered);
 		for (IInstallableUnit iu : queryable.query(QueryUtil.ALL_UNITS, new NullProgressMonitor())) {
@@ -133,18 +238,42 @@ public class Slicer {
 	}
 
 	protected void processIU(IInstallableUnit iu) {
+		merge(expand(iu));
+	}
+
+	/*
+	 * Finds the units matching the requirements of the given unit. This does not
+	 * modify the slicer, so that units can be expanded concurrently.
+	 */
+	private Expansion expand(IInstallableUnit iu) {
 		iu = iu.unresolved();
-		Map<Version, IInstallableUnit> iuSlice = slice.computeIfAbsent(iu.getId(), i -> new HashMap<>());
-		iuSlice.put(iu.getVersion(), iu);
 		if (!isApplicable(iu)) {
-			return;
+			return new Expansion(iu, List.of(), List.of());
 		}
+		List<IInstallableUnit> matches = new ArrayList<>();
+		List<IRequirement> unsatisfied = new ArrayList<>(0);
 		Collection<IRequirement> reqs = getRequirements(iu);
 		for (IRequirement req : reqs) {
 			if (isApplicable(iu, req) && isGreedy(iu, req)) {
-				expandRequirement(iu, req);
+				expandRequirement(iu, req, matches, unsatisfied);
 			}
 		}
+		return new Expansion(iu, matches, unsatisfied);
+	}
+
+	private void merge(Expansion expansion) {
+		IInstallableUnit iu = expansion.iu();
+		Map<Version, IInstallableUnit> iuSlice = slice.computeIfAbsent(iu.getId(), i -> new HashMap<>());
+		iuSlice.put(iu.getVersion(), iu);
+		for (IInstallableUnit match : expansion.matches()) {
+			Map<Version, IInstallableUnit> matchSlice = slice.get(match.getId());
+			if ((matchSlice == null || !matchSlice.containsKey(match.getVersion())) && considered.add(match)) {
+				toProcess.add(match);
+			}
+		}
+		for (IRequirement req : expansion.unsatisfied()) {
+			result.add(Status.warning(NLS.bind(Messages.Planner_Unsatisfied_dependency, iu, req)));
+		}
 	}
 
 	protected boolean isGreedy(IInstallableUnit unit, IRequirement req) {
@@ -183,7 +312,7 @@ public class Slicer {
 		return aggregatedRequirements;
 	}
 
-	private void expandRequirement(IInstallableUnit iu, IRequirement req) {
+	private void expandRequirement(IInstallableUnit iu, IRequirement req, List<IInstallableUnit> applicableMatches, List<IRequirement> unsatisfied) {
 		if (req.getMax() == 0) {
 			return;
 		}
@@ -194,10 +323,7 @@ public class Slicer {
 				continue;
 			}
 			validMatches++;
-			Map<Version, IInstallableUnit> iuSlice = slice.get(match.getId());
-			if ((iuSlice == null || !iuSlice.containsKey(match.getVersion())) && considered.add(match)) {
-				toProcess.add(match);
-			}
+			applicableMatches.add(match);
 		}
 		if (validMatches == 0) {
 			if (req.getMin() == 0) {
@@ -205,7 +331,7 @@ public class Slicer {
 					System.out.println("No IU found to satisfy optional dependency of " + iu + " on req " + req); //$NON-NLS-1$//$NON-NLS-2$
 				}
 			} else {
-				result.add(Status.warning(NLS.bind(Messages.Planner_Unsatisfied_dependency, iu, req)));
+				unsatisfied.add(req);
 			}
 		}
 	}
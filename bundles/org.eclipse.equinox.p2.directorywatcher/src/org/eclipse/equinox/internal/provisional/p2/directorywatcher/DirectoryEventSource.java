@@ -0,0 +1,222 @@
+/*******************************************************************************
+ *  Copyright (c) 2026 Eclipse contributors and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *  Contributors:
+ *  Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.provisional.p2.directorywatcher;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports the entries added, removed or modified in a set of directories
+ * using a {@link WatchService}. Directories for which no reliable events can be
+ * obtained, such as the ones on network file systems or the ones that do not
+ * exist yet, are reported as polled directories which the caller has to
+ * rescan periodically.
+ * <p>
+ * The entries of the watched directories that are directories themselves,
+ * such as unpacked bundles, are watched too, so that the addition or removal
+ * of a file in them, which changes their modification time, is reported as a
+ * change of the entry.
+ * </p>
+ */
+class DirectoryEventSource implements Closeable {
+	/**
+	 * File store types whose changes made by other hosts are not reported to
+	 * the watch service.
+	 */
+	private static final Set<String> REMOTE_FILE_STORES = Set.of("nfs", "nfs4", "cifs", "smbfs", "smb2", "afpfs", "webdav", "9p", "fuse.sshfs"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$
+
+	/**
+	 * The changes collected from one burst of events.
+	 *
+	 * @param entries the directory entries that have been added, removed or modified
+	 * @param rescan the directories that must be rescanned completely
+	 */
+	record Changes(Set<File> entries, Set<File> rescan) {
+		boolean isEmpty() {
+			return entries.isEmpty() && rescan.isEmpty();
+		}
+	}
+
+	private final WatchService service;
+	private final Map<WatchKey, File> keys = new HashMap<>();
+	private final Map<WatchKey, File> entryKeys = new HashMap<>();
+	// the entries of the watched directories, with the key watching them if they are directories
+	private final Map<File, WatchKey> watchedEntries = new HashMap<>();
+	private final Set<File> polled = new LinkedHashSet<>();
+
+	private DirectoryEventSource(WatchService service) {
+		this.service = service;
+	}
+
+	/**
+	 * Returns an event source for the given directories, or <code>null</code> if
+	 * the platform only provides a watch service that polls itself.
+	 */
+	static DirectoryEventSource open(File[] directories) {
+		WatchService service;
+		try {
+			service = FileSystems.getDefault().newWatchService();
+		} catch (IOException | UnsupportedOperationException e) {
+			return null;
+		}
+		// the JDK falls back to a polling implementation where the platform
+		// has no native events; it is not faster than polling ourselves
+		if (service.getClass().getName().endsWith("PollingWatchService")) { //$NON-NLS-1$
+			try {
+				service.close();
+			} catch (IOException e) {
+				// ignore
+			}
+			return null;
+		}
+		DirectoryEventSource source = new DirectoryEventSource(service);
+		for (File directory : directories)
+			source.register(directory);
+		return source;
+	}
+
+	private boolean register(File directory) {
+		try {
+			Path path = directory.toPath();
+			if (!Files.isDirectory(path) || REMOTE_FILE_STORES.contains(Files.getFileStore(path).type())) {
+				polled.add(directory);
+				return false;
+			}
+			keys.put(path.register(service, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY), directory);
+			polled.remove(directory);
+			return true;
+		} catch (IOException | InvalidPathException | UnsupportedOperationException e) {
+			polled.add(directory);
+			return false;
+		}
+	}
+
+	/**
+	 * Returns the directories that must be rescanned periodically because they
+	 * are not watched. Watching is attempted again for each of them, and the
+	 * ones now watched are not polled anymore once this scan is done.
+	 */
+	synchronized Set<File> getPolledDirectories() {
+		Set<File> result = new HashSet<>(polled);
+		for (File directory : result)
+			register(directory);
+		return result;
+	}
+
+	/**
+	 * Watches the given entries that are directories and whose parent is
+	 * watched, and stops watching the entries not given anymore.
+	 *
+	 * @param entries the entries found by the last scan
+	 * @param changed the entries reported as changed since the previous call,
+	 *        which may have been replaced by a file or a directory
+	 */
+	synchronized void watchEntries(Set<File> entries, Set<File> changed) {
+		for (Iterator<Map.Entry<File, WatchKey>> it = watchedEntries.entrySet().iterator(); it.hasNext();) {
+			Map.Entry<File, WatchKey> watched = it.next();
+			if (!entries.contains(watched.getKey()) || changed.contains(watched.getKey())) {
+				cancel(watched.getValue());
+				it.remove();
+			}
+		}
+		Set<File> directories = new HashSet<>(keys.values());
+		for (File entry : entries) {
+			if (watchedEntries.containsKey(entry) || !directories.contains(entry.getParentFile()))
+				continue;
+			WatchKey key = null;
+			try {
+				Path path = entry.toPath();
+				if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+					key = path.register(service, ENTRY_CREATE, ENTRY_DELETE);
+					entryKeys.put(key, entry);
+				}
+			} catch (IOException | InvalidPathException | UnsupportedOperationException e) {
+				// the entry is only seen to change when its directory does
+			}
+			watchedEntries.put(entry, key);
+		}
+	}
+
+	private void cancel(WatchKey key) {
+		if (key != null) {
+			key.cancel();
+			entryKeys.remove(key);
+		}
+	}
+
+	synchronized boolean hasPolledDirectories() {
+		return !polled.isEmpty();
+	}
+
+	/**
+	 * Waits for changes and collects them until no more event has been
+	 * reported for the given quiet period, so that a burst of events, such as
+	 * the ones caused by the copy of a large file, is reported at once.
+	 *
+	 * @param timeout how long to wait for a first event in milliseconds, or a
+	 *        negative value to wait indefinitely
+	 * @param quietPeriod how long to wait for further events in milliseconds
+	 * @return the collected changes, which are empty if the timeout elapsed
+	 * @throws ClosedWatchServiceException if the source has been closed
+	 */
+	Changes take(long timeout, long quietPeriod) throws InterruptedException {
+		Changes changes = new Changes(new HashSet<>(), new HashSet<>());
+		WatchKey key = timeout < 0 ? service.take() : service.poll(timeout, TimeUnit.MILLISECONDS);
+		// a burst is cut after a while so that a directory written to continuously is still reported
+		long deadline = System.currentTimeMillis() + 20 * quietPeriod;
+		while (key != null) {
+			collect(key, changes);
+			key = System.currentTimeMillis() < deadline ? service.poll(quietPeriod, TimeUnit.MILLISECONDS) : service.poll();
+		}
+		return changes;
+	}
+
+	private synchronized void collect(WatchKey key, Changes changes) {
+		File entry = entryKeys.get(key);
+		if (entry != null) {
+			// any addition or removal changes the modification time of the entry
+			key.pollEvents();
+			changes.entries().add(entry);
+			if (!key.reset()) {
+				entryKeys.remove(key);
+				watchedEntries.remove(entry);
+			}
+			return;
+		}
+		File directory = keys.get(key);
+		if (directory == null)
+			return;
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == OVERFLOW)
+				changes.rescan().add(directory);
+			else
+				changes.entries().add(new File(directory, event.context().toString()));
+		}
+		if (!key.reset()) {
+			// the directory has been deleted or is not accessible anymore
+			keys.remove(key);
+			polled.add(directory);
+			changes.rescan().add(directory);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		service.close();
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2007, 2017 aQute and others.
+ *  Copyright (c) 2007, 2026 aQute and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -7,38 +7,57 @@
  *  https://www.eclipse.org/legal/epl-2.0/
  *
  *  SPDX-License-Identifier: EPL-2.0
- * 
+ *
  *  Contributors:
- *  aQute - initial implementation and ideas 
+ *  aQute - initial implementation and ideas
  *  IBM Corporation - initial adaptation to Equinox provisioning use
  *******************************************************************************/
 package org.eclipse.equinox.internal.provisional.p2.directorywatcher;
 
-import java.io.File;
+import java.io.*;
+import java.nio.file.ClosedWatchServiceException;
 import java.util.*;
 import org.eclipse.osgi.util.NLS;
 import org.osgi.framework.BundleContext;
 
 public class DirectoryWatcher {
 	private static final String DEL_EXT = ".del"; //$NON-NLS-1$
+	private static final String SNAPSHOT_DIRECTORY = "d:"; //$NON-NLS-1$
+	private static final String SNAPSHOT_FILE = "f:"; //$NON-NLS-1$
 
+	/**
+	 * Scans the directories when they change. The changes are taken from the
+	 * events of the file system where it reports them, while the other
+	 * directories are rescanned every poll frequency.
+	 */
 	public class WatcherThread extends Thread {
 
 		private final long pollFrequency;
 		private boolean done = false;
+		private DirectoryEventSource events;
 
 		public WatcherThread(long pollFrequency) {
 			super("Directory Watcher"); //$NON-NLS-1$
 			this.pollFrequency = pollFrequency;
+			if (useEvents)
+				events = DirectoryEventSource.open(directories);
 		}
 
 		@Override
 		public void run() {
+			if (events != null)
+				runWithEvents();
+			else
+				runPolling();
+		}
+
+		private void runPolling() {
 			do {
 				try {
 					poll();
 					synchronized (this) {
-						wait(pollFrequency);
+						if (!done)
+							wait(pollFrequency);
 					}
 				} catch (InterruptedException e) {
 					// ignore
@@ -49,15 +68,75 @@ public class DirectoryWatcher {
 			} while (!done);
 		}
 
+		private void runWithEvents() {
+			try {
+				poll();
+				events.watchEntries(getScannedFiles(), Collections.emptySet());
+				long nextPoll = System.currentTimeMillis() + pollFrequency;
+				while (!isDone()) {
+					long timeout = events.hasPolledDirectories() ? Math.max(1, nextPoll - System.currentTimeMillis()) : -1;
+					DirectoryEventSource.Changes changes;
+					try {
+						changes = events.take(timeout, coalescePeriod);
+					} catch (InterruptedException e) {
+						continue;
+					}
+					if (System.currentTimeMillis() >= nextPoll) {
+						changes.rescan().addAll(events.getPolledDirectories());
+						nextPoll = System.currentTimeMillis() + pollFrequency;
+					}
+					if (!changes.isEmpty()) {
+						update(changes.rescan(), changes.entries());
+						events.watchEntries(getScannedFiles(), changes.entries());
+					}
+				}
+			} catch (ClosedWatchServiceException e) {
+				// stopped
+			} catch (Throwable e) {
+				log(Messages.error_main_loop, e);
+			} finally {
+				done();
+			}
+		}
+
+		private synchronized boolean isDone() {
+			return done;
+		}
+
 		public synchronized void done() {
 			done = true;
 			notify();
+			if (events != null) {
+				try {
+					events.close();
+				} catch (IOException e) {
+					// ignore
+				}
+			}
 		}
 	}
 
 	public final static String POLL = "eclipse.p2.directory.watcher.poll"; //$NON-NLS-1$
 	public final static String DIR = "eclipse.p2.directory.watcher.dir"; //$NON-NLS-1$
+	/**
+	 * Whether the watcher thread takes the changes from the events of the file
+	 * system rather than rescanning the directories periodically. Defaults to
+	 * <code>true</code>.
+	 */
+	public final static String EVENTS = "eclipse.p2.directory.watcher.events"; //$NON-NLS-1$
+	/**
+	 * How long in milliseconds the watcher thread waits for further events
+	 * before processing a burst of changes.
+	 */
+	public final static String COALESCE = "eclipse.p2.directory.watcher.coalesce"; //$NON-NLS-1$
+	/**
+	 * The file in which the state of the watched directories is kept between
+	 * sessions.
+	 * @see #setSnapshotFile(File)
+	 */
+	public final static String SNAPSHOT = "eclipse.p2.directory.watcher.snapshot"; //$NON-NLS-1$
 	private static final long DEFAULT_POLL_FREQUENCY = 2000;
+	private static final long DEFAULT_COALESCE_PERIOD = 100;
 
 	public static void log(String string, Throwable e) {
 		System.err.println(string + ": " + e); //$NON-NLS-1$
@@ -65,12 +144,22 @@ public class DirectoryWatcher {
 
 	final File[] directories;
 
-	long poll = 2000;
+	long poll = DEFAULT_POLL_FREQUENCY;
+	long coalescePeriod = Long.getLong(COALESCE, DEFAULT_COALESCE_PERIOD);
+	boolean useEvents = !"false".equals(System.getProperty(EVENTS)); //$NON-NLS-1$
 	private Set<DirectoryChangeListener> listeners = new HashSet<>();
-	private HashSet<File> scannedFiles = new HashSet<>();
+	// the files seen by the last scan and their last modification time
+	private HashMap<File, Long> scannedFiles = new HashMap<>();
+	private HashMap<File, Long> previouslyScannedFiles;
 	private HashSet<File> removals;
 	private Set<File> pendingDeletions;
 	private WatcherThread watcher;
+	private File snapshotFile;
+	// the modification time of the directories, when their entries were last listed
+	private Map<File, Long> directoryTimestamps = new HashMap<>();
+	// the directories whose entries are taken from the snapshot by the next poll
+	private Set<File> trustedDirectories = Collections.emptySet();
+	private boolean snapshotChanged;
 
 	public DirectoryWatcher(Map<String, String> properties, BundleContext context) {
 		String dir = properties.get(DIR);
@@ -80,6 +169,31 @@ public class DirectoryWatcher {
 		File targetDirectory = new File(dir);
 		targetDirectory.mkdirs();
 		directories = new File[] {targetDirectory};
+
+		poll = getLong(properties, POLL, poll);
+		String events = properties.get(EVENTS);
+		if (events != null)
+			useEvents = Boolean.parseBoolean(events);
+		coalescePeriod = getLong(properties, COALESCE, coalescePeriod);
+		String snapshot = properties.get(SNAPSHOT);
+		if (snapshot != null)
+			setSnapshotFile(new File(snapshot));
+	}
+
+	/**
+	 * Returns the value of a numeric property, or the given default if the
+	 * property is not set or is not a number.
+	 */
+	private static long getLong(Map<String, String> properties, String key, long defaultValue) {
+		String value = properties.get(key);
+		if (value == null)
+			return defaultValue;
+		try {
+			return Long.parseLong(value.trim());
+		} catch (NumberFormatException e) {
+			log(NLS.bind(Messages.error_processing, key), e);
+			return defaultValue;
+		}
 	}
 
 	public DirectoryWatcher(File directory) {
@@ -103,13 +217,45 @@ public class DirectoryWatcher {
 		listeners.remove(listener);
 	}
 
+	/**
+	 * Sets the file in which the watcher keeps the entries of the watched
+	 * directories and their modification times, and loads the state saved
+	 * in it by a previous session. The next {@link #poll()} then takes the
+	 * entries of the directories that have not been modified since from the
+	 * snapshot instead of reading them from disk.
+	 * <p>
+	 * A file replaced in place, without adding or removing an entry of its
+	 * directory while the watcher was not running, is therefore not noticed by
+	 * that first poll. The snapshot should only be used where the files are
+	 * added and removed rather than overwritten.
+	 * </p>
+	 * @param file the snapshot file, or <code>null</code> to keep no snapshot
+	 */
+	public synchronized void setSnapshotFile(File file) {
+		snapshotFile = file;
+		if (file != null && file.isFile())
+			loadSnapshot();
+	}
+
 	public void start() {
-		start(DEFAULT_POLL_FREQUENCY);
+		start(poll);
 	}
 
 	public synchronized void poll() {
+		Set<File> rescan = new HashSet<>(Arrays.asList(directories));
+		rescan.removeAll(trustedDirectories);
+		trustedDirectories = Collections.emptySet();
+		update(rescan, Collections.emptySet());
+	}
+
+	/**
+	 * Notifies the listeners of the current content of the directories. The
+	 * given directories are listed again, while the entries of the others are
+	 * those of the last scan, updated with the given changed entries.
+	 */
+	synchronized void update(Set<File> rescan, Set<File> changedEntries) {
 		startPoll();
-		scanDirectories();
+		scanDirectories(rescan, changedEntries);
 		stopPoll();
 	}
 
@@ -129,49 +275,111 @@ public class DirectoryWatcher {
 		watcher = null;
 	}
 
+	/**
+	 * Returns whether the watcher thread has been started and takes the changes
+	 * from the events of the file system.
+	 */
+	public synchronized boolean isEventDriven() {
+		return watcher != null && watcher.events != null;
+	}
+
+	/**
+	 * Returns the entries of the directories found by the last scan.
+	 */
+	synchronized Set<File> getScannedFiles() {
+		return new HashSet<>(scannedFiles.keySet());
+	}
+
 	public File[] getDirectories() {
 		return directories;
 	}
 
 	private void startPoll() {
-		removals = scannedFiles;
-		scannedFiles = new HashSet<>();
+		previouslyScannedFiles = scannedFiles;
+		removals = new HashSet<>(scannedFiles.keySet());
+		scannedFiles = new HashMap<>();
 		pendingDeletions = new HashSet<>();
 		for (DirectoryChangeListener listener : listeners)
 			listener.startPoll();
 	}
 
-	private void scanDirectories() {
+	private void scanDirectories(Set<File> rescan, Set<File> changedEntries) {
+		Map<File, List<File>> knownEntries = new HashMap<>();
+		for (File file : previouslyScannedFiles.keySet())
+			knownEntries.computeIfAbsent(file.getParentFile(), k -> new ArrayList<>()).add(file);
+		for (File file : changedEntries)
+			knownEntries.computeIfAbsent(file.getParentFile(), k -> new ArrayList<>()).add(file);
+
 		for (File directory : directories) {
-			File list[] = directory.listFiles();
-			if (list == null)
-				continue;
-			for (File file : list) {
-				// if this is a deletion marker then add to the list of pending deletions.
-				if (file.getPath().endsWith(DEL_EXT)) {
-					File target = new File(file.getPath().substring(0, file.getPath().length() - 4));
-					removals.add(target);
-					pendingDeletions.add(target);
-				} else {
-					// else remember that we saw the file and remove it from this list of files to be 
-					// removed at the end.  Then notify all the listeners as needed.
-					scannedFiles.add(file);
-					removals.remove(file);
-					for (DirectoryChangeListener listener : listeners) {
-						if (isInterested(listener, file))
-							processFile(file, listener);
-					}
+			if (rescan.contains(directory)) {
+				// take the timestamp first so that a change made while listing is seen next time
+				updateDirectoryTimestamp(directory);
+				File list[] = directory.listFiles();
+				if (list == null)
+					continue;
+				for (File file : list)
+					scanFile(file, null);
+			} else {
+				List<File> entries = knownEntries.get(directory);
+				if (entries == null)
+					continue;
+				if (!changedEntries.isEmpty())
+					updateDirectoryTimestamp(directory);
+				for (File file : entries) {
+					if (!changedEntries.contains(file))
+						scanFile(file, previouslyScannedFiles.get(file));
+					else if (!scannedFiles.containsKey(file) && file.exists())
+						scanFile(file, null);
 				}
 			}
 		}
 	}
 
+	private void updateDirectoryTimestamp(File directory) {
+		Long timestamp = Long.valueOf(directory.lastModified());
+		if (!timestamp.equals(directoryTimestamps.put(directory, timestamp)))
+			snapshotChanged = true;
+	}
+
+	/**
+	 * Processes an entry of a directory.
+	 * @param lastModified the modification time of the file if it is known to be unchanged,
+	 * <code>null</code> to read it from disk
+	 */
+	private void scanFile(File file, Long lastModified) {
+		// if this is a deletion marker then add to the list of pending deletions.
+		if (file.getPath().endsWith(DEL_EXT)) {
+			File target = new File(file.getPath().substring(0, file.getPath().length() - 4));
+			removals.add(target);
+			pendingDeletions.add(target);
+		} else {
+			// else remember that we saw the file and remove it from this list of files to be
+			// removed at the end.  Then notify all the listeners as needed.
+			long timestamp = lastModified != null ? lastModified.longValue() : file.lastModified();
+			scannedFiles.put(file, Long.valueOf(timestamp));
+			removals.remove(file);
+			for (DirectoryChangeListener listener : listeners) {
+				if (isInterested(listener, file))
+					processFile(file, timestamp, listener);
+			}
+		}
+	}
+
 	private void stopPoll() {
+		// a file marked for deletion is removed even though it has been seen
+		for (File file : removals)
+			scannedFiles.remove(file);
 		notifyRemovals();
-		removals = scannedFiles;
+		if (!scannedFiles.equals(previouslyScannedFiles))
+			snapshotChanged = true;
+		previouslyScannedFiles = null;
 		for (DirectoryChangeListener listener : listeners)
 			listener.stopPoll();
 		processPendingDeletions();
+		if (snapshotFile != null && snapshotChanged) {
+			saveSnapshot();
+			snapshotChanged = false;
+		}
 	}
 
 	private boolean isInterested(DirectoryChangeListener listener, File file) {
@@ -191,7 +399,7 @@ public class DirectoryWatcher {
 		}
 	}
 
-	private void processFile(File file, DirectoryChangeListener listener) {
+	private void processFile(File file, long lastModified, DirectoryChangeListener listener) {
 		try {
 			Long oldTimestamp = listener.getSeenFile(file);
 			if (oldTimestamp == null) {
@@ -199,7 +407,6 @@ public class DirectoryWatcher {
 				listener.added(file);
 			} else {
 				// The file is not new but may have changed
-				long lastModified = file.lastModified();
 				if (oldTimestamp.longValue() != lastModified)
 					listener.changed(file);
 			}
@@ -220,4 +427,56 @@ public class DirectoryWatcher {
 		}
 	}
 
+	private void loadSnapshot() {
+		Properties snapshot = new Properties();
+		try (InputStream input = new BufferedInputStream(new FileInputStream(snapshotFile))) {
+			snapshot.load(input);
+		} catch (IOException | IllegalArgumentException e) {
+			log(NLS.bind(Messages.error_processing, snapshotFile), e);
+			return;
+		}
+		Set<File> watched = new HashSet<>(Arrays.asList(directories));
+		HashMap<File, Long> files = new HashMap<>();
+		Set<File> trusted = new HashSet<>();
+		try {
+			for (String key : snapshot.stringPropertyNames()) {
+				Long timestamp = Long.valueOf(snapshot.getProperty(key));
+				if (key.startsWith(SNAPSHOT_FILE)) {
+					files.put(new File(key.substring(SNAPSHOT_FILE.length())), timestamp);
+				} else if (key.startsWith(SNAPSHOT_DIRECTORY)) {
+					File directory = new File(key.substring(SNAPSHOT_DIRECTORY.length()));
+					directoryTimestamps.put(directory, timestamp);
+					if (watched.contains(directory) && directory.lastModified() == timestamp.longValue())
+						trusted.add(directory);
+				}
+			}
+		} catch (NumberFormatException e) {
+			log(NLS.bind(Messages.error_processing, snapshotFile), e);
+			directoryTimestamps.clear();
+			return;
+		}
+		// only keep the files of watched directories
+		files.keySet().removeIf(file -> !watched.contains(file.getParentFile()));
+		scannedFiles = files;
+		trustedDirectories = trusted;
+	}
+
+	private void saveSnapshot() {
+		Properties snapshot = new Properties();
+		for (File directory : directories) {
+			Long timestamp = directoryTimestamps.get(directory);
+			if (timestamp != null)
+				snapshot.setProperty(SNAPSHOT_DIRECTORY + directory.getPath(), timestamp.toString());
+		}
+		for (Map.Entry<File, Long> entry : scannedFiles.entrySet())
+			snapshot.setProperty(SNAPSHOT_FILE + entry.getKey().getPath(), entry.getValue().toString());
+		File parent = snapshotFile.getParentFile();
+		if (parent != null)
+			parent.mkdirs();
+		try (OutputStream output = new BufferedOutputStream(new FileOutputStream(snapshotFile))) {
+			snapshot.store(output, null);
+		} catch (IOException e) {
+			log(NLS.bind(Messages.error_processing, snapshotFile), e);
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2017 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -50,14 +50,18 @@ public class DownloadManager {
 	 * This comparator sorts the repository URIs such that local URIs are first.
 	 */
 	public static final Comparator<URI> LOCAL_FIRST_URI_COMPARATOR = (arg0, arg1) -> {
-		boolean isLocal0 = LOCAL_URI_PATTERN.matcher(arg0.toString()).find();
-		boolean isLocal1 = LOCAL_URI_PATTERN.matcher(arg1.toString()).find();
+		boolean isLocal0 = isLocal(arg0);
+		boolean isLocal1 = isLocal(arg1);
 		if (isLocal0 != isLocal1) {
 			return isLocal0 ? -1 : 1;
 		}
 		return 0;
 	};
 
+	static boolean isLocal(URI location) {
+		return LOCAL_URI_PATTERN.matcher(location.toString()).find();
+	}
+
 	private Set<IInstallableUnit> ius;
 
 	public DownloadManager(ProvisioningContext context, IProvisioningAgent agent) {
@@ -110,8 +114,17 @@ public class DownloadManager {
 			IArtifactRepository[] repositories = getArtifactRepositories(subMonitor);
 			if (repositories.length == 0)
 				return new Status(IStatus.ERROR, EngineActivator.ID, Messages.download_no_repository, new Exception(Collect.NO_ARTIFACT_REPOSITORIES_AVAILABLE));
-			fetch(repositories, subMonitor.newChild(500));
-			return overallStatus(monitor, repositories);
+			IStatus fetchStatus = fetch(repositories, subMonitor.newChild(500));
+			if (fetchStatus.getSeverity() == IStatus.CANCEL)
+				return Status.CANCEL_STATUS;
+			IStatus result = overallStatus(monitor, repositories);
+			if (fetchStatus.isOK())
+				return result;
+			MultiStatus merged = new MultiStatus(EngineActivator.ID, IStatus.OK, null, null);
+			merged.add(fetchStatus);
+			if (!result.isOK())
+				merged.merge(result);
+			return merged;
 		} finally {
 			subMonitor.done();
 		}
@@ -134,7 +147,36 @@ public class DownloadManager {
 		return repositories;
 	}
 
-	private void fetch(IArtifactRepository[] repositories, IProgressMonitor mon) {
+	/**
+	 * Fetches the requests to process from the given repositories.
+	 *
+	 * @return {@link Status#CANCEL_STATUS} if the fetch has been canceled, or
+	 * the status of the fetch otherwise. The outcome of each download is the
+	 * result of its request.
+	 */
+	private IStatus fetch(IArtifactRepository[] repositories, IProgressMonitor mon) {
+		DownloadScheduler scheduler = getScheduler();
+		if (scheduler == null)
+			return fetchSequentially(repositories, mon);
+		// the scheduler interleaves the downloads from the repositories, and tells when those of each one start and end
+		IStatus status = scheduler.fetch(requestsToProcess.toArray(new IArtifactRequest[requestsToProcess.size()]), repositories, mon,
+				(type, repository, requests) -> publishDownloadEvent(new CollectEvent(type, repository, provContext, requests)));
+		filterUnfetched();
+		return status;
+	}
+
+	/**
+	 * Returns the agent's download scheduler, or <code>null</code> if the
+	 * repositories are to be asked for their artifacts one after the other.
+	 */
+	private DownloadScheduler getScheduler() {
+		if (Boolean.FALSE.toString().equalsIgnoreCase(EngineActivator.getProperty(DownloadScheduler.PROP_ENABLED, agent)))
+			return null;
+		DownloadScheduler scheduler = agent.getService(DownloadScheduler.class);
+		return scheduler != null ? scheduler : new DownloadScheduler(agent);
+	}
+
+	private IStatus fetchSequentially(IArtifactRepository[] repositories, IProgressMonitor mon) {
 		SubMonitor monitor = SubMonitor.convert(mon, requestsToProcess.size());
 		for (int i = 0; i < repositories.length && !requestsToProcess.isEmpty() && !monitor.isCanceled(); i++) {
 			IArtifactRequest[] requests = getRequestsForRepository(repositories[i]);
@@ -142,10 +184,11 @@ public class DownloadManager {
 			IStatus dlStatus = repositories[i].getArtifacts(requests, monitor.newChild(requests.length));
 			publishDownloadEvent(new CollectEvent(CollectEvent.TYPE_REPOSITORY_END, repositories[i], provContext, requests));
 			if (dlStatus.getSeverity() == IStatus.CANCEL)
-				return;
+				return Status.CANCEL_STATUS;
 			filterUnfetched();
 			monitor.setWorkRemaining(requestsToProcess.size());
 		}
+		return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
 	}
 
 	private void publishDownloadEvent(CollectEvent event) {
@@ -0,0 +1,626 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.engine;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.ThreadFactory;
+import org.eclipse.core.runtime.*;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.equinox.internal.p2.artifact.repository.simple.SimpleArtifactRepository;
+import org.eclipse.equinox.internal.p2.core.helpers.ThreadPoolHelper;
+import org.eclipse.equinox.p2.core.IProvisioningAgent;
+import org.eclipse.equinox.p2.metadata.IArtifactKey;
+import org.eclipse.equinox.p2.repository.artifact.*;
+
+/**
+ * An agent wide scheduler for artifact downloads. Requests are accepted from
+ * any number of concurrent fetches and dispatched one by one to the
+ * repositories that contain their artifact, so that a slow repository does
+ * not hold back the downloads from the others.
+ * <p>
+ * The number of concurrent downloads is bounded globally and per host. Among
+ * the pending downloads the largest artifacts are started first, which keeps
+ * a long download from being the last one to start. A request that fails in
+ * one repository is queued again for the next repository containing its
+ * artifact.
+ * </p>
+ * <p>
+ * The downloads are made by jobs, or by virtual threads when the agent sets
+ * {@link SimpleArtifactRepository#PROP_VIRTUAL_THREADS} and the VM provides
+ * them. A blocked download then does not hold a platform thread, and the
+ * default limits are raised accordingly.
+ * </p>
+ */
+public class DownloadScheduler {
+	public static final String SERVICE_NAME = DownloadScheduler.class.getName();
+
+	/**
+	 * Agent property giving the maximum number of concurrent downloads for the
+	 * whole agent.
+	 */
+	public static final String PROP_MAX_DOWNLOADS = "eclipse.p2.download.maxThreads"; //$NON-NLS-1$
+
+	/**
+	 * Agent property that disables the scheduler when set to <code>false</code>.
+	 * The repositories are then asked for their artifacts one after the other.
+	 */
+	public static final String PROP_ENABLED = "eclipse.p2.download.scheduler"; //$NON-NLS-1$
+
+	private static final int DEFAULT_MAX_DOWNLOADS = 8;
+	private static final int DEFAULT_MAX_PER_HOST = 4;
+	private static final int DEFAULT_MAX_VIRTUAL_DOWNLOADS = 64;
+	private static final long POLL_INTERVAL = 100;
+	// the ticks of the caller's monitor for each download, so that the progress within a download is shown
+	private static final int TICKS_PER_DOWNLOAD = 100;
+
+	/**
+	 * Notified when the downloads of a fetch from one repository start and when
+	 * they end.
+	 */
+	@FunctionalInterface
+	public interface RepositoryListener {
+		/**
+		 * @param type {@link CollectEvent#TYPE_REPOSITORY_START} before the
+		 *        first download from the repository starts, or
+		 *        {@link CollectEvent#TYPE_REPOSITORY_END} once no download of
+		 *        the fetch is in progress or can still be made from it
+		 * @param repository the repository
+		 * @param requests the requests that could be downloaded from the
+		 *        repository when its first download started
+		 */
+		void notify(int type, IArtifactRepository repository, IArtifactRequest[] requests);
+	}
+
+	/**
+	 * The requests of one call to {@link DownloadScheduler#fetch}.
+	 */
+	static class Fetch {
+		final RepositoryListener listener;
+		final List<Download> downloads = new ArrayList<>();
+		// the number of downloads not done yet that may still be made from each repository
+		final Map<IArtifactRepository, Integer> open = new HashMap<>();
+		final Map<IArtifactRepository, Batch> batches = new HashMap<>();
+		int remaining;
+		// the downloads done, plus the progress of those in progress, in downloads
+		double worked;
+		// the last task name reported by a download, not shown yet by the caller
+		String task;
+		// the listener calls that have been decided but not made yet
+		int notifying;
+		volatile boolean canceled;
+
+		Fetch(RepositoryListener listener) {
+			this.listener = listener;
+		}
+
+		void addOpen(IArtifactRepository repository, int delta) {
+			open.merge(repository, delta, Integer::sum);
+		}
+	}
+
+	/**
+	 * The downloads of a fetch from one repository, between the notifications
+	 * of their start and of their end.
+	 */
+	static class Batch {
+		final IArtifactRepository repository;
+		final IArtifactRequest[] requests;
+		boolean started;
+		boolean ended;
+
+		Batch(IArtifactRepository repository, IArtifactRequest[] requests) {
+			this.repository = repository;
+			this.requests = requests;
+		}
+	}
+
+	/**
+	 * A request waiting for, or being served by, one of its candidate
+	 * repositories.
+	 */
+	static class Download {
+		final Fetch fetch;
+		final IArtifactRequest request;
+		final List<IArtifactRepository> candidates;
+		final long size;
+		long sequence;
+		int attempt;
+		boolean done;
+		// the part of the download reported as done, between 0 and 1
+		double worked;
+		// the batch to notify the start of before downloading
+		Batch starting;
+
+		Download(Fetch fetch, IArtifactRequest request, List<IArtifactRepository> candidates, long size) {
+			this.fetch = fetch;
+			this.request = request;
+			this.candidates = candidates;
+			this.size = size;
+		}
+
+		IArtifactRepository repository() {
+			return candidates.get(attempt);
+		}
+	}
+
+	private static final Comparator<Download> LARGEST_FIRST = Comparator.<Download> comparingLong(d -> d.size).reversed().thenComparingLong(d -> d.sequence);
+
+	private final int maxDownloads;
+	private final int maxPerHost;
+	private final boolean threadLocal;
+	private final ThreadFactory threadFactory;
+	private final TreeSet<Download> pending = new TreeSet<>(LARGEST_FIRST);
+	private final Map<String, Integer> activePerHost = new HashMap<>();
+	private int workers;
+	private long sequence;
+
+	public DownloadScheduler(IProvisioningAgent agent) {
+		this(agent, getVirtualThreadFactory(agent));
+	}
+
+	private DownloadScheduler(IProvisioningAgent agent, ThreadFactory virtualThreads) {
+		this(getIntProperty(agent, PROP_MAX_DOWNLOADS, virtualThreads != null ? DEFAULT_MAX_VIRTUAL_DOWNLOADS : DEFAULT_MAX_DOWNLOADS), getIntProperty(agent, SimpleArtifactRepository.PROP_MAX_THREADS, virtualThreads != null ? DEFAULT_MAX_VIRTUAL_DOWNLOADS : DEFAULT_MAX_PER_HOST), Boolean.parseBoolean(EngineActivator.getProperty(SimpleArtifactRepository.PROP_FORCE_THREADING, agent)), virtualThreads);
+	}
+
+	/**
+	 * @param maxDownloads the maximum number of concurrent downloads
+	 * @param maxPerHost the maximum number of concurrent downloads from one host
+	 * @param threadLocal whether local repositories are read concurrently too
+	 */
+	public DownloadScheduler(int maxDownloads, int maxPerHost, boolean threadLocal) {
+		this(maxDownloads, maxPerHost, threadLocal, null);
+	}
+
+	/**
+	 * @param maxDownloads the maximum number of concurrent downloads
+	 * @param maxPerHost the maximum number of concurrent downloads from one host
+	 * @param threadLocal whether local repositories are read concurrently too
+	 * @param threadFactory the factory of the threads making the downloads, or
+	 *        <code>null</code> to make them in jobs
+	 */
+	public DownloadScheduler(int maxDownloads, int maxPerHost, boolean threadLocal, ThreadFactory threadFactory) {
+		this.maxDownloads = Math.max(1, maxDownloads);
+		this.maxPerHost = Math.max(1, maxPerHost);
+		this.threadLocal = threadLocal;
+		this.threadFactory = threadFactory;
+	}
+
+	/**
+	 * Returns a factory of virtual threads if the agent asks for them and the VM
+	 * provides them, or <code>null</code> otherwise.
+	 */
+	private static ThreadFactory getVirtualThreadFactory(IProvisioningAgent agent) {
+		if (!Boolean.parseBoolean(EngineActivator.getProperty(SimpleArtifactRepository.PROP_VIRTUAL_THREADS, agent)))
+			return null;
+		return ThreadPoolHelper.newVirtualThreadFactory("download-scheduler"); //$NON-NLS-1$
+	}
+
+	private static int getIntProperty(IProvisioningAgent agent, String key, int defaultValue) {
+		String value = EngineActivator.getProperty(key, agent);
+		if (value != null) {
+			try {
+				return Integer.parseInt(value);
+			} catch (NumberFormatException e) {
+				// use the default
+			}
+		}
+		return defaultValue;
+	}
+
+	/**
+	 * Fetches the given requests from the given repositories, which are tried in
+	 * the given order for each request. Returns once every request has a result
+	 * or the monitor has been canceled. The progress and the task names the
+	 * repositories report for the downloads are shown on the given monitor.
+	 *
+	 * @return {@link Status#CANCEL_STATUS} if the fetch has been canceled,
+	 * {@link Status#OK_STATUS} otherwise. The outcome of each download is the
+	 * result of its request.
+	 */
+	public IStatus fetch(IArtifactRequest[] requests, IArtifactRepository[] repositories, IProgressMonitor monitor) {
+		return fetch(requests, repositories, monitor, null);
+	}
+
+	/**
+	 * Fetches the given requests as {@link #fetch(IArtifactRequest[],
+	 * IArtifactRepository[], IProgressMonitor)} does, notifying the given
+	 * listener around the downloads from each repository. The listener is
+	 * called from the threads of the downloads, and every notification has
+	 * been made when this method returns.
+	 *
+	 * @param listener the listener, or <code>null</code>
+	 */
+	public IStatus fetch(IArtifactRequest[] requests, IArtifactRepository[] repositories, IProgressMonitor monitor, RepositoryListener listener) {
+		SubMonitor subMonitor = SubMonitor.convert(monitor, requests.length);
+		Fetch fetch = new Fetch(listener);
+		List<Download> downloads = fetch.downloads;
+		for (IArtifactRequest request : requests) {
+			List<IArtifactRepository> candidates = new ArrayList<>(2);
+			for (IArtifactRepository repository : repositories) {
+				if (repository.contains(request.getArtifactKey()))
+					candidates.add(repository);
+			}
+			if (!candidates.isEmpty())
+				downloads.add(new Download(fetch, request, candidates, getSize(candidates.get(0), request.getArtifactKey())));
+		}
+		subMonitor.setWorkRemaining(downloads.size() * TICKS_PER_DOWNLOAD);
+		synchronized (this) {
+			for (Download download : downloads) {
+				for (IArtifactRepository candidate : download.candidates)
+					fetch.addOpen(candidate, 1);
+				enqueue(download);
+			}
+			fetch.remaining = downloads.size();
+			startWorkers();
+		}
+		// the monitor is only used from this thread, and never while holding the
+		// lock of the scheduler that the downloads of all the fetches need
+		List<Batch> ending;
+		int reported = 0;
+		boolean interrupted = false;
+		while (true) {
+			boolean cancel = !fetch.canceled && (interrupted || subMonitor.isCanceled());
+			int ticks;
+			String task;
+			synchronized (this) {
+				if (cancel) {
+					fetch.canceled = true;
+					cancel(fetch);
+				}
+				if (fetch.remaining == 0 && fetch.notifying == 0) {
+					// the batches of the downloads dropped on cancellation
+					ending = new ArrayList<>();
+					for (Batch batch : fetch.batches.values()) {
+						if (batch.started && !batch.ended) {
+							batch.ended = true;
+							ending.add(batch);
+						}
+					}
+					break;
+				}
+				if (!cancel) {
+					try {
+						wait(POLL_INTERVAL);
+					} catch (InterruptedException e) {
+						interrupted = true;
+					}
+				}
+				ticks = (int) (fetch.worked * TICKS_PER_DOWNLOAD);
+				task = fetch.task;
+				fetch.task = null;
+			}
+			subMonitor.worked(ticks - reported);
+			reported = ticks;
+			if (task != null)
+				subMonitor.subTask(task);
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+		for (Batch batch : ending)
+			fetch.listener.notify(CollectEvent.TYPE_REPOSITORY_END, batch.repository, batch.requests);
+		return fetch.canceled ? Status.CANCEL_STATUS : Status.OK_STATUS;
+	}
+
+	/**
+	 * Returns the largest download size of the descriptors of the given key, or
+	 * -1 if the size is not known.
+	 */
+	private static long getSize(IArtifactRepository repository, IArtifactKey key) {
+		long size = -1;
+		for (IArtifactDescriptor descriptor : repository.getArtifactDescriptors(key)) {
+			String value = descriptor.getProperty(IArtifactDescriptor.DOWNLOAD_SIZE);
+			if (value != null) {
+				try {
+					size = Math.max(size, Long.parseLong(value));
+				} catch (NumberFormatException e) {
+					// unknown size
+				}
+			}
+		}
+		return size;
+	}
+
+	private void enqueue(Download download) {
+		// a download queued again for its next repository goes behind the ones of its size
+		download.sequence = sequence++;
+		pending.add(download);
+	}
+
+	/**
+	 * Drops the pending downloads of a canceled fetch. Those in progress see the
+	 * cancellation through their monitor.
+	 */
+	private void cancel(Fetch fetch) {
+		for (Iterator<Download> iterator = pending.iterator(); iterator.hasNext();) {
+			Download download = iterator.next();
+			if (download.fetch == fetch) {
+				iterator.remove();
+				done(download);
+				fetch.remaining--;
+			}
+		}
+	}
+
+	/**
+	 * Records that no more attempts are made for the given download.
+	 */
+	private static void done(Download download) {
+		download.done = true;
+		for (IArtifactRepository candidate : download.candidates.subList(download.attempt, download.candidates.size()))
+			download.fetch.addOpen(candidate, -1);
+	}
+
+	/**
+	 * Returns the batch of the given download's repository if it has to be
+	 * started before the download, or the download itself if it can be made
+	 * right away, or <code>null</code> if it has to wait until the start of
+	 * its batch has been notified.
+	 */
+	private Object prepare(Download download) {
+		Fetch fetch = download.fetch;
+		if (fetch.listener == null)
+			return download;
+		IArtifactRepository repository = download.repository();
+		Batch batch = fetch.batches.get(repository);
+		if (batch == null) {
+			List<IArtifactRequest> requests = new ArrayList<>();
+			for (Download other : fetch.downloads) {
+				if (!other.done && other.candidates.subList(other.attempt, other.candidates.size()).contains(repository))
+					requests.add(other.request);
+			}
+			batch = new Batch(repository, requests.toArray(new IArtifactRequest[requests.size()]));
+			fetch.batches.put(repository, batch);
+			return batch;
+		}
+		return batch.started ? download : null;
+	}
+
+	/**
+	 * Returns the batch of the given repository if it has started and no
+	 * download of the fetch can be made from it anymore, marking it as ended.
+	 */
+	private static Batch end(Fetch fetch, IArtifactRepository repository) {
+		Batch batch = fetch.batches.get(repository);
+		if (batch == null || !batch.started || batch.ended || fetch.open.getOrDefault(repository, 0) > 0)
+			return null;
+		batch.ended = true;
+		fetch.notifying++;
+		return batch;
+	}
+
+	synchronized void started(Batch batch) {
+		batch.started = true;
+		startWorkers();
+	}
+
+	synchronized void notified(Fetch fetch) {
+		fetch.notifying--;
+		notifyAll();
+	}
+
+	private void startWorkers() {
+		int wanted = Math.min(maxDownloads, workers + pending.size());
+		while (workers < wanted) {
+			workers++;
+			if (threadFactory != null)
+				threadFactory.newThread(this::work).start();
+			else
+				new Worker().schedule();
+		}
+	}
+
+	/**
+	 * The key under which concurrent downloads are counted. Remote repositories
+	 * on the same host share their limit, while each local repository is read
+	 * by a single download at a time unless threading is forced.
+	 */
+	private static String getHostKey(IArtifactRepository repository) {
+		URI location = repository.getLocation();
+		if (location == null)
+			return ""; //$NON-NLS-1$
+		String host = location.getHost();
+		return host != null ? host : location.toString();
+	}
+
+	private int getHostLimit(IArtifactRepository repository) {
+		URI location = repository.getLocation();
+		if (!threadLocal && location != null && DownloadManager.isLocal(location))
+			return 1;
+		return maxPerHost;
+	}
+
+	/**
+	 * Takes the largest pending download whose host has capacity left, or returns
+	 * <code>null</code> when there is none. A download that starts the batch of
+	 * its repository is returned with the batch to notify the start of, and the
+	 * other downloads of the batch wait for it.
+	 */
+	synchronized Download take() {
+		for (Iterator<Download> iterator = pending.iterator(); iterator.hasNext();) {
+			Download download = iterator.next();
+			IArtifactRepository repository = download.repository();
+			String host = getHostKey(repository);
+			int active = activePerHost.getOrDefault(host, 0);
+			if (active < getHostLimit(repository)) {
+				Object prepared = prepare(download);
+				if (prepared == null)
+					continue;
+				download.starting = prepared instanceof Batch batch ? batch : null;
+				iterator.remove();
+				activePerHost.put(host, active + 1);
+				return download;
+			}
+		}
+		workers--;
+		return null;
+	}
+
+	/**
+	 * Records the end of the given download, and returns the batch it ends, if
+	 * any.
+	 */
+	synchronized Batch finished(Download download) {
+		IArtifactRepository repository = download.repository();
+		String host = getHostKey(repository);
+		int active = activePerHost.get(host) - 1;
+		if (active == 0)
+			activePerHost.remove(host);
+		else
+			activePerHost.put(host, active);
+		Fetch fetch = download.fetch;
+		IStatus result = download.request.getResult();
+		boolean failed = result == null || (!result.isOK() && result.getSeverity() != IStatus.CANCEL);
+		if (failed && !fetch.canceled && download.attempt + 1 < download.candidates.size()) {
+			fetch.addOpen(repository, -1);
+			download.attempt++;
+			enqueue(download);
+			startWorkers();
+		} else {
+			done(download);
+			fetch.remaining--;
+			fetch.worked += 1 - download.worked;
+			download.worked = 1;
+		}
+		Batch ended = fetch.listener != null ? end(fetch, repository) : null;
+		notifyAll();
+		return ended;
+	}
+
+	/**
+	 * Records the progress reported by the repository for the given download,
+	 * as a part of its total work, and the task name it reported, if any.
+	 */
+	synchronized void progress(Download download, double work, String task) {
+		if (download.done)
+			return;
+		double worked = Math.min(1, download.worked + work);
+		download.fetch.worked += worked - download.worked;
+		download.worked = worked;
+		if (task != null && !task.isEmpty())
+			download.fetch.task = task;
+	}
+
+	/**
+	 * Gives the repository a monitor that follows the cancellation of the fetch
+	 * the download belongs to, and whose progress and task names are reported
+	 * to the monitor of the fetch.
+	 */
+	private class RequestMonitor extends NullProgressMonitor {
+		private final Download download;
+		private double scale;
+
+		RequestMonitor(Download download) {
+			this.download = download;
+		}
+
+		@Override
+		public void beginTask(String name, int totalWork) {
+			scale = totalWork > 0 ? 1.0 / totalWork : 0;
+			progress(download, 0, name);
+		}
+
+		@Override
+		public void internalWorked(double work) {
+			if (work > 0)
+				progress(download, work * scale, null);
+		}
+
+		@Override
+		public void worked(int work) {
+			internalWorked(work);
+		}
+
+		@Override
+		public void setTaskName(String name) {
+			progress(download, 0, name);
+		}
+
+		@Override
+		public void subTask(String name) {
+			progress(download, 0, name);
+		}
+
+		@Override
+		public boolean isCanceled() {
+			return download.fetch.canceled || super.isCanceled();
+		}
+	}
+
+	/**
+	 * Gives back the slot of a worker that stopped on an exception, and starts
+	 * another worker for the pending downloads.
+	 */
+	synchronized void released() {
+		workers--;
+		startWorkers();
+	}
+
+	/**
+	 * Makes the pending downloads until there is none left that can be
+	 * started.
+	 */
+	void work() {
+		Download download = null;
+		try {
+			while ((download = take()) != null)
+				perform(download);
+		} finally {
+			// take() gives the slot back only when there is nothing left to take
+			if (download != null)
+				released();
+		}
+	}
+
+	/**
+	 * Makes the given download and notifies the listener of the fetch around it.
+	 */
+	private void perform(Download download) {
+		Fetch fetch = download.fetch;
+		Batch ended = null;
+		try {
+			if (download.starting != null) {
+				try {
+					fetch.listener.notify(CollectEvent.TYPE_REPOSITORY_START, download.starting.repository, download.starting.requests);
+				} finally {
+					started(download.starting);
+				}
+			}
+			if (!fetch.canceled)
+				download.repository().getArtifacts(new IArtifactRequest[] {download.request}, new RequestMonitor(download));
+		} finally {
+			ended = finished(download);
+		}
+		if (ended != null) {
+			try {
+				fetch.listener.notify(CollectEvent.TYPE_REPOSITORY_END, ended.repository, ended.requests);
+			} finally {
+				notified(fetch);
+			}
+		}
+	}
+
+	private class Worker extends Job {
+		Worker() {
+			super(Messages.download_artifact);
+			setSystem(true);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			work();
+			return Status.OK_STATUS;
+		}
+	}
+}
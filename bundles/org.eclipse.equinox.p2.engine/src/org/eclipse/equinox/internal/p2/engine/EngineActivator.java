@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2007, 2017 IBM Corporation and others.
+ *  Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -52,6 +52,15 @@ public class EngineActivator implements BundleActivator {
 	 */
 	public static final String PROFILE_FORMAT_UNCOMPRESSED = "uncompressed"; //$NON-NLS-1$
 
+	/**
+	 * System property giving the number of updates of a profile that are recorded
+	 * as deltas appended to the last full snapshot of the profile before a new
+	 * snapshot is written. If this property is undefined, every update writes a
+	 * full snapshot, which keeps the profile registry readable by p2 releases
+	 * that do not know about deltas.
+	 */
+	public static final String PROP_PROFILE_DELTAS = "eclipse.p2.profileDeltas"; //$NON-NLS-1$
+
 	/**
 	 * System property specifying how the engine should handle unsigned artifacts.
 	 * If this property is undefined, the default value is assumed to be "prompt".
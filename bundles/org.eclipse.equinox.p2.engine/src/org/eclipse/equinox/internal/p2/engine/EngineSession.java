@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2007, 2017 IBM Corporation and others.
+ *  Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -30,7 +30,7 @@ public class EngineSession {
 
 	private static final String EMPTY_STRING = ""; //$NON-NLS-1$
 
-	private static class ActionsRecord {
+	static class ActionsRecord {
 		Operand operand;
 		List<ProvisioningAction> actions = new ArrayList<>();
 
@@ -332,11 +332,40 @@ public class EngineSession {
 			debugOperandEnd(operand);
 	}
 
+	/**
+	 * Records the start of an operand performed concurrently with other operands
+	 * of the current phase. The operands are recorded in the order they are
+	 * started, which is the reverse of the order they are rolled back. The caller
+	 * must serialize the calls made for the operands of a phase.
+	 *
+	 * @return the record to pass when the actions of the operand are executed
+	 */
+	ActionsRecord recordConcurrentOperandStart(Operand operand) {
+		if (operand == null)
+			throw new IllegalArgumentException(Messages.null_operand);
+
+		ActionsRecord record = new ActionsRecord(operand);
+		currentActionRecords.add(record);
+
+		if (DebugHelper.DEBUG_ENGINE_SESSION)
+			debugOperandStart(operand);
+		return record;
+	}
+
+	void recordConcurrentOperandEnd(ActionsRecord record) {
+		if (DebugHelper.DEBUG_ENGINE_SESSION)
+			debugOperandEnd(record.operand);
+	}
+
 	void recordActionExecute(ProvisioningAction action, Map<String, Object> parameters) {
+		recordActionExecute(currentRecord, action, parameters);
+	}
+
+	void recordActionExecute(ActionsRecord record, ProvisioningAction action, Map<String, Object> parameters) {
 		if (action == null)
 			throw new IllegalArgumentException(Messages.null_action);
 
-		currentRecord.actions.add(action);
+		record.actions.add(action);
 
 		Touchpoint touchpoint = action.getTouchpoint();
 		if (touchpoint != null)
@@ -356,7 +385,7 @@ public class EngineSession {
 			ParameterizedProvisioningAction parameterizedAction = (ParameterizedProvisioningAction) action;
 			action = parameterizedAction.getAction();
 		}
-		String message = NLS.bind(Messages.session_context, new Object[] {profile.getProfileId(), phase.getClass().getName(), operand.toString(), getCurrentActionId()});
+		String message = NLS.bind(Messages.session_context, new Object[] {profile.getProfileId(), phase.getClass().getName(), operand.toString(), action.getClass().getName()});
 		return message;
 	}
 
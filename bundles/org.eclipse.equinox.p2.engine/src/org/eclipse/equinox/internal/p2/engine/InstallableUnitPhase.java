@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2007, 2017 IBM Corporation and others.
+ *  Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -99,6 +99,26 @@ public abstract class InstallableUnitPhase extends Phase {
 		return true;
 	}
 
+	/**
+	 * Returns whether the unit installed by the operand requires a capability
+	 * provided by the unit installed by the other operand.
+	 */
+	@Override
+	protected boolean dependsOn(Operand operand, Operand other) {
+		if (!(operand instanceof InstallableUnitOperand) || !(other instanceof InstallableUnitOperand))
+			return true;
+
+		IInstallableUnit unit = ((InstallableUnitOperand) operand).second();
+		IInstallableUnit otherUnit = ((InstallableUnitOperand) other).second();
+		if (unit == null || otherUnit == null)
+			return true;
+		for (IRequirement requirement : unit.getRequirements()) {
+			if (otherUnit.satisfies(requirement))
+				return true;
+		}
+		return false;
+	}
+
 	protected final List<ProvisioningAction> getActions(IInstallableUnit unit, String key) {
 		List<ITouchpointInstruction> instructions = getInstructions(unit, key);
 		int instrSize = instructions.size();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2018 IBM Corporation and others.
+ * Copyright (c) 2005, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -85,7 +85,7 @@ public class InstructionParser {
 
 		String nameValuePairs = statement.substring(openBracket + 1, closeBracket);
 		if (nameValuePairs.length() == 0)
-			return new ParameterizedProvisioningAction(action, Collections.emptyMap(), statement);
+			return new ParameterizedProvisioningAction(action, Collections.emptyMap(), statement, getQualifiedActionId(actionName, qualifier, touchpointType));
 
 		StringTokenizer tokenizer = new StringTokenizer(nameValuePairs, ","); //$NON-NLS-1$
 		Map<String, String> parameters = new HashMap<>();
@@ -98,18 +98,23 @@ public class InstructionParser {
 			String value = nameValuePair.substring(colonIndex + 1).trim();
 			parameters.put(name, value);
 		}
-		return new ParameterizedProvisioningAction(action, parameters, statement);
+		return new ParameterizedProvisioningAction(action, parameters, statement, getQualifiedActionId(actionName, qualifier, touchpointType));
+	}
+
+	private String getQualifiedActionId(String actionId, Map<String, ActionEntry> importMap, ITouchpointType touchpointType) {
+		ActionEntry actionEntry = importMap.get(actionId);
+		if (actionEntry != null)
+			actionId = actionEntry.actionId;
+		return actionManager.getTouchpointQualifiedActionId(actionId, touchpointType);
 	}
 
 	private ProvisioningAction lookupAction(String actionId, Map<String, ActionEntry> importMap, ITouchpointType touchpointType) {
 		VersionRange versionRange = null;
 		ActionEntry actionEntry = importMap.get(actionId);
-		if (actionEntry != null) {
-			actionId = actionEntry.actionId;
+		if (actionEntry != null)
 			versionRange = actionEntry.versionRange;
-		}
 
-		actionId = actionManager.getTouchpointQualifiedActionId(actionId, touchpointType);
+		actionId = getQualifiedActionId(actionId, importMap, touchpointType);
 		ProvisioningAction action = actionManager.getAction(actionId, versionRange);
 		if (action == null)
 			action = new MissingAction(actionId, versionRange);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2017 IBM Corporation and others.
+ * Copyright (c) 2005, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -26,14 +26,20 @@ public class ParameterizedProvisioningAction extends ProvisioningAction {
 	//This is especially useful when undoing in the presence of variables that change (e.g. lastResult) 
 	private Map<String, Object> actualParameters;
 	private String actionText;
+	private String actionId;
 
 	public ParameterizedProvisioningAction(ProvisioningAction action, Map<String, String> actionParameters, String actionText) {
+		this(action, actionParameters, actionText, null);
+	}
+
+	public ParameterizedProvisioningAction(ProvisioningAction action, Map<String, String> actionParameters, String actionText, String actionId) {
 		if (action == null || actionParameters == null)
 			throw new IllegalArgumentException(Messages.ParameterizedProvisioningAction_action_or_parameters_null);
 		this.action = action;
 		this.actionParameters = actionParameters;
 		this.actualParameters = new HashMap<>(actionParameters.size());
 		this.actionText = actionText;
+		this.actionId = actionId;
 	}
 
 	@Override
@@ -119,6 +125,13 @@ public class ParameterizedProvisioningAction extends ProvisioningAction {
 		return actionText;
 	}
 
+	/**
+	 * Returns the touchpoint qualified id of the action, or <code>null</code> if it is not known.
+	 */
+	public String getActionId() {
+		return actionId;
+	}
+
 	@Override
 	public Touchpoint getTouchpoint() {
 		return action.getTouchpoint();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2007, 2017 IBM Corporation and others.
+ *  Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -15,9 +15,14 @@
 package org.eclipse.equinox.internal.p2.engine;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
 import org.eclipse.core.runtime.*;
 import org.eclipse.equinox.internal.p2.core.helpers.LogHelper;
+import org.eclipse.equinox.internal.p2.core.helpers.ThreadPoolHelper;
+import org.eclipse.equinox.internal.p2.engine.EngineSession.ActionsRecord;
 import org.eclipse.equinox.internal.provisional.p2.core.eventbus.IProvisioningEventBus;
+import org.eclipse.equinox.p2.core.IProvisioningAgent;
 import org.eclipse.equinox.p2.engine.IProfile;
 import org.eclipse.equinox.p2.engine.ProvisioningContext;
 import org.eclipse.equinox.p2.engine.spi.ProvisioningAction;
@@ -38,6 +43,12 @@ public abstract class Phase {
 	protected static final String PARM_TOUCHPOINT = "touchpoint"; //$NON-NLS-1$
 	protected static final String LAST_RESULT_INTERNAL_NAME = "_p2_internal_last_result_variable_"; //$NON-NLS-1$ //
 	protected static final String LAST_RESULT_PUBLIC_NAME = "lastResult"; //$NON-NLS-1$
+	/**
+	 * Agent property giving the number of threads performing the operands of
+	 * the phases that declare concurrent actions. Operands are performed one
+	 * after the other when it is not set.
+	 */
+	public static final String PROP_OPERAND_THREADS = "eclipse.p2.engine.operandThreads"; //$NON-NLS-1$
 
 	protected final String phaseId;
 	protected final int weight;
@@ -123,6 +134,11 @@ public abstract class Phase {
 	}
 
 	private void mainPerform(MultiStatus status, EngineSession session, Operand[] operands, SubMonitor subMonitor) {
+		int threads = getOperandThreads(session.getAgent());
+		if (threads > 1 && !getConcurrentActionIds().isEmpty()) {
+			new ConcurrentOperands(status, session, subMonitor, threads).perform(operands);
+			return;
+		}
 		IProfile profile = session.getProfile();
 		subMonitor.beginTask(null, operands.length);
 		for (int i = 0; i < operands.length; i++) {
@@ -219,6 +235,10 @@ public abstract class Phase {
 	}
 
 	private IStatus initializeTouchpointParameters(IProfile profile, Operand operand, Touchpoint touchpoint, IProgressMonitor monitor) {
+		return initializeTouchpointParameters(profile, operand, touchpoint, operandParameters, touchpointToTouchpointOperandParameters, monitor);
+	}
+
+	private IStatus initializeTouchpointParameters(IProfile profile, Operand operand, Touchpoint touchpoint, Map<String, Object> operandParameters, Map<Touchpoint, Map<String, Object>> touchpointToTouchpointOperandParameters, IProgressMonitor monitor) {
 		if (touchpointToTouchpointOperandParameters.containsKey(touchpoint))
 			return Status.OK_STATUS;
 
@@ -333,6 +353,10 @@ public abstract class Phase {
 	}
 
 	IStatus touchpointCompleteOperand(IProfile profile, Operand operand, Map<String, Object> parameters, IProgressMonitor monitor) {
+		return touchpointCompleteOperand(profile, touchpointToTouchpointOperandParameters);
+	}
+
+	private static IStatus touchpointCompleteOperand(IProfile profile, Map<Touchpoint, Map<String, Object>> touchpointToTouchpointOperandParameters) {
 		if (touchpointToTouchpointOperandParameters.isEmpty())
 			return Status.OK_STATUS;
 
@@ -352,6 +376,289 @@ public abstract class Phase {
 
 	protected abstract List<ProvisioningAction> getActions(Operand operand);
 
+	/**
+	 * Returns the touchpoint qualified ids of the actions that this phase can
+	 * execute for several operands at the same time, such as
+	 * <code>org.eclipse.equinox.p2.touchpoint.eclipse.installBundle</code>. Only
+	 * these actions are executed concurrently, the other actions and the
+	 * initialization and completion of the operands are still executed one at a
+	 * time. The default implementation returns an empty set, which makes the
+	 * phase perform its operands one after the other.
+	 *
+	 * @see #PROP_OPERAND_THREADS
+	 */
+	protected Set<String> getConcurrentActionIds() {
+		return Collections.emptySet();
+	}
+
+	/**
+	 * Returns whether the given operand must be performed after the other
+	 * operand when both are performed by this phase. The default implementation
+	 * returns <code>true</code>, which keeps all the operands in order.
+	 */
+	protected boolean dependsOn(Operand operand, Operand other) {
+		return true;
+	}
+
+	private boolean isConcurrent(ProvisioningAction action) {
+		return action instanceof ParameterizedProvisioningAction && getConcurrentActionIds().contains(((ParameterizedProvisioningAction) action).getActionId());
+	}
+
+	private static int getOperandThreads(IProvisioningAgent agent) {
+		String value = EngineActivator.getProperty(PROP_OPERAND_THREADS, agent);
+		if (value == null)
+			return 1;
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			return 1;
+		}
+	}
+
+	/**
+	 * Performs the operands of the phase on a pool of threads. An operand is
+	 * started once the operands before it that it depends on are done, and
+	 * operands that have no concurrent action are performed alone. Everything
+	 * but the concurrent actions is executed while holding a lock, so that
+	 * the touchpoints, the session and the profile are still accessed by one
+	 * thread at a time. The operands are recorded in the session in the order
+	 * they start, so that a rollback undoes them in the reverse order.
+	 */
+	private final class ConcurrentOperands {
+		private final MultiStatus status;
+		private final EngineSession session;
+		private final SubMonitor monitor;
+		private final int threads;
+		private final ReentrantLock lock = new ReentrantLock();
+		private volatile boolean aborted;
+
+		ConcurrentOperands(MultiStatus status, EngineSession session, SubMonitor monitor, int threads) {
+			this.status = status;
+			this.session = session;
+			this.monitor = monitor;
+			this.threads = threads;
+		}
+
+		void perform(Operand[] operands) {
+			monitor.beginTask(null, operands.length);
+			ExecutorService executor = ThreadPoolHelper.newFixedDaemonThreadPool("engine-" + phaseId, threads); //$NON-NLS-1$
+			CompletionService<Operand> completion = new ExecutorCompletionService<>(executor);
+			Map<Operand, Future<Operand>> running = new LinkedHashMap<>();
+			try {
+				for (int i = 0; i < operands.length && !isStopped(); i++) {
+					if (monitor.isCanceled())
+						throw new OperationCanceledException();
+					while (isPaused) {
+						try {
+							Thread.sleep(1000);
+						} catch (InterruptedException e) {
+							merge(new Status(IStatus.ERROR, EngineActivator.ID, NLS.bind(Messages.phase_thread_interrupted_error, phaseId), e));
+							return;
+						}
+						if (monitor.isCanceled())
+							throw new OperationCanceledException();
+					}
+					Operand operand = operands[i];
+					if (!isApplicable(operand))
+						continue;
+
+					List<ProvisioningAction> actions = getActions(operand);
+					if (actions == null || !actions.stream().anyMatch(Phase.this::isConcurrent)) {
+						awaitAll(running, completion);
+						if (isStopped())
+							break;
+						performOperand(operand, actions);
+						worked();
+						continue;
+					}
+					while (!running.isEmpty() && (running.size() >= threads || running.keySet().stream().anyMatch(other -> dependsOn(operand, other))))
+						awaitOne(running, completion);
+					if (isStopped())
+						break;
+					running.put(operand, completion.submit(() -> performOperand(operand, actions)));
+				}
+				awaitAll(running, completion);
+			} finally {
+				aborted |= !running.isEmpty();
+				executor.shutdown();
+				// the session must hold the actions of all the operands before it is rolled back
+				ThreadPoolHelper.awaitTermination(executor);
+			}
+		}
+
+		private boolean isStopped() {
+			lock.lock();
+			try {
+				return aborted || status.matches(IStatus.ERROR | IStatus.CANCEL);
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		private void awaitAll(Map<Operand, Future<Operand>> running, CompletionService<Operand> completion) {
+			while (!running.isEmpty())
+				awaitOne(running, completion);
+		}
+
+		private void awaitOne(Map<Operand, Future<Operand>> running, CompletionService<Operand> completion) {
+			Future<Operand> done;
+			try {
+				done = completion.take();
+			} catch (InterruptedException e) {
+				aborted = true;
+				Thread.currentThread().interrupt();
+				throw new OperationCanceledException();
+			}
+			try {
+				running.remove(done.get());
+				worked();
+			} catch (InterruptedException e) {
+				// not reached, the future is done
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				// an action failed the way it does when operands are performed in sequence
+				aborted = true;
+				running.values().remove(done);
+				Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException runtimeException)
+					throw runtimeException;
+				if (cause instanceof Error error)
+					throw error;
+				throw new IllegalStateException(cause);
+			}
+		}
+
+		private void worked() {
+			lock.lock();
+			try {
+				monitor.worked(1);
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		private void merge(IStatus result) {
+			lock.lock();
+			try {
+				mergeStatus(status, result);
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * Performs an operand the way {@link Phase#mainPerform} does, on the
+		 * calling thread.
+		 */
+		private Operand performOperand(Operand operand, List<ProvisioningAction> actions) {
+			IProfile profile = session.getProfile();
+			Map<Touchpoint, Map<String, Object>> touchpointParameters = new HashMap<>();
+			Map<String, Object> parameters;
+			ActionsRecord record;
+			lock.lock();
+			try {
+				if (isStopped())
+					return operand;
+				record = session.recordConcurrentOperandStart(operand);
+				parameters = new HashMap<>(phaseParameters);
+				parameters.put(PARM_OPERAND, operand);
+				mergeStatus(status, initializeOperand(profile, operand, parameters, monitor));
+				if (status.matches(IStatus.ERROR | IStatus.CANCEL))
+					return operand;
+
+				Touchpoint operandTouchpoint = (Touchpoint) parameters.get(PARM_TOUCHPOINT);
+				if (operandTouchpoint != null) {
+					mergeStatus(status, initializeTouchpointParameters(profile, operand, operandTouchpoint, parameters, touchpointParameters, monitor));
+					if (status.matches(IStatus.ERROR | IStatus.CANCEL))
+						return operand;
+
+					parameters = touchpointParameters.get(operandTouchpoint);
+				}
+			} finally {
+				lock.unlock();
+			}
+
+			if (actions != null) {
+				Object lastResult = null;
+				for (ProvisioningAction action : actions) {
+					Map<String, Object> actionParameters = parameters;
+					boolean concurrent = isConcurrent(action);
+					lock.lock();
+					try {
+						if (isStopped())
+							return operand;
+						Touchpoint touchpoint = action.getTouchpoint();
+						if (touchpoint != null) {
+							mergeStatus(status, initializeTouchpointParameters(profile, operand, touchpoint, parameters, touchpointParameters, monitor));
+							if (status.matches(IStatus.ERROR | IStatus.CANCEL))
+								return operand;
+
+							actionParameters = touchpointParameters.get(touchpoint);
+						}
+						if (lastResult != null) {
+							actionParameters = new HashMap<>(actionParameters);
+							actionParameters.put(LAST_RESULT_INTERNAL_NAME, lastResult);
+						}
+						actionParameters = Collections.unmodifiableMap(actionParameters);
+						session.recordActionExecute(record, action, actionParameters);
+						if (!concurrent) {
+							IStatus actionStatus = execute(operand, action, actionParameters);
+							mergeStatus(status, actionStatus);
+							if (status.matches(IStatus.ERROR | IStatus.CANCEL))
+								return operand;
+							lastResult = action.getResult();
+							continue;
+						}
+					} finally {
+						lock.unlock();
+					}
+					IStatus actionStatus = execute(operand, action, actionParameters);
+					lastResult = action.getResult();
+					merge(actionStatus);
+				}
+			}
+
+			lock.lock();
+			try {
+				if (isStopped())
+					return operand;
+				mergeStatus(status, touchpointCompleteOperand(profile, touchpointParameters));
+				mergeStatus(status, completeOperand(profile, operand, parameters, monitor));
+				if (status.matches(IStatus.ERROR | IStatus.CANCEL))
+					return operand;
+				session.recordConcurrentOperandEnd(record);
+			} finally {
+				lock.unlock();
+			}
+			return operand;
+		}
+
+		private IStatus execute(Operand operand, ProvisioningAction action, Map<String, Object> parameters) {
+			IStatus actionStatus = null;
+			try {
+				actionStatus = action.execute(parameters);
+			} catch (RuntimeException e) {
+				if (!forced)
+					throw e;
+				// "action.execute" calls user code and might throw an unchecked exception
+				// we catch the error here to gather information on where the problem occurred.
+				actionStatus = new Status(IStatus.ERROR, EngineActivator.ID, NLS.bind(Messages.forced_action_execute_error, action.getClass().getName()), e);
+			} catch (LinkageError e) {
+				if (!forced)
+					throw e;
+				// Catch linkage errors as these are generally recoverable but let other Errors propagate (see bug 222001)
+				actionStatus = new Status(IStatus.ERROR, EngineActivator.ID, NLS.bind(Messages.forced_action_execute_error, action.getClass().getName()), e);
+			}
+			if (forced && actionStatus != null && actionStatus.matches(IStatus.ERROR)) {
+				MultiStatus result = new MultiStatus(EngineActivator.ID, IStatus.ERROR, getProblemMessage(), null);
+				result.add(new Status(IStatus.ERROR, EngineActivator.ID, session.getContextString(Phase.this, operand, action), null));
+				LogHelper.log(result);
+				actionStatus = Status.OK_STATUS;
+			}
+			return actionStatus;
+		}
+	}
+
 	/**
 	 * Returns a human-readable message to be displayed in case of an error performing
 	 * this phase. Subclasses should override.
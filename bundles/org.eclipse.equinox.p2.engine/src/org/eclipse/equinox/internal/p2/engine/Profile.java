@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2023 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This
  * program and the accompanying materials are made available under the terms of
@@ -56,8 +56,6 @@ public class Profile extends IndexProvider<IInstallableUnit> implements IProfile
 
 	private IIndex<IInstallableUnit> propertiesIndex;
 
-	private IIndex<IInstallableUnit> capabilityIndex;
-
 	private TranslationSupport translationSupport;
 
 	/**
@@ -180,9 +178,7 @@ public class Profile extends IndexProvider<IInstallableUnit> implements IProfile
 		}
 
 		if (InstallableUnit.MEMBER_PROVIDED_CAPABILITIES.equals(memberName)) {
-			if (capabilityIndex == null)
-				capabilityIndex = new CapabilityIndex(ius.iterator());
-			return capabilityIndex;
+			return ius.getCapabilityIndex();
 		}
 
 		if (InstallableUnit.MEMBER_PROFILE_PROPERTIES.equals(memberName)) {
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ *  Copyright (c) 2026 Eclipse contributors and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *  Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.engine;
+
+import java.util.*;
+import java.util.Map.Entry;
+import org.eclipse.equinox.p2.metadata.*;
+import org.eclipse.equinox.p2.query.IQueryResult;
+import org.eclipse.equinox.p2.query.QueryUtil;
+
+/**
+ * The changes made to a profile by one update: the installable units added and
+ * removed, the installable units whose properties changed, and the properties
+ * of the profile after the update. Profile properties are few, so they are
+ * recorded completely rather than as changes.
+ */
+final class ProfileDelta {
+	private final long timestamp;
+	private final Map<String, String> properties;
+	private final List<IInstallableUnit> addedUnits;
+	private final List<IVersionedId> removedUnits;
+	private final Map<IVersionedId, Map<String, String>> unitProperties;
+
+	ProfileDelta(long timestamp, Map<String, String> properties, List<IInstallableUnit> addedUnits, List<IVersionedId> removedUnits, Map<IVersionedId, Map<String, String>> unitProperties) {
+		this.timestamp = timestamp;
+		this.properties = properties;
+		this.addedUnits = addedUnits;
+		this.removedUnits = removedUnits;
+		this.unitProperties = unitProperties;
+	}
+
+	/**
+	 * Computes the changes that turn the installable units of the given current
+	 * profile into the ones of the given new profile. The properties and the
+	 * timestamp are only known once the current profile has been updated, see
+	 * {@link #complete(Profile, long)}.
+	 */
+	static ProfileDelta compute(Profile current, Profile profile) {
+		List<IInstallableUnit> added = new ArrayList<>();
+		Map<IVersionedId, Map<String, String>> changedProperties = new LinkedHashMap<>();
+		Set<IInstallableUnit> units = profile.query(QueryUtil.createIUAnyQuery(), null).toUnmodifiableSet();
+		for (IInstallableUnit iu : units) {
+			Map<String, String> iuProperties = profile.getInstallableUnitProperties(iu);
+			if (!current.contains(iu)) {
+				added.add(iu);
+				if (!iuProperties.isEmpty())
+					changedProperties.put(createId(iu), new LinkedHashMap<>(iuProperties));
+			} else if (!iuProperties.equals(current.getInstallableUnitProperties(iu))) {
+				changedProperties.put(createId(iu), new LinkedHashMap<>(iuProperties));
+			}
+		}
+		List<IVersionedId> removed = new ArrayList<>();
+		for (IInstallableUnit iu : current.query(QueryUtil.createIUAnyQuery(), null)) {
+			if (!units.contains(iu))
+				removed.add(createId(iu));
+		}
+		return new ProfileDelta(0, null, added, removed, changedProperties);
+	}
+
+	/**
+	 * Returns this delta with the timestamp and the properties of the given
+	 * profile, once it has been updated.
+	 */
+	ProfileDelta complete(Profile profile, long newTimestamp) {
+		return new ProfileDelta(newTimestamp, new LinkedHashMap<>(profile.getProperties()), addedUnits, removedUnits, unitProperties);
+	}
+
+	/**
+	 * Applies this delta to a profile restored from the state the delta was
+	 * computed against.
+	 */
+	void apply(Profile profile) {
+		profile.clearLocalProperties();
+		if (properties != null)
+			profile.addProperties(properties);
+		for (IVersionedId id : removedUnits) {
+			for (IInstallableUnit iu : find(profile, id)) {
+				profile.removeInstallableUnit(iu);
+				profile.clearInstallableUnitProperties(iu);
+			}
+		}
+		for (IInstallableUnit iu : addedUnits)
+			profile.addInstallableUnit(iu);
+		for (Entry<IVersionedId, Map<String, String>> entry : unitProperties.entrySet()) {
+			for (IInstallableUnit iu : find(profile, entry.getKey())) {
+				profile.clearInstallableUnitProperties(iu);
+				profile.addInstallableUnitProperties(iu, entry.getValue());
+			}
+		}
+		profile.setTimestamp(timestamp);
+	}
+
+	long getTimestamp() {
+		return timestamp;
+	}
+
+	Map<String, String> getProperties() {
+		return properties == null ? Collections.emptyMap() : properties;
+	}
+
+	List<IInstallableUnit> getAddedUnits() {
+		return addedUnits;
+	}
+
+	List<IVersionedId> getRemovedUnits() {
+		return removedUnits;
+	}
+
+	Map<IVersionedId, Map<String, String>> getUnitProperties() {
+		return unitProperties;
+	}
+
+	private static IVersionedId createId(IInstallableUnit iu) {
+		return new VersionedId(iu.getId(), iu.getVersion());
+	}
+
+	private static List<IInstallableUnit> find(Profile profile, IVersionedId id) {
+		IQueryResult<IInstallableUnit> result = profile.query(QueryUtil.createIUQuery(id.getId(), id.getVersion()), null);
+		return new ArrayList<>(result.toUnmodifiableSet());
+	}
+}
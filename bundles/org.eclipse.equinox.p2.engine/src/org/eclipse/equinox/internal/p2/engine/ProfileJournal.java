@@ -0,0 +1,189 @@
+/*******************************************************************************
+ *  Copyright (c) 2026 Eclipse contributors and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *  Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.engine;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * The journal of the profile states recorded after a profile snapshot. The
+ * journal of the snapshot <code>{timestamp}.profile.gz</code> is the file
+ * <code>{timestamp}.profile.deltas</code> next to it. It holds a sequence of
+ * records that are only ever appended:
+ * <ul>
+ * <li>a delta record holds the gzipped XML of a {@link ProfileDelta}, which
+ * turns the previous state of the chain into the state with the record's
+ * timestamp;</li>
+ * <li>a removal record marks the state with the record's timestamp, which may
+ * be the snapshot itself, as removed. Its delta is still needed to restore the
+ * states that follow it.</li>
+ * </ul>
+ * A record that has not been written completely, for example because the
+ * process was killed, is ignored and overwritten by the next append.
+ */
+final class ProfileJournal {
+	static final String JOURNAL_EXT = ".profile.deltas"; //$NON-NLS-1$
+
+	private static final int MAGIC = 0x50325044; // "P2PD"
+	private static final int VERSION = 1;
+	private static final int FILE_HEADER_SIZE = 8;
+	private static final int RECORD_HEADER_SIZE = 13;
+	static final byte DELTA = 'D';
+	static final byte REMOVED = 'R';
+
+	/**
+	 * A record of the journal.
+	 *
+	 * @param kind either {@link ProfileJournal#DELTA} or {@link ProfileJournal#REMOVED}
+	 * @param timestamp the timestamp of the state the record is about
+	 * @param offset the position of the record's data in the file
+	 * @param length the length of the record's data
+	 */
+	record Entry(byte kind, long timestamp, long offset, int length) {
+		long end() {
+			return offset + length;
+		}
+	}
+
+	private ProfileJournal() {
+		// static helper
+	}
+
+	/**
+	 * Returns the journal file of the snapshot with the given timestamp.
+	 */
+	static File getJournalFile(File profileDirectory, long snapshotTimestamp) {
+		return new File(profileDirectory, Long.toString(snapshotTimestamp) + JOURNAL_EXT);
+	}
+
+	/**
+	 * Reads the headers of the complete records of a journal. Returns an empty
+	 * list if the journal does not exist.
+	 *
+	 * @throws IOException if the journal cannot be read or has an unknown format
+	 */
+	static List<Entry> readEntries(File journal) throws IOException {
+		if (!journal.isFile())
+			return Collections.emptyList();
+		try (FileChannel channel = FileChannel.open(journal.toPath(), StandardOpenOption.READ)) {
+			return readEntries(channel);
+		}
+	}
+
+	private static List<Entry> readEntries(FileChannel channel) throws IOException {
+		long size = channel.size();
+		if (size < FILE_HEADER_SIZE)
+			return new ArrayList<>();
+		ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+		header.limit(FILE_HEADER_SIZE);
+		readFully(channel, header, 0);
+		if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION)
+			throw new IOException("Unsupported profile journal format"); //$NON-NLS-1$
+
+		List<Entry> entries = new ArrayList<>();
+		long position = FILE_HEADER_SIZE;
+		while (position + RECORD_HEADER_SIZE <= size) {
+			header.clear();
+			readFully(channel, header, position);
+			byte kind = header.get(0);
+			long timestamp = header.getLong(1);
+			int length = header.getInt(9);
+			long offset = position + RECORD_HEADER_SIZE;
+			if ((kind != DELTA && kind != REMOVED) || length < 0 || offset + length > size)
+				break;
+			entries.add(new Entry(kind, timestamp, offset, length));
+			position = offset + length;
+		}
+		return entries;
+	}
+
+	/**
+	 * Reads the data of a record.
+	 */
+	static InputStream read(File journal, Entry entry) throws IOException {
+		ByteBuffer data = ByteBuffer.allocate(entry.length());
+		try (FileChannel channel = FileChannel.open(journal.toPath(), StandardOpenOption.READ)) {
+			readFully(channel, data, entry.offset());
+		}
+		return new ByteArrayInputStream(data.array());
+	}
+
+	/**
+	 * Appends a record to a journal, creating it if needed. An incomplete record
+	 * left at the end of the journal is overwritten.
+	 */
+	static void append(File journal, byte kind, long timestamp, byte[] data) throws IOException {
+		try (FileChannel channel = FileChannel.open(journal.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE)) {
+			long position;
+			if (channel.size() < FILE_HEADER_SIZE) {
+				ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+				header.putInt(MAGIC).putInt(VERSION).flip();
+				writeFully(channel, header, 0);
+				position = FILE_HEADER_SIZE;
+			} else {
+				List<Entry> entries = readEntries(channel);
+				position = entries.isEmpty() ? FILE_HEADER_SIZE : entries.get(entries.size() - 1).end();
+			}
+			ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + data.length);
+			record.put(kind).putLong(timestamp).putInt(data.length).put(data).flip();
+			writeFully(channel, record, position);
+			channel.truncate(position + RECORD_HEADER_SIZE + data.length);
+		}
+	}
+
+	/**
+	 * Returns the timestamps of the states of a chain, the snapshot's first,
+	 * that have not been removed.
+	 */
+	static List<Long> getStates(long snapshotTimestamp, List<Entry> entries) {
+		Set<Long> states = new LinkedHashSet<>();
+		states.add(snapshotTimestamp);
+		for (Entry entry : entries) {
+			if (entry.kind() == DELTA)
+				states.add(entry.timestamp());
+			else
+				states.remove(entry.timestamp());
+		}
+		return new ArrayList<>(states);
+	}
+
+	/**
+	 * Returns the number of delta records of a journal.
+	 */
+	static int countDeltas(List<Entry> entries) {
+		int count = 0;
+		for (Entry entry : entries) {
+			if (entry.kind() == DELTA)
+				count++;
+		}
+		return count;
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			int read = channel.read(buffer, position);
+			if (read < 0)
+				throw new EOFException();
+			position += read;
+		}
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining())
+			position += channel.write(buffer, position);
+	}
+}
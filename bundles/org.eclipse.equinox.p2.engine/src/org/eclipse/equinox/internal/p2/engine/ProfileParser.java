@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2007, 2022 IBM Corporation and others.
+ *  Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -14,12 +14,10 @@
  *******************************************************************************/
 package org.eclipse.equinox.internal.p2.engine;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.*;
 import javax.xml.parsers.SAXParserFactory;
 import org.eclipse.equinox.internal.p2.metadata.repository.io.MetadataParser;
-import org.eclipse.equinox.p2.metadata.IInstallableUnit;
-import org.eclipse.equinox.p2.metadata.Version;
+import org.eclipse.equinox.p2.metadata.*;
 import org.xml.sax.Attributes;
 
 /**
@@ -190,4 +188,151 @@ public abstract class ProfileParser extends MetadataParser implements ProfileXML
 			}
 		}
 	}
+
+	/**
+	 * Handler for the changes made to a profile by one update, as written by
+	 * {@link ProfileWriter#writeProfileDelta(String, ProfileDelta)}.
+	 */
+	protected class ProfileDeltaHandler extends RootHandler {
+
+		private final String[] required = new String[] {ID_ATTRIBUTE, TIMESTAMP_ATTRIBUTE};
+
+		private String timestamp;
+		private PropertiesHandler propertiesHandler;
+		private InstallableUnitsHandler unitsHandler;
+		private final List<IVersionedId> removedUnits = new ArrayList<>();
+		private final Map<IVersionedId, Map<String, String>> unitProperties = new LinkedHashMap<>();
+
+		@Override
+		protected void handleRootAttributes(Attributes attributes) {
+			timestamp = parseRequiredAttributes(attributes, required)[1];
+		}
+
+		@Override
+		public void startElement(String name, Attributes attributes) {
+			if (PROPERTIES_ELEMENT.equals(name)) {
+				if (propertiesHandler == null) {
+					propertiesHandler = new PropertiesHandler(this, attributes);
+				} else {
+					duplicateElement(this, name, attributes);
+				}
+			} else if (INSTALLABLE_UNITS_ELEMENT.equals(name)) {
+				if (unitsHandler == null) {
+					unitsHandler = new InstallableUnitsHandler(this, attributes);
+				} else {
+					duplicateElement(this, name, attributes);
+				}
+			} else if (REMOVED_UNITS_ELEMENT.equals(name)) {
+				new RemovedUnitsHandler(this, removedUnits);
+			} else if (IUS_PROPERTIES_ELEMENT.equals(name)) {
+				new UnitsPropertiesHandler(this, unitProperties);
+			} else {
+				invalidElement(name, attributes);
+			}
+		}
+
+		ProfileDelta getDelta() {
+			long time = 0;
+			if (timestamp != null) {
+				try {
+					time = Long.parseLong(timestamp);
+				} catch (NumberFormatException e) {
+					invalidAttributeValue(PROFILE_DELTA_ELEMENT, TIMESTAMP_ATTRIBUTE, timestamp);
+				}
+			}
+			Map<String, String> properties = propertiesHandler == null ? null : propertiesHandler.getProperties();
+			List<IInstallableUnit> addedUnits = unitsHandler == null ? Collections.emptyList() : Arrays.asList(unitsHandler.getUnits());
+			return new ProfileDelta(time, properties, addedUnits, removedUnits, unitProperties);
+		}
+	}
+
+	protected class RemovedUnitsHandler extends AbstractHandler {
+
+		private final List<IVersionedId> removedUnits;
+
+		public RemovedUnitsHandler(AbstractHandler parentHandler, List<IVersionedId> removedUnits) {
+			super(parentHandler, REMOVED_UNITS_ELEMENT);
+			this.removedUnits = removedUnits;
+		}
+
+		@Override
+		public void startElement(String name, Attributes attributes) {
+			if (name.equals(INSTALLABLE_UNIT_ELEMENT)) {
+				new RemovedUnitHandler(this, attributes, removedUnits);
+			} else {
+				invalidElement(name, attributes);
+			}
+		}
+	}
+
+	protected class RemovedUnitHandler extends AbstractHandler {
+
+		private final String[] required = new String[] {ID_ATTRIBUTE, VERSION_ATTRIBUTE};
+
+		public RemovedUnitHandler(AbstractHandler parentHandler, Attributes attributes, List<IVersionedId> removedUnits) {
+			super(parentHandler, INSTALLABLE_UNIT_ELEMENT);
+			String values[] = parseRequiredAttributes(attributes, required);
+			Version version = checkVersion(INSTALLABLE_UNIT_ELEMENT, VERSION_ATTRIBUTE, values[1]);
+			if (values[0] != null)
+				removedUnits.add(new VersionedId(values[0], version));
+		}
+
+		@Override
+		public void startElement(String name, Attributes attributes) {
+			invalidElement(name, attributes);
+		}
+	}
+
+	protected class UnitsPropertiesHandler extends AbstractHandler {
+
+		private final Map<IVersionedId, Map<String, String>> unitProperties;
+
+		public UnitsPropertiesHandler(AbstractHandler parentHandler, Map<IVersionedId, Map<String, String>> unitProperties) {
+			super(parentHandler, IUS_PROPERTIES_ELEMENT);
+			this.unitProperties = unitProperties;
+		}
+
+		@Override
+		public void startElement(String name, Attributes attributes) {
+			if (name.equals(IU_PROPERTIES_ELEMENT)) {
+				new UnitPropertiesHandler(this, attributes, unitProperties);
+			} else {
+				invalidElement(name, attributes);
+			}
+		}
+	}
+
+	protected class UnitPropertiesHandler extends AbstractHandler {
+
+		private final String[] required = new String[] {ID_ATTRIBUTE, VERSION_ATTRIBUTE};
+
+		private IVersionedId unit;
+		private Map<IVersionedId, Map<String, String>> unitProperties;
+		private PropertiesHandler propertiesHandler;
+
+		public UnitPropertiesHandler(AbstractHandler parentHandler, Attributes attributes, Map<IVersionedId, Map<String, String>> unitProperties) {
+			super(parentHandler, IU_PROPERTIES_ELEMENT);
+			this.unitProperties = unitProperties;
+			String values[] = parseRequiredAttributes(attributes, required);
+			Version version = checkVersion(IU_PROPERTIES_ELEMENT, VERSION_ATTRIBUTE, values[1]);
+			if (values[0] != null)
+				unit = new VersionedId(values[0], version);
+		}
+
+		@Override
+		protected void finished() {
+			if (isValidXML() && unit != null && propertiesHandler != null) {
+				unitProperties.put(unit, propertiesHandler.getProperties());
+			}
+		}
+
+		@Override
+		public void startElement(String name, Attributes attributes) {
+			if (name.equals(PROPERTIES_ELEMENT)) {
+				propertiesHandler = new PropertiesHandler(this, attributes);
+			} else {
+				invalidElement(name, attributes);
+			}
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2007, 2020 IBM Corporation and others.
+ *  Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -15,9 +15,11 @@ package org.eclipse.equinox.internal.p2.engine;
 
 import java.io.OutputStream;
 import java.util.*;
+import java.util.Map.Entry;
 import org.eclipse.equinox.internal.p2.metadata.repository.io.MetadataWriter;
 import org.eclipse.equinox.p2.engine.IProfile;
 import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+import org.eclipse.equinox.p2.metadata.IVersionedId;
 import org.eclipse.equinox.p2.query.QueryUtil;
 
 public class ProfileWriter extends MetadataWriter implements ProfileXMLConstants {
@@ -45,6 +47,49 @@ public class ProfileWriter extends MetadataWriter implements ProfileXMLConstants
 		flush();
 	}
 
+	/**
+	 * Writes the changes made to a profile by one update, see {@link ProfileDelta}.
+	 */
+	void writeProfileDelta(String profileId, ProfileDelta delta) {
+		start(PROFILE_DELTA_ELEMENT);
+		attribute(ID_ATTRIBUTE, profileId);
+		attribute(TIMESTAMP_ATTRIBUTE, Long.toString(delta.getTimestamp()));
+		writeProperties(delta.getProperties());
+		List<IInstallableUnit> added = delta.getAddedUnits();
+		writeInstallableUnits(added.iterator(), added.size());
+		List<IVersionedId> removed = delta.getRemovedUnits();
+		if (!removed.isEmpty()) {
+			start(REMOVED_UNITS_ELEMENT);
+			attribute(COLLECTION_SIZE_ATTRIBUTE, removed.size());
+			for (IVersionedId id : removed) {
+				start(INSTALLABLE_UNIT_ELEMENT);
+				attribute(ID_ATTRIBUTE, id.getId());
+				attribute(VERSION_ATTRIBUTE, id.getVersion().toString());
+				end(INSTALLABLE_UNIT_ELEMENT);
+			}
+			end(REMOVED_UNITS_ELEMENT);
+		}
+		Map<IVersionedId, Map<String, String>> unitProperties = delta.getUnitProperties();
+		if (!unitProperties.isEmpty()) {
+			start(IUS_PROPERTIES_ELEMENT);
+			attribute(COLLECTION_SIZE_ATTRIBUTE, unitProperties.size());
+			for (Entry<IVersionedId, Map<String, String>> entry : unitProperties.entrySet()) {
+				start(IU_PROPERTIES_ELEMENT);
+				attribute(ID_ATTRIBUTE, entry.getKey().getId());
+				attribute(VERSION_ATTRIBUTE, entry.getKey().getVersion().toString());
+				// written even when empty, as the unit's properties have all been removed
+				start(PROPERTIES_ELEMENT);
+				attribute(COLLECTION_SIZE_ATTRIBUTE, entry.getValue().size());
+				entry.getValue().forEach(this::writeProperty);
+				end(PROPERTIES_ELEMENT);
+				end(IU_PROPERTIES_ELEMENT);
+			}
+			end(IUS_PROPERTIES_ELEMENT);
+		}
+		end(PROFILE_DELTA_ELEMENT);
+		flush();
+	}
+
 	private void writeInstallableUnitsProperties(Iterator<IInstallableUnit> it, int size, IProfile profile) {
 		if (size == 0)
 			return;
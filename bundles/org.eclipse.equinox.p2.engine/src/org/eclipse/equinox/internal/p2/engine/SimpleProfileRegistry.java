@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2022 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This
  * program and the accompanying materials are made available under the terms of
@@ -28,6 +28,7 @@ import javax.xml.parsers.ParserConfigurationException;
 import org.eclipse.core.runtime.*;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.equinox.internal.p2.core.helpers.*;
+import org.eclipse.equinox.internal.p2.metadata.MetadataInterner;
 import org.eclipse.equinox.internal.p2.metadata.TranslationSupport;
 import org.eclipse.equinox.internal.provisional.p2.core.eventbus.IProvisioningEventBus;
 import org.eclipse.equinox.p2.core.*;
@@ -210,19 +211,9 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 		if (!profileDirectory.isDirectory())
 			return null;
 
-		File profileFile = new File(profileDirectory, Long.toString(timestamp) + PROFILE_GZ_EXT);
-		if (!profileFile.exists()) {
-			profileFile = new File(profileDirectory, Long.toString(timestamp) + PROFILE_EXT);
-			if (!profileFile.exists())
-				return null;
-		}
-
 		Parser parser = new Parser(EngineActivator.ID);
-		try {
-			parser.parse(profileFile);
-		} catch (IOException e) {
-			LogHelper.log(new Status(IStatus.ERROR, EngineActivator.ID, NLS.bind(Messages.error_parsing_profile, profileFile), e));
-		}
+		if (parseProfileState(parser, id, profileDirectory, timestamp) != timestamp)
+			return null;
 		return parser.getProfileMap().get(id);
 	}
 
@@ -238,20 +229,111 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 		if (!profileDirectory.isDirectory())
 			return new long[0];
 
-		File[] profileFiles = profileDirectory.listFiles((FileFilter) pathname -> (pathname.getName().endsWith(PROFILE_EXT) || pathname.getName().endsWith(PROFILE_GZ_EXT)) && pathname.isFile() && !pathname.getName().startsWith("._")); //$NON-NLS-1$
+		return listTimestamps(profileDirectory, true);
+	}
+
+	/**
+	 * Returns the sorted timestamps of the states of a profile, which are its
+	 * snapshots and the deltas recorded after them, less the removed ones.
+	 */
+	private long[] listTimestamps(File profileDirectory, boolean strict) {
+		TreeMap<Long, File> snapshots = listSnapshots(profileDirectory, strict);
+		TreeSet<Long> timestamps = new TreeSet<>(snapshots.keySet());
+		for (Long snapshot : snapshots.keySet()) {
+			List<ProfileJournal.Entry> entries = readJournal(ProfileJournal.getJournalFile(profileDirectory, snapshot));
+			if (!entries.isEmpty()) {
+				timestamps.remove(snapshot);
+				timestamps.addAll(ProfileJournal.getStates(snapshot, entries));
+			}
+		}
+		long[] result = new long[timestamps.size()];
+		int i = 0;
+		for (Long timestamp : timestamps)
+			result[i++] = timestamp;
+		return result;
+	}
 
-		long[] timestamps = new long[profileFiles.length];
-		for (int i = 0; i < profileFiles.length; i++) {
-			String filename = profileFiles[i].getName();
+	/**
+	 * Returns the snapshot files of a profile by timestamp. A file name that is
+	 * not a timestamp is reported if strict, and ignored otherwise.
+	 */
+	private static TreeMap<Long, File> listSnapshots(File profileDirectory, boolean strict) {
+		TreeMap<Long, File> snapshots = new TreeMap<>();
+		File[] profileFiles = profileDirectory.listFiles((FileFilter) pathname -> (pathname.getName().endsWith(PROFILE_EXT) || pathname.getName().endsWith(PROFILE_GZ_EXT)) && pathname.isFile() && !pathname.getName().startsWith("._")); //$NON-NLS-1$
+		// protect against NPE
+		if (profileFiles == null)
+			return snapshots;
+		for (File profileFile : profileFiles) {
+			String filename = profileFile.getName();
 			int extensionIndex = filename.lastIndexOf(PROFILE_EXT);
 			try {
-				timestamps[i] = Long.parseLong(filename.substring(0, extensionIndex));
+				long timestamp = Long.parseLong(filename.substring(0, extensionIndex));
+				// the compressed file wins, as it is the one written by this registry
+				if (filename.endsWith(PROFILE_GZ_EXT) || !snapshots.containsKey(timestamp))
+					snapshots.put(timestamp, profileFile);
 			} catch (NumberFormatException e) {
-				throw new IllegalStateException("Incompatible profile file name. Expected format is {timestamp}" + PROFILE_GZ_EXT + " (or {timestamp}" + PROFILE_EXT + ") but was " + filename + "."); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				if (strict)
+					throw new IllegalStateException("Incompatible profile file name. Expected format is {timestamp}" + PROFILE_GZ_EXT + " (or {timestamp}" + PROFILE_EXT + ") but was " + filename + "."); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
 			}
 		}
-		Arrays.sort(timestamps);
-		return timestamps;
+		return snapshots;
+	}
+
+	/**
+	 * Returns the records of a journal, or an empty list if there is none or it
+	 * cannot be read.
+	 */
+	private static List<ProfileJournal.Entry> readJournal(File journal) {
+		try {
+			return ProfileJournal.readEntries(journal);
+		} catch (IOException e) {
+			LogHelper.log(new Status(IStatus.ERROR, EngineActivator.ID, NLS.bind(Messages.error_parsing_profile, journal), e));
+			return Collections.emptyList();
+		}
+	}
+
+	/**
+	 * Parses the state of a profile with the given timestamp: the snapshot it
+	 * belongs to and the deltas recorded after the snapshot up to the state.
+	 * Deltas that cannot be read are reported and end the replay, so the
+	 * returned timestamp of the parsed state may be older than the requested
+	 * one.
+	 *
+	 * @return the timestamp of the state parsed, or -1 if there is no such state
+	 */
+	private long parseProfileState(Parser parser, String id, File profileDirectory, long timestamp) {
+		Map.Entry<Long, File> snapshot = listSnapshots(profileDirectory, false).floorEntry(timestamp);
+		if (snapshot == null)
+			return -1;
+		File journal = ProfileJournal.getJournalFile(profileDirectory, snapshot.getKey());
+		List<ProfileJournal.Entry> entries = readJournal(journal);
+		if (!ProfileJournal.getStates(snapshot.getKey(), entries).contains(timestamp))
+			return -1;
+
+		File profileFile = snapshot.getValue();
+		try {
+			parser.parse(profileFile);
+		} catch (IOException e) {
+			LogHelper.log(new Status(IStatus.ERROR, EngineActivator.ID, NLS.bind(Messages.error_parsing_profile, profileFile), e));
+			return -1;
+		}
+		long parsed = snapshot.getKey();
+		List<ProfileDelta> deltas = new ArrayList<>();
+		for (ProfileJournal.Entry entry : entries) {
+			if (entry.kind() != ProfileJournal.DELTA)
+				continue;
+			if (entry.timestamp() > timestamp)
+				break;
+			try (InputStream input = new GZIPInputStream(ProfileJournal.read(journal, entry))) {
+				deltas.add(parser.parseDelta(input));
+			} catch (IOException e) {
+				LogHelper.log(new Status(IStatus.ERROR, EngineActivator.ID, NLS.bind(Messages.error_parsing_profile, journal), e));
+				break;
+			}
+			parsed = entry.timestamp();
+		}
+		parser.addProfileDeltas(id, deltas);
+		return parsed;
 	}
 
 	/**
@@ -397,6 +479,8 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 		ProfileLock lock = profileLocks.get(id);
 		lock.checkLocked();
 
+		// the changes are computed before the current profile is overwritten
+		ProfileDelta delta = getMaxProfileDeltas() > 0 ? ProfileDelta.compute(current, profile) : null;
 		current.clearLocalProperties();
 		current.clearInstallableUnits();
 
@@ -408,7 +492,7 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 			if (iuProperties != null)
 				current.addInstallableUnitProperties(iu, iuProperties);
 		}
-		saveProfile(current);
+		saveProfile(current, delta);
 		profile.clearOrphanedInstallableUnitProperties();
 		profile.setTimestamp(current.getTimestamp());
 		broadcastChangeEvent(id, IProfileEvent.CHANGED);
@@ -499,13 +583,24 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 		if (!profileDirectory.isDirectory())
 			return;
 
-		File profileFile = new File(profileDirectory, Long.toString(timestamp) + PROFILE_GZ_EXT);
-		if (!profileFile.exists()) {
-			profileFile = new File(profileDirectory, Long.toString(timestamp) + PROFILE_EXT);
-			if (!profileFile.exists())
-				return;
+		Map.Entry<Long, File> snapshot = listSnapshots(profileDirectory, false).floorEntry(timestamp);
+		if (snapshot == null)
+			return;
+		File journal = ProfileJournal.getJournalFile(profileDirectory, snapshot.getKey());
+		List<Long> states = ProfileJournal.getStates(snapshot.getKey(), readJournal(journal));
+		if (!states.contains(timestamp))
+			return;
+		if (states.size() == 1) {
+			// no other state needs the snapshot and its deltas anymore
+			FileUtils.deleteAll(snapshot.getValue());
+			FileUtils.deleteAll(journal);
+		} else {
+			try {
+				ProfileJournal.append(journal, ProfileJournal.REMOVED, timestamp, new byte[0]);
+			} catch (IOException e) {
+				throw new ProvisionException(new Status(IStatus.ERROR, EngineActivator.ID, NLS.bind(Messages.error_persisting_profile, id), e));
+			}
 		}
-		FileUtils.deleteAll(profileFile);
 		// Ignore the return value here. If there was a problem removing the profile state
 		// properties we don't want to fail the whole operation since the profile state itself
 		// was removed successfully
@@ -544,14 +639,9 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 			boolean locked = false;
 			if (lock.processHoldsLock() || (locked = lock.lock())) {
 				try {
-					File profileFile = findLatestProfileFile(profileDirectorie);
-					if (profileFile != null) {
-						try {
-							parser.parse(profileFile);
-						} catch (IOException e) {
-							LogHelper.log(new Status(IStatus.ERROR, EngineActivator.ID, NLS.bind(Messages.error_parsing_profile, profileFile), e));
-						}
-					}
+					long[] timestamps = listTimestamps(profileDirectorie, false);
+					if (timestamps.length > 0)
+						parseProfileState(parser, profileId, profileDirectorie, timestamps[timestamps.length - 1]);
 				} finally {
 					if (locked)
 						lock.unlock();
@@ -564,37 +654,12 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 		return parser.getProfileMap();
 	}
 
-	private File findLatestProfileFile(File profileDirectory) {
-		File latest = null;
-		long latestTimestamp = 0;
-		File[] profileFiles = profileDirectory.listFiles((FileFilter) pathname -> (pathname.getName().endsWith(PROFILE_GZ_EXT) || pathname.getName().endsWith(PROFILE_EXT)) && !pathname.isDirectory());
-		// protect against NPE
-		if (profileFiles == null)
-			return null;
-		for (File profileFile : profileFiles) {
-			String fileName = profileFile.getName();
-			try {
-				long timestamp = Long.parseLong(fileName.substring(0, fileName.indexOf(PROFILE_EXT)));
-				if (timestamp > latestTimestamp) {
-					latestTimestamp = timestamp;
-					latest = profileFile;
-				}
-			} catch (NumberFormatException e) {
-				// ignore
-			}
-		}
-		return latest;
-	}
-
 	private void saveProfile(Profile profile) {
 		File profileDirectory = getProfileFolder(profile.getProfileId());
 		profileDirectory.mkdir();
 
 		long previousTimestamp = profile.getTimestamp();
-		long currentTimestamp = currentTimeInMillis(lastTimeMillis);
-		if (currentTimestamp <= previousTimestamp) {
-			currentTimestamp = currentTimeInMillis(previousTimestamp);
-		}
+		long currentTimestamp = nextTimestamp(previousTimestamp);
 		boolean shouldGzipFile = shouldGzipFile(profile);
 		File profileFile = new File(profileDirectory, Long.toString(currentTimestamp) + (shouldGzipFile ? PROFILE_GZ_EXT : PROFILE_EXT));
 
@@ -616,6 +681,92 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 		}
 	}
 
+	/**
+	 * Saves the given profile. Only the given changes are recorded if they
+	 * apply to the last state saved and the last snapshot of the profile has
+	 * room for more deltas, a full snapshot is written otherwise.
+	 *
+	 * @param delta the changes made to the profile since it was last saved, or
+	 *        <code>null</code> if they are not known
+	 */
+	private void saveProfile(Profile profile, ProfileDelta delta) {
+		File journal = delta == null ? null : getDeltaJournal(profile);
+		if (journal == null) {
+			saveProfile(profile);
+			return;
+		}
+
+		long currentTimestamp = nextTimestamp(profile.getTimestamp());
+		if (DebugHelper.DEBUG_PROFILE_REGISTRY)
+			DebugHelper.debug(PROFILE_REGISTRY, "Saving profile delta to: " + journal.getAbsolutePath()); //$NON-NLS-1$
+
+		ByteArrayOutputStream data = new ByteArrayOutputStream();
+		try {
+			try (OutputStream os = new GZIPOutputStream(data)) {
+				Writer writer = new Writer(os);
+				writer.writeProfileDelta(profile.getProfileId(), delta.complete(profile, currentTimestamp));
+			}
+			ProfileJournal.append(journal, ProfileJournal.DELTA, currentTimestamp, data.toByteArray());
+		} catch (IOException e) {
+			LogHelper.log(new Status(IStatus.WARNING, EngineActivator.ID, NLS.bind(Messages.error_persisting_profile, profile.getProfileId()), e));
+			saveProfile(profile);
+			return;
+		}
+		profile.setTimestamp(currentTimestamp);
+		profile.setChanged(false);
+	}
+
+	/**
+	 * Returns the journal of the last snapshot of the given profile if a delta
+	 * of the profile can be appended to it, <code>null</code> otherwise.
+	 */
+	private File getDeltaJournal(Profile profile) {
+		int maxDeltas = getMaxProfileDeltas();
+		// profiles with an old engine are kept readable by it
+		if (maxDeltas <= 0 || !shouldGzipFile(profile))
+			return null;
+		File profileDirectory = getProfileFolder(profile.getProfileId());
+		TreeMap<Long, File> snapshots = listSnapshots(profileDirectory, false);
+		if (snapshots.isEmpty())
+			return null;
+		long snapshot = snapshots.lastKey();
+		File journal = ProfileJournal.getJournalFile(profileDirectory, snapshot);
+		List<ProfileJournal.Entry> entries;
+		try {
+			entries = ProfileJournal.readEntries(journal);
+		} catch (IOException e) {
+			return null;
+		}
+		if (ProfileJournal.countDeltas(entries) >= maxDeltas)
+			return null;
+		// the delta is relative to the profile in memory, which must be the last state of the journal
+		long last = snapshot;
+		for (ProfileJournal.Entry entry : entries) {
+			if (entry.kind() == ProfileJournal.DELTA)
+				last = entry.timestamp();
+		}
+		return last == profile.getTimestamp() ? journal : null;
+	}
+
+	private int getMaxProfileDeltas() {
+		String value = EngineActivator.getProperty(EngineActivator.PROP_PROFILE_DELTAS, agent);
+		if (value == null)
+			return 0;
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	private static long nextTimestamp(long previousTimestamp) {
+		long currentTimestamp = currentTimeInMillis(lastTimeMillis);
+		if (currentTimestamp <= previousTimestamp) {
+			currentTimestamp = currentTimeInMillis(previousTimestamp);
+		}
+		return currentTimestamp;
+	}
+
 	/**
 	 * Returns current time in millis that is guaranteed to grow and higher as given
 	 * value
@@ -709,6 +860,7 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 	 */
 	class Parser extends ProfileParser {
 		private final Map<String, ProfileHandler> profileHandlers = new HashMap<>();
+		private final Map<String, List<ProfileDelta>> profileDeltas = new HashMap<>();
 
 		public Map<String, ProfileHandler> getProfileHandlers() {
 			return Collections.unmodifiableMap(profileHandlers);
@@ -716,12 +868,22 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 
 		public Parser(String bundleId) {
 			super(bundleId);
+			if (agent != null)
+				setInterner(agent.getService(MetadataInterner.class));
 		}
 
 		public void addProfilePlaceHolder(String profileId) {
 			profileHandlers.put(profileId, new ProfileHandler(profileId));
 		}
 
+		/**
+		 * Adds the deltas to apply to the parsed snapshot of a profile.
+		 */
+		void addProfileDeltas(String profileId, List<ProfileDelta> deltas) {
+			if (!deltas.isEmpty())
+				profileDeltas.put(profileId, deltas);
+		}
+
 		public void parse(File file) throws IOException {
 			InputStream is;
 			if (file.getName().endsWith(PROFILE_GZ_EXT)) {
@@ -733,15 +895,28 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 		}
 
 		public synchronized void parse(InputStream stream) throws IOException {
+			ProfileHandler profileHandler = new ProfileHandler();
+			parse(stream, PROFILE_ELEMENT, profileHandler);
+			profileHandlers.put(profileHandler.getProfileId(), profileHandler);
+		}
+
+		synchronized ProfileDelta parseDelta(InputStream stream) throws IOException {
+			ProfileDeltaHandler deltaHandler = new ProfileDeltaHandler();
+			parse(stream, PROFILE_DELTA_ELEMENT, deltaHandler);
+			// a delta with missing parts would corrupt every state restored from it
+			if (!isValidXML())
+				throw new IOException(getStatus().getMessage());
+			return deltaHandler.getDelta();
+		}
+
+		private void parse(InputStream stream, String rootName, RootHandler rootHandler) throws IOException {
 			this.status = null;
 			try {
 				// TODO: currently not caching the parser since we make no assumptions
 				//		 or restrictions on concurrent parsing
 				XMLReader reader = getParser().getXMLReader();
-				ProfileHandler profileHandler = new ProfileHandler();
-				reader.setContentHandler(new ProfileDocHandler(PROFILE_ELEMENT, profileHandler));
+				reader.setContentHandler(new ProfileDocHandler(rootName, rootHandler));
 				reader.parse(new InputSource(stream));
-				profileHandlers.put(profileHandler.getProfileId(), profileHandler);
 			} catch (SAXException e) {
 				IOException ioException = new IOException(e.getMessage());
 				ioException.initCause(e);
@@ -799,6 +974,11 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 					}
 				}
 			}
+			List<ProfileDelta> deltas = profileDeltas.get(profileId);
+			if (deltas != null) {
+				for (ProfileDelta delta : deltas)
+					delta.apply(profile);
+			}
 			profile.setChanged(false);
 			profileMap.put(profileId, profile);
 		}
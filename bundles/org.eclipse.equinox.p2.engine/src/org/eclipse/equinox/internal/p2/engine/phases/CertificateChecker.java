@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2017 IBM Corporation and others.
+ * Copyright (c) 2008, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,9 +17,11 @@ import java.io.*;
 import java.net.URL;
 import java.nio.ByteBuffer;
 import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
 import java.security.cert.*;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.*;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -29,6 +31,7 @@ import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.equinox.internal.p2.artifact.processors.pgp.PGPPublicKeyStore;
 import org.eclipse.equinox.internal.p2.artifact.processors.pgp.PGPSignatureVerifier;
 import org.eclipse.equinox.internal.p2.artifact.repository.simple.SimpleArtifactRepository;
+import org.eclipse.equinox.internal.p2.core.helpers.ThreadPoolHelper;
 import org.eclipse.equinox.internal.p2.engine.*;
 import org.eclipse.equinox.p2.core.*;
 import org.eclipse.equinox.p2.core.UIServices.TrustInfo;
@@ -63,6 +66,19 @@ public class CertificateChecker {
 
 	public static final String TRUSTED_CERTIFICATES_PROPERTY = "trustedCertificates"; //$NON-NLS-1$
 
+	/**
+	 * The agent property giving the number of threads verifying the
+	 * signatures of the artifacts, which defaults to the number of processors.
+	 */
+	public static final String PROP_VERIFICATION_THREADS = "eclipse.p2.engine.verificationThreads"; //$NON-NLS-1$
+
+	/**
+	 * The agent property that, set to <code>false</code>, disables the
+	 * {@link SignatureVerificationCache} of the artifacts found signed by a
+	 * trusted certificate.
+	 */
+	public static final String PROP_VERIFICATION_CACHE = "eclipse.p2.engine.verificationCache"; //$NON-NLS-1$
+
 	/***
 	 * Store the optional profile for PGP key handling
 	 */
@@ -159,6 +175,8 @@ public class CertificateChecker {
 		Set<SimpleArtifactRepository> repositories = new HashSet<>();
 		boolean isTrustedKeySetInitialized = false;
 		Map<IArtifactKey, File> artifactFiles = new LinkedHashMap<>();
+		SignatureVerificationCache cache = getVerificationCache();
+		Map<IArtifactDescriptor, SignatureVerification> verifications = verifySignatures(verifierFactory, cache);
 		for (Entry<IArtifactDescriptor, File> artifact : artifacts.entrySet()) {
 			IArtifactDescriptor artifactDescriptor = artifact.getKey();
 			IArtifactRepository repository = artifactDescriptor.getRepository();
@@ -170,10 +188,12 @@ public class CertificateChecker {
 			artifactFiles.put(artifactKey, artifactFile);
 			boolean artifactTrustedByCertificate = false;
 			try {
-				SignedContent content = verifierFactory.getSignedContent(artifactFile);
-				boolean signed = content.isSigned();
-				if (signed) {
-					SignerInfo[] signerInfo = content.getSignerInfos();
+				SignatureVerification verification = verifications.get(artifactDescriptor);
+				boolean signed = verification.isSigned();
+				if (verification.cached) {
+					artifactTrustedByCertificate = true;
+				} else if (signed) {
+					SignerInfo[] signerInfo = verification.signerInfos;
 
 					// Only record the untrusted elements if there are no trusted elements.
 					// Also check previously trusted certificates from the preferences.
@@ -194,14 +214,7 @@ public class CertificateChecker {
 					// Treat the artifact as untrusted if the signature is outside of the
 					// certificate's validity range.
 					if (VERIFY_CERTIFICATE_SIGNATURE_VALIDITY) {
-						List<SignerInfo> invalidSignatures = Arrays.stream(signerInfo).filter(info -> {
-							try {
-								content.checkValidity(info);
-								return false;
-							} catch (CertificateExpiredException | CertificateNotYetValidException e) {
-								return true;
-							}
-						}).collect(Collectors.toList());
+						List<SignerInfo> invalidSignatures = verification.invalidSignatures;
 
 						// Only complain if all signatures are invalid and do so even if the certificate
 						// itself is trusted.
@@ -256,6 +269,15 @@ public class CertificateChecker {
 			}
 		}
 
+		if (cache != null) {
+			verifications.values().forEach(verification -> verification.record(cache));
+			try {
+				cache.save();
+			} catch (IOException e) {
+				DebugHelper.debug(DEBUG_PREFIX, e.getMessage());
+			}
+		}
+
 		// log the unsigned artifacts if requested
 		if (DebugHelper.DEBUG_CERTIFICATE_CHECKER_UNSIGNED && !unsignedArtifacts.isEmpty()) {
 			StringBuilder message = new StringBuilder("The following artifacts are unsigned:\n"); //$NON-NLS-1$
@@ -407,6 +429,172 @@ public class CertificateChecker {
 		return Status.OK_STATUS;
 	}
 
+	/**
+	 * Verifies the signatures of the artifacts concurrently, skipping the ones
+	 * recorded in the given cache, if any.
+	 */
+	private Map<IArtifactDescriptor, SignatureVerification> verifySignatures(SignedContentFactory verifierFactory,
+			SignatureVerificationCache cache) {
+		Map<IArtifactDescriptor, SignatureVerification> verifications = new HashMap<>();
+		artifacts.forEach((descriptor, file) -> verifications.put(descriptor, new SignatureVerification(file)));
+		int threads = Math.min(getVerificationThreads(), verifications.size());
+		if (threads <= 1) {
+			verifications.values().forEach(verification -> verification.verify(verifierFactory, cache));
+			return verifications;
+		}
+		ExecutorService executor = ThreadPoolHelper.newFixedDaemonThreadPool("certificate-checker", threads); //$NON-NLS-1$
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (SignatureVerification verification : verifications.values())
+				futures.add(executor.submit(() -> verification.verify(verifierFactory, cache)));
+			for (Future<?> future : futures)
+				future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} catch (ExecutionException e) {
+			// verify() records its failures, so only errors get here
+			if (e.getCause() instanceof Error error)
+				throw error;
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+		return verifications;
+	}
+
+	private int getVerificationThreads() {
+		String value = EngineActivator.getProperty(PROP_VERIFICATION_THREADS, agent);
+		if (value != null) {
+			try {
+				return Integer.parseInt(value.trim());
+			} catch (NumberFormatException e) {
+				// use the default
+			}
+		}
+		return Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Returns the verification cache of the agent for the current trust anchors,
+	 * or <code>null</code> if it is disabled or unavailable.
+	 */
+	private SignatureVerificationCache getVerificationCache() {
+		if (Boolean.FALSE.toString().equalsIgnoreCase(EngineActivator.getProperty(PROP_VERIFICATION_CACHE, agent)))
+			return null;
+		String trustStoreVersion = getTrustStoreVersion();
+		return trustStoreVersion == null ? null : SignatureVerificationCache.load(agent, trustStoreVersion);
+	}
+
+	/**
+	 * Returns a digest of the trust anchors of the trust engines, which changes
+	 * whenever an anchor is added, removed or replaced, or <code>null</code> if
+	 * they cannot be read.
+	 */
+	private String getTrustStoreVersion() {
+		BundleContext context = EngineActivator.getContext();
+		if (context == null)
+			return null;
+		ServiceTracker<TrustEngine, TrustEngine> trustEngineTracker = new ServiceTracker<>(context, TrustEngine.class,
+				null);
+		trustEngineTracker.open();
+		try {
+			TrustEngine[] trustEngines = trustEngineTracker.getServices(new TrustEngine[0]);
+			if (trustEngines.length == 0)
+				return null;
+			MessageDigest digest = MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+			digest.update(Boolean.toString(VERIFY_CERTIFICATE_SIGNATURE_VALIDITY).getBytes());
+			for (TrustEngine trustEngine : trustEngines) {
+				digest.update(trustEngine.getName().getBytes());
+				String[] aliases = trustEngine.getAliases();
+				Arrays.sort(aliases);
+				for (String alias : aliases) {
+					digest.update(alias.getBytes());
+					Certificate anchor = trustEngine.getTrustAnchor(alias);
+					if (anchor != null)
+						digest.update(anchor.getEncoded());
+				}
+			}
+			return HexFormat.of().formatHex(digest.digest());
+		} catch (IOException | GeneralSecurityException e) {
+			DebugHelper.debug(DEBUG_PREFIX, e.getMessage());
+			return null;
+		} finally {
+			trustEngineTracker.close();
+		}
+	}
+
+	/**
+	 * The signatures of an artifact file, as read by the signed content factory
+	 * or found trusted in the cache.
+	 */
+	private static final class SignatureVerification {
+		private final File file;
+		/** The hash of the file content, if cached verifications are used. */
+		private String hash;
+		/** Whether the file is known to be signed by a trusted certificate. */
+		boolean cached;
+		private SignedContent content;
+		SignerInfo[] signerInfos;
+		/** The signatures outside of the validity range of their certificate. */
+		List<SignerInfo> invalidSignatures = List.of();
+		private Exception failure;
+
+		SignatureVerification(File file) {
+			this.file = file;
+		}
+
+		void verify(SignedContentFactory verifierFactory, SignatureVerificationCache cache) {
+			try {
+				if (cache != null && file.isFile()) {
+					hash = SignatureVerificationCache.hash(file);
+					if (cache.isTrusted(hash)) {
+						cached = true;
+						return;
+					}
+				}
+				content = verifierFactory.getSignedContent(file);
+				if (!content.isSigned())
+					return;
+				signerInfos = content.getSignerInfos();
+				if (VERIFY_CERTIFICATE_SIGNATURE_VALIDITY) {
+					invalidSignatures = Arrays.stream(signerInfos).filter(info -> {
+						try {
+							content.checkValidity(info);
+							return false;
+						} catch (CertificateExpiredException | CertificateNotYetValidException e) {
+							return true;
+						}
+					}).collect(Collectors.toList());
+				}
+			} catch (IOException | GeneralSecurityException e) {
+				failure = e;
+			}
+		}
+
+		/**
+		 * Returns whether the file is signed, or throws the exception its
+		 * verification failed with.
+		 */
+		boolean isSigned() throws IOException, GeneralSecurityException {
+			if (failure instanceof IOException e)
+				throw e;
+			if (failure instanceof GeneralSecurityException e)
+				throw e;
+			return cached || content.isSigned();
+		}
+
+		/**
+		 * Records the file in the cache if its signatures were verified and
+		 * found trusted.
+		 */
+		void record(SignatureVerificationCache cache) {
+			if (hash == null || cached || failure != null || signerInfos == null)
+				return;
+			cache.record(hash, signerInfos, invalidSignatures);
+		}
+	}
+
 	/**
 	 * This modifies the argument collection to remove the certificates that were
 	 * successfully saved. Often no certificates are saved because this tries to
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2017 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -80,6 +80,12 @@ public class Configure extends InstallableUnitPhase {
 		}
 	}
 
+	/**
+	 * The actions of the eclipse touchpoint that only change the configuration
+	 * of the bundle of their own unit.
+	 */
+	private static final Set<String> CONCURRENT_ACTIONS = Set.of("org.eclipse.equinox.p2.touchpoint.eclipse.markStarted", "org.eclipse.equinox.p2.touchpoint.eclipse.setStartLevel"); //$NON-NLS-1$ //$NON-NLS-2$
+
 	public Configure(int weight) {
 		super(PhaseSetFactory.PHASE_CONFIGURE, weight);
 	}
@@ -111,6 +117,11 @@ public class Configure extends InstallableUnitPhase {
 		return actions;
 	}
 
+	@Override
+	protected Set<String> getConcurrentActionIds() {
+		return CONCURRENT_ACTIONS;
+	}
+
 	@Override
 	protected String getProblemMessage() {
 		return Messages.Phase_Configure_Error;
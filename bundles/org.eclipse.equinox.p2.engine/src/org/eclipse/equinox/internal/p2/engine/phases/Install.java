@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2007, 2017 IBM Corporation and others.
+ *  Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -81,6 +81,12 @@ public class Install extends InstallableUnitPhase {
 		}
 	}
 
+	/**
+	 * The actions of the eclipse touchpoint that only read the artifact of their
+	 * own unit and add it to the configuration.
+	 */
+	private static final Set<String> CONCURRENT_ACTIONS = Set.of("org.eclipse.equinox.p2.touchpoint.eclipse.installBundle"); //$NON-NLS-1$
+
 	public Install(int weight) {
 		super(PhaseSetFactory.PHASE_INSTALL, weight);
 	}
@@ -119,6 +125,11 @@ public class Install extends InstallableUnitPhase {
 		return actions;
 	}
 
+	@Override
+	protected Set<String> getConcurrentActionIds() {
+		return CONCURRENT_ACTIONS;
+	}
+
 	@Override
 	protected String getProblemMessage() {
 		return Messages.Phase_Install_Error;
@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.engine.phases;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.*;
+import java.util.function.LongSupplier;
+import org.eclipse.core.runtime.URIUtil;
+import org.eclipse.equinox.internal.p2.engine.EngineActivator;
+import org.eclipse.equinox.p2.core.IAgentLocation;
+import org.eclipse.equinox.p2.core.IProvisioningAgent;
+import org.eclipse.osgi.signedcontent.SignerInfo;
+
+/**
+ * The artifact files that the {@link CertificateChecker} found signed by a
+ * certificate trusted by the trust engines, by the SHA-256 hash of their
+ * content. It is kept in the data area of the engine of an agent, so that the
+ * signatures of an unchanged artifact, such as a bundle installed again from a
+ * shared pool, are not verified again.
+ * <p>
+ * The cache is only used with the trust anchors it was computed with: it is
+ * emptied when the given trust store version differs from the recorded one.
+ * An entry also expires with the earliest expiry of the certificates that
+ * signed the artifact, after which their validity has to be checked again.
+ * </p>
+ */
+public class SignatureVerificationCache {
+	static final String FILE_NAME = "signatures.cache"; //$NON-NLS-1$
+
+	private static final String HEADER = "# p2 signature verification cache 1"; //$NON-NLS-1$
+	private static final int MAX_ENTRIES = 20000;
+
+	private final File file;
+	private final String trustStoreVersion;
+	private final LongSupplier clock;
+	/** The expiry of the entries by content hash, the oldest first. */
+	private final Map<String, Long> entries = new LinkedHashMap<>();
+	private boolean changed;
+
+	private SignatureVerificationCache(File file, String trustStoreVersion, LongSupplier clock) {
+		this.file = file;
+		this.trustStoreVersion = trustStoreVersion;
+		this.clock = clock;
+	}
+
+	/**
+	 * Returns the cache of the given agent for the given trust store version,
+	 * or <code>null</code> if the agent has no data area.
+	 */
+	static SignatureVerificationCache load(IProvisioningAgent agent, String trustStoreVersion) {
+		IAgentLocation location = agent.getService(IAgentLocation.class);
+		URI dataArea = location == null ? null : location.getDataArea(EngineActivator.ID);
+		File folder = dataArea == null ? null : URIUtil.toFile(dataArea);
+		if (folder == null)
+			return null;
+		return load(new File(folder, FILE_NAME), trustStoreVersion, System::currentTimeMillis);
+	}
+
+	/**
+	 * Returns the cache kept in the given file for the given trust store
+	 * version, whose entries expire according to the given clock.
+	 */
+	public static SignatureVerificationCache load(File file, String trustStoreVersion, LongSupplier clock) {
+		SignatureVerificationCache cache = new SignatureVerificationCache(file, trustStoreVersion, clock);
+		cache.read();
+		return cache;
+	}
+
+	/**
+	 * Returns whether an artifact with the given hash was found signed by a
+	 * trusted certificate whose validity has not expired since.
+	 */
+	public synchronized boolean isTrusted(String hash) {
+		Long expiry = entries.get(hash);
+		return expiry != null && expiry.longValue() > clock.getAsLong();
+	}
+
+	/**
+	 * Records an artifact with the given hash if a trust engine trusts one of
+	 * its signers and not all of its signatures are invalid. The entry expires
+	 * with the earliest expiry of the certificates of the signers.
+	 *
+	 * @param invalidSignatures the signatures outside of the validity range of
+	 *        their certificate
+	 * @return whether the artifact has been recorded
+	 */
+	public boolean record(String hash, SignerInfo[] signerInfos, List<SignerInfo> invalidSignatures) {
+		if (signerInfos.length == 0 || invalidSignatures.size() == signerInfos.length
+				|| Arrays.stream(signerInfos).noneMatch(SignerInfo::isTrusted))
+			return false;
+		long expiry = Long.MAX_VALUE;
+		for (SignerInfo signerInfo : signerInfos) {
+			for (Certificate certificate : signerInfo.getCertificateChain()) {
+				if (certificate instanceof X509Certificate x509)
+					expiry = Math.min(expiry, x509.getNotAfter().getTime());
+			}
+		}
+		return addTrusted(hash, expiry);
+	}
+
+	private synchronized boolean addTrusted(String hash, long expiry) {
+		if (expiry <= clock.getAsLong())
+			return false;
+		entries.remove(hash);
+		entries.put(hash, Long.valueOf(expiry));
+		for (Iterator<String> it = entries.keySet().iterator(); entries.size() > MAX_ENTRIES;) {
+			it.next();
+			it.remove();
+		}
+		changed = true;
+		return true;
+	}
+
+	/**
+	 * Returns the SHA-256 hash of the content of the given file.
+	 */
+	public static String hash(File file) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+		byte[] buffer = new byte[64 * 1024];
+		try (InputStream input = new FileInputStream(file)) {
+			for (int read; (read = input.read(buffer)) != -1;)
+				digest.update(buffer, 0, read);
+		}
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	private void read() {
+		if (!file.isFile())
+			return;
+		try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+			if (!HEADER.equals(reader.readLine()) || !trustStoreVersion.equals(reader.readLine())) {
+				// computed with other trust anchors
+				changed = true;
+				return;
+			}
+			long now = clock.getAsLong();
+			for (String line; (line = reader.readLine()) != null;) {
+				int separator = line.indexOf(' ');
+				if (separator < 0)
+					continue;
+				long expiry = Long.parseLong(line.substring(separator + 1));
+				if (expiry > now)
+					entries.put(line.substring(0, separator), Long.valueOf(expiry));
+				else
+					changed = true;
+			}
+		} catch (IOException | NumberFormatException e) {
+			// start over
+			entries.clear();
+			changed = true;
+		}
+	}
+
+	/**
+	 * Writes the cache if it changed, replacing the previous one at once.
+	 */
+	public synchronized void save() throws IOException {
+		if (!changed)
+			return;
+		File folder = file.getParentFile();
+		if (!folder.isDirectory() && !folder.mkdirs())
+			throw new IOException("Cannot create " + folder); //$NON-NLS-1$
+		File temp = File.createTempFile(FILE_NAME, ".tmp", folder); //$NON-NLS-1$
+		try {
+			try (BufferedWriter writer = Files.newBufferedWriter(temp.toPath(), StandardCharsets.UTF_8)) {
+				writer.write(HEADER);
+				writer.newLine();
+				writer.write(trustStoreVersion);
+				writer.newLine();
+				for (Map.Entry<String, Long> entry : entries.entrySet()) {
+					writer.write(entry.getKey());
+					writer.write(' ');
+					writer.write(entry.getValue().toString());
+					writer.newLine();
+				}
+			}
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			changed = false;
+		} finally {
+			temp.delete();
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2008, 2023 IBM Corporation and others.
+ *  Copyright (c) 2008, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -17,10 +17,14 @@
 package org.eclipse.equinox.p2.engine;
 
 import java.net.URI;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.*;
 import org.eclipse.core.runtime.*;
+import org.eclipse.equinox.internal.p2.core.helpers.ThreadPoolHelper;
 import org.eclipse.equinox.internal.p2.engine.DebugHelper;
 import org.eclipse.equinox.internal.p2.engine.DownloadManager;
+import org.eclipse.equinox.internal.p2.engine.EngineActivator;
 import org.eclipse.equinox.internal.p2.repository.Transport;
 import org.eclipse.equinox.p2.core.IProvisioningAgent;
 import org.eclipse.equinox.p2.core.ProvisionException;
@@ -51,6 +55,14 @@ public class ProvisioningContext {
 	private Map<URI, IArtifactRepository> allLoadedArtifactRepositories;
 	private Set<URI> failedArtifactRepositories = new HashSet<>();
 	private Set<URI> failedMetadataRepositories = new HashSet<>();
+	private final Map<URI, Duration> metadataRepositoryLoadTimes = Collections.synchronizedMap(new LinkedHashMap<>());
+
+	/**
+	 * The property giving the number of metadata repositories of a level of the
+	 * reference graph that are loaded at the same time.
+	 */
+	private static final String PROP_LOAD_THREADS = "eclipse.p2.engine.repositoryLoadThreads"; //$NON-NLS-1$
+	private static final int DEFAULT_LOAD_THREADS = 4;
 
 	class ArtifactRepositoryQueryable implements IQueryable<IArtifactRepository> {
 		List<IArtifactRepository> repositories;
@@ -212,58 +224,219 @@ public class ProvisioningContext {
 		URI[] repositories = metadataRepositories == null ? repoManager.getKnownRepositories(IRepositoryManager.REPOSITORIES_ALL) : metadataRepositories;
 
 		Map<String, IMetadataRepository> repos = new HashMap<>();
-		SubMonitor sub = SubMonitor.convert(monitor, repositories.length);
 
 		// Clear out the list of remembered artifact repositories
 		referencedArtifactRepositories = new HashMap<>();
-		for (URI repositorie : repositories) {
-			loadMetadataRepository(repoManager, repositorie, repos, shouldFollowReferences(), sub.split(1));
-		}
+		loadMetadataRepositories(repoManager, Arrays.asList(repositories), repos, shouldFollowReferences(), monitor);
 		return new HashSet<>(repos.values());
 	}
 
-	private void loadMetadataRepository(IMetadataRepositoryManager manager, URI location,
+	/**
+	 * Loads the given metadata repositories and the metadata repositories they
+	 * reference. The repositories are first loaded breadth first, the
+	 * repositories of a level of the reference graph being loaded at the same
+	 * time. They are then added to this context depth first, in the order of the
+	 * references, as if they had been loaded one after the other. Only the
+	 * calling thread touches the state of this context.
+	 */
+	private void loadMetadataRepositories(IMetadataRepositoryManager manager, List<URI> locations,
 			Map<String, IMetadataRepository> repos, boolean followMetadataRepoReferences, IProgressMonitor monitor) {
+		Map<URI, Duration> times = new ConcurrentHashMap<>();
+		Map<URI, IMetadataRepository> prefetched = prefetchMetadataRepositories(manager, locations, repos,
+				followMetadataRepoReferences, times, monitor);
+		IArtifactRepositoryManager artifactManager = agent.getService(IArtifactRepositoryManager.class);
+		for (URI location : locations)
+			addMetadataRepository(manager, artifactManager, location, repos, followMetadataRepoReferences, prefetched, times);
+	}
+
+	/**
+	 * Loads, breadth first, the given metadata repositories and the ones they
+	 * reference that were not loaded by this context yet.
+	 *
+	 * @return the repositories loaded by location, with a <code>null</code>
+	 *         value for those that could not be loaded
+	 */
+	private Map<URI, IMetadataRepository> prefetchMetadataRepositories(IMetadataRepositoryManager manager,
+			List<URI> locations, Map<String, IMetadataRepository> repos, boolean followMetadataRepoReferences,
+			Map<URI, Duration> times, IProgressMonitor monitor) {
+		SubMonitor sub = SubMonitor.convert(monitor, locations.size());
+		Map<URI, IMetadataRepository> prefetched = new HashMap<>();
+		Set<String> visited = new HashSet<>();
+		ExecutorService executor = null;
+		try {
+			for (List<URI> level = locations; !level.isEmpty();) {
+				// if we've already processed a repo, don't do it again.  This keeps us from getting
+				// caught up in circular references.
+				List<URI> pending = new ArrayList<>();
+				for (URI location : level) {
+					if (!repos.containsKey(location.toString()) && !failedMetadataRepositories.contains(location)
+							&& visited.add(location.toString()))
+						pending.add(location);
+				}
+				sub.setWorkRemaining(pending.size() + 1);
+				List<URI> toLoad = new ArrayList<>();
+				for (URI location : pending) {
+					if (!loadedMetadataRepositories.containsKey(location))
+						toLoad.add(location);
+				}
+				int threads = Math.min(getLoadThreads(), toLoad.size());
+				if (threads > 1 && executor == null)
+					executor = createExecutor();
+				Map<URI, IMetadataRepository> loaded = threads > 1
+						? loadMetadataRepositories(manager, toLoad, times, executor, sub)
+						: loadMetadataRepositories(manager, toLoad, times, sub);
+				for (URI location : toLoad)
+					prefetched.put(location, loaded.get(location));
+
+				List<URI> nextLevel = new ArrayList<>();
+				if (followMetadataRepoReferences) {
+					for (URI location : pending) {
+						IMetadataRepository repository = loadedMetadataRepositories.getOrDefault(location, loaded.get(location));
+						if (repository == null)
+							continue;
+						for (IRepositoryReference ref : repository.getReferences()) {
+							try {
+								if (ref.getType() == IRepository.TYPE_METADATA && isEnabled(manager, ref))
+									nextLevel.add(ref.getLocation());
+							} catch (IllegalArgumentException e) {
+								// ignore invalid location and keep going
+							}
+						}
+					}
+				}
+				level = nextLevel;
+			}
+		} finally {
+			if (executor != null)
+				executor.shutdownNow();
+		}
+		return prefetched;
+	}
+
+	/**
+	 * Adds a metadata repository loaded by
+	 * {@link #prefetchMetadataRepositories} to this context, and then the
+	 * repositories it references.
+	 */
+	private void addMetadataRepository(IMetadataRepositoryManager manager, IArtifactRepositoryManager artifactManager,
+			URI location, Map<String, IMetadataRepository> repos, boolean followMetadataRepoReferences,
+			Map<URI, IMetadataRepository> prefetched, Map<URI, Duration> times) {
 		// if we've already processed this repo, don't do it again.  This keeps us from getting
 		// caught up in circular references.
 		if (repos.containsKey(location.toString()) || failedMetadataRepositories.contains(location)) {
 			return;
 		}
 
-		SubMonitor subMonitor = SubMonitor.convert(monitor, 2);
-		// First load the repository itself.
 		IMetadataRepository repository = loadedMetadataRepositories.get(location);
 		if (repository == null) {
-			try {
-				repository = manager.loadRepository(location, subMonitor.split(1));
-				loadedMetadataRepositories.put(location, repository);
-			} catch (ProvisionException e) {
+			// the repository was not prefetched if the enablement of a reference changed meanwhile
+			repository = prefetched.containsKey(location) ? prefetched.get(location)
+					: loadMetadataRepository(manager, location, times, null);
+			Duration time = times.get(location);
+			if (time != null)
+				metadataRepositoryLoadTimes.put(location, time);
+			if (repository == null) {
 				failedMetadataRepositories.add(location);
 				return;
 			}
+			loadedMetadataRepositories.put(location, repository);
 		}
 		repos.put(location.toString(), repository);
-		Collection<IRepositoryReference> references = repository.getReferences();
 		// We always load artifact repositories referenced by this repository.  We might load
 		// metadata repositories
-		if (!references.isEmpty()) {
-			IArtifactRepositoryManager artifactManager = agent.getService(IArtifactRepositoryManager.class);
-			SubMonitor repoMon = SubMonitor.convert(subMonitor.split(1), references.size());
-			for (IRepositoryReference ref : references) {
-				try {
-					if (ref.getType() == IRepository.TYPE_METADATA && followMetadataRepoReferences && isEnabled(manager, ref)) {
-						loadMetadataRepository(manager, ref.getLocation(), repos, followMetadataRepoReferences, repoMon.split(1));
-					} else if (ref.getType() == IRepository.TYPE_ARTIFACT && isEnabled(artifactManager, ref)) {
-						// We want to remember all enabled artifact repository locations.
-						referencedArtifactRepositories.put(ref.getLocation().toString(), ref.getLocation());
-					}
-				} catch (IllegalArgumentException e) {
-					// see https://bugs.eclipse.org/bugs/show_bug.cgi?id=311338
-					// ignore invalid location and keep going
+		for (IRepositoryReference ref : repository.getReferences()) {
+			try {
+				if (ref.getType() == IRepository.TYPE_METADATA && followMetadataRepoReferences && isEnabled(manager, ref)) {
+					addMetadataRepository(manager, artifactManager, ref.getLocation(), repos, followMetadataRepoReferences, prefetched, times);
+				} else if (ref.getType() == IRepository.TYPE_ARTIFACT && isEnabled(artifactManager, ref)) {
+					// We want to remember all enabled artifact repository locations.
+					referencedArtifactRepositories.put(ref.getLocation().toString(), ref.getLocation());
 				}
+			} catch (IllegalArgumentException e) {
+				// see https://bugs.eclipse.org/bugs/show_bug.cgi?id=311338
+				// ignore invalid location and keep going
+			}
+		}
+	}
+
+	private Map<URI, IMetadataRepository> loadMetadataRepositories(IMetadataRepositoryManager manager, List<URI> locations,
+			Map<URI, Duration> times, SubMonitor monitor) {
+		Map<URI, IMetadataRepository> loaded = new HashMap<>();
+		for (URI location : locations) {
+			IMetadataRepository repository = loadMetadataRepository(manager, location, times, monitor.split(1));
+			if (repository != null)
+				loaded.put(location, repository);
+		}
+		return loaded;
+	}
+
+	private Map<URI, IMetadataRepository> loadMetadataRepositories(IMetadataRepositoryManager manager, List<URI> locations,
+			Map<URI, Duration> times, ExecutorService executor, SubMonitor monitor) {
+		// the progress monitor is not thread safe, the loads only look for cancellation
+		IProgressMonitor cancellation = new NullProgressMonitor() {
+			@Override
+			public boolean isCanceled() {
+				return monitor.isCanceled();
+			}
+		};
+		Map<URI, Future<IMetadataRepository>> futures = new LinkedHashMap<>();
+		for (URI location : locations)
+			futures.put(location, executor.submit(() -> loadMetadataRepository(manager, location, times, cancellation)));
+		Map<URI, IMetadataRepository> loaded = new HashMap<>();
+		try {
+			for (Map.Entry<URI, Future<IMetadataRepository>> entry : futures.entrySet()) {
+				IMetadataRepository repository = entry.getValue().get();
+				monitor.worked(1);
+				if (repository != null)
+					loaded.put(entry.getKey(), repository);
 			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} catch (ExecutionException e) {
+			// failures to load are returned as null, so only unchecked exceptions get here
+			if (e.getCause() instanceof RuntimeException runtimeException)
+				throw runtimeException;
+			if (e.getCause() instanceof Error error)
+				throw error;
+			throw new IllegalStateException(e.getCause());
 		}
+		if (monitor.isCanceled())
+			throw new OperationCanceledException();
+		return loaded;
+	}
 
+	/**
+	 * Loads a metadata repository, recording the time it took in the given map.
+	 *
+	 * @return the repository, or <code>null</code> if it cannot be loaded
+	 */
+	private IMetadataRepository loadMetadataRepository(IMetadataRepositoryManager manager, URI location,
+			Map<URI, Duration> times, IProgressMonitor monitor) {
+		long start = System.nanoTime();
+		try {
+			return manager.loadRepository(location, monitor);
+		} catch (ProvisionException e) {
+			return null;
+		} finally {
+			times.put(location, Duration.ofNanos(System.nanoTime() - start));
+		}
+	}
+
+	private ExecutorService createExecutor() {
+		return ThreadPoolHelper.newFixedDaemonThreadPool("repository-loader", getLoadThreads()); //$NON-NLS-1$
+	}
+
+	private int getLoadThreads() {
+		String value = EngineActivator.getProperty(PROP_LOAD_THREADS, agent);
+		if (value != null) {
+			try {
+				return Integer.parseInt(value.trim());
+			} catch (NumberFormatException e) {
+				// use the default
+			}
+		}
+		return DEFAULT_LOAD_THREADS;
 	}
 
 	// If the manager knows about the repo, consider its enablement state in the manager.
@@ -302,6 +475,24 @@ public class ProvisioningContext {
 		return QueryUtil.compoundQueryable(getLoadedMetadataRepositories(monitor));
 	}
 
+	/**
+	 * Returns the time it took to load each metadata repository that this context
+	 * loaded while providing its metadata, including the repositories that failed
+	 * to load and the repositories reached by following references. This is meant
+	 * for diagnosing slow repositories; a repository that was already loaded by the
+	 * repository manager takes little time.
+	 *
+	 * @return the load times by repository location, in the order in which the
+	 *         repositories and their references are visited, depth first
+	 * @see #getMetadata(IProgressMonitor)
+	 * @since 2.11
+	 */
+	public Map<URI, Duration> getMetadataRepositoryLoadTimes() {
+		synchronized (metadataRepositoryLoadTimes) {
+			return Collections.unmodifiableMap(new LinkedHashMap<>(metadataRepositoryLoadTimes));
+		}
+	}
+
 	/**
 	 * Returns a map from simple metadata repository location to a subset of the
 	 * given installable units available in that repository. All available
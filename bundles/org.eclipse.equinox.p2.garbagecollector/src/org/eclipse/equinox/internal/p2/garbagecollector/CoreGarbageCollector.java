@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2017 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -48,4 +48,23 @@ public class CoreGarbageCollector {
 		}, new NullProgressMonitor());
 	}
 
+	/**
+	 * Given a collection of IArtifactKeys that are no longer referenced and an
+	 * IArtifactRepository, removes the artifacts of aRepository mapped to by these
+	 * keys, without looking at the other artifacts of aRepository
+	 */
+	public synchronized void remove(Collection<IArtifactKey> unreferenced, final IArtifactRepository aRepository) {
+		if (unreferenced.isEmpty())
+			return;
+		aRepository.executeBatch(monitor -> {
+			for (IArtifactKey key : unreferenced) {
+				if (!aRepository.contains(key))
+					continue;
+				aRepository.removeDescriptor(key, new NullProgressMonitor());
+				if (DEBUG) {
+					Tracing.debug("Key removed:" + key); //$NON-NLS-1$
+				}
+			}
+		}, new NullProgressMonitor());
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2007, 2019 IBM Corporation and others.
+ *  Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -13,6 +13,7 @@
  *******************************************************************************/
 package org.eclipse.equinox.internal.p2.garbagecollector;
 
+import java.io.IOException;
 import java.util.*;
 import org.eclipse.core.runtime.*;
 import org.eclipse.core.runtime.preferences.*;
@@ -20,12 +21,14 @@ import org.eclipse.equinox.internal.p2.core.helpers.LogHelper;
 import org.eclipse.equinox.internal.p2.engine.*;
 import org.eclipse.equinox.internal.provisional.p2.core.eventbus.IProvisioningEventBus;
 import org.eclipse.equinox.internal.provisional.p2.core.eventbus.SynchronousProvisioningListener;
+import org.eclipse.equinox.p2.core.IAgentLocation;
 import org.eclipse.equinox.p2.core.IProvisioningAgent;
 import org.eclipse.equinox.p2.core.spi.IAgentService;
 import org.eclipse.equinox.p2.engine.IProfile;
 import org.eclipse.equinox.p2.engine.IProfileRegistry;
 import org.eclipse.equinox.p2.metadata.IArtifactKey;
 import org.eclipse.equinox.p2.repository.artifact.IArtifactRepository;
+import org.eclipse.osgi.util.NLS;
 import org.osgi.service.prefs.Preferences;
 
 /**
@@ -165,6 +168,11 @@ public class GarbageCollector implements SynchronousProvisioningListener, IAgent
 		if (!traverseMainProfile(profile))
 			return;
 
+		if (getBooleanPreference(GarbageCollectorHelper.GC_INCREMENTAL, false)) {
+			runIncrementalGC(profile);
+			return;
+		}
+
 		//Complete each MarkSet with the MarkSets provided by all of the other registered Profiles
 		traverseRegisteredProfiles();
 
@@ -172,6 +180,120 @@ public class GarbageCollector implements SynchronousProvisioningListener, IAgent
 		invokeCoreGC();
 	}
 
+	/**
+	 * Runs the GC on the repositories used by the given profile, only computing
+	 * the MarkSets of the profiles that changed since the last run. The MarkSets
+	 * of the last run are kept next to each repository by {@link PersistentMarkSets},
+	 * and only the keys that are no longer referenced by any profile are removed.
+	 * A repository without recorded MarkSets, the first time, is cleaned entirely.
+	 * Repositories that cannot hold MarkSets, such as remote ones, are cleaned as
+	 * usual.
+	 */
+	private void runIncrementalGC(IProfile profile) {
+		IProfileRegistry profileRegistry = agent.getService(IProfileRegistry.class);
+		IProfile[] registeredProfiles = profileRegistry == null ? new IProfile[0] : profileRegistry.getProfiles();
+		// the MarkSets of the main profile have just been computed
+		Map<String, Map<IArtifactRepository, Collection<IArtifactKey>>> profileMarkSets = new HashMap<>();
+		for (IProfile registeredProfile : registeredProfiles) {
+			if (registeredProfile.getProfileId().equals(profile.getProfileId()) && registeredProfile.getTimestamp() == profile.getTimestamp())
+				profileMarkSets.put(profile.getProfileId(), new HashMap<>(markSet));
+		}
+
+		Set<IArtifactRepository> fullRepositories = new HashSet<>();
+		for (IArtifactRepository repository : markSet.keySet()) {
+			PersistentMarkSets recorded;
+			try {
+				recorded = PersistentMarkSets.load(repository);
+			} catch (IOException e) {
+				// another agent may be collecting the repository
+				LogHelper.log(new Status(IStatus.WARNING, GarbageCollectorHelper.ID, NLS.bind(Messages.Error_locking_markSets, repository.getLocation()), e));
+				continue;
+			}
+			if (recorded == null) {
+				fullRepositories.add(repository);
+				continue;
+			}
+			try {
+				collectIncrementally(repository, recorded, registeredProfiles, profileMarkSets);
+			} finally {
+				try {
+					recorded.close();
+				} catch (IOException e) {
+					LogHelper.log(new Status(IStatus.WARNING, GarbageCollectorHelper.ID, NLS.bind(Messages.Error_locking_markSets, repository.getLocation()), e));
+				}
+			}
+		}
+
+		if (fullRepositories.isEmpty())
+			return;
+		markSet.keySet().retainAll(fullRepositories);
+		traverseRegisteredProfiles();
+		invokeCoreGC();
+	}
+
+	/**
+	 * Updates the given MarkSets recorded for the repository with the profiles
+	 * that changed, removes the keys they no longer reference, and saves them.
+	 */
+	private void collectIncrementally(IArtifactRepository repository, PersistentMarkSets recorded, IProfile[] registeredProfiles, Map<String, Map<IArtifactRepository, Collection<IArtifactKey>>> profileMarkSets) {
+		boolean firstRun = recorded.isEmpty();
+		Set<IArtifactKey> released = new HashSet<>();
+		Set<String> current = new HashSet<>();
+		for (IProfile registeredProfile : registeredProfiles) {
+			String id = getQualifiedId(registeredProfile);
+			current.add(id);
+			if (recorded.isCurrent(id, registeredProfile.getTimestamp()))
+				continue;
+			Map<IArtifactRepository, Collection<IArtifactKey>> markSets = profileMarkSets.computeIfAbsent(registeredProfile.getProfileId(), p -> getMarkSets(registeredProfile));
+			recorded.update(id, registeredProfile.getTimestamp(), markSets.getOrDefault(repository, Collections.emptySet()), released);
+		}
+		String prefix = getQualifiedId(null);
+		for (String id : new ArrayList<>(recorded.getProfiles())) {
+			if (id.startsWith(prefix) && !current.contains(id))
+				recorded.remove(id, released);
+		}
+
+		CoreGarbageCollector collector = new CoreGarbageCollector();
+		if (firstRun) {
+			collector.clean(recorded.getReferencedKeys().toArray(new IArtifactKey[0]), repository);
+		} else {
+			released.removeIf(key -> recorded.getReferenceCount(key) > 0);
+			collector.remove(released, repository);
+		}
+		try {
+			recorded.save();
+		} catch (IOException e) {
+			LogHelper.log(new Status(IStatus.WARNING, GarbageCollectorHelper.ID, Messages.Error_saving_markSets, e));
+		}
+	}
+
+	/**
+	 * Returns the MarkSets of the given profile provided by all of the registered
+	 * IMarkSetProviders, by artifact repository.
+	 */
+	private Map<IArtifactRepository, Collection<IArtifactKey>> getMarkSets(IProfile profile) {
+		Map<IArtifactRepository, Collection<IArtifactKey>> mainMarkSet = markSet;
+		markSet = new HashMap<>();
+		try {
+			traverseMainProfile(profile);
+			return markSet;
+		} finally {
+			markSet = mainMarkSet;
+		}
+	}
+
+	/**
+	 * Returns the id a profile is recorded with in the MarkSets kept next to a
+	 * repository, which is qualified by the location of the agent since bundle
+	 * pools can be shared by several agents, or the prefix of these ids if the
+	 * profile is <code>null</code>.
+	 */
+	private String getQualifiedId(IProfile profile) {
+		IAgentLocation location = agent.getService(IAgentLocation.class);
+		String prefix = (location == null || location.getRootLocation() == null ? "" : location.getRootLocation().toString()) + '#'; //$NON-NLS-1$
+		return profile == null ? prefix : prefix + profile.getProfileId();
+	}
+
 	@Override
 	public void start() {
 		IProvisioningEventBus eventBus = agent.getService(IProvisioningEventBus.class);
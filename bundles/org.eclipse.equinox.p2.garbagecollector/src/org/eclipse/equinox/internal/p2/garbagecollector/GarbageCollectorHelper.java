@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2007, 2017 IBM Corporation and others.
+ *  Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -19,6 +19,7 @@ public class GarbageCollectorHelper {
 
 	public static final String ID = "org.eclipse.equinox.p2.garbagecollector"; //$NON-NLS-1$
 	public static final String GC_ENABLED = "gc_enabled"; //$NON-NLS-1$
+	public static final String GC_INCREMENTAL = "gc_incremental"; //$NON-NLS-1$
 
 
 	static <T> T getService(Class<T> clazz) {
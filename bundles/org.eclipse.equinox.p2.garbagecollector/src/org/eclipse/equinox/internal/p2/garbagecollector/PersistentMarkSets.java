@@ -0,0 +1,275 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.garbagecollector;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.equinox.internal.p2.core.helpers.LogHelper;
+import org.eclipse.equinox.internal.p2.metadata.ArtifactKey;
+import org.eclipse.equinox.p2.metadata.IArtifactKey;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactRepository;
+import org.eclipse.osgi.util.NLS;
+
+/**
+ * The mark sets of the profiles using an artifact repository, as of the last
+ * garbage collection, together with the number of profiles referencing each
+ * artifact key. They are kept in the file {@value #FILE_NAME} at the root of
+ * the repository, so that a collection only has to compute the mark sets of
+ * the profiles that changed since the last one and only has to consider the
+ * keys that are no longer referenced by any profile.
+ * <p>
+ * A profile is recorded under an id that includes the location of its agent,
+ * since a shared bundle pool is used by the profiles of several agents. The
+ * profiles of the other agents are kept, and keep their keys referenced, until
+ * their own agent collects the repository.
+ * </p>
+ * <p>
+ * The mark sets are loaded under a lock on the file {@value #LOCK_FILE_NAME},
+ * which is held until they are closed, so that the agents sharing a bundle
+ * pool update them one after the other.
+ * </p>
+ */
+public class PersistentMarkSets implements Closeable {
+	static final String FILE_NAME = "gc.marks"; //$NON-NLS-1$
+	static final String LOCK_FILE_NAME = "gc.marks.lock"; //$NON-NLS-1$
+
+	// a file lock is held by the whole VM, so the agents of the VM wait for each other first
+	private static final Map<Path, ReentrantLock> LOCKS = new ConcurrentHashMap<>();
+
+	private static final int MAGIC = 0x50324743; // "P2GC"
+	private static final int VERSION = 1;
+
+	private record ProfileMarks(long timestamp, Set<IArtifactKey> keys) {
+		// the mark set of a profile at the given timestamp
+	}
+
+	private final File file;
+	private final Map<String, ProfileMarks> profiles = new HashMap<>();
+	private final Map<IArtifactKey, int[]> counts = new HashMap<>();
+	private ReentrantLock vmLock;
+	private FileChannel channel;
+	private FileLock fileLock;
+
+	PersistentMarkSets(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Returns the mark sets recorded for the given repository, which are empty
+	 * if none have been recorded or if they cannot be read, or <code>null</code>
+	 * if the repository is not local and so cannot hold them. Waits until no
+	 * other agent holds them, and holds them until they are closed.
+	 *
+	 * @throws IOException if the mark sets cannot be locked
+	 */
+	public static PersistentMarkSets load(IArtifactRepository repository) throws IOException {
+		URI location = repository.getLocation();
+		if (location == null || !"file".equals(location.getScheme())) //$NON-NLS-1$
+			return null;
+		File file;
+		try {
+			file = new File(new File(location), FILE_NAME);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+		PersistentMarkSets markSets = new PersistentMarkSets(file);
+		markSets.lock();
+		if (file.isFile()) {
+			try {
+				markSets.read();
+			} catch (IOException e) {
+				LogHelper.log(new Status(IStatus.WARNING, GarbageCollectorHelper.ID, NLS.bind(Messages.Error_reading_markSets, file), e));
+				markSets.profiles.clear();
+				markSets.counts.clear();
+			}
+		}
+		return markSets;
+	}
+
+	private void lock() throws IOException {
+		Path lockFile = new File(file.getParentFile(), LOCK_FILE_NAME).toPath().toAbsolutePath().normalize();
+		vmLock = LOCKS.computeIfAbsent(lockFile, path -> new ReentrantLock());
+		vmLock.lock();
+		try {
+			channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			fileLock = channel.lock();
+		} catch (IOException | RuntimeException e) {
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Releases the lock on the mark sets, without saving them.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (vmLock == null)
+			return;
+		try {
+			if (fileLock != null)
+				fileLock.release();
+			if (channel != null)
+				channel.close();
+		} finally {
+			fileLock = null;
+			channel = null;
+			vmLock.unlock();
+			vmLock = null;
+		}
+	}
+
+	/**
+	 * Returns whether no mark set has been recorded yet, in which case the
+	 * whole repository has to be collected once.
+	 */
+	public boolean isEmpty() {
+		return profiles.isEmpty();
+	}
+
+	/**
+	 * Returns the ids of the recorded profiles.
+	 */
+	public Set<String> getProfiles() {
+		return Collections.unmodifiableSet(profiles.keySet());
+	}
+
+	/**
+	 * Returns whether the recorded mark set of the given profile is the one of
+	 * its state with the given timestamp.
+	 */
+	public boolean isCurrent(String profileId, long timestamp) {
+		ProfileMarks marks = profiles.get(profileId);
+		return marks != null && marks.timestamp() == timestamp;
+	}
+
+	/**
+	 * Records the mark set of a profile, replacing its previous one.
+	 *
+	 * @param released collects the keys that are no longer referenced by any profile
+	 */
+	public void update(String profileId, long timestamp, Collection<IArtifactKey> keys, Set<IArtifactKey> released) {
+		Set<IArtifactKey> newKeys = new HashSet<>(keys);
+		ProfileMarks old = profiles.put(profileId, new ProfileMarks(timestamp, newKeys));
+		for (IArtifactKey key : newKeys) {
+			if (old == null || !old.keys().contains(key)) {
+				counts.computeIfAbsent(key, k -> new int[1])[0]++;
+				released.remove(key);
+			}
+		}
+		if (old != null) {
+			for (IArtifactKey key : old.keys()) {
+				if (!newKeys.contains(key))
+					release(key, released);
+			}
+		}
+	}
+
+	/**
+	 * Forgets the mark set of a profile that no longer exists.
+	 *
+	 * @param released collects the keys that are no longer referenced by any profile
+	 */
+	public void remove(String profileId, Set<IArtifactKey> released) {
+		ProfileMarks old = profiles.remove(profileId);
+		if (old == null)
+			return;
+		for (IArtifactKey key : old.keys())
+			release(key, released);
+	}
+
+	private void release(IArtifactKey key, Set<IArtifactKey> released) {
+		int[] count = counts.get(key);
+		if (count == null)
+			return;
+		if (--count[0] <= 0) {
+			counts.remove(key);
+			released.add(key);
+		}
+	}
+
+	/**
+	 * Returns the number of recorded profiles referencing the given key.
+	 */
+	public int getReferenceCount(IArtifactKey key) {
+		int[] count = counts.get(key);
+		return count == null ? 0 : count[0];
+	}
+
+	/**
+	 * Returns the keys referenced by at least one recorded profile.
+	 */
+	public Set<IArtifactKey> getReferencedKeys() {
+		return Collections.unmodifiableSet(counts.keySet());
+	}
+
+	private void read() throws IOException {
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))))) {
+			if (input.readInt() != MAGIC || input.readInt() != VERSION)
+				throw new IOException("Unsupported garbage collection state format"); //$NON-NLS-1$
+			IArtifactKey[] keys = new IArtifactKey[input.readInt()];
+			for (int i = 0; i < keys.length; i++)
+				keys[i] = ArtifactKey.parse(input.readUTF());
+			int profileCount = input.readInt();
+			for (int i = 0; i < profileCount; i++) {
+				String profileId = input.readUTF();
+				long timestamp = input.readLong();
+				int size = input.readInt();
+				Set<IArtifactKey> profileKeys = new HashSet<>(size * 4 / 3 + 1);
+				for (int j = 0; j < size; j++)
+					profileKeys.add(keys[input.readInt()]);
+				update(profileId, timestamp, profileKeys, new HashSet<>());
+			}
+		} catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+			throw new IOException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Writes the mark sets next to the repository, replacing the previous ones
+	 * at once. The mark sets must not have been closed.
+	 */
+	public void save() throws IOException {
+		Map<IArtifactKey, Integer> indexes = new LinkedHashMap<>();
+		for (IArtifactKey key : counts.keySet())
+			indexes.put(key, indexes.size());
+		File temp = new File(file.getParentFile(), FILE_NAME + ".tmp"); //$NON-NLS-1$
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(temp))))) {
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeInt(indexes.size());
+			for (IArtifactKey key : indexes.keySet())
+				output.writeUTF(key.toExternalForm());
+			output.writeInt(profiles.size());
+			for (Map.Entry<String, ProfileMarks> entry : profiles.entrySet()) {
+				output.writeUTF(entry.getKey());
+				output.writeLong(entry.getValue().timestamp());
+				output.writeInt(entry.getValue().keys().size());
+				for (IArtifactKey key : entry.getValue().keys())
+					output.writeInt(indexes.get(key));
+			}
+		}
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2023 IBM Corporation and others.
+ * Copyright (c) 2008, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -23,6 +23,8 @@ import org.eclipse.core.runtime.*;
 import org.eclipse.equinox.internal.p2.core.helpers.LogHelper;
 import org.eclipse.equinox.internal.p2.persistence.CompositeRepositoryIO;
 import org.eclipse.equinox.internal.p2.persistence.CompositeRepositoryState;
+import org.eclipse.equinox.internal.p2.repository.helpers.CompositeChildLoader;
+import org.eclipse.equinox.internal.p2.repository.helpers.CompositeChildLoader.ChildResult;
 import org.eclipse.equinox.internal.p2.repository.helpers.RepositoryHelper;
 import org.eclipse.equinox.p2.core.*;
 import org.eclipse.equinox.p2.metadata.IInstallableUnit;
@@ -46,6 +48,9 @@ public class CompositeMetadataRepository extends AbstractMetadataRepository impl
 			.parseBoolean(FrameworkUtil.getBundle(CompositeMetadataRepository.class).getBundleContext()
 					.getProperty("eclipse.p2.atomic.composite.loading.default")); //$NON-NLS-1$
 
+	static final private String LOADING_THREADS_DEFAULT = FrameworkUtil.getBundle(CompositeMetadataRepository.class)
+			.getBundleContext().getProperty(CompositeChildLoader.PROP_LOADING_THREADS_DEFAULT);
+
 	static final private Integer REPOSITORY_VERSION = 1;
 	static final public String XML_EXTENSION = ".xml"; //$NON-NLS-1$
 	static final private String JAR_EXTENSION = ".jar"; //$NON-NLS-1$
@@ -89,6 +94,11 @@ public class CompositeMetadataRepository extends AbstractMetadataRepository impl
 		SubMonitor sub = SubMonitor.convert(monitor, 100 * state.getChildren().length);
 		List<URI> repositoriesToBeRemovedOnFailure = new ArrayList<>();
 		boolean failOnChildFailure = shouldFailOnChildFailure(state);
+		int threads = CompositeChildLoader.getLoadingThreads(state.getProperties(), LOADING_THREADS_DEFAULT);
+		if (threads > 1 && state.getChildren().length > 1) {
+			addChildren(state.getChildren(), threads, sub, failOnChildFailure, repositoriesToBeRemovedOnFailure);
+			return;
+		}
 		for (URI child : state.getChildren())
 			addChild(child, false, sub.newChild(100), failOnChildFailure, repositoriesToBeRemovedOnFailure);
 
@@ -182,6 +192,58 @@ public class CompositeMetadataRepository extends AbstractMetadataRepository impl
 		}
 	}
 
+	/*
+	 * Loads the given children concurrently. The children are added to this composite in the given
+	 * order, regardless of the order in which their loads complete.
+	 */
+	private void addChildren(URI[] children, int threads, IProgressMonitor monitor, boolean propagateException, List<URI> repositoriesToBeRemovedOnFailure) throws ProvisionException {
+		List<URI> toLoad = new ArrayList<>(children.length);
+		for (URI childURI : children) {
+			URI absolute = URIUtil.makeAbsolute(childURI, getLocation());
+			if (childrenURIs.contains(childURI) || childrenURIs.contains(absolute))
+				continue;
+			// always add the URI to the list of child URIs (even if we can't load it later)
+			childrenURIs.add(childURI);
+			toLoad.add(absolute);
+		}
+		List<ChildResult<LoadedChild>> results = CompositeChildLoader.loadChildren(toLoad, threads, propagateException, this::loadChild, monitor);
+		ProvisionException failure = null;
+		for (ChildResult<LoadedChild> result : results) {
+			if (result.repository() != null) {
+				LoadedChild child = result.repository();
+				if (!child.previouslyLoaded() && propagateException)
+					repositoriesToBeRemovedOnFailure.add(result.child());
+				child.repository().compress(iuPool); // Share IUs across this CompositeMetadataRepository
+				loadedRepos.add(child.repository());
+			} else if (result.failure() != null) {
+				//repository failed to load. fall through
+				LogHelper.log(result.failure());
+				if (failure == null)
+					failure = result.failure();
+			}
+		}
+		if (failure != null && propagateException) {
+			removeFromRepoManager(repositoriesToBeRemovedOnFailure);
+			String msg = NLS.bind(Messages.io_failedRead, getLocation());
+			throw new ProvisionException(new Status(IStatus.ERROR, Constants.ID, ProvisionException.REPOSITORY_FAILED_READ, msg, failure));
+		}
+	}
+
+	private LoadedChild loadChild(URI absolute, IProgressMonitor monitor) throws ProvisionException {
+		boolean currentLoaded = getManager().contains(absolute);
+		IMetadataRepository currentRepo = getManager().loadRepository(absolute, monitor);
+		if (!currentLoaded) {
+			//set enabled to false so repositories do not polled twice
+			getManager().setEnabled(absolute, false);
+			//set repository to system to hide from users
+			getManager().setRepositoryProperty(absolute, IRepository.PROP_SYSTEM, String.valueOf(true));
+		}
+		return new LoadedChild(currentRepo, currentLoaded);
+	}
+
+	private record LoadedChild(IMetadataRepository repository, boolean previouslyLoaded) {
+	}
+
 	@Override
 	public void addChild(URI childURI) {
 		try {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2007, 2023 IBM Corporation and others.
+ *  Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -53,7 +53,6 @@ public class LocalMetadataRepository extends AbstractMetadataRepository implemen
 	protected IUMap units = new IUMap();
 	protected final Set<IRepositoryReference> repositories = new LinkedHashSet<>();
 	private IIndex<IInstallableUnit> idIndex;
-	private IIndex<IInstallableUnit> capabilityIndex;
 	private TranslationSupport translationSupport;
 	private boolean snapshotNeeded = false;
 	private boolean disableSave = false;
@@ -107,7 +106,6 @@ public class LocalMetadataRepository extends AbstractMetadataRepository implemen
 			snapshotNeeded = false;
 		}
 		units.addAll(installableUnits);
-		capabilityIndex = null; // Generated, not backed by units
 		save();
 	}
 
@@ -145,9 +143,7 @@ public class LocalMetadataRepository extends AbstractMetadataRepository implemen
 
 		if (InstallableUnit.MEMBER_PROVIDED_CAPABILITIES.equals(memberName)) {
 			snapshotNeeded = true;
-			if (capabilityIndex == null)
-				capabilityIndex = new CapabilityIndex(units.iterator());
-			return capabilityIndex;
+			return units.getCapabilityIndex();
 		}
 		return null;
 	}
@@ -239,7 +235,6 @@ public class LocalMetadataRepository extends AbstractMetadataRepository implemen
 			snapshotNeeded = false;
 		} else
 			units.clear();
-		capabilityIndex = null; // Generated, not backed by units.
 		save();
 	}
 
@@ -254,7 +249,6 @@ public class LocalMetadataRepository extends AbstractMetadataRepository implemen
 				snapshotNeeded = false;
 			}
 			units.removeAll(installableUnits);
-			capabilityIndex = null; // Generated, not backed by units.
 		}
 		if (changed)
 			save();
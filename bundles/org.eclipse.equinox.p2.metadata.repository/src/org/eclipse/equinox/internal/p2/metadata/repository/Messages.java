@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2010 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This
  * program and the accompanying materials are made available under the terms of
@@ -28,6 +28,7 @@ public class Messages extends NLS {
 		// Do not instantiate
 	}
 
+	public static String io_failedCreate;
 	public static String io_failedRead;
 	public static String io_failedWrite;
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2022 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -25,6 +25,7 @@ import javax.xml.parsers.ParserConfigurationException;
 import org.eclipse.core.runtime.*;
 import org.eclipse.equinox.internal.p2.core.helpers.LogHelper;
 import org.eclipse.equinox.internal.p2.core.helpers.OrderedProperties;
+import org.eclipse.equinox.internal.p2.metadata.MetadataInterner;
 import org.eclipse.equinox.internal.p2.metadata.repository.io.MetadataParser;
 import org.eclipse.equinox.internal.p2.metadata.repository.io.MetadataWriter;
 import org.eclipse.equinox.internal.p2.persistence.XMLWriter;
@@ -56,6 +57,18 @@ public class MetadataRepositoryIO {
 	 * This method performs buffering, and closes the stream when finished.
 	 */
 	public IMetadataRepository read(URL location, InputStream input, IProgressMonitor monitor) throws ProvisionException {
+		return createRepository(readState(location, input, monitor));
+	}
+
+	/**
+	 * Reads the persisted state of a metadata repository from the given stream
+	 * without creating the repository.
+	 * This method performs buffering, and closes the stream when finished.
+	 *
+	 * @return the state, or <code>null</code> if the stream does not describe a
+	 *         valid repository
+	 */
+	public RepositoryState readState(URL location, InputStream input, IProgressMonitor monitor) throws ProvisionException {
 		BufferedInputStream bufferedInput = null;
 		try {
 			try {
@@ -63,6 +76,8 @@ public class MetadataRepositoryIO {
 
 				Parser repositoryParser = new Parser(Constants.ID);
 				repositoryParser.setErrorContext(location.toExternalForm());
+				if (agent != null)
+					repositoryParser.setInterner(agent.getService(MetadataInterner.class));
 				repositoryParser.parse(input, monitor);
 				IStatus result = repositoryParser.getStatus();
 				switch (result.getSeverity()) {
@@ -74,7 +89,7 @@ public class MetadataRepositoryIO {
 					case IStatus.INFO :
 						LogHelper.log(result);
 				}
-				return repositoryParser.getRepository();
+				return repositoryParser.getRepositoryState();
 			} finally {
 				if (bufferedInput != null)
 					bufferedInput.close();
@@ -85,6 +100,34 @@ public class MetadataRepositoryIO {
 		}
 	}
 
+	/**
+	 * Creates and initializes the repository of the type recorded in the given
+	 * state.
+	 *
+	 * @param state the persisted state, may be <code>null</code>
+	 * @return the repository, or <code>null</code> if the repository could not
+	 *         be created
+	 */
+	public IMetadataRepository createRepository(RepositoryState state) {
+		//can't create repository if missing type - this is already logged when parsing attributes
+		if (state == null || state.Type == null)
+			return null;
+		Object repositoryObject = null;
+		try {
+			Class<?> clazz = Class.forName(state.Type);
+			Constructor<?> ctor = clazz.getConstructor(IProvisioningAgent.class);
+			repositoryObject = ctor.newInstance(agent);
+		} catch (Exception e) {
+			LogHelper.log(new Status(IStatus.ERROR, Constants.ID, NLS.bind(Messages.io_failedCreate, state.Type), e));
+		}
+		if (repositoryObject instanceof AbstractMetadataRepository) {
+			AbstractMetadataRepository repository = (AbstractMetadataRepository) repositoryObject;
+			repository.initialize(state);
+			return repository;
+		}
+		return null;
+	}
+
 	public void write(IMetadataRepository repository, OutputStream output) throws IOException {
 		try (OutputStream bufferedOutput = new BufferedOutputStream(output)) {
 			Writer repositoryWriter = new Writer(bufferedOutput, repository.getClass());
@@ -184,7 +227,7 @@ public class MetadataRepositoryIO {
 	 */
 	private class Parser extends MetadataParser implements XMLConstants {
 
-		private IMetadataRepository theRepository = null;
+		private RepositoryState theState = null;
 
 		public Parser(String bundleId) {
 			super(bundleId);
@@ -202,7 +245,7 @@ public class MetadataRepositoryIO {
 				reader.setContentHandler(new RepositoryDocHandler(REPOSITORY_ELEMENT, repositoryHandler));
 				reader.parse(new InputSource(stream));
 				if (isValidXML()) {
-					theRepository = repositoryHandler.getRepository();
+					theState = repositoryHandler.getState();
 				}
 			} catch (SAXException e) {
 				if (!(e.getException() instanceof OperationCanceledException)) {
@@ -220,13 +263,13 @@ public class MetadataRepositoryIO {
 			}
 		}
 
-		public IMetadataRepository getRepository() {
-			return theRepository;
+		public RepositoryState getRepositoryState() {
+			return theState;
 		}
 
 		@Override
 		protected Object getRootObject() {
-			return theRepository;
+			return theState == null ? null : theState.Name;
 		}
 
 		private final class RepositoryDocHandler extends DocHandler {
@@ -256,16 +299,16 @@ public class MetadataRepositoryIO {
 			private PropertiesHandler propertiesHandler = null;
 			private RepositoryReferencesHandler repositoryReferencesHandler = null;
 
-			private AbstractMetadataRepository repository = null;
-
 			private RepositoryState state = new RepositoryState();
 
+			private boolean complete = false;
+
 			public RepositoryHandler() {
 				super();
 			}
 
-			public IMetadataRepository getRepository() {
-				return repository;
+			public RepositoryState getState() {
+				return complete ? state : null;
 			}
 
 			@Override
@@ -314,22 +357,7 @@ public class MetadataRepositoryIO {
 					state.Units = (unitsHandler == null ? new IInstallableUnit[0] //
 							: unitsHandler.getUnits());
 					state.Repositories = repositoryReferencesHandler == null ? new IRepositoryReference[0] : repositoryReferencesHandler.getReferences();
-					Object repositoryObject = null;
-					//can't create repository if missing type - this is already logged when parsing attributes
-					if (state.Type == null)
-						return;
-					try {
-						Class<?> clazz = Class.forName(state.Type);
-						Constructor<?> ctor = clazz.getConstructor(IProvisioningAgent.class);
-						repositoryObject = ctor.newInstance(agent);
-					} catch (Exception e) {
-						// TODO: Throw a SAXException
-						e.printStackTrace();
-					}
-					if (repositoryObject instanceof AbstractMetadataRepository) {
-						repository = (AbstractMetadataRepository) repositoryObject;
-						repository.initialize(state);
-					}
+					complete = true;
 				}
 			}
 		}
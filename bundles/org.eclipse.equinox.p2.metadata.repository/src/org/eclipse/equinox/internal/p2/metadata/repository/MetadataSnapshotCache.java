@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.metadata.repository;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.file.*;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.eclipse.core.runtime.URIUtil;
+import org.eclipse.equinox.internal.p2.core.helpers.Tracing;
+import org.eclipse.equinox.internal.p2.metadata.MetadataInterner;
+import org.eclipse.equinox.internal.p2.metadata.repository.io.MetadataSnapshotIO;
+import org.eclipse.equinox.p2.core.IAgentLocation;
+import org.eclipse.equinox.p2.core.IProvisioningAgent;
+import org.eclipse.equinox.p2.repository.metadata.spi.AbstractMetadataRepository.RepositoryState;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.FrameworkUtil;
+
+/**
+ * Keeps binary snapshots of parsed metadata repository files in the data area
+ * of the agent, so that unchanged repositories do not have to be parsed again
+ * on the next load.
+ * <p>
+ * A snapshot is keyed on the absolute path, the length and the last modified
+ * time of the file it was created from. For remote repositories this is the
+ * file kept by the {@link org.eclipse.equinox.internal.p2.repository.CacheManager},
+ * whose last modified time is the one reported by the server, so a snapshot
+ * becomes stale as soon as the remote repository changes. Stale or unreadable
+ * snapshots are deleted when they are read, and replaced after the repository
+ * has been parsed. The snapshots of repository files that no longer exist are
+ * pruned the first time the cache of an agent is used in a session.
+ * </p>
+ */
+public class MetadataSnapshotCache {
+
+	/**
+	 * The framework property used to enable the snapshots. Snapshots are
+	 * disabled unless the property is set to <code>true</code>.
+	 */
+	public static final String PROP_SNAPSHOTS = "eclipse.p2.metadata.snapshots"; //$NON-NLS-1$
+
+	private static final String SNAPSHOT_FOLDER = "/snapshots/"; //$NON-NLS-1$
+	private static final String SNAPSHOT_EXTENSION = ".snapshot"; //$NON-NLS-1$
+	private static final String TEMP_EXTENSION = ".tmp"; //$NON-NLS-1$
+	// the age after which a temporary file is left over from an interrupted write
+	private static final long TEMP_FILE_AGE = 60 * 60 * 1000;
+	// "p2MS"
+	private static final int MAGIC = 0x70324d53;
+	// the folders already pruned in this session
+	private static final Set<File> PRUNED = ConcurrentHashMap.newKeySet();
+
+	private final File folder;
+	private final MetadataInterner interner;
+
+	MetadataSnapshotCache(File folder, MetadataInterner interner) {
+		this.folder = folder;
+		this.interner = interner;
+	}
+
+	/**
+	 * Returns the snapshot cache of the given agent, or <code>null</code> if
+	 * snapshots are disabled or the agent has no location to store them.
+	 */
+	public static MetadataSnapshotCache getCache(IProvisioningAgent agent) {
+		if (!isEnabled() || agent == null)
+			return null;
+		IAgentLocation location = agent.getService(IAgentLocation.class);
+		if (location == null)
+			return null;
+		URI dataArea = location.getDataArea(Constants.ID + SNAPSHOT_FOLDER);
+		if (dataArea == null || !"file".equals(dataArea.getScheme())) //$NON-NLS-1$
+			return null;
+		MetadataSnapshotCache cache = new MetadataSnapshotCache(URIUtil.toFile(dataArea), agent.getService(MetadataInterner.class));
+		if (PRUNED.add(cache.folder))
+			cache.prune();
+		return cache;
+	}
+
+	private static boolean isEnabled() {
+		Bundle bundle = FrameworkUtil.getBundle(MetadataSnapshotCache.class);
+		BundleContext context = bundle != null ? bundle.getBundleContext() : null;
+		String value = context != null ? context.getProperty(PROP_SNAPSHOTS) : System.getProperty(PROP_SNAPSHOTS);
+		return Boolean.parseBoolean(value);
+	}
+
+	/**
+	 * Returns the file holding the snapshot of the given repository file.
+	 */
+	public File getSnapshotFile(File source) {
+		String path = source.getAbsolutePath();
+		return new File(folder, source.getName() + '-' + Integer.toHexString(path.hashCode()) + SNAPSHOT_EXTENSION);
+	}
+
+	/**
+	 * Reads the snapshot of the given repository file.
+	 *
+	 * @return the state of the repository, or <code>null</code> if there is no
+	 *         snapshot or it is stale or unreadable
+	 */
+	public RepositoryState read(File source) {
+		File snapshot = getSnapshotFile(source);
+		if (!snapshot.isFile())
+			return null;
+		RepositoryState state = null;
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshot), 1 << 16))) {
+			if (source.getAbsolutePath().equals(readSource(input)) && input.readLong() == source.length() && input.readLong() == source.lastModified())
+				state = new MetadataSnapshotIO(interner).read(input);
+		} catch (IOException e) {
+			if (Tracing.DEBUG_METADATA_PARSING)
+				Tracing.debug("Ignoring unreadable metadata snapshot " + snapshot + ": " + e); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		if (state == null)
+			snapshot.delete();
+		return state;
+	}
+
+	/**
+	 * Reads the header of a snapshot.
+	 *
+	 * @return the absolute path of the repository file of the snapshot, or
+	 *         <code>null</code> if the snapshot has another format
+	 */
+	private static String readSource(DataInputStream input) throws IOException {
+		if (input.readInt() != MAGIC || input.readInt() != MetadataSnapshotIO.FORMAT_VERSION)
+			return null;
+		return input.readUTF();
+	}
+
+	/**
+	 * Deletes the snapshots of repository files that no longer exist, the
+	 * snapshots that cannot be read, and the temporary files left over from
+	 * interrupted writes.
+	 */
+	public void prune() {
+		File[] files = folder.listFiles();
+		if (files == null)
+			return;
+		long now = System.currentTimeMillis();
+		for (File file : files) {
+			String name = file.getName();
+			if (name.endsWith(TEMP_EXTENSION)) {
+				if (now - file.lastModified() > TEMP_FILE_AGE)
+					file.delete();
+			} else if (name.endsWith(SNAPSHOT_EXTENSION) && isOrphan(file)) {
+				if (Tracing.DEBUG_METADATA_PARSING)
+					Tracing.debug("Deleting orphaned metadata snapshot " + file); //$NON-NLS-1$
+				file.delete();
+			}
+		}
+	}
+
+	private boolean isOrphan(File snapshot) {
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshot)))) {
+			String source = readSource(input);
+			return source == null || !new File(source).isFile() || !getSnapshotFile(new File(source)).equals(snapshot);
+		} catch (IOException e) {
+			return true;
+		}
+	}
+
+	/**
+	 * Writes a snapshot of the given repository state, replacing any previous
+	 * snapshot of the repository file. Failures are only traced since the
+	 * snapshot is an optimization.
+	 */
+	public void write(File source, RepositoryState state) {
+		File snapshot = getSnapshotFile(source);
+		File temp = null;
+		try {
+			folder.mkdirs();
+			temp = File.createTempFile(snapshot.getName(), TEMP_EXTENSION, folder);
+			try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 1 << 16))) {
+				output.writeInt(MAGIC);
+				output.writeInt(MetadataSnapshotIO.FORMAT_VERSION);
+				output.writeUTF(source.getAbsolutePath());
+				output.writeLong(source.length());
+				output.writeLong(source.lastModified());
+				new MetadataSnapshotIO().write(state, output);
+			}
+			Files.move(temp.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException | RuntimeException e) {
+			if (Tracing.DEBUG_METADATA_PARSING)
+				Tracing.debug("Failed to write metadata snapshot " + snapshot + ": " + e); //$NON-NLS-1$ //$NON-NLS-2$
+			if (temp != null)
+				temp.delete();
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2007, 2017 IBM Corporation and others.
+ *  Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -25,6 +25,7 @@ import org.eclipse.equinox.internal.p2.repository.CacheManager;
 import org.eclipse.equinox.p2.core.ProvisionException;
 import org.eclipse.equinox.p2.repository.IRepositoryManager;
 import org.eclipse.equinox.p2.repository.metadata.IMetadataRepository;
+import org.eclipse.equinox.p2.repository.metadata.spi.AbstractMetadataRepository.RepositoryState;
 import org.eclipse.equinox.p2.repository.metadata.spi.MetadataRepositoryFactory;
 import org.eclipse.osgi.util.NLS;
 
@@ -87,40 +88,28 @@ public class SimpleMetadataRepositoryFactory extends MetadataRepositoryFactory {
 		SubMonitor sub = SubMonitor.convert(monitor, 400);
 		try {
 			File localFile = getLocalFile(location, sub.newChild(300));
-			InputStream inStream = new BufferedInputStream(new FileInputStream(localFile));
-			JarInputStream jarStream = null;
-			try {
-				//if reading from a jar, obtain a stream on the entry with the actual contents
-				if (localFile.getAbsolutePath().endsWith(JAR_EXTENSION) || hasZipMagicHeader(inStream)) {
-					jarStream = new JarInputStream(inStream);
-					JarEntry jarEntry = jarStream.getNextJarEntry();
-					String entryName = URLMetadataRepository.CONTENT_FILENAME + URLMetadataRepository.XML_EXTENSION;
-					while (jarEntry != null && (!entryName.equals(jarEntry.getName()))) {
-						jarEntry = jarStream.getNextJarEntry();
-					}
-					//if there is a jar but the entry is missing or invalid, treat this as an invalid repository
-					if (jarEntry == null)
-						throw new IOException(NLS.bind(Messages.repoMan_invalidLocation, location));
-				}
-				//parse the repository descriptor file
-				sub.setWorkRemaining(100);
-				InputStream descriptorStream = jarStream != null ? jarStream : inStream;
-				IMetadataRepository result = new MetadataRepositoryIO(getAgent()).read(localFile.toURL(), descriptorStream, sub.newChild(100));
-				if (result != null && (flags & IRepositoryManager.REPOSITORY_HINT_MODIFIABLE) > 0 && !result.isModifiable())
-					return null;
-				if (result instanceof LocalMetadataRepository)
-					((LocalMetadataRepository) result).initializeAfterLoad(location);
-				if (result instanceof URLMetadataRepository)
-					((URLMetadataRepository) result).initializeAfterLoad(location);
-				if (Tracing.DEBUG_METADATA_PARSING) {
-					time += System.currentTimeMillis();
-					Tracing.debug(debugMsg + "time (ms): " + time); //$NON-NLS-1$
-				}
-				return result;
-			} finally {
-				safeClose(jarStream);
-				safeClose(inStream);
+			sub.setWorkRemaining(100);
+			MetadataSnapshotCache snapshots = MetadataSnapshotCache.getCache(getAgent());
+			RepositoryState state = snapshots == null ? null : snapshots.read(localFile);
+			if (state == null) {
+				state = readState(location, localFile, sub.newChild(100));
+				if (state != null && snapshots != null)
+					snapshots.write(localFile, state);
+			} else if (Tracing.DEBUG_METADATA_PARSING) {
+				Tracing.debug(debugMsg + "loaded from snapshot " + snapshots.getSnapshotFile(localFile)); //$NON-NLS-1$
+			}
+			IMetadataRepository result = new MetadataRepositoryIO(getAgent()).createRepository(state);
+			if (result != null && (flags & IRepositoryManager.REPOSITORY_HINT_MODIFIABLE) > 0 && !result.isModifiable())
+				return null;
+			if (result instanceof LocalMetadataRepository)
+				((LocalMetadataRepository) result).initializeAfterLoad(location);
+			if (result instanceof URLMetadataRepository)
+				((URLMetadataRepository) result).initializeAfterLoad(location);
+			if (Tracing.DEBUG_METADATA_PARSING) {
+				time += System.currentTimeMillis();
+				Tracing.debug(debugMsg + "time (ms): " + time); //$NON-NLS-1$
 			}
+			return result;
 		} catch (FileNotFoundException e) {
 			String msg = NLS.bind(Messages.io_failedRead, location);
 			throw new ProvisionException(new Status(IStatus.ERROR, Constants.ID, ProvisionException.REPOSITORY_NOT_FOUND, msg, e));
@@ -133,6 +122,34 @@ public class SimpleMetadataRepositoryFactory extends MetadataRepositoryFactory {
 		}
 	}
 
+	/**
+	 * Parses the given local copy of the repository at the given location.
+	 */
+	private RepositoryState readState(URI location, File localFile, IProgressMonitor monitor) throws IOException, ProvisionException {
+		InputStream inStream = new BufferedInputStream(new FileInputStream(localFile));
+		JarInputStream jarStream = null;
+		try {
+			//if reading from a jar, obtain a stream on the entry with the actual contents
+			if (localFile.getAbsolutePath().endsWith(JAR_EXTENSION) || hasZipMagicHeader(inStream)) {
+				jarStream = new JarInputStream(inStream);
+				JarEntry jarEntry = jarStream.getNextJarEntry();
+				String entryName = URLMetadataRepository.CONTENT_FILENAME + URLMetadataRepository.XML_EXTENSION;
+				while (jarEntry != null && (!entryName.equals(jarEntry.getName()))) {
+					jarEntry = jarStream.getNextJarEntry();
+				}
+				//if there is a jar but the entry is missing or invalid, treat this as an invalid repository
+				if (jarEntry == null)
+					throw new IOException(NLS.bind(Messages.repoMan_invalidLocation, location));
+			}
+			//parse the repository descriptor file
+			InputStream descriptorStream = jarStream != null ? jarStream : inStream;
+			return new MetadataRepositoryIO(getAgent()).readState(localFile.toURL(), descriptorStream, monitor);
+		} finally {
+			safeClose(jarStream);
+			safeClose(inStream);
+		}
+	}
+
 	/**
 	 * Check if given stream is a jar ...
 	 *
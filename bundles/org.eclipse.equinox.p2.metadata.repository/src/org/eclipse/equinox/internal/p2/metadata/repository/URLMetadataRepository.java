@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2023 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -46,7 +46,6 @@ public class URLMetadataRepository extends AbstractMetadataRepository implements
 	transient protected URI content;
 	protected IUMap units = new IUMap();
 	private IIndex<IInstallableUnit> idIndex;
-	private IIndex<IInstallableUnit> capabilityIndex;
 	private TranslationSupport translationSupport;
 
 	public static URI getActualLocation(URI base) {
@@ -121,9 +120,7 @@ public class URLMetadataRepository extends AbstractMetadataRepository implements
 		}
 
 		if (InstallableUnit.MEMBER_PROVIDED_CAPABILITIES.equals(memberName)) {
-			if (capabilityIndex == null)
-				capabilityIndex = new CapabilityIndex(units.iterator());
-			return capabilityIndex;
+			return units.getCapabilityIndex();
 		}
 		return null;
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015, 2017 Rapicorp, Inc and others.
+ * Copyright (c) 2015, 2026 Rapicorp, Inc and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -22,6 +22,7 @@ import org.eclipse.equinox.internal.p2.repository.CacheManager;
 import org.eclipse.equinox.p2.core.ProvisionException;
 import org.eclipse.equinox.p2.repository.IRepositoryManager;
 import org.eclipse.equinox.p2.repository.metadata.IMetadataRepository;
+import org.eclipse.equinox.p2.repository.metadata.spi.AbstractMetadataRepository.RepositoryState;
 import org.eclipse.equinox.p2.repository.metadata.spi.MetadataRepositoryFactory;
 import org.eclipse.osgi.util.NLS;
 import org.tukaani.xz.XZInputStream;
@@ -78,27 +79,28 @@ public class XZedSimpleMetadataRepositoryFactory extends MetadataRepositoryFacto
 		SubMonitor sub = SubMonitor.convert(monitor, 400);
 		try {
 			File localFile = getLocalFile(location, sub.newChild(300));
-			InputStream stream = new BufferedInputStream(new FileInputStream(localFile));
-			XZInputStream descriptorStream = new XZInputStream(stream);
-			try {
-				//parse the repository descriptor file
-				sub.setWorkRemaining(100);
-				IMetadataRepository result = new MetadataRepositoryIO(getAgent()).read(localFile.toURL(), descriptorStream, sub.newChild(100));
-				if (result != null && (flags & IRepositoryManager.REPOSITORY_HINT_MODIFIABLE) > 0 && !result.isModifiable())
-					return null;
-				if (result instanceof LocalMetadataRepository)
-					((LocalMetadataRepository) result).initializeAfterLoad(location);
-				if (result instanceof URLMetadataRepository)
-					((URLMetadataRepository) result).initializeAfterLoad(location);
-				if (Tracing.DEBUG_METADATA_PARSING) {
-					time += System.currentTimeMillis();
-					Tracing.debug(debugMsg + "time (ms): " + time); //$NON-NLS-1$
-				}
-				return result;
-			} finally {
-				safeClose(descriptorStream);
-				safeClose(stream);
+			sub.setWorkRemaining(100);
+			MetadataSnapshotCache snapshots = MetadataSnapshotCache.getCache(getAgent());
+			RepositoryState state = snapshots == null ? null : snapshots.read(localFile);
+			if (state == null) {
+				state = readState(localFile, sub.newChild(100));
+				if (state != null && snapshots != null)
+					snapshots.write(localFile, state);
+			} else if (Tracing.DEBUG_METADATA_PARSING) {
+				Tracing.debug(debugMsg + "loaded from snapshot " + snapshots.getSnapshotFile(localFile)); //$NON-NLS-1$
 			}
+			IMetadataRepository result = new MetadataRepositoryIO(getAgent()).createRepository(state);
+			if (result != null && (flags & IRepositoryManager.REPOSITORY_HINT_MODIFIABLE) > 0 && !result.isModifiable())
+				return null;
+			if (result instanceof LocalMetadataRepository)
+				((LocalMetadataRepository) result).initializeAfterLoad(location);
+			if (result instanceof URLMetadataRepository)
+				((URLMetadataRepository) result).initializeAfterLoad(location);
+			if (Tracing.DEBUG_METADATA_PARSING) {
+				time += System.currentTimeMillis();
+				Tracing.debug(debugMsg + "time (ms): " + time); //$NON-NLS-1$
+			}
+			return result;
 		} catch (FileNotFoundException e) {
 			String msg = NLS.bind(Messages.io_failedRead, location);
 			throw new ProvisionException(new Status(IStatus.ERROR, Constants.ID, ProvisionException.REPOSITORY_NOT_FOUND, msg, e));
@@ -111,6 +113,21 @@ public class XZedSimpleMetadataRepositoryFactory extends MetadataRepositoryFacto
 		}
 	}
 
+	/**
+	 * Parses the given local copy of the repository.
+	 */
+	private RepositoryState readState(File localFile, IProgressMonitor monitor) throws IOException, ProvisionException {
+		InputStream stream = new BufferedInputStream(new FileInputStream(localFile));
+		XZInputStream descriptorStream = new XZInputStream(stream);
+		try {
+			//parse the repository descriptor file
+			return new MetadataRepositoryIO(getAgent()).readState(localFile.toURL(), descriptorStream, monitor);
+		} finally {
+			safeClose(descriptorStream);
+			safeClose(stream);
+		}
+	}
+
 	/**
 	 * Closes a stream, ignoring any secondary exceptions
 	 */
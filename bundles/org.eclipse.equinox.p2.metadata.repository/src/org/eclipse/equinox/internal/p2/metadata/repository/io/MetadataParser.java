@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2022 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -21,10 +21,12 @@ import static java.util.stream.Collectors.toList;
 import java.net.URI;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.function.Consumer;
 import javax.xml.parsers.SAXParserFactory;
 import org.eclipse.equinox.internal.p2.core.helpers.OrderedProperties;
 import org.eclipse.equinox.internal.p2.metadata.ArtifactKey;
 import org.eclipse.equinox.internal.p2.metadata.InstallableUnit;
+import org.eclipse.equinox.internal.p2.metadata.MetadataInterner;
 import org.eclipse.equinox.internal.p2.persistence.XMLParser;
 import org.eclipse.equinox.p2.metadata.*;
 import org.eclipse.equinox.p2.metadata.MetadataFactory.*;
@@ -37,6 +39,8 @@ import org.xml.sax.ContentHandler;
 public abstract class MetadataParser extends XMLParser implements XMLConstants {
 	static final ILicense[] NO_LICENSES = new ILicense[0];
 
+	private MetadataInterner interner;
+
 	public MetadataParser(String bundleId) {
 		super(bundleId);
 	}
@@ -45,6 +49,29 @@ public abstract class MetadataParser extends XMLParser implements XMLConstants {
 		super(factory, bundleId);
 	}
 
+	/**
+	 * Sets the service sharing the versions, capabilities and requirements of
+	 * the parsed units with the metadata already loaded. Strings are already
+	 * shared since the parser interns them.
+	 *
+	 * @param interner the interner, or <code>null</code> to not share them
+	 */
+	public void setInterner(MetadataInterner interner) {
+		this.interner = interner;
+	}
+
+	protected Version intern(Version version) {
+		return interner == null ? version : interner.intern(version);
+	}
+
+	protected IProvidedCapability intern(IProvidedCapability capability) {
+		return interner == null ? capability : interner.intern(capability);
+	}
+
+	protected IRequirement intern(IRequirement requirement) {
+		return interner == null ? requirement : interner.intern(requirement);
+	}
+
 	protected abstract class AbstractMetadataHandler extends AbstractHandler {
 
 		public AbstractMetadataHandler(ContentHandler parentHandler, String elementHandled) {
@@ -102,10 +129,23 @@ public abstract class MetadataParser extends XMLParser implements XMLConstants {
 
 	protected class InstallableUnitsHandler extends AbstractMetadataHandler {
 		private ArrayList<InstallableUnitDescription> units;
+		private final Consumer<InstallableUnitDescription> sink;
 
 		public InstallableUnitsHandler(AbstractHandler parentHandler, Attributes attributes) {
 			super(parentHandler, INSTALLABLE_UNITS_ELEMENT);
 			units = new ArrayList<>(getOptionalSize(attributes, 4));
+			sink = units::add;
+		}
+
+		/**
+		 * Creates a handler that passes each unit to the given consumer as soon
+		 * as its element has been parsed, instead of keeping the units until the
+		 * end of the document. {@link #getUnits()} then returns no unit.
+		 */
+		public InstallableUnitsHandler(AbstractHandler parentHandler, Attributes attributes, Consumer<IInstallableUnit> consumer) {
+			super(parentHandler, INSTALLABLE_UNITS_ELEMENT);
+			units = new ArrayList<>(0);
+			sink = description -> consumer.accept(MetadataFactory.createInstallableUnit(description));
 		}
 
 		public IInstallableUnit[] getUnits() {
@@ -120,7 +160,7 @@ public abstract class MetadataParser extends XMLParser implements XMLConstants {
 		@Override
 		public void startElement(String name, Attributes attributes) {
 			if (name.equals(INSTALLABLE_UNIT_ELEMENT)) {
-				new InstallableUnitHandler(this, attributes, units);
+				new InstallableUnitHandler(this, attributes, sink);
 			} else {
 				invalidElement(name, attributes);
 			}
@@ -151,9 +191,13 @@ public abstract class MetadataParser extends XMLParser implements XMLConstants {
 		private Version version;
 		private boolean singleton;
 
-		private List<InstallableUnitDescription> units;
+		private Consumer<InstallableUnitDescription> units;
 
 		public InstallableUnitHandler(AbstractHandler parentHandler, Attributes attributes, List<InstallableUnitDescription> units) {
+			this(parentHandler, attributes, (Consumer<InstallableUnitDescription>) units::add);
+		}
+
+		public InstallableUnitHandler(AbstractHandler parentHandler, Attributes attributes, Consumer<InstallableUnitDescription> units) {
 			super(parentHandler, INSTALLABLE_UNIT_ELEMENT);
 			String[] values = parseAttributes(attributes, REQUIRED_IU_ATTRIBUTES, OPTIONAL_IU_ATTRIBUTES);
 			this.units = units;
@@ -162,7 +206,7 @@ public abstract class MetadataParser extends XMLParser implements XMLConstants {
 				return;
 
 			id = values[0];
-			version = checkVersion(INSTALLABLE_UNIT_ELEMENT, VERSION_ATTRIBUTE, values[1]);
+			version = intern(checkVersion(INSTALLABLE_UNIT_ELEMENT, VERSION_ATTRIBUTE, values[1]));
 			singleton = checkBoolean(INSTALLABLE_UNIT_ELEMENT, SINGLETON_ATTRIBUTE, values[2], true).booleanValue();
 		}
 
@@ -341,7 +385,7 @@ public abstract class MetadataParser extends XMLParser implements XMLConstants {
 				}
 				if (updateDescriptorHandler != null)
 					currentUnit.setUpdateDescriptor(updateDescriptorHandler.getUpdateDescriptor());
-				units.add(currentUnit);
+				units.accept(currentUnit);
 			}
 		}
 	}
@@ -529,7 +573,7 @@ public abstract class MetadataParser extends XMLParser implements XMLConstants {
 			String[] values = parseRequiredAttributes(attributes, REQUIRED_PROVIDED_CAPABILITY_ATTRIBUTES);
 			this.namespace = values[0];
 			this.name = values[1];
-			this.version = checkVersion(PROVIDED_CAPABILITY_ELEMENT, VERSION_ATTRIBUTE, values[2]);
+			this.version = intern(checkVersion(PROVIDED_CAPABILITY_ELEMENT, VERSION_ATTRIBUTE, values[2]));
 		}
 
 		@Override
@@ -553,7 +597,7 @@ public abstract class MetadataParser extends XMLParser implements XMLConstants {
 			properties.put(namespace, name);
 			properties.put(IProvidedCapability.PROPERTY_VERSION, version);
 			IProvidedCapability cap = MetadataFactory.createProvidedCapability(namespace, properties);
-			capabilities.add(cap);
+			capabilities.add(intern(cap));
 		}
 	}
 
@@ -647,7 +691,7 @@ public abstract class MetadataParser extends XMLParser implements XMLConstants {
 				return Boolean.parseBoolean(value);
 			}
 			if (PROPERTY_TYPE_VERSION.equals(type)) {
-				return Version.create(value);
+				return intern(Version.create(value));
 			}
 
 			// String is the default
@@ -812,7 +856,7 @@ public abstract class MetadataParser extends XMLParser implements XMLConstants {
 			} else {
 				requirement = MetadataFactory.createRequirement(namespace, name, range, filter, min, max, greedy, description);
 			}
-			capabilities.add(requirement);
+			capabilities.add(intern(requirement));
 		}
 
 		private String removeWhiteSpace(String s) {
@@ -889,7 +933,7 @@ public abstract class MetadataParser extends XMLParser implements XMLConstants {
 
 			IFilterExpression attrMatch = ExpressionUtil.parseLDAP(match);
 			IRequirement requirement = MetadataFactory.createRequirement(namespace, attrMatch, filter, min, max, greedy, description);
-			requirements.add(requirement);
+			requirements.add(intern(requirement));
 		}
 
 		private String removeWhiteSpace(String s) {
@@ -0,0 +1,682 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.metadata.repository.io;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import org.eclipse.equinox.internal.p2.core.helpers.OrderedProperties;
+import org.eclipse.equinox.internal.p2.metadata.*;
+import org.eclipse.equinox.p2.metadata.*;
+import org.eclipse.equinox.p2.metadata.MetadataFactory.*;
+import org.eclipse.equinox.p2.metadata.expression.*;
+import org.eclipse.equinox.p2.repository.IRepositoryReference;
+import org.eclipse.equinox.p2.repository.metadata.spi.AbstractMetadataRepository.RepositoryState;
+import org.eclipse.equinox.p2.repository.spi.RepositoryReference;
+
+/**
+ * Reads and writes the persisted state of a metadata repository in a compact
+ * binary form. The format carries the same information as the XML written by
+ * {@link MetadataWriter}, but avoids the cost of the XML parsing and of most of
+ * the expression parsing when it is read back. All strings are written once
+ * and referred to by index afterwards.
+ * <p>
+ * The format is private to this bundle and only used to cache the result of
+ * parsing a repository; there is no compatibility between format versions.
+ * </p>
+ */
+public class MetadataSnapshotIO {
+
+	/**
+	 * The version of the binary format. Must be incremented whenever the
+	 * format changes.
+	 */
+	public static final int FORMAT_VERSION = 1;
+
+	private static final byte IU_PLAIN = 0;
+	private static final byte IU_FRAGMENT = 1;
+	private static final byte IU_PATCH = 2;
+
+	private static final byte REQUIREMENT_RANGE = 0;
+	private static final byte REQUIREMENT_PROPERTIES = 1;
+	private static final byte REQUIREMENT_EXPRESSION = 2;
+
+	private static final byte MATCH_RANGE = 0;
+	private static final byte MATCH_EXPRESSION = 1;
+
+	private static final byte TYPE_STRING = 0;
+	private static final byte TYPE_VERSION = 1;
+	private static final byte TYPE_INTEGER = 2;
+	private static final byte TYPE_LONG = 3;
+	private static final byte TYPE_FLOAT = 4;
+	private static final byte TYPE_DOUBLE = 5;
+	private static final byte TYPE_BYTE = 6;
+	private static final byte TYPE_SHORT = 7;
+	private static final byte TYPE_CHARACTER = 8;
+	private static final byte TYPE_BOOLEAN = 9;
+	private static final byte TYPE_LIST = 10;
+
+	private final MetadataInterner interner;
+
+	public MetadataSnapshotIO() {
+		this(null);
+	}
+
+	/**
+	 * @param interner the service sharing the strings, versions, capabilities
+	 *                 and requirements of the units read with the metadata
+	 *                 already loaded, or <code>null</code> to not share them
+	 */
+	public MetadataSnapshotIO(MetadataInterner interner) {
+		this.interner = interner;
+	}
+
+	/**
+	 * Writes the given repository state to the stream. The stream is not closed.
+	 */
+	public void write(RepositoryState state, DataOutputStream output) throws IOException {
+		new Writer(output).writeState(state);
+		output.flush();
+	}
+
+	/**
+	 * Reads a repository state previously written by
+	 * {@link #write(RepositoryState, DataOutputStream)}. The location of the
+	 * returned state is <code>null</code>. The stream is not closed.
+	 *
+	 * @throws IOException if the stream could not be read or does not contain a
+	 *                     valid snapshot
+	 */
+	public RepositoryState read(DataInputStream input) throws IOException {
+		try {
+			return new Reader(input, interner).readState();
+		} catch (RuntimeException e) {
+			// malformed content surfaces as parse or argument exceptions from the metadata factory
+			throw new IOException(e.getMessage(), e);
+		}
+	}
+
+	private static class Writer {
+		private final DataOutputStream out;
+		private final Map<String, Integer> strings = new HashMap<>();
+
+		Writer(DataOutputStream out) {
+			this.out = out;
+		}
+
+		void writeState(RepositoryState state) throws IOException {
+			writeString(state.Name);
+			writeString(state.Type);
+			writeString(state.Version == null ? null : state.Version.toString());
+			writeString(state.Description);
+			writeString(state.Provider);
+			writeStringMap(state.Properties);
+			IRepositoryReference[] references = state.Repositories == null ? new IRepositoryReference[0] : state.Repositories;
+			out.writeInt(references.length);
+			for (IRepositoryReference reference : references) {
+				writeString(reference.getLocation().toString());
+				writeString(reference.getNickname());
+				out.writeInt(reference.getType());
+				out.writeInt(reference.getOptions());
+			}
+			IInstallableUnit[] units = state.Units == null ? new IInstallableUnit[0] : state.Units;
+			out.writeInt(units.length);
+			for (IInstallableUnit unit : units)
+				writeInstallableUnit(unit.unresolved());
+		}
+
+		private void writeInstallableUnit(IInstallableUnit iu) throws IOException {
+			if (iu instanceof IInstallableUnitPatch) {
+				IInstallableUnitPatch patch = (IInstallableUnitPatch) iu;
+				out.writeByte(IU_PATCH);
+				IRequirement[][] scope = patch.getApplicabilityScope();
+				out.writeBoolean(scope != null);
+				if (scope != null) {
+					out.writeInt(scope.length);
+					for (IRequirement[] applyOn : scope)
+						writeRequirements(Arrays.asList(applyOn));
+				}
+				List<IRequirementChange> changes = patch.getRequirementsChange();
+				out.writeInt(changes.size());
+				for (IRequirementChange change : changes) {
+					writeOptionalRequirement(change.applyOn());
+					writeOptionalRequirement(change.newValue());
+				}
+				writeOptionalRequirement(patch.getLifeCycle());
+			} else if (iu instanceof IInstallableUnitFragment) {
+				out.writeByte(IU_FRAGMENT);
+				Collection<IRequirement> host = ((IInstallableUnitFragment) iu).getHost();
+				writeRequirements(host == null ? Collections.emptyList() : host);
+			} else {
+				out.writeByte(IU_PLAIN);
+			}
+
+			writeString(iu.getId());
+			writeString(iu.getVersion().toString());
+			out.writeBoolean(iu.isSingleton());
+			writeStringMap(iu.getProperties());
+			writeUpdateDescriptor(iu.getUpdateDescriptor());
+
+			Collection<IProvidedCapability> capabilities = iu.getProvidedCapabilities();
+			out.writeInt(capabilities.size());
+			for (IProvidedCapability capability : capabilities)
+				writeProvidedCapability(capability);
+			writeRequirements(iu.getRequirements());
+			writeRequirements(iu.getMetaRequirements());
+			writeFilter(iu.getFilter());
+
+			Collection<IArtifactKey> artifacts = iu.getArtifacts();
+			out.writeInt(artifacts.size());
+			for (IArtifactKey key : artifacts) {
+				writeString(key.getClassifier());
+				writeString(key.getId());
+				writeString(key.getVersion().toString());
+			}
+
+			ITouchpointType touchpointType = iu.getTouchpointType();
+			writeString(touchpointType.getId());
+			writeString(touchpointType.getVersion().toString());
+
+			Collection<ITouchpointData> touchpointData = iu.getTouchpointData();
+			out.writeInt(touchpointData.size());
+			for (ITouchpointData data : touchpointData) {
+				Map<String, ITouchpointInstruction> instructions = data.getInstructions();
+				out.writeInt(instructions.size());
+				for (Map.Entry<String, ITouchpointInstruction> entry : instructions.entrySet()) {
+					writeString(entry.getKey());
+					writeString(entry.getValue().getBody());
+					writeString(entry.getValue().getImportAttribute());
+				}
+			}
+
+			Collection<ILicense> licenses = iu.getLicenses();
+			out.writeInt(licenses.size());
+			for (ILicense license : licenses) {
+				writeURI(license.getLocation());
+				writeString(license.getBody());
+			}
+			ICopyright copyright = iu.getCopyright();
+			out.writeBoolean(copyright != null);
+			if (copyright != null) {
+				writeURI(copyright.getLocation());
+				writeString(copyright.getBody());
+			}
+		}
+
+		private void writeUpdateDescriptor(IUpdateDescriptor descriptor) throws IOException {
+			out.writeBoolean(descriptor != null);
+			if (descriptor == null)
+				return;
+			Collection<IMatchExpression<IInstallableUnit>> updated = descriptor.getIUsBeingUpdated();
+			out.writeInt(updated.size());
+			for (IMatchExpression<IInstallableUnit> match : updated) {
+				if (RequiredCapability.isVersionRangeRequirement(match)) {
+					out.writeByte(MATCH_RANGE);
+					writeString(RequiredCapability.extractNamespace(match));
+					writeString(RequiredCapability.extractName(match));
+					writeString(RequiredCapability.extractRange(match).toString());
+				} else {
+					out.writeByte(MATCH_EXPRESSION);
+					writeMatchExpression(match);
+				}
+			}
+			out.writeInt(descriptor.getSeverity());
+			writeString(descriptor.getDescription());
+			writeURI(descriptor.getLocation());
+		}
+
+		private void writeProvidedCapability(IProvidedCapability capability) throws IOException {
+			writeString(capability.getNamespace());
+			Map<String, Object> properties = capability.getProperties();
+			out.writeInt(properties.size());
+			for (Map.Entry<String, Object> entry : properties.entrySet()) {
+				writeString(entry.getKey());
+				writeValue(entry.getValue());
+			}
+		}
+
+		private void writeValue(Object value) throws IOException {
+			if (value instanceof Version) {
+				out.writeByte(TYPE_VERSION);
+				writeString(value.toString());
+			} else if (value instanceof Integer) {
+				out.writeByte(TYPE_INTEGER);
+				out.writeInt((Integer) value);
+			} else if (value instanceof Long) {
+				out.writeByte(TYPE_LONG);
+				out.writeLong((Long) value);
+			} else if (value instanceof Float) {
+				out.writeByte(TYPE_FLOAT);
+				out.writeFloat((Float) value);
+			} else if (value instanceof Double) {
+				out.writeByte(TYPE_DOUBLE);
+				out.writeDouble((Double) value);
+			} else if (value instanceof Byte) {
+				out.writeByte(TYPE_BYTE);
+				out.writeByte((Byte) value);
+			} else if (value instanceof Short) {
+				out.writeByte(TYPE_SHORT);
+				out.writeShort((Short) value);
+			} else if (value instanceof Character) {
+				out.writeByte(TYPE_CHARACTER);
+				out.writeChar((Character) value);
+			} else if (value instanceof Boolean) {
+				out.writeByte(TYPE_BOOLEAN);
+				out.writeBoolean((Boolean) value);
+			} else if (value instanceof List) {
+				List<?> list = (List<?>) value;
+				out.writeByte(TYPE_LIST);
+				out.writeInt(list.size());
+				for (Object element : list)
+					writeValue(element);
+			} else {
+				// the XML format falls back to the string representation as well
+				out.writeByte(TYPE_STRING);
+				writeString(String.valueOf(value));
+			}
+		}
+
+		private void writeRequirements(Collection<IRequirement> requirements) throws IOException {
+			out.writeInt(requirements.size());
+			for (IRequirement requirement : requirements)
+				writeRequirement(requirement);
+		}
+
+		private void writeOptionalRequirement(IRequirement requirement) throws IOException {
+			out.writeBoolean(requirement != null);
+			if (requirement != null)
+				writeRequirement(requirement);
+		}
+
+		private void writeRequirement(IRequirement requirement) throws IOException {
+			IMatchExpression<IInstallableUnit> match = requirement.getMatches();
+			if (RequiredCapability.isVersionRangeRequirement(match)) {
+				out.writeByte(REQUIREMENT_RANGE);
+				writeString(RequiredCapability.extractNamespace(match));
+				writeString(RequiredCapability.extractName(match));
+				writeString(RequiredCapability.extractRange(match).toString());
+			} else if (RequiredPropertiesMatch.isPropertiesMatchRequirement(match)) {
+				out.writeByte(REQUIREMENT_PROPERTIES);
+				writeString(RequiredPropertiesMatch.extractNamespace(match));
+				writeString(RequiredPropertiesMatch.extractPropertiesMatch(match).toString());
+			} else {
+				out.writeByte(REQUIREMENT_EXPRESSION);
+				writeMatchExpression(match);
+			}
+			out.writeInt(requirement.getMin());
+			out.writeInt(requirement.getMax());
+			out.writeBoolean(requirement.isGreedy());
+			writeFilter(requirement.getFilter());
+			writeString(requirement.getDescription());
+		}
+
+		private void writeMatchExpression(IMatchExpression<IInstallableUnit> match) throws IOException {
+			writeString(ExpressionUtil.getOperand(match).toString());
+			Object[] params = match.getParameters();
+			if (params.length == 0) {
+				writeString(null);
+				return;
+			}
+			IExpressionFactory factory = ExpressionUtil.getFactory();
+			IExpression[] constantArray = new IExpression[params.length];
+			for (int idx = 0; idx < params.length; ++idx)
+				constantArray[idx] = factory.constant(params[idx]);
+			writeString(factory.array(constantArray).toString());
+		}
+
+		private void writeFilter(IMatchExpression<IInstallableUnit> filter) throws IOException {
+			writeString(filter == null ? null : filter.getParameters()[0].toString());
+		}
+
+		private void writeURI(URI uri) throws IOException {
+			writeString(uri == null ? null : uri.toString());
+		}
+
+		private void writeStringMap(Map<String, String> map) throws IOException {
+			if (map == null) {
+				out.writeInt(0);
+				return;
+			}
+			out.writeInt(map.size());
+			for (Map.Entry<String, String> entry : map.entrySet()) {
+				writeString(entry.getKey());
+				writeString(entry.getValue());
+			}
+		}
+
+		/**
+		 * Writes the index of a string that was written before, or the next index
+		 * followed by the string itself. The length is written as an int since
+		 * {@link DataOutputStream#writeUTF(String)} is limited to 64K.
+		 */
+		private void writeString(String value) throws IOException {
+			if (value == null) {
+				out.writeInt(-1);
+				return;
+			}
+			Integer index = strings.get(value);
+			if (index != null) {
+				out.writeInt(index);
+				return;
+			}
+			int next = strings.size();
+			strings.put(value, next);
+			out.writeInt(next);
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	private static class Reader {
+		private final DataInputStream in;
+		private final List<String> strings = new ArrayList<>();
+		private final Map<String, Version> versions = new HashMap<>();
+		private final Map<String, VersionRange> ranges = new HashMap<>();
+		private final Map<String, IMatchExpression<IInstallableUnit>> filters = new HashMap<>();
+		private final Map<String, IMatchExpression<IInstallableUnit>> matches = new HashMap<>();
+		private final MetadataInterner interner;
+
+		Reader(DataInputStream in, MetadataInterner interner) {
+			this.in = in;
+			this.interner = interner;
+		}
+
+		RepositoryState readState() throws IOException {
+			RepositoryState state = new RepositoryState();
+			state.Name = readString();
+			state.Type = readString();
+			String version = readString();
+			state.Version = version == null ? null : readVersion(version);
+			state.Description = readString();
+			state.Provider = readString();
+			state.Properties = readStringMap();
+			IRepositoryReference[] references = new IRepositoryReference[readSize()];
+			for (int i = 0; i < references.length; i++) {
+				URI location = URI.create(readString());
+				String nickname = readString();
+				int type = in.readInt();
+				int options = in.readInt();
+				references[i] = new RepositoryReference(location, nickname, type, options);
+			}
+			state.Repositories = references;
+			IInstallableUnit[] units = new IInstallableUnit[readSize()];
+			for (int i = 0; i < units.length; i++)
+				units[i] = MetadataFactory.createInstallableUnit(readInstallableUnit());
+			state.Units = units;
+			return state;
+		}
+
+		private InstallableUnitDescription readInstallableUnit() throws IOException {
+			InstallableUnitDescription unit;
+			byte kind = in.readByte();
+			switch (kind) {
+				case IU_PATCH :
+					InstallableUnitPatchDescription patch = new InstallableUnitPatchDescription();
+					IRequirement[][] scope = null;
+					if (in.readBoolean()) {
+						scope = new IRequirement[readSize()][];
+						for (int i = 0; i < scope.length; i++)
+							scope[i] = readRequirements();
+					}
+					IRequirementChange[] changes = new IRequirementChange[readSize()];
+					for (int i = 0; i < changes.length; i++)
+						changes[i] = MetadataFactory.createRequirementChange(readOptionalRequirement(), readOptionalRequirement());
+					if (scope != null)
+						patch.setApplicabilityScope(scope);
+					patch.setRequirementChanges(changes);
+					patch.setLifeCycle(readOptionalRequirement());
+					unit = patch;
+					break;
+				case IU_FRAGMENT :
+					InstallableUnitFragmentDescription fragment = new InstallableUnitFragmentDescription();
+					fragment.setHost(readRequirements());
+					unit = fragment;
+					break;
+				case IU_PLAIN :
+					unit = new InstallableUnitDescription();
+					break;
+				default :
+					throw new IOException("Unknown installable unit kind: " + kind); //$NON-NLS-1$
+			}
+
+			unit.setId(readString());
+			unit.setVersion(readVersion(readString()));
+			unit.setSingleton(in.readBoolean());
+			int properties = readSize();
+			for (int i = 0; i < properties; i++)
+				unit.setProperty(readString(), readString());
+			unit.setUpdateDescriptor(readUpdateDescriptor());
+
+			IProvidedCapability[] capabilities = new IProvidedCapability[readSize()];
+			for (int i = 0; i < capabilities.length; i++)
+				capabilities[i] = readProvidedCapability();
+			unit.setCapabilities(capabilities);
+			unit.setRequirements(readRequirements());
+			unit.setMetaRequirements(readRequirements());
+			IMatchExpression<IInstallableUnit> filter = readFilter();
+			if (filter != null)
+				unit.setFilter(filter);
+
+			IArtifactKey[] artifacts = new IArtifactKey[readSize()];
+			for (int i = 0; i < artifacts.length; i++)
+				artifacts[i] = new ArtifactKey(readString(), readString(), readVersion(readString()));
+			unit.setArtifacts(artifacts);
+
+			unit.setTouchpointType(MetadataFactory.createTouchpointType(readString(), readVersion(readString())));
+
+			int touchpointData = readSize();
+			for (int i = 0; i < touchpointData; i++) {
+				int size = readSize();
+				Map<String, ITouchpointInstruction> instructions = new LinkedHashMap<>(size);
+				for (int j = 0; j < size; j++) {
+					String key = readString();
+					instructions.put(key, MetadataFactory.createTouchpointInstruction(readString(), readString()));
+				}
+				unit.addTouchpointData(MetadataFactory.createTouchpointData(instructions));
+			}
+
+			ILicense[] licenses = new ILicense[readSize()];
+			for (int i = 0; i < licenses.length; i++)
+				licenses[i] = MetadataFactory.createLicense(readURI(), readString());
+			unit.setLicenses(licenses);
+			if (in.readBoolean())
+				unit.setCopyright(MetadataFactory.createCopyright(readURI(), readString()));
+			return unit;
+		}
+
+		private IUpdateDescriptor readUpdateDescriptor() throws IOException {
+			if (!in.readBoolean())
+				return null;
+			int size = readSize();
+			Collection<IMatchExpression<IInstallableUnit>> updated = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				byte kind = in.readByte();
+				if (kind == MATCH_RANGE)
+					updated.add(RequiredCapability.createMatchExpressionFromRange(readString(), readString(), readRange(readString())));
+				else if (kind == MATCH_EXPRESSION)
+					updated.add(readMatchExpression());
+				else
+					throw new IOException("Unknown match expression kind: " + kind); //$NON-NLS-1$
+			}
+			int severity = in.readInt();
+			String description = readString();
+			return MetadataFactory.createUpdateDescriptor(updated, severity, description, readURI());
+		}
+
+		private IProvidedCapability readProvidedCapability() throws IOException {
+			String namespace = readString();
+			int size = readSize();
+			Map<String, Object> properties = new HashMap<>(size * 2);
+			for (int i = 0; i < size; i++) {
+				String key = readString();
+				properties.put(key, readValue());
+			}
+			IProvidedCapability capability = MetadataFactory.createProvidedCapability(namespace, properties);
+			return interner == null ? capability : interner.intern(capability);
+		}
+
+		private Object readValue() throws IOException {
+			byte type = in.readByte();
+			switch (type) {
+				case TYPE_STRING :
+					return readString();
+				case TYPE_VERSION :
+					return readVersion(readString());
+				case TYPE_INTEGER :
+					return in.readInt();
+				case TYPE_LONG :
+					return in.readLong();
+				case TYPE_FLOAT :
+					return in.readFloat();
+				case TYPE_DOUBLE :
+					return in.readDouble();
+				case TYPE_BYTE :
+					return in.readByte();
+				case TYPE_SHORT :
+					return in.readShort();
+				case TYPE_CHARACTER :
+					return in.readChar();
+				case TYPE_BOOLEAN :
+					return in.readBoolean();
+				case TYPE_LIST :
+					int size = readSize();
+					List<Object> list = new ArrayList<>(size);
+					for (int i = 0; i < size; i++)
+						list.add(readValue());
+					return list;
+				default :
+					throw new IOException("Unknown property type: " + type); //$NON-NLS-1$
+			}
+		}
+
+		private IRequirement[] readRequirements() throws IOException {
+			IRequirement[] requirements = new IRequirement[readSize()];
+			for (int i = 0; i < requirements.length; i++)
+				requirements[i] = readRequirement();
+			return requirements;
+		}
+
+		private IRequirement readOptionalRequirement() throws IOException {
+			return in.readBoolean() ? readRequirement() : null;
+		}
+
+		private IRequirement readRequirement() throws IOException {
+			byte kind = in.readByte();
+			String namespace = null;
+			String name = null;
+			VersionRange range = null;
+			IFilterExpression propertiesMatch = null;
+			IMatchExpression<IInstallableUnit> match = null;
+			switch (kind) {
+				case REQUIREMENT_RANGE :
+					namespace = readString();
+					name = readString();
+					range = readRange(readString());
+					break;
+				case REQUIREMENT_PROPERTIES :
+					namespace = readString();
+					propertiesMatch = ExpressionUtil.parseLDAP(readString());
+					break;
+				case REQUIREMENT_EXPRESSION :
+					match = readMatchExpression();
+					break;
+				default :
+					throw new IOException("Unknown requirement kind: " + kind); //$NON-NLS-1$
+			}
+			int min = in.readInt();
+			int max = in.readInt();
+			boolean greedy = in.readBoolean();
+			IMatchExpression<IInstallableUnit> filter = readFilter();
+			String description = readString();
+			IRequirement requirement;
+			if (kind == REQUIREMENT_RANGE)
+				requirement = MetadataFactory.createRequirement(namespace, name, range, filter, min, max, greedy, description);
+			else if (kind == REQUIREMENT_PROPERTIES)
+				requirement = MetadataFactory.createRequirement(namespace, propertiesMatch, filter, min, max, greedy, description);
+			else
+				requirement = MetadataFactory.createRequirement(match, filter, min, max, greedy, description);
+			return interner == null ? requirement : interner.intern(requirement);
+		}
+
+		private IMatchExpression<IInstallableUnit> readMatchExpression() throws IOException {
+			String match = readString();
+			String params = readString();
+			String key = params == null ? match : match + '\u0000' + params;
+			IMatchExpression<IInstallableUnit> expression = matches.get(key);
+			if (expression == null) {
+				expression = MetadataParser.createMatchExpression(match, params);
+				matches.put(key, expression);
+			}
+			return expression;
+		}
+
+		private IMatchExpression<IInstallableUnit> readFilter() throws IOException {
+			String filter = readString();
+			if (filter == null)
+				return null;
+			return filters.computeIfAbsent(filter, InstallableUnit::parseFilter);
+		}
+
+		private Version readVersion(String version) {
+			return versions.computeIfAbsent(version, v -> {
+				Version parsed = Version.parseVersion(v);
+				return interner == null ? parsed : interner.intern(parsed);
+			});
+		}
+
+		private VersionRange readRange(String range) {
+			return ranges.computeIfAbsent(range, VersionRange::create);
+		}
+
+		private URI readURI() throws IOException {
+			String uri = readString();
+			return uri == null ? null : URI.create(uri);
+		}
+
+		private Map<String, String> readStringMap() throws IOException {
+			int size = readSize();
+			OrderedProperties map = new OrderedProperties(size);
+			for (int i = 0; i < size; i++)
+				map.put(readString(), readString());
+			return map;
+		}
+
+		private int readSize() throws IOException {
+			int size = in.readInt();
+			if (size < 0)
+				throw new IOException("Invalid size: " + size); //$NON-NLS-1$
+			return size;
+		}
+
+		private String readString() throws IOException {
+			int index = in.readInt();
+			if (index == -1)
+				return null;
+			if (index < strings.size())
+				return strings.get(index);
+			if (index != strings.size())
+				throw new IOException("Invalid string index: " + index); //$NON-NLS-1$
+			byte[] bytes = new byte[readSize()];
+			in.readFully(bytes);
+			// like the XML parser, share the strings with the metadata already loaded
+			String value = new String(bytes, StandardCharsets.UTF_8);
+			if (interner != null)
+				value = interner.intern(value);
+			strings.add(value);
+			return value;
+		}
+	}
+}
@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.metadata.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+import javax.xml.parsers.*;
+import org.eclipse.equinox.internal.p2.core.helpers.SecureXMLUtil;
+import org.eclipse.equinox.internal.p2.metadata.repository.io.MetadataParser;
+import org.eclipse.equinox.internal.p2.persistence.Messages;
+import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+import org.eclipse.equinox.p2.metadata.expression.IEvaluationContext;
+import org.eclipse.equinox.p2.metadata.expression.IMatchExpression;
+import org.eclipse.equinox.p2.query.ExpressionQuery;
+import org.eclipse.equinox.p2.query.IQuery;
+import org.xml.sax.*;
+
+/**
+ * This class reads the {@link IInstallableUnit}s of a metadata document one at
+ * a time. Each unit is passed to a consumer as soon as its element has been
+ * parsed, so that the units of the document are never all held in memory by
+ * the reader. It reads both the <code>content.xml</code> of a metadata
+ * repository and the documents written by {@link IUSerializer}. The other
+ * elements of a repository, such as its properties and references, are
+ * skipped.
+ * <p>
+ * The units can be filtered while they are read by a query whose expression
+ * matches each unit on its own, such as the queries created by
+ * {@link org.eclipse.equinox.p2.query.QueryUtil#createIUQuery(String)} or
+ * {@link org.eclipse.equinox.p2.query.QueryUtil#createMatchQuery(String, Object...)}.
+ * Queries that need to see all the units, such as the latest query, and
+ * queries without an expression cannot be applied to a stream and are
+ * rejected.
+ * </p>
+ * @since 1.6
+ */
+public class IUStreamReader {
+	private final SAXParserFactory parserFactory;
+	private final IMatchExpression<IInstallableUnit> filter;
+	private final Class<? extends IInstallableUnit> matchingClass;
+
+	/**
+	 * Construct a new reader passing all the units of the documents it reads.
+	 */
+	public IUStreamReader() {
+		this(null);
+	}
+
+	/**
+	 * Construct a new reader only passing the units of the documents it reads
+	 * that match the given query.
+	 * @param filter the query the units must match, or <code>null</code> to pass all units
+	 * @throws IllegalArgumentException if the query has no expression matching each unit on its own
+	 */
+	@SuppressWarnings("unchecked")
+	public IUStreamReader(IQuery<IInstallableUnit> filter) {
+		if (filter == null) {
+			this.filter = null;
+			this.matchingClass = IInstallableUnit.class;
+		} else if (filter.getExpression() instanceof IMatchExpression<?> expression) {
+			// the expression of a query on units is evaluated on units
+			this.filter = (IMatchExpression<IInstallableUnit>) expression;
+			this.matchingClass = ExpressionQuery.getElementClass(filter);
+		} else {
+			throw new IllegalArgumentException("Only a query with a match expression can filter the units of a stream: " + filter); //$NON-NLS-1$
+		}
+		try {
+			parserFactory = SecureXMLUtil.newSecureSAXParserFactory();
+		} catch (SAXNotRecognizedException | SAXNotSupportedException | ParserConfigurationException e) {
+			throw new FactoryConfigurationError(e);
+		}
+	}
+
+	/**
+	 * Read the {@link IInstallableUnit}s of the input stream, passing each one
+	 * that matches the query of this reader to the consumer in document order.
+	 * The stream is not closed.
+	 * @param input the input stream to read {@link IInstallableUnit}s from.
+	 * @param consumer the consumer of the units read.
+	 * @throws IOException if the stream cannot be read or is not a valid metadata document.
+	 */
+	public void read(InputStream input, Consumer<? super IInstallableUnit> consumer) throws IOException {
+		Consumer<IInstallableUnit> sink;
+		if (filter == null) {
+			sink = consumer::accept;
+		} else {
+			IEvaluationContext context = filter.createContext();
+			sink = unit -> {
+				if (matchingClass.isInstance(unit) && filter.isMatch(context, unit))
+					consumer.accept(unit);
+			};
+		}
+		new StreamParser(parserFactory).parse(input, sink);
+	}
+
+	private static class StreamParser extends MetadataParser {
+		private static final String REPOSITORY_ELEMENT = "repository"; //$NON-NLS-1$
+
+		public StreamParser(SAXParserFactory factory) {
+			super(factory, null);
+		}
+
+		public void parse(InputStream stream, Consumer<IInstallableUnit> consumer) throws IOException {
+			try {
+				XMLReader reader = getParser().getXMLReader();
+				reader.setContentHandler(new StreamRootHandler(consumer));
+				reader.parse(new InputSource(stream));
+				if (!isValidXML())
+					throw new IOException(status.toString());
+			} catch (ParserConfigurationException | SAXException e) {
+				IOException ioException = new IOException(e.getMessage());
+				ioException.initCause(e);
+				throw ioException;
+			}
+		}
+
+		@Override
+		protected SAXParser getParser() throws ParserConfigurationException, SAXException {
+			if (parserFactory == null) {
+				throw new SAXException(Messages.XMLParser_No_SAX_Parser);
+			}
+			parserFactory.setNamespaceAware(true);
+			parserFactory.setValidating(false);
+			try {
+				parserFactory.setFeature("http://xml.org/sax/features/string-interning", true); //$NON-NLS-1$
+			} catch (SAXException se) {
+				// some parsers may not support string interning
+			}
+			SAXParser theParser = parserFactory.newSAXParser();
+			if (theParser == null) {
+				throw new SAXException(Messages.XMLParser_No_SAX_Parser);
+			}
+			xmlReader = theParser.getXMLReader();
+			return theParser;
+		}
+
+		/**
+		 * Handles the root element, which is either the units or a repository
+		 * holding them.
+		 */
+		class StreamRootHandler extends RootHandler {
+			private final Consumer<IInstallableUnit> consumer;
+
+			public StreamRootHandler(Consumer<IInstallableUnit> consumer) {
+				this.consumer = consumer;
+			}
+
+			@Override
+			protected void handleRootAttributes(Attributes attributes) {
+				//Nothing to do
+			}
+
+			@Override
+			public void startElement(String name, Attributes attributes) {
+				if (INSTALLABLE_UNITS_ELEMENT.equals(name)) {
+					new InstallableUnitsHandler(this, attributes, consumer);
+				} else if (REPOSITORY_ELEMENT.equals(name)) {
+					new RepositoryUnitsHandler(this, consumer);
+				} else {
+					invalidElement(name, attributes);
+				}
+			}
+		}
+
+		/**
+		 * Handles the units of a repository, ignoring its other elements.
+		 */
+		class RepositoryUnitsHandler extends AbstractHandler {
+			private final Consumer<IInstallableUnit> consumer;
+
+			public RepositoryUnitsHandler(AbstractHandler parentHandler, Consumer<IInstallableUnit> consumer) {
+				super(parentHandler, REPOSITORY_ELEMENT);
+				this.consumer = consumer;
+			}
+
+			@Override
+			public void startElement(String name, Attributes attributes) {
+				if (INSTALLABLE_UNITS_ELEMENT.equals(name))
+					new InstallableUnitsHandler(this, attributes, consumer);
+				else
+					new IgnoringHandler(this);
+			}
+		}
+
+		@Override
+		protected Object getRootObject() {
+			return null;
+		}
+
+		@Override
+		protected String getErrorMessage() {
+			return org.eclipse.equinox.internal.p2.metadata.repository.Messages.io_parseError;
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2018 IBM Corporation and others.
+ * Copyright (c) 2009, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -22,6 +22,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
 import org.eclipse.equinox.internal.p2.core.helpers.CollectionUtils;
+import org.eclipse.equinox.internal.p2.metadata.index.CapabilityIndex;
 import org.eclipse.equinox.p2.core.IPool;
 import org.eclipse.equinox.p2.metadata.IInstallableUnit;
 import org.eclipse.equinox.p2.metadata.Version;
@@ -103,12 +104,32 @@ public class IUMap implements Cloneable {
 	 */
 	final Map<String, Object> units = new HashMap<>();
 
+	/**
+	 * Index on the provided capabilities of the units, created on demand and
+	 * kept up to date as units are added and removed.
+	 */
+	private CapabilityIndex capabilityIndex;
+
 	public IUMap() {
 		//
 	}
 
 	private IUMap(IUMap cloneSource) {
 		units.putAll(cloneSource.units);
+		if (cloneSource.capabilityIndex != null)
+			capabilityIndex = new CapabilityIndex(cloneSource.capabilityIndex);
+	}
+
+	/**
+	 * Returns an index on the provided capabilities of the units in this map.
+	 * The index is created on the first call and then maintained incrementally
+	 * as units are added to and removed from the map.
+	 * @return The capability index of this map
+	 */
+	public CapabilityIndex getCapabilityIndex() {
+		if (capabilityIndex == null)
+			capabilityIndex = new CapabilityIndex(iterator());
+		return capabilityIndex;
 	}
 
 	public void add(IInstallableUnit unit) {
@@ -116,6 +137,8 @@ public class IUMap implements Cloneable {
 		Object matching = units.get(key);
 		if (matching == null) {
 			units.put(key, unit);
+			if (capabilityIndex != null)
+				capabilityIndex.addInstallableUnit(unit);
 			return;
 		}
 
@@ -136,9 +159,12 @@ public class IUMap implements Cloneable {
 			units.put(unit.getId(), iuArrPlus);
 		} else {
 			IInstallableUnit old = (IInstallableUnit) matching;
-			if (!old.equals(unit))
-				units.put(key, new IInstallableUnit[] {old, unit});
+			if (old.equals(unit))
+				return;
+			units.put(key, new IInstallableUnit[] {old, unit});
 		}
+		if (capabilityIndex != null)
+			capabilityIndex.addInstallableUnit(unit);
 	}
 
 	public void addAll(IInstallableUnit[] toAdd) {
@@ -155,6 +181,7 @@ public class IUMap implements Cloneable {
 
 	public void clear() {
 		units.clear();
+		capabilityIndex = null;
 	}
 
 	@Override
@@ -210,8 +237,11 @@ public class IUMap implements Cloneable {
 			return;
 
 		if (matching instanceof IInstallableUnit) {
-			if (matching.equals(unit))
+			if (matching.equals(unit)) {
 				units.remove(key);
+				if (capabilityIndex != null)
+					capabilityIndex.removeInstallableUnit((IInstallableUnit) matching);
+			}
 			return;
 		}
 
@@ -219,6 +249,8 @@ public class IUMap implements Cloneable {
 		int idx = array.length;
 		while (--idx >= 0) {
 			if (unit.equals(array[idx])) {
+				if (capabilityIndex != null)
+					capabilityIndex.removeInstallableUnit(array[idx]);
 				if (array.length == 2) {
 					// We no longer need this array. Replace it with the
 					// entry that we keep.
@@ -254,6 +286,8 @@ public class IUMap implements Cloneable {
 		if (iuPool == null) {
 			return;
 		}
+		// The index refers to the instances that are about to be replaced
+		capabilityIndex = null;
 
 		Iterator<Entry<String, Object>> entries = units.entrySet().iterator();
 		while (entries.hasNext()) {
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.metadata;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import org.eclipse.equinox.internal.p2.core.helpers.ConcurrentWeakPool;
+import org.eclipse.equinox.p2.metadata.*;
+
+/**
+ * An agent service sharing the equal strings, versions, provided capabilities
+ * and requirements of the metadata held by the agent, whether it was read from
+ * a metadata repository, read from the profile registry or created by the
+ * planner. {@link IUMap#compress(org.eclipse.equinox.p2.core.IPool)} only
+ * shares whole installable units within one repository, while the parts of
+ * different units and of different repositories are largely the same.
+ * <p>
+ * The objects are held weakly, so the service only keeps objects that are
+ * still referenced elsewhere. An object is only replaced by a pooled one of
+ * the same class and with the same state, including the state that is not
+ * part of <code>equals</code>, such as the original text of a version or the
+ * description of a requirement.
+ * </p>
+ * <p>
+ * Interning can be disabled by setting the system property
+ * {@value #PROP_INTERNING} to <code>false</code>.
+ * </p>
+ */
+public class MetadataInterner {
+	public static final String SERVICE_NAME = MetadataInterner.class.getName();
+	public static final String PROP_INTERNING = "eclipse.p2.metadata.interning"; //$NON-NLS-1$
+
+	private final boolean enabled;
+	private final LongAdder stringHits = new LongAdder();
+	private final LongAdder stringMisses = new LongAdder();
+	private final ConcurrentWeakPool<Version> versions = new ConcurrentWeakPool<>();
+	private final ConcurrentWeakPool<IProvidedCapability> capabilities = new ConcurrentWeakPool<>();
+	private final ConcurrentWeakPool<IRequirement> requirements = new ConcurrentWeakPool<>();
+
+	public MetadataInterner() {
+		this(!"false".equalsIgnoreCase(System.getProperty(PROP_INTERNING))); //$NON-NLS-1$
+	}
+
+	public MetadataInterner(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Returns the pooled string equal to the given one. Strings are pooled by
+	 * {@link String#intern()}, whose table is weak and much lighter than a map
+	 * of weak references.
+	 */
+	public String intern(String string) {
+		if (!enabled || string == null)
+			return string;
+		String pooled = string.intern();
+		if (pooled == string)
+			stringMisses.increment();
+		else
+			stringHits.increment();
+		return pooled;
+	}
+
+	/**
+	 * Returns the pooled version equal to the given one.
+	 */
+	public Version intern(Version version) {
+		if (!enabled || version == null)
+			return version;
+		Version pooled = versions.add(version);
+		if (pooled != version && (pooled.getClass() != version.getClass() || !Objects.equals(pooled.getOriginal(), version.getOriginal())))
+			return version;
+		return pooled;
+	}
+
+	/**
+	 * Returns the pooled provided capability equal to the given one.
+	 */
+	public IProvidedCapability intern(IProvidedCapability capability) {
+		if (!enabled || capability == null)
+			return capability;
+		IProvidedCapability pooled = capabilities.add(capability);
+		return pooled.getClass() == capability.getClass() ? pooled : capability;
+	}
+
+	/**
+	 * Returns the pooled requirement equal to the given one.
+	 */
+	public IRequirement intern(IRequirement requirement) {
+		if (!enabled || requirement == null)
+			return requirement;
+		IRequirement pooled = requirements.add(requirement);
+		if (pooled != requirement && (pooled.getClass() != requirement.getClass() || !Objects.equals(pooled.getDescription(), requirement.getDescription())))
+			return requirement;
+		return pooled;
+	}
+
+	/**
+	 * Returns whether this service shares objects.
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Returns the number of lookups that returned a pooled object.
+	 */
+	public long getHits() {
+		return stringHits.sum() + versions.getHits() + capabilities.getHits() + requirements.getHits();
+	}
+
+	/**
+	 * Returns the number of lookups that added the given object to the pool.
+	 */
+	public long getMisses() {
+		return stringMisses.sum() + versions.getMisses() + capabilities.getMisses() + requirements.getMisses();
+	}
+
+	/**
+	 * Returns the number of pooled versions, capabilities and requirements.
+	 */
+	public int size() {
+		return versions.size() + capabilities.size() + requirements.size();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder("MetadataInterner"); //$NON-NLS-1$
+		result.append(" strings[hits=").append(stringHits.sum()); //$NON-NLS-1$
+		result.append(", misses=").append(stringMisses.sum()).append(']'); //$NON-NLS-1$
+		append(result, "versions", versions); //$NON-NLS-1$
+		append(result, "capabilities", capabilities); //$NON-NLS-1$
+		append(result, "requirements", requirements); //$NON-NLS-1$
+		return result.toString();
+	}
+
+	private static void append(StringBuilder result, String name, ConcurrentWeakPool<?> pool) {
+		result.append(' ').append(name).append("[size=").append(pool.size()); //$NON-NLS-1$
+		result.append(", hits=").append(pool.getHits()); //$NON-NLS-1$
+		result.append(", misses=").append(pool.getMisses()).append(']'); //$NON-NLS-1$
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2017 Cloudsmith Inc. and others.
+ * Copyright (c) 2009, 2026 Cloudsmith Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -52,7 +52,13 @@ class At extends Binary {
 		} else
 			lval = lhs.evaluate(context);
 
-		Object rval = rhs.evaluate(context);
+		return index(lval, rhs.evaluate(context));
+	}
+
+	/**
+	 * Returns the element at the given key or position of the given value.
+	 */
+	static Object index(Object lval, Object rval) {
 		if (lval == null)
 			throw new IllegalArgumentException("Unable to use [] on null"); //$NON-NLS-1$
 
@@ -0,0 +1,577 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.metadata.expression;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.*;
+import java.util.function.Function;
+import org.eclipse.equinox.internal.p2.metadata.InstallableUnit;
+import org.eclipse.equinox.internal.p2.metadata.ProvidedCapability;
+import org.eclipse.equinox.internal.p2.metadata.expression.Member.DynamicMember;
+import org.eclipse.equinox.internal.p2.metadata.expression.Member.EmptyMember;
+import org.eclipse.equinox.internal.p2.metadata.expression.Member.LengthMember;
+import org.eclipse.equinox.p2.metadata.*;
+import org.eclipse.equinox.p2.metadata.expression.IExpression;
+import org.eclipse.equinox.p2.metadata.expression.IMemberProvider;
+
+/**
+ * <p>
+ * Compiles the predicate of a {@link MatchExpression} into a tree of
+ * specialized evaluators. The parameters of the match expression are known at
+ * compile time and become constants, the variables are kept in the slots of a
+ * frame that is allocated once per match, members of the metadata classes are
+ * read with direct accessor calls and the accessors of other classes are cached
+ * per class. Constants that are compared to other values are coerced once for
+ * each type they are compared to instead of on every comparison.
+ * </p>
+ * <p>
+ * Only the expressions commonly used for matching are compiled. Expressions
+ * that contain anything else, such as collection functions that need an index
+ * or curried lambdas, are left to the interpreter. A compiled evaluation that
+ * runs into a value it does not handle throws {@link Fallback} so that the
+ * caller can evaluate the expression with the interpreter instead.
+ * </p>
+ * <p>
+ * The compilation can be disabled by setting the system property
+ * <code>eclipse.p2.ql.compile</code> to <code>false</code>.
+ * </p>
+ */
+public final class ExpressionCompiler {
+	/**
+	 * System property that disables the compilation of match expressions when set
+	 * to <code>false</code>.
+	 */
+	public static final String PROP_COMPILE = "eclipse.p2.ql.compile"; //$NON-NLS-1$
+
+	static final boolean ENABLED = !Boolean.FALSE.toString().equalsIgnoreCase(System.getProperty(PROP_COMPILE));
+
+	/**
+	 * A compiled expression, evaluated against the variables held in a frame.
+	 */
+	@FunctionalInterface
+	interface Evaluator {
+		Object evaluate(Object[] frame);
+	}
+
+	/**
+	 * Thrown by a compiled evaluation that cannot proceed. The expression must then
+	 * be evaluated by the interpreter.
+	 */
+	public static final class Fallback extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+		static final Fallback INSTANCE = new Fallback();
+
+		private Fallback() {
+			super(null, null, false, false);
+		}
+	}
+
+	/**
+	 * A compiled match expression.
+	 */
+	public static final class CompiledMatch {
+		private final Evaluator predicate;
+		private final int frameSize;
+
+		CompiledMatch(Evaluator predicate, int frameSize) {
+			this.predicate = predicate;
+			this.frameSize = frameSize;
+		}
+
+		/**
+		 * Returns whether the candidate matches.
+		 *
+		 * @throws Fallback if the expression must be evaluated by the interpreter
+		 */
+		public boolean isMatch(Object candidate) {
+			Object[] frame = new Object[frameSize];
+			frame[THIS_SLOT] = candidate;
+			return predicate.evaluate(frame) == Boolean.TRUE;
+		}
+	}
+
+	/**
+	 * Signals an expression that cannot be compiled.
+	 */
+	private static final class Unsupported extends Exception {
+		private static final long serialVersionUID = 1L;
+		static final Unsupported INSTANCE = new Unsupported();
+
+		private Unsupported() {
+			super(null, null, false, false);
+		}
+	}
+
+	private static final int THIS_SLOT = 0;
+
+	/**
+	 * Compiles the given predicate, or returns <code>null</code> when it cannot be
+	 * compiled.
+	 */
+	public static CompiledMatch compile(Expression predicate, Object[] parameters) {
+		ExpressionCompiler compiler = new ExpressionCompiler(parameters);
+		try {
+			Evaluator evaluator = compiler.compile(predicate);
+			return new CompiledMatch(evaluator, compiler.frameSize);
+		} catch (Unsupported e) {
+			return null;
+		}
+	}
+
+	private final Object[] parameters;
+
+	// the variables in scope, innermost last, with their slots
+	private final List<Variable> scope = new ArrayList<>();
+	private final List<Integer> slots = new ArrayList<>();
+	private int frameSize = 1;
+
+	private ExpressionCompiler(Object[] parameters) {
+		this.parameters = parameters;
+		scope.add(ExpressionFactory.THIS);
+		slots.add(THIS_SLOT);
+	}
+
+	private Evaluator compile(Expression expression) throws Unsupported {
+		if (expression instanceof Literal literal) {
+			Object value = literal.value;
+			return frame -> value;
+		}
+		if (expression instanceof Parameter parameter) {
+			Object value = getConstant(parameter);
+			return frame -> value;
+		}
+		if (expression instanceof Variable variable) {
+			int slot = getSlot(variable);
+			return frame -> frame[slot];
+		}
+		switch (expression.getExpressionType()) {
+			case IExpression.TYPE_AND :
+				return and(compile(((NAry) expression).operands));
+			case IExpression.TYPE_OR :
+				return or(compile(((NAry) expression).operands));
+			case IExpression.TYPE_NOT : {
+				Evaluator operand = compile(((Not) expression).operand);
+				return frame -> Boolean.valueOf(operand.evaluate(frame) != Boolean.TRUE);
+			}
+			case IExpression.TYPE_EQUALS :
+			case IExpression.TYPE_NOT_EQUALS :
+				return equals((Equals) expression);
+			case IExpression.TYPE_LESS :
+			case IExpression.TYPE_LESS_EQUAL :
+			case IExpression.TYPE_GREATER :
+			case IExpression.TYPE_GREATER_EQUAL :
+				return compare((Compare) expression);
+			case IExpression.TYPE_MATCHES :
+				return matches((Matches) expression);
+			case IExpression.TYPE_MEMBER :
+				return member((Member) expression);
+			case IExpression.TYPE_AT :
+				return at((At) expression);
+			case IExpression.TYPE_EXISTS :
+				return collectionFilter((CollectionFilter) expression, true);
+			case IExpression.TYPE_ALL :
+				return collectionFilter((CollectionFilter) expression, false);
+			default :
+				throw Unsupported.INSTANCE;
+		}
+	}
+
+	private Evaluator[] compile(Expression[] expressions) throws Unsupported {
+		Evaluator[] evaluators = new Evaluator[expressions.length];
+		for (int i = 0; i < expressions.length; i++)
+			evaluators[i] = compile(expressions[i]);
+		return evaluators;
+	}
+
+	private static boolean isConstant(Expression expression) {
+		return expression instanceof Literal || expression instanceof Parameter;
+	}
+
+	private Object getConstant(Expression expression) throws Unsupported {
+		if (expression instanceof Literal literal)
+			return literal.value;
+		int position = ((Parameter) expression).position;
+		if (position < 0 || position >= parameters.length)
+			// let the interpreter report it
+			throw Unsupported.INSTANCE;
+		return parameters[position];
+	}
+
+	private int getSlot(Variable variable) throws Unsupported {
+		for (int i = scope.size() - 1; i >= 0; i--)
+			if (scope.get(i) == variable)
+				return slots.get(i);
+		// everything and variables of an enclosing context are not compiled
+		throw Unsupported.INSTANCE;
+	}
+
+	private static Evaluator and(Evaluator[] operands) {
+		return frame -> {
+			for (Evaluator operand : operands)
+				if (operand.evaluate(frame) != Boolean.TRUE)
+					return Boolean.FALSE;
+			return Boolean.TRUE;
+		};
+	}
+
+	private static Evaluator or(Evaluator[] operands) {
+		return frame -> {
+			for (Evaluator operand : operands)
+				if (operand.evaluate(frame) == Boolean.TRUE)
+					return Boolean.TRUE;
+			return Boolean.FALSE;
+		};
+	}
+
+	private Evaluator equals(Equals expression) throws Unsupported {
+		Evaluator lhs = compile(expression.lhs);
+		boolean negate = expression.negate;
+		if (isConstant(expression.rhs)) {
+			Constant constant = new Constant(getConstant(expression.rhs));
+			return frame -> {
+				Object lval = lhs.evaluate(frame);
+				// Handle collections as per the OSGi LDAP spec
+				if (lval instanceof Collection<?> collection) {
+					if (!negate)
+						for (Object item : collection)
+							if (constant.isEqual(item))
+								return Boolean.TRUE;
+					return Boolean.valueOf(negate);
+				}
+				return Boolean.valueOf(constant.isEqual(lval) != negate);
+			};
+		}
+		Evaluator rhs = compile(expression.rhs);
+		return frame -> {
+			Object lval = lhs.evaluate(frame);
+			Object rval = rhs.evaluate(frame);
+			if (lval instanceof Collection<?> collection) {
+				if (!negate)
+					for (Object item : collection)
+						if (CoercingComparator.coerceAndEquals(item, rval))
+							return Boolean.TRUE;
+				return Boolean.valueOf(negate);
+			}
+			return Boolean.valueOf(CoercingComparator.coerceAndEquals(lval, rval) != negate);
+		};
+	}
+
+	private Evaluator compare(Compare expression) throws Unsupported {
+		Evaluator lhs = compile(expression.lhs);
+		boolean compareLess = expression.compareLess;
+		boolean equalOK = expression.equalOK;
+		Constant constant = isConstant(expression.rhs) ? new Constant(getConstant(expression.rhs)) : null;
+		Evaluator rhs = constant == null ? compile(expression.rhs) : null;
+		return frame -> {
+			Object lval = lhs.evaluate(frame);
+			Object rval = constant == null ? rhs.evaluate(frame) : null;
+			// Handle collections as per the OSGi LDAP spec
+			if (lval instanceof Collection<?> collection) {
+				for (Object item : collection) {
+					int cmpResult = constant != null ? constant.compare(item) : CoercingComparator.coerceAndCompare(item, rval);
+					if (cmpResult == 0)
+						return Boolean.valueOf(equalOK);
+					if (cmpResult < 0 && compareLess)
+						return Boolean.TRUE;
+					if (!compareLess)
+						return Boolean.TRUE;
+				}
+				return Boolean.FALSE;
+			}
+			int cmpResult = constant != null ? constant.compare(lval) : CoercingComparator.coerceAndCompare(lval, rval);
+			return Boolean.valueOf(cmpResult == 0 ? equalOK : (cmpResult < 0 ? compareLess : !compareLess));
+		};
+	}
+
+	private Evaluator matches(Matches expression) throws Unsupported {
+		Evaluator lhs = compile(expression.lhs);
+		if (isConstant(expression.rhs)) {
+			Object rval = getConstant(expression.rhs);
+			if (rval instanceof VersionRange range)
+				return frame -> {
+					Object lval = lhs.evaluate(frame);
+					if (lval instanceof Version version)
+						return Boolean.valueOf(range.isIncluded(version));
+					return Boolean.valueOf(expression.match(lval, range));
+				};
+			if (rval instanceof IRequirement requirement)
+				return frame -> {
+					Object lval = lhs.evaluate(frame);
+					if (lval instanceof IInstallableUnit unit)
+						return Boolean.valueOf(unit.satisfies(requirement));
+					return Boolean.valueOf(expression.match(lval, requirement));
+				};
+			return frame -> Boolean.valueOf(expression.match(lhs.evaluate(frame), rval));
+		}
+		Evaluator rhs = compile(expression.rhs);
+		return frame -> Boolean.valueOf(expression.match(lhs.evaluate(frame), rhs.evaluate(frame)));
+	}
+
+	private Evaluator member(Member expression) throws Unsupported {
+		Evaluator operand = compile(expression.operand);
+		if (expression instanceof DynamicMember member) {
+			Accessor accessor = new Accessor(member);
+			return frame -> accessor.get(operand.evaluate(frame));
+		}
+		if (expression instanceof EmptyMember empty)
+			return frame -> {
+				Object value = operand.evaluate(frame);
+				return Boolean.valueOf((value instanceof Iterator<?> iterator) ? !iterator.hasNext() : empty.getLength(value) == 0);
+			};
+		if (expression instanceof LengthMember length)
+			return frame -> Integer.valueOf(length.getLength(operand.evaluate(frame)));
+		throw Unsupported.INSTANCE;
+	}
+
+	private Evaluator at(At expression) throws Unsupported {
+		Evaluator rhs = compile(expression.rhs);
+		if (expression.lhs instanceof DynamicMember member) {
+			Evaluator instance = compile(member.operand);
+			Accessor accessor = new Accessor(member);
+			String name = member.getName();
+			return frame -> {
+				Object self = instance.evaluate(frame);
+				if (self instanceof IInstallableUnit unit) {
+					if (InstallableUnit.MEMBER_TRANSLATED_PROPERTIES == name || InstallableUnit.MEMBER_PROFILE_PROPERTIES == name)
+						// needs the index provider of an evaluation context
+						throw Fallback.INSTANCE;
+					if (InstallableUnit.MEMBER_PROPERTIES == name)
+						return unit.getProperty((String) rhs.evaluate(frame));
+				}
+				return At.index(accessor.get(self), rhs.evaluate(frame));
+			};
+		}
+		Evaluator lhs = compile(expression.lhs);
+		return frame -> At.index(lhs.evaluate(frame), rhs.evaluate(frame));
+	}
+
+	private Evaluator collectionFilter(CollectionFilter expression, boolean exists) throws Unsupported {
+		LambdaExpression lambda = expression.lambda;
+		if (lambda.getClass() != LambdaExpression.class)
+			throw Unsupported.INSTANCE;
+		Evaluator collection = compile(expression.operand);
+		int slot = frameSize++;
+		scope.add(lambda.getItemVariable());
+		slots.add(slot);
+		Evaluator body;
+		try {
+			body = compile(lambda.operand);
+		} finally {
+			scope.remove(scope.size() - 1);
+			slots.remove(slots.size() - 1);
+		}
+		Boolean found = Boolean.valueOf(exists);
+		Boolean notFound = Boolean.valueOf(!exists);
+		return frame -> {
+			Object value = collection.evaluate(frame);
+			if (value instanceof Object[] array) {
+				for (Object element : array) {
+					frame[slot] = element;
+					if ((body.evaluate(frame) == Boolean.TRUE) == exists)
+						return found;
+				}
+				return notFound;
+			}
+			if (value instanceof Collection<?> elements) {
+				for (Object element : elements) {
+					frame[slot] = element;
+					if ((body.evaluate(frame) == Boolean.TRUE) == exists)
+						return found;
+				}
+				return notFound;
+			}
+			// iterators, indexes and query results are left to the interpreter
+			throw Fallback.INSTANCE;
+		};
+	}
+
+	/**
+	 * Reads a member of the objects it is given. The members of the metadata
+	 * classes are read directly, those of other member providers by name, and
+	 * those of other objects through a method handle that is cached for the last
+	 * class seen.
+	 */
+	private static final class Accessor {
+		private record Handle(Class<?> type, MethodHandle handle) {
+		}
+
+		private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+
+		private final DynamicMember member;
+		private final String name;
+		// the direct accessors of the member in the metadata classes, if it has one
+		private final Function<ProvidedCapability, Object> capabilityAccessor;
+		private final Function<InstallableUnit, Object> unitAccessor;
+		private volatile Handle last;
+
+		Accessor(DynamicMember member) {
+			this.member = member;
+			this.name = member.getName();
+			this.capabilityAccessor = switch (name) {
+				case ProvidedCapability.MEMBER_NAMESPACE -> ProvidedCapability::getNamespace;
+				case ProvidedCapability.MEMBER_NAME -> ProvidedCapability::getName;
+				case ProvidedCapability.MEMBER_VERSION -> ProvidedCapability::getVersion;
+				case ProvidedCapability.MEMBER_PROPERTIES -> ProvidedCapability::getProperties;
+				default -> null;
+			};
+			this.unitAccessor = switch (name) {
+				case InstallableUnit.MEMBER_ID -> InstallableUnit::getId;
+				case InstallableUnit.MEMBER_VERSION -> InstallableUnit::getVersion;
+				case InstallableUnit.MEMBER_FILTER -> InstallableUnit::getFilter;
+				case InstallableUnit.MEMBER_SINGLETON -> unit -> Boolean.valueOf(unit.isSingleton());
+				default -> null;
+			};
+		}
+
+		Object get(Object self) {
+			if (self != null) {
+				// subclasses may define their members differently
+				Class<?> type = self.getClass();
+				if (type == ProvidedCapability.class && capabilityAccessor != null)
+					return capabilityAccessor.apply((ProvidedCapability) self);
+				if (type == InstallableUnit.class && unitAccessor != null)
+					return unitAccessor.apply((InstallableUnit) self);
+				if (self instanceof IMemberProvider provider)
+					return provider.getMember(name);
+				Handle handle = last;
+				if (handle == null || handle.type != type)
+					last = handle = findHandle(self);
+				if (handle.handle != null) {
+					try {
+						return handle.handle.invokeExact(self);
+					} catch (RuntimeException | Error e) {
+						throw e;
+					} catch (Throwable e) {
+						throw new RuntimeException("Problem invoking " + name + " on a " + type.getName(), e); //$NON-NLS-1$ //$NON-NLS-2$
+					}
+				}
+			}
+			return member.invoke(self);
+		}
+
+		private Handle findHandle(Object self) {
+			MethodHandle handle;
+			try {
+				handle = MethodHandles.lookup().unreflect(member.findAccessibleMethod(self, name)).asType(GETTER);
+			} catch (IllegalAccessException | IllegalArgumentException e) {
+				// leave the reporting of the problem to the member
+				handle = null;
+			}
+			return new Handle(self.getClass(), handle);
+		}
+	}
+
+	/**
+	 * A constant operand of a comparison, with its value coerced to the type of
+	 * the last value it has been compared to.
+	 */
+	private static final class Constant {
+		private static final int DIRECT = 0;
+		private static final int REVERSE = 1;
+		private static final int COERCED = 2;
+		private static final int GENERIC = 3;
+
+		private record Coercion(Class<?> type, int kind, CoercingComparator<Object> comparator, Object coerced) {
+		}
+
+		private final Object value;
+		private volatile Coercion lastEquals;
+		private volatile Coercion lastCompare;
+
+		Constant(Object value) {
+			this.value = value;
+		}
+
+		/**
+		 * Same as {@link CoercingComparator#coerceAndEquals(Object, Object)} with the
+		 * constant as second argument.
+		 */
+		boolean isEqual(Object lval) {
+			if (lval == value)
+				return true;
+			if (lval == null || value == null)
+				return false;
+			Class<?> type = lval.getClass();
+			if (type == value.getClass())
+				return lval.equals(value);
+			Coercion coercion = lastEquals;
+			if (coercion == null || coercion.type != type)
+				lastEquals = coercion = coerceForEquals(lval);
+			return coercion.kind == COERCED ? lval.equals(coercion.coerced) : CoercingComparator.coerceAndEquals(lval, value);
+		}
+
+		@SuppressWarnings("unchecked")
+		private Coercion coerceForEquals(Object lval) {
+			Class<?> type = lval.getClass();
+			if (type.isAssignableFrom(value.getClass()))
+				return new Coercion(type, COERCED, null, value);
+			if (value.getClass().isAssignableFrom(type))
+				return new Coercion(type, GENERIC, null, null);
+			try {
+				CoercingComparator<Object> ca = CoercingComparator.getComparator(lval, value);
+				CoercingComparator<Object> cb = CoercingComparator.getComparator(value, lval);
+				if (ca.getCoercePrio() > cb.getCoercePrio())
+					return new Coercion(type, GENERIC, null, null);
+				return new Coercion(type, COERCED, null, ca.coerce(value));
+			} catch (IllegalArgumentException e) {
+				// the values are compared without coercion
+				return new Coercion(type, COERCED, null, value);
+			}
+		}
+
+		/**
+		 * Same as {@link CoercingComparator#coerceAndCompare(Object, Object)} with the
+		 * constant as second argument.
+		 */
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		int compare(Object lval) {
+			if (lval == null || value == null)
+				return CoercingComparator.coerceAndCompare(lval, value);
+			Class<?> type = lval.getClass();
+			Coercion coercion = lastCompare;
+			if (coercion == null || coercion.type != type)
+				lastCompare = coercion = coerceForCompare(lval);
+			switch (coercion.kind) {
+				case DIRECT :
+					return ((Comparable) lval).compareTo(value);
+				case REVERSE :
+					return -((Comparable) value).compareTo(lval);
+				case COERCED :
+					return coercion.comparator.compare(lval, coercion.coerced);
+				default :
+					return CoercingComparator.coerceAndCompare(lval, value);
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private Coercion coerceForCompare(Object lval) {
+			Class<?> type = lval.getClass();
+			if (lval instanceof Comparable<?> && type.isAssignableFrom(value.getClass()))
+				return new Coercion(type, DIRECT, null, null);
+			if (value instanceof Comparable<?> && value.getClass().isAssignableFrom(type))
+				return new Coercion(type, REVERSE, null, null);
+			try {
+				CoercingComparator<Object> ca = CoercingComparator.getComparator(lval, value);
+				CoercingComparator<Object> cb = CoercingComparator.getComparator(value, lval);
+				if (ca.getCoercePrio() <= cb.getCoercePrio())
+					return new Coercion(type, COERCED, ca, ca.coerce(value));
+			} catch (IllegalArgumentException e) {
+				// the comparison reports the problem
+			}
+			return new Coercion(type, GENERIC, null, null);
+		}
+	}
+}
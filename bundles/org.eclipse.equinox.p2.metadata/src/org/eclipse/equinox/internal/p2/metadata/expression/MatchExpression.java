@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2017 Cloudsmith Inc. and others.
+ * Copyright (c) 2009, 2026 Cloudsmith Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -24,8 +24,12 @@ import org.eclipse.equinox.p2.metadata.expression.*;
  */
 public class MatchExpression<T> extends Unary implements IMatchExpression<T> {
 	private static final Object[] noParams = new Object[0];
+	private static final Object NOT_COMPILED = new Object();
 	private final Object[] parameters;
 
+	// the compiled predicate, NOT_COMPILED when it cannot be compiled
+	private volatile Object compiled;
+
 	MatchExpression(Expression expression, Object[] parameters) {
 		super(expression);
 		this.parameters = parameters == null ? noParams : parameters;
@@ -92,7 +96,45 @@ public class MatchExpression<T> extends Unary implements IMatchExpression<T> {
 
 	@Override
 	public boolean isMatch(T value) {
-		return isMatch(createContext(), value);
+		Boolean match = compiledMatch(value);
+		return match != null ? match.booleanValue() : isMatch(createContext(), value);
+	}
+
+	/**
+	 * Returns whether the given value matches, using the compiled predicate when
+	 * there is one. The context must have been created by {@link #createContext()}
+	 * and is used when the predicate is interpreted.
+	 *
+	 * @param context A context created by this expression
+	 * @param value The value to match
+	 * @return <code>true</code> if the value matches
+	 */
+	public boolean isMatchCompiled(IEvaluationContext context, T value) {
+		Boolean match = compiledMatch(value);
+		return match != null ? match.booleanValue() : isMatch(context, value);
+	}
+
+	/**
+	 * Matches the value with the compiled predicate, or returns <code>null</code>
+	 * when the predicate has to be interpreted.
+	 */
+	private Boolean compiledMatch(T value) {
+		if (!ExpressionCompiler.ENABLED)
+			return null;
+		Object result = compiled;
+		if (result == null) {
+			result = ExpressionCompiler.compile(operand, parameters);
+			if (result == null)
+				result = NOT_COMPILED;
+			compiled = result;
+		}
+		if (result == NOT_COMPILED)
+			return null;
+		try {
+			return Boolean.valueOf(((ExpressionCompiler.CompiledMatch) result).isMatch(value));
+		} catch (ExpressionCompiler.Fallback e) {
+			return null;
+		}
 	}
 
 	@Override
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2021 Cloudsmith Inc. and others.
+ * Copyright (c) 2009, 2026 Cloudsmith Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -106,7 +106,7 @@ public abstract class Member extends Unary {
 			return res;
 		}
 
-		private Method findAccessibleMethod(Object self, String propertyName) {
+		Method findAccessibleMethod(Object self, String propertyName) {
 			Collection<String> methodNamesToTry = getMethodNames(propertyName);
 			Queue<Class<?>> typesToTry = new LinkedList<>();
 			Queue<Method> notAccessibleMethods = new LinkedList<>();
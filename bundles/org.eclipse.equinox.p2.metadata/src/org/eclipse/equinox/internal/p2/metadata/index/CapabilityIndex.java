@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2018 Cloudsmith Inc. and others.
+ * Copyright (c) 2010, 2026 Cloudsmith Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,13 +14,11 @@
 package org.eclipse.equinox.internal.p2.metadata.index;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
-import java.util.Map;
-import java.util.Set;
+import java.util.List;
 import org.eclipse.equinox.internal.p2.metadata.IRequiredCapability;
 import org.eclipse.equinox.internal.p2.metadata.InstallableUnit;
 import org.eclipse.equinox.internal.p2.metadata.ProvidedCapability;
@@ -42,37 +40,133 @@ import org.eclipse.equinox.p2.metadata.expression.IExpression;
 import org.eclipse.equinox.p2.metadata.expression.IMatchExpression;
 
 /**
- * An in-memory implementation of a CapabilityIndex based on a Map.
+ * An in-memory implementation of a CapabilityIndex.
+ * <p>
+ * Every indexed unit is assigned an integer id, and the units providing a
+ * capability name or namespace are kept as lists of those ids in a
+ * {@link PostingsTable} rather than as sets of units. The index can be updated
+ * incrementally using {@link #addInstallableUnit(IInstallableUnit)} and
+ * {@link #removeInstallableUnit(IInstallableUnit)}, which allows an
+ * {@link org.eclipse.equinox.internal.p2.metadata.IUMap} to keep its index up
+ * to date instead of having it rebuilt after every change.
+ * </p>
  */
 @SuppressWarnings("unchecked")
 public class CapabilityIndex extends Index<IInstallableUnit> {
 
-	private final Map<String, Set<IInstallableUnit>> namespaceMap;
-	private final Map<String, Object> nameMap;
+	// Units by id, null for removed units
+	private IInstallableUnit[] units;
+	private int nextId;
+	private int removedCount;
+
+	private PostingsTable namespaceMap;
+	private PostingsTable nameMap;
+
+	/**
+	 * Creates an empty index.
+	 */
+	public CapabilityIndex() {
+		this(Collections.emptyIterator());
+	}
 
 	public CapabilityIndex(Iterator<IInstallableUnit> itor) {
-		nameMap = new HashMap<>(300);
-		namespaceMap = new HashMap<>(10);
-		while (itor.hasNext()) {
-			IInstallableUnit iu = itor.next();
-			Collection<IProvidedCapability> pcs = iu.getProvidedCapabilities();
-			for (IProvidedCapability pc : pcs) {
-				namespaceMap.computeIfAbsent(pc.getNamespace(), namespace -> new HashSet<>()).add(iu);
-				nameMap.compute(pc.getName(), (name, prev) -> {
-					if (prev == null || prev == iu) {
-						return iu;
-					} else if (prev instanceof IInstallableUnit) {
-						Collection<IInstallableUnit> ius = new HashSet<>();
-						ius.add((IInstallableUnit) prev);
-						ius.add(iu);
-						return ius;
-					} else {
-						((Collection<IInstallableUnit>) prev).add(iu);
-						return prev;
-					}
-				});
-			}
+		init(itor, 64);
+	}
+
+	/**
+	 * Creates a copy of the given index. The copy shares the id lists of the
+	 * source until either of the two is modified.
+	 *
+	 * @param source The index to copy
+	 */
+	public CapabilityIndex(CapabilityIndex source) {
+		synchronized (source) {
+			units = source.units.clone();
+			nextId = source.nextId;
+			removedCount = source.removedCount;
+			nameMap = new PostingsTable(source.nameMap);
+			namespaceMap = new PostingsTable(source.namespaceMap);
+		}
+	}
+
+	private void init(Iterator<IInstallableUnit> itor, int capacity) {
+		units = new IInstallableUnit[capacity];
+		nextId = 0;
+		removedCount = 0;
+		nameMap = new PostingsTable(capacity * 4);
+		namespaceMap = new PostingsTable(10);
+		while (itor.hasNext())
+			add(itor.next());
+	}
+
+	/**
+	 * Adds a unit to the index. The unit must not already be present in the index.
+	 *
+	 * @param iu The unit to add
+	 */
+	public synchronized void addInstallableUnit(IInstallableUnit iu) {
+		add(iu);
+	}
+
+	/**
+	 * Removes a unit from the index. The unit is looked up by identity first
+	 * and by equality if no identical unit has been indexed.
+	 *
+	 * @param iu The unit to remove
+	 */
+	public synchronized void removeInstallableUnit(IInstallableUnit iu) {
+		Collection<IProvidedCapability> pcs = iu.getProvidedCapabilities();
+		if (pcs.isEmpty())
+			return;
+		int id = findId(iu, pcs.iterator().next().getName());
+		if (id < 0)
+			return;
+		for (IProvidedCapability pc : units[id].getProvidedCapabilities()) {
+			nameMap.remove(pc.getName(), id);
+			namespaceMap.remove(pc.getNamespace(), id);
+		}
+		units[id] = null;
+		if (++removedCount > 64 && removedCount > nextId / 2)
+			compact();
+	}
+
+	private void add(IInstallableUnit iu) {
+		Collection<IProvidedCapability> pcs = iu.getProvidedCapabilities();
+		if (pcs.isEmpty())
+			// Units without capabilities are never returned by this index
+			return;
+		if (nextId == units.length)
+			units = Arrays.copyOf(units, nextId * 2);
+		int id = nextId++;
+		units[id] = iu;
+		// Ids are assigned in ascending order and all capabilities of a unit
+		// are added in one go, which is what the postings tables expect.
+		for (IProvidedCapability pc : pcs) {
+			nameMap.add(pc.getName(), id);
+			namespaceMap.add(pc.getNamespace(), id);
+		}
+	}
+
+	private int findId(IInstallableUnit iu, String name) {
+		PostingsTable.IdBuffer ids = new PostingsTable.IdBuffer();
+		nameMap.collect(name, ids);
+		int found = -1;
+		for (int i = 0; i < ids.size; i++) {
+			IInstallableUnit candidate = units[ids.ids[i]];
+			if (candidate == iu)
+				return ids.ids[i];
+			if (found < 0 && candidate.equals(iu))
+				found = ids.ids[i];
 		}
+		return found;
+	}
+
+	private void compact() {
+		List<IInstallableUnit> live = new ArrayList<>(nextId - removedCount);
+		for (int i = 0; i < nextId; i++)
+			if (units[i] != null)
+				live.add(units[i]);
+		init(live.iterator(), Math.max(64, live.size()));
 	}
 
 	private Object getRequirementIDs(IEvaluationContext ctx, IExpression requirement, Object queriedKeys) {
@@ -143,7 +237,7 @@ public class CapabilityIndex extends Index<IInstallableUnit> {
 	@Override
 	public Iterator<IInstallableUnit> getCandidates(IEvaluationContext ctx, IExpression variable, IExpression booleanExpr) {
 		Object queriedKeys = null;
-		Map<String, ?> indexMapToUse = nameMap;
+		boolean useNamespaces = false;
 
 		// booleanExpression must be a collection filter on providedCapabilities
 		// or an IInstallableUnit used in a match expression.
@@ -176,7 +270,7 @@ public class CapabilityIndex extends Index<IInstallableUnit> {
 						// in a performant way as this reduces the result set significantly
 						queriedKeys = getQueriedIDs(ctx, lambda.getItemVariable(), ProvidedCapability.MEMBER_NAMESPACE, lambda.getOperand(), queriedKeys);
 						if (queriedKeys != null) {
-							indexMapToUse = namespaceMap;
+							useNamespaces = true;
 							break;
 						}
 					}
@@ -238,34 +332,24 @@ public class CapabilityIndex extends Index<IInstallableUnit> {
 			// Index cannot be used.
 			return null;
 
-		Collection<IInstallableUnit> matchingIUs;
-		if (queriedKeys == Boolean.FALSE) {
+		if (queriedKeys == Boolean.FALSE)
 			// It has been determined that the expression has no chance
 			// to succeed regardless of input
-			matchingIUs = Collections.emptySet();
-		} else if (queriedKeys instanceof Collection<?>) {
-			matchingIUs = new HashSet<>();
-			for (Object key : (Collection<Object>) queriedKeys)
-				collectMatchingIUs(indexMapToUse, (String) key, matchingIUs);
-		} else {
-			Object v = indexMapToUse.get(queriedKeys);
-			if (v == null)
-				matchingIUs = Collections.emptySet();
-			else if (v instanceof IInstallableUnit)
-				matchingIUs = Collections.singleton((IInstallableUnit) v);
-			else
-				matchingIUs = (Collection<IInstallableUnit>) v;
-		}
-		return matchingIUs.iterator();
-	}
+			return Collections.emptyIterator();
 
-	private static void collectMatchingIUs(Map<String, ?> indexToUse, String name, Collection<IInstallableUnit> collector) {
-		Object v = indexToUse.get(name);
-		if (v == null)
-			return;
-		if (v instanceof IInstallableUnit)
-			collector.add((IInstallableUnit) v);
-		else
-			collector.addAll((Collection<IInstallableUnit>) v);
+		PostingsTable.IdBuffer matchingIds = new PostingsTable.IdBuffer();
+		synchronized (this) {
+			PostingsTable indexMapToUse = useNamespaces ? namespaceMap : nameMap;
+			if (queriedKeys instanceof Collection<?>) {
+				for (Object key : (Collection<Object>) queriedKeys)
+					indexMapToUse.collect(key, matchingIds);
+				matchingIds.sortUnique();
+			} else
+				indexMapToUse.collect(queriedKeys, matchingIds);
+			List<IInstallableUnit> matchingIUs = new ArrayList<>(matchingIds.size);
+			for (int i = 0; i < matchingIds.size; i++)
+				matchingIUs.add(units[matchingIds.ids[i]]);
+			return matchingIUs.iterator();
+		}
 	}
 }
@@ -0,0 +1,268 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.metadata.index;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Maps string keys to ascending lists of non-negative integer ids without
+ * boxing. The keys are kept in an open addressing table. A key with a single
+ * id stores the id in the table itself, a key with more ids stores a reference
+ * to a list in a shared pool, where element 0 of the list is the number of ids
+ * that follow.
+ * <p>
+ * A copy shares the lists of its source until either of them modifies a list.
+ * Each list is stamped with the generation of the table that may modify it in
+ * place, and copying a table gives both tables a new generation.
+ * </p>
+ */
+final class PostingsTable {
+	private static final AtomicInteger generations = new AtomicInteger();
+
+	private String[] keys;
+	// id if >= 0, otherwise -(index into lists) - 1
+	private int[] values;
+	private int size;
+
+	private int[][] lists;
+	private int[] listGenerations;
+	private int listCount;
+	// Indexes of released lists, available for reuse
+	private int[] freeLists;
+	private int freeCount;
+	private int generation;
+
+	PostingsTable(int expectedKeys) {
+		int capacity = 16;
+		while (capacity * 3 < expectedKeys * 4)
+			capacity <<= 1;
+		keys = new String[capacity];
+		values = new int[capacity];
+		lists = new int[16][];
+		listGenerations = new int[16];
+		freeLists = new int[16];
+		generation = generations.incrementAndGet();
+	}
+
+	PostingsTable(PostingsTable source) {
+		keys = source.keys.clone();
+		values = source.values.clone();
+		size = source.size;
+		lists = source.lists.clone();
+		listGenerations = source.listGenerations.clone();
+		listCount = source.listCount;
+		freeLists = source.freeLists.clone();
+		freeCount = source.freeCount;
+		generation = generations.incrementAndGet();
+		source.generation = generations.incrementAndGet();
+	}
+
+	private static int hash(Object key) {
+		int h = key.hashCode() * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private int slot(Object key) {
+		int mask = keys.length - 1;
+		int idx = hash(key) & mask;
+		for (String k; (k = keys[idx]) != null; idx = (idx + 1) & mask)
+			if (k.equals(key))
+				return idx;
+		return -idx - 1;
+	}
+
+	/**
+	 * Adds an id to the ids of the given key. Ids must be added in ascending
+	 * order, adding the last id of a key again has no effect.
+	 */
+	void add(String key, int id) {
+		int idx = slot(key);
+		if (idx < 0) {
+			idx = -idx - 1;
+			keys[idx] = key;
+			values[idx] = id;
+			if (++size * 4 > keys.length * 3)
+				rehash(keys.length << 1);
+			return;
+		}
+		int value = values[idx];
+		if (value >= 0) {
+			if (value != id)
+				values[idx] = -newList(value, id) - 1;
+			return;
+		}
+		int list = -value - 1;
+		int[] ids = lists[list];
+		int count = ids[0];
+		if (ids[count] == id)
+			return;
+		if (count + 1 == ids.length) {
+			ids = Arrays.copyOf(ids, ids.length + (ids.length >> 1));
+			lists[list] = ids;
+			listGenerations[list] = generation;
+		} else
+			ids = writable(list);
+		ids[count + 1] = id;
+		ids[0] = count + 1;
+	}
+
+	/**
+	 * Removes an id from the ids of the given key.
+	 */
+	void remove(String key, int id) {
+		int idx = slot(key);
+		if (idx < 0)
+			return;
+		int value = values[idx];
+		if (value >= 0) {
+			if (value == id)
+				removeSlot(idx);
+			return;
+		}
+		int list = -value - 1;
+		int[] ids = lists[list];
+		int count = ids[0];
+		int pos = Arrays.binarySearch(ids, 1, count + 1, id);
+		if (pos < 0)
+			return;
+		if (count == 2) {
+			// Back to a single id
+			values[idx] = ids[pos == 1 ? 2 : 1];
+			releaseList(list);
+			return;
+		}
+		ids = writable(list);
+		System.arraycopy(ids, pos + 1, ids, pos, count - pos);
+		ids[0] = count - 1;
+	}
+
+	/**
+	 * Appends the ids of the given key to the buffer.
+	 */
+	void collect(Object key, IdBuffer buffer) {
+		if (key == null)
+			return;
+		int idx = slot(key);
+		if (idx < 0)
+			return;
+		int value = values[idx];
+		if (value >= 0)
+			buffer.add(value);
+		else {
+			int[] ids = lists[-value - 1];
+			buffer.add(ids, 1, ids[0]);
+		}
+	}
+
+	private int[] writable(int list) {
+		int[] ids = lists[list];
+		if (listGenerations[list] != generation) {
+			ids = ids.clone();
+			lists[list] = ids;
+			listGenerations[list] = generation;
+		}
+		return ids;
+	}
+
+	private int newList(int first, int second) {
+		int list;
+		if (freeCount > 0)
+			list = freeLists[--freeCount];
+		else {
+			if (listCount == lists.length) {
+				lists = Arrays.copyOf(lists, listCount << 1);
+				listGenerations = Arrays.copyOf(listGenerations, listCount << 1);
+			}
+			list = listCount++;
+		}
+		lists[list] = new int[] {2, first, second, 0};
+		listGenerations[list] = generation;
+		return list;
+	}
+
+	private void releaseList(int list) {
+		lists[list] = null;
+		if (freeCount == freeLists.length)
+			freeLists = Arrays.copyOf(freeLists, freeCount << 1);
+		freeLists[freeCount++] = list;
+	}
+
+	private void removeSlot(int idx) {
+		// Shift back the entries that follow in the same cluster
+		int mask = keys.length - 1;
+		int hole = idx;
+		for (int next = (idx + 1) & mask; keys[next] != null; next = (next + 1) & mask) {
+			int home = hash(keys[next]) & mask;
+			if (((next - home) & mask) >= ((next - hole) & mask)) {
+				keys[hole] = keys[next];
+				values[hole] = values[next];
+				hole = next;
+			}
+		}
+		keys[hole] = null;
+		size--;
+	}
+
+	private void rehash(int capacity) {
+		String[] oldKeys = keys;
+		int[] oldValues = values;
+		keys = new String[capacity];
+		values = new int[capacity];
+		int mask = capacity - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			String key = oldKeys[i];
+			if (key == null)
+				continue;
+			int idx = hash(key) & mask;
+			while (keys[idx] != null)
+				idx = (idx + 1) & mask;
+			keys[idx] = key;
+			values[idx] = oldValues[i];
+		}
+	}
+
+	/**
+	 * A growable array of ids.
+	 */
+	static final class IdBuffer {
+		int[] ids = new int[16];
+		int size;
+
+		void add(int id) {
+			if (size == ids.length)
+				ids = Arrays.copyOf(ids, size << 1);
+			ids[size++] = id;
+		}
+
+		void add(int[] source, int from, int count) {
+			if (size + count > ids.length)
+				ids = Arrays.copyOf(ids, Math.max(ids.length << 1, size + count));
+			System.arraycopy(source, from, ids, size, count);
+			size += count;
+		}
+
+		/**
+		 * Sorts the ids and removes duplicates.
+		 */
+		void sortUnique() {
+			Arrays.sort(ids, 0, size);
+			int unique = 0;
+			for (int i = 0; i < size; i++)
+				if (unique == 0 || ids[unique - 1] != ids[i])
+					ids[unique++] = ids[i];
+			size = unique;
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2017 Cloudsmith and others.
+ * Copyright (c) 2009, 2026 Cloudsmith and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -90,7 +90,11 @@ public abstract class Version implements Comparable<Version>, Serializable {
 	public static Version create(String version) {
 		Version v = null;
 		if (version != null && version.length() > 0) {
-			SoftReference<Version> vRef = POOL.get(version);
+			SoftReference<Version> vRef;
+			// the pool is shared by all threads and even a lookup can modify it
+			synchronized (POOL) {
+				vRef = POOL.get(version);
+			}
 			v = vRef != null ? vRef.get() : null;
 			if (v == null) {
 				v = VersionParser.parse(version, 0, version.length());
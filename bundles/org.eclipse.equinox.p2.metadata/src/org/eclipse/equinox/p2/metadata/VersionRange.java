@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2017 IBM Corporation and others.
+ * Copyright (c) 2003, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -279,7 +279,11 @@ public class VersionRange implements Serializable {
 	public static VersionRange create(String versionRange) {
 		VersionRange v = null;
 		if (versionRange != null && versionRange.length() > 0) {
-			SoftReference<VersionRange> vRef = POOL.get(versionRange);
+			SoftReference<VersionRange> vRef;
+			// the pool is shared by all threads and even a lookup can modify it
+			synchronized (POOL) {
+				vRef = POOL.get(versionRange);
+			}
 			v = vRef != null ? vRef.get() : null;
 			if (v == null) {
 				v = new VersionRange(versionRange);
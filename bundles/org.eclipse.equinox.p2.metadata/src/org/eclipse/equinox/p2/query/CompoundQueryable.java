@@ -1,5 +1,5 @@
 /******************************************************************************* 
-* Copyright (c) 2009, 2023 EclipseSource and others.
+* Copyright (c) 2009, 2026 EclipseSource and others.
 *
 * This
 * program and the accompanying materials are made available under the terms of
@@ -53,7 +53,7 @@ public final class CompoundQueryable<T> extends IndexProvider<T> {
 		}
 	}
 
-	private Collection<? extends IQueryable<T>> queryables;
+	private final List<? extends IQueryable<T>> queryables;
 
 	public CompoundQueryable(IQueryable<T>[] queryables) {
 		this.queryables = Arrays.asList(queryables);
@@ -81,28 +81,28 @@ public final class CompoundQueryable<T> extends IndexProvider<T> {
 
 	@Override
 	public IIndex<T> getIndex(String memberName) {
-		// Check that at least one of the queryable can present an index
-		// for the given member.
-		boolean found = queryables.stream().filter(IIndexProvider.class::isInstance).map(IIndexProvider.class::cast)
-				.anyMatch(ip -> ip.getIndex(memberName) != null);
-		if (!found) {
-			// Nobody had an index for this member
-			return null;
-		}
+		// The indexes of the queryables are used as they are, each queryable
+		// being asked once, so that the indexes they maintain are shared by
+		// every compound they are part of.
 		List<IIndex<T>> indexes = new ArrayList<>(queryables.size());
+		boolean found = false;
 		for (IQueryable<T> queryable : queryables) {
+			IIndex<T> index = null;
 			if (queryable instanceof IIndexProvider<?>) {
 				@SuppressWarnings("unchecked")
 				IIndexProvider<T> ip = (IIndexProvider<T>) queryable;
-				IIndex<T> index = ip.getIndex(memberName);
-				if (index != null) {
-					indexes.add(index);
-				} else {
-					indexes.add(new PassThroughIndex<>(ip.everything()));
-				}
-			} else {
-				indexes.add(new PassThroughIndex<>(getIteratorFromQueryable(queryable)));
+				index = ip.getIndex(memberName);
 			}
+			found |= index != null;
+			indexes.add(index);
+		}
+		if (!found) {
+			// Nobody had an index for this member
+			return null;
+		}
+		for (int i = 0; i < indexes.size(); i++) {
+			if (indexes.get(i) == null)
+				indexes.set(i, new PassThroughIndex<>(getIteratorFromQueryable(queryables.get(i))));
 		}
 		return indexes.size() == 1 ? indexes.get(0) : new CompoundIndex<>(indexes);
 	}
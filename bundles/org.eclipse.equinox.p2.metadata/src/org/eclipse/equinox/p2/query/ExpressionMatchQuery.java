@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2018 Cloudsmith Inc. and others.
+ * Copyright (c) 2009, 2026 Cloudsmith Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -99,8 +99,7 @@ public class ExpressionMatchQuery<T> implements IMatchQuery<T>, IQueryWithIndex<
 	public boolean isMatch(T candidate) {
 		if (!matchingClass.isInstance(candidate))
 			return false;
-		ExpressionFactory.THIS.setValue(context, candidate);
-		return Boolean.TRUE == expression.evaluate(context);
+		return ((MatchExpression<T>) expression).isMatchCompiled(context, candidate);
 	}
 
 	@Override
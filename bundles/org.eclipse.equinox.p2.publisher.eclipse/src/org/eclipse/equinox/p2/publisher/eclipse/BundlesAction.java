@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2021 Code 9 and others.
+ * Copyright (c) 2008, 2026 Code 9 and others.
  *
  * This
  * program and the accompanying materials are made available under the terms of
@@ -32,6 +32,7 @@ import org.eclipse.equinox.frameworkadmin.BundleInfo;
 import org.eclipse.equinox.internal.p2.core.helpers.LogHelper;
 import org.eclipse.equinox.internal.p2.metadata.ArtifactKey;
 import org.eclipse.equinox.internal.p2.publisher.Messages;
+import org.eclipse.equinox.internal.p2.publisher.OrderedParallelExecution;
 import org.eclipse.equinox.internal.p2.publisher.eclipse.GeneratorBundleInfo;
 import org.eclipse.equinox.p2.metadata.*;
 import org.eclipse.equinox.p2.metadata.MetadataFactory.InstallableUnitDescription;
@@ -1031,62 +1032,93 @@ public class BundlesAction extends AbstractPublisherAction {
 		// This assumes that hosts are processed before fragments because for each
 		// fragment the host
 		// is queried for the strings that should be translated.
+		List<BundleDescription> toPublish = new ArrayList<>(bundleDescriptions.length);
+		Set<String> seen = new HashSet<>();
+		Set<BundleDescription> duplicates = new HashSet<>();
 		for (BundleDescription bd : bundleDescriptions) {
-			if (monitor.isCanceled()) {
-				throw new OperationCanceledException();
-			}
-
 			if (bd == null || bd.getSymbolicName() == null || bd.getVersion() == null) {
 				continue;
 			}
+			toPublish.add(bd);
+			if (!seen.add(bd.getSymbolicName() + '_' + bd.getVersion()))
+				duplicates.add(bd);
+		}
 
-			// First check to see if there is already an IU around for this
-			IInstallableUnit bundleIU = queryForIU(result, bd.getSymbolicName(),
-					PublisherHelper.fromOSGiVersion(bd.getVersion()));
-			IArtifactKey bundleArtKey = createBundleArtifactKey(bd.getSymbolicName(), bd.getVersion().toString());
-			if (bundleIU == null) {
-				createAdviceFileAdvice(bd, publisherInfo);
-				// Create the bundle IU according to any shape advice we have
-				bundleIU = doCreateBundleIU(bd, bundleArtKey, publisherInfo);
-			}
+		// The bundle IUs and artifact descriptors are prepared concurrently when
+		// publishing with several threads. A bundle with the same id and version as
+		// an earlier one is prepared only once the earlier one has been added to the
+		// result, as in a sequential run.
+		int threads = publisherInfo != null ? publisherInfo.getThreads() : 1;
+		OrderedParallelExecution.forEach(toPublish, threads,
+				bd -> duplicates.contains(bd) ? null : prepareBundle(bd, publisherInfo, result),
+				(bd, prepared) -> publishBundle(bd,
+						prepared != null ? prepared : prepareBundle(bd, publisherInfo, result), publisherInfo,
+						result),
+				monitor);
+	}
 
-			File bundleLocation = new File(bd.getLocation());
-			IArtifactDescriptor ad = PublisherHelper.createArtifactDescriptor(publisherInfo, bundleArtKey, bundleLocation);
-			processArtifactPropertiesAdvice(bundleIU, ad, publisherInfo);
+	/**
+	 * The parts of a bundle's publication which do not depend on the other
+	 * bundles being published.
+	 */
+	private record PreparedBundle(IInstallableUnit bundleIU, IArtifactDescriptor descriptor) {
+	}
 
-			// Publish according to the shape on disk
-			if (bundleLocation.isDirectory()) {
-				publishArtifact(ad, bundleLocation, bundleLocation.listFiles(), publisherInfo);
-			} else {
-				publishArtifact(ad, bundleLocation, publisherInfo);
-			}
+	private PreparedBundle prepareBundle(BundleDescription bd, IPublisherInfo publisherInfo, IPublisherResult result) {
+		// First check to see if there is already an IU around for this
+		IInstallableUnit bundleIU = queryForIU(result, bd.getSymbolicName(),
+				PublisherHelper.fromOSGiVersion(bd.getVersion()));
+		IArtifactKey bundleArtKey = createBundleArtifactKey(bd.getSymbolicName(), bd.getVersion().toString());
+		if (bundleIU == null) {
+			createAdviceFileAdvice(bd, publisherInfo);
+			// Create the bundle IU according to any shape advice we have
+			bundleIU = doCreateBundleIU(bd, bundleArtKey, publisherInfo);
+		}
 
-			IInstallableUnit fragment = null;
-			if (isFragment(bd)) {
-				String hostId = bd.getHost().getName();
-				VersionRange hostVersionRange = PublisherHelper.fromOSGiVersionRange(bd.getHost().getVersionRange());
+		File bundleLocation = new File(bd.getLocation());
+		IArtifactDescriptor ad = PublisherHelper.createArtifactDescriptor(publisherInfo, bundleArtKey, bundleLocation);
+		processArtifactPropertiesAdvice(bundleIU, ad, publisherInfo);
+		return new PreparedBundle(bundleIU, ad);
+	}
 
-				IQueryResult<IInstallableUnit> hosts = queryForIUs(result, hostId, hostVersionRange);
+	private void publishBundle(BundleDescription bd, PreparedBundle prepared, IPublisherInfo publisherInfo,
+			IPublisherResult result) {
+		IInstallableUnit bundleIU = prepared.bundleIU();
+		IArtifactDescriptor ad = prepared.descriptor();
 
-				for (IInstallableUnit host : hosts) {
-					String fragmentId = makeHostLocalizationFragmentId(bd.getSymbolicName());
-					fragment = queryForIU(result, fragmentId, PublisherHelper.fromOSGiVersion(bd.getVersion()));
-					if (fragment == null) {
-						String[] externalizedStrings = getExternalizedStrings(host);
-						fragment = createHostLocalizationFragment(bundleIU, bd, hostId, externalizedStrings);
-					}
+		// Publish according to the shape on disk
+		File bundleLocation = new File(bd.getLocation());
+		if (bundleLocation.isDirectory()) {
+			publishArtifact(ad, bundleLocation, bundleLocation.listFiles(), publisherInfo);
+		} else {
+			publishArtifact(ad, bundleLocation, publisherInfo);
+		}
+
+		IInstallableUnit fragment = null;
+		if (isFragment(bd)) {
+			String hostId = bd.getHost().getName();
+			VersionRange hostVersionRange = PublisherHelper.fromOSGiVersionRange(bd.getHost().getVersionRange());
+
+			IQueryResult<IInstallableUnit> hosts = queryForIUs(result, hostId, hostVersionRange);
+
+			for (IInstallableUnit host : hosts) {
+				String fragmentId = makeHostLocalizationFragmentId(bd.getSymbolicName());
+				fragment = queryForIU(result, fragmentId, PublisherHelper.fromOSGiVersion(bd.getVersion()));
+				if (fragment == null) {
+					String[] externalizedStrings = getExternalizedStrings(host);
+					fragment = createHostLocalizationFragment(bundleIU, bd, hostId, externalizedStrings);
 				}
 			}
+		}
 
-			result.addIU(bundleIU, IPublisherResult.ROOT);
-			if (fragment != null) {
-				result.addIU(fragment, IPublisherResult.NON_ROOT);
-			}
+		result.addIU(bundleIU, IPublisherResult.ROOT);
+		if (fragment != null) {
+			result.addIU(fragment, IPublisherResult.NON_ROOT);
+		}
 
-			InstallableUnitDescription[] others = processAdditionalInstallableUnitsAdvice(bundleIU, publisherInfo);
-			for (int iuIndex = 0; others != null && iuIndex < others.length; iuIndex++) {
-				result.addIU(MetadataFactory.createInstallableUnit(others[iuIndex]), IPublisherResult.ROOT);
-			}
+		InstallableUnitDescription[] others = processAdditionalInstallableUnitsAdvice(bundleIU, publisherInfo);
+		for (int iuIndex = 0; others != null && iuIndex < others.length; iuIndex++) {
+			result.addIU(MetadataFactory.createInstallableUnit(others[iuIndex]), IPublisherResult.ROOT);
 		}
 	}
 
@@ -1132,21 +1164,19 @@ public class BundlesAction extends AbstractPublisherAction {
 		if (bundleLocations == null)
 			return new BundleDescription[0];
 		List<BundleDescription> result = new ArrayList<>(bundleLocations.length);
-		for (File bundleLocation : bundleLocations) {
-			if (monitor.isCanceled())
-				throw new OperationCanceledException();
-			BundleDescription description = null;
+		int threads = info != null ? info.getThreads() : 1;
+		OrderedParallelExecution.forEach(Arrays.asList(bundleLocations), threads, bundleLocation -> {
 			try {
-				description = createBundleDescription(bundleLocation);
-			} catch (IOException e) {
-				addPublishingErrorToFinalStatus(e, bundleLocation);
-			} catch (BundleException e) {
-				addPublishingErrorToFinalStatus(e, bundleLocation);
+				return createBundleDescription(bundleLocation);
+			} catch (IOException | BundleException e) {
+				return e;
 			}
-			if (description != null) {
-				result.add(description);
-			}
-		}
+		}, (bundleLocation, description) -> {
+			if (description instanceof BundleDescription bundleDescription)
+				result.add(bundleDescription);
+			else if (description instanceof Exception e)
+				addPublishingErrorToFinalStatus(e, bundleLocation);
+		}, monitor);
 		return result.toArray(new BundleDescription[0]);
 	}
 
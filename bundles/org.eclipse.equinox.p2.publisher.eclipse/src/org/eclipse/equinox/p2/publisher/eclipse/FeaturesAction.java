@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2017 Code 9 and others.
+ * Copyright (c) 2008, 2026 Code 9 and others.
  *
  * This
  * program and the accompanying materials are made available under the terms of
@@ -28,6 +28,7 @@ import org.eclipse.equinox.internal.p2.metadata.ArtifactKey;
 import org.eclipse.equinox.internal.p2.metadata.InstallableUnit;
 import org.eclipse.equinox.internal.p2.publisher.FileSetDescriptor;
 import org.eclipse.equinox.internal.p2.publisher.Messages;
+import org.eclipse.equinox.internal.p2.publisher.OrderedParallelExecution;
 import org.eclipse.equinox.internal.p2.publisher.eclipse.FeatureParser;
 import org.eclipse.equinox.p2.metadata.*;
 import org.eclipse.equinox.p2.metadata.MetadataFactory.InstallableUnitDescription;
@@ -515,13 +516,14 @@ public class FeaturesAction extends AbstractPublisherAction {
 
 	protected Feature[] getFeatures(File[] featureLocations) {
 		ArrayList<Feature> result = new ArrayList<>(featureLocations.length);
-		for (File featureLocation : featureLocations) {
-			Feature feature = new FeatureParser().parse(featureLocation);
+		// the features are parsed concurrently but kept in the order of their locations
+		int threads = info != null ? info.getThreads() : 1;
+		OrderedParallelExecution.forEach(Arrays.asList(featureLocations), threads, featureLocation -> new FeatureParser().parse(featureLocation), (featureLocation, feature) -> {
 			if (feature != null) {
 				feature.setLocation(featureLocation.getAbsolutePath());
 				result.add(feature);
 			}
-		}
+		}, new NullProgressMonitor());
 		return result.toArray(new Feature[result.size()]);
 	}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2017 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This
  * program and the accompanying materials are made available under the terms of
@@ -33,6 +33,7 @@ public class Messages extends NLS {
 	public static String exception_invalidSiteReferenceInFeature;
 	public static String exception_repoMustBeURL;
 	public static String exception_sourcePath;
+	public static String exception_threads;
 	public static String exception_nonExistingJreLocationFile;
 
 	public static String message_bundlesPublisherMultistatus;
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This
+ * program and the accompanying materials are made available under the terms of
+ * the Eclipse Public License 2.0 which accompanies this distribution, and is
+ * available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Eclipse contributors - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.equinox.internal.p2.publisher;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.equinox.internal.p2.core.helpers.ThreadPoolHelper;
+
+/**
+ * Runs a task for each element of a list on a pool of threads and hands the
+ * results to a consumer on the calling thread, in the order of the list. The
+ * consumer sees the same sequence of calls whatever the number of threads, so
+ * that actions using it publish the same content as when run sequentially.
+ * <p>
+ * Only a bounded number of tasks is run ahead of the consumer, which keeps the
+ * memory held by pending results independent of the size of the list.
+ * </p>
+ */
+public final class OrderedParallelExecution {
+	private static final int LOOKAHEAD_PER_THREAD = 4;
+
+	private OrderedParallelExecution() {
+		// static helper
+	}
+
+	/**
+	 * Applies the task to each input and passes the input together with the
+	 * task's result to the consumer, in the order of the inputs. With a single
+	 * thread the tasks are run on the calling thread.
+	 *
+	 * @param inputs   the elements to process
+	 * @param threads  the number of threads running the tasks
+	 * @param task     the work done for each input, possibly concurrently
+	 * @param consumer receives each input and its result on the calling thread
+	 * @param monitor  checked for cancellation before each input is consumed
+	 * @throws OperationCanceledException if the monitor is canceled
+	 */
+	public static <T, R> void forEach(List<T> inputs, int threads, Function<? super T, ? extends R> task, BiConsumer<? super T, ? super R> consumer, IProgressMonitor monitor) {
+		if (threads <= 1 || inputs.size() <= 1) {
+			for (T input : inputs) {
+				if (monitor.isCanceled())
+					throw new OperationCanceledException();
+				consumer.accept(input, task.apply(input));
+			}
+			return;
+		}
+
+		ExecutorService executor = ThreadPoolHelper.newFixedDaemonThreadPool("publisher", threads); //$NON-NLS-1$
+		try {
+			int lookahead = threads * LOOKAHEAD_PER_THREAD;
+			ArrayDeque<Future<? extends R>> pending = new ArrayDeque<>(lookahead);
+			int submitted = 0;
+			for (T input : inputs) {
+				while (submitted < inputs.size() && pending.size() < lookahead) {
+					T next = inputs.get(submitted++);
+					pending.add(executor.submit(() -> task.apply(next)));
+				}
+				if (monitor.isCanceled())
+					throw new OperationCanceledException();
+				consumer.accept(input, getResult(pending.poll()));
+			}
+		} finally {
+			executor.shutdownNow();
+			ThreadPoolHelper.awaitTermination(executor);
+		}
+	}
+
+	private static <R> R getResult(Future<R> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException runtimeException)
+				throw runtimeException;
+			if (cause instanceof Error error)
+				throw error;
+			throw new IllegalStateException(cause);
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2017 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -213,6 +213,18 @@ public abstract class AbstractPublisherApplication implements IApplication {
 
 		if (arg.equalsIgnoreCase("-contextArtifacts")) //$NON-NLS-1$
 			setContextRepositories(contextMetadataRepositories, processRepositoryList(parameter));
+
+		if (arg.equalsIgnoreCase("-threads")) { //$NON-NLS-1$
+			int threads;
+			try {
+				threads = Integer.parseInt(parameter.trim());
+			} catch (NumberFormatException e) {
+				threads = 0;
+			}
+			if (threads < 1)
+				throw new IllegalArgumentException(NLS.bind(Messages.exception_threads, parameter));
+			publisherInfo.setThreads(threads);
+		}
 	}
 
 	private URI[] processRepositoryList(String parameter) {
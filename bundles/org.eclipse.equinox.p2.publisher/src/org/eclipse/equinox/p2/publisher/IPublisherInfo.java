@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2010 Code 9 and others.
+ * Copyright (c) 2008, 2026 Code 9 and others.
  *
  * This
  * program and the accompanying materials are made available under the terms of
@@ -111,4 +111,17 @@ public interface IPublisherInfo {
 	 * @return the context metadata repository or <code>null</code> if none.
 	 */
 	public IMetadataRepository getContextMetadataRepository();
+
+	/**
+	 * Returns the number of threads the publisher actions may use to publish
+	 * their content concurrently. Actions supporting it still add their
+	 * results in the order of their input so that the published repositories
+	 * do not depend on the number of threads.
+	 *
+	 * @return the number of publishing threads, <code>1</code> to publish
+	 * sequentially
+	 */
+	public default int getThreads() {
+		return 1;
+	}
 }
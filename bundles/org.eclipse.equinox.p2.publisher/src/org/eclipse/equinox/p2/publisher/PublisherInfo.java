@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2017 Code 9 and others.
+ * Copyright (c) 2008, 2026 Code 9 and others.
  *
  * This
  * program and the accompanying materials are made available under the terms of
@@ -16,19 +16,28 @@
 package org.eclipse.equinox.p2.publisher;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 import org.eclipse.equinox.p2.metadata.Version;
 import org.eclipse.equinox.p2.repository.artifact.IArtifactRepository;
 import org.eclipse.equinox.p2.repository.metadata.IMetadataRepository;
 
 public class PublisherInfo implements IPublisherInfo {
 
+	/**
+	 * System property giving the default number of publishing threads.
+	 * @see #getThreads()
+	 */
+	public static final String PROP_THREADS = "eclipse.p2.publisher.threads"; //$NON-NLS-1$
+
 	private int artifactOptions = 0;
+	private int threads = Math.max(1, Integer.getInteger(PROP_THREADS, 1));
 	private IMetadataRepository metadataRepository;
 	private IArtifactRepository artifactRepository;
 	private IMetadataRepository contextMetadataRepository;
 	private IArtifactRepository contextArtifactRepository;
 	private String[] configurations = new String[0];
-	private List<IPublisherAdvice> adviceList = new ArrayList<>(11);
+	// advice is added by actions publishing concurrently
+	private List<IPublisherAdvice> adviceList = new CopyOnWriteArrayList<>();
 
 	@Override
 	public void addAdvice(IPublisherAdvice advice) {
@@ -105,6 +114,15 @@ public class PublisherInfo implements IPublisherInfo {
 		configurations = value;
 	}
 
+	@Override
+	public int getThreads() {
+		return threads;
+	}
+
+	public void setThreads(int value) {
+		threads = Math.max(1, value);
+	}
+
 	public String getSummary() {
 		return "."; //$NON-NLS-1$
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2023 Code 9 and others.
+ * Copyright (c) 2008, 2026 Code 9 and others.
  *
  * This
  * program and the accompanying materials are made available under the terms of
@@ -17,6 +17,7 @@
 package org.eclipse.equinox.p2.publisher;
 
 import java.util.*;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.equinox.internal.p2.metadata.IUMap;
 import org.eclipse.equinox.internal.p2.metadata.InstallableUnit;
 import org.eclipse.equinox.internal.p2.metadata.expression.CompoundIterator;
@@ -24,8 +25,13 @@ import org.eclipse.equinox.internal.p2.metadata.index.*;
 import org.eclipse.equinox.p2.metadata.IInstallableUnit;
 import org.eclipse.equinox.p2.metadata.Version;
 import org.eclipse.equinox.p2.metadata.index.IIndex;
+import org.eclipse.equinox.p2.query.IQuery;
 import org.eclipse.equinox.p2.query.IQueryResult;
 
+/**
+ * A publisher result that can be queried and added to by several threads at
+ * once, as done by the actions publishing concurrently.
+ */
 public class PublisherResult extends IndexProvider<IInstallableUnit> implements IPublisherResult {
 
 	final IUMap rootIUs = new IUMap();
@@ -34,7 +40,7 @@ public class PublisherResult extends IndexProvider<IInstallableUnit> implements
 	private IIndex<IInstallableUnit> idIndex;
 
 	@Override
-	public void addIU(IInstallableUnit iu, String type) {
+	public synchronized void addIU(IInstallableUnit iu, String type) {
 		if (type == ROOT)
 			rootIUs.add(iu);
 		if (type == NON_ROOT)
@@ -42,13 +48,13 @@ public class PublisherResult extends IndexProvider<IInstallableUnit> implements
 	}
 
 	@Override
-	public void addIUs(Collection<IInstallableUnit> ius, String type) {
+	public synchronized void addIUs(Collection<IInstallableUnit> ius, String type) {
 		for (IInstallableUnit iu : ius)
 			addIU(iu, type);
 	}
 
 	@Override
-	public IInstallableUnit getIU(String id, Version version, String type) {
+	public synchronized IInstallableUnit getIU(String id, Version version, String type) {
 		if (type == null || type == ROOT) {
 			IInstallableUnit result = rootIUs.get(id, version);
 			if (result != null)
@@ -66,7 +72,7 @@ public class PublisherResult extends IndexProvider<IInstallableUnit> implements
 	// matching IU non-deterministically.
 	@Deprecated
 	@Override
-	public IInstallableUnit getIU(String id, String type) {
+	public synchronized IInstallableUnit getIU(String id, String type) {
 		if (type == null || type == ROOT) {
 			IQueryResult<IInstallableUnit> ius = rootIUs.get(id);
 			if (!ius.isEmpty())
@@ -84,7 +90,7 @@ public class PublisherResult extends IndexProvider<IInstallableUnit> implements
 	 * Returns the IUs in this result with the given id.
 	 */
 	@Override
-	public Collection<IInstallableUnit> getIUs(String id, String type) {
+	public synchronized Collection<IInstallableUnit> getIUs(String id, String type) {
 		if (type == null) {
 			// TODO can this be optimized?
 			ArrayList<IInstallableUnit> result = new ArrayList<>();
@@ -100,7 +106,7 @@ public class PublisherResult extends IndexProvider<IInstallableUnit> implements
 	}
 
 	@Override
-	public void merge(IPublisherResult result, int mode) {
+	public synchronized void merge(IPublisherResult result, int mode) {
 		switch (mode) {
 			case MERGE_MATCHING:
 				addIUs(result.getIUs(null, ROOT), ROOT);
@@ -134,7 +140,12 @@ public class PublisherResult extends IndexProvider<IInstallableUnit> implements
 	}
 
 	@Override
-	public Iterator<IInstallableUnit> everything() {
+	public synchronized IQueryResult<IInstallableUnit> query(IQuery<IInstallableUnit> query, IProgressMonitor monitor) {
+		return super.query(query, monitor);
+	}
+
+	@Override
+	public synchronized Iterator<IInstallableUnit> everything() {
 		ArrayList<Iterator<IInstallableUnit>> iterators = new ArrayList<>();
 		iterators.add(nonRootIUs.iterator());
 		iterators.add(rootIUs.iterator());
@@ -142,7 +153,7 @@ public class PublisherResult extends IndexProvider<IInstallableUnit> implements
 	}
 
 	@Override
-	public boolean contains(IInstallableUnit element) {
+	public synchronized boolean contains(IInstallableUnit element) {
 		return rootIUs.contains(element) || nonRootIUs.contains(element);
 	}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2007, 2018 IBM Corporation and others.
+ *  Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -15,11 +15,17 @@
  *******************************************************************************/
 package org.eclipse.equinox.p2.internal.repository.mirroring;
 
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.*;
 import org.eclipse.core.runtime.*;
 import org.eclipse.equinox.internal.p2.artifact.repository.CompositeArtifactRepository;
 import org.eclipse.equinox.internal.p2.artifact.repository.RawMirrorRequest;
+import org.eclipse.equinox.internal.p2.core.helpers.ThreadPoolHelper;
 import org.eclipse.equinox.internal.p2.repository.Transport;
+import org.eclipse.equinox.internal.provisional.p2.repository.IStateful;
 import org.eclipse.equinox.p2.core.ProvisionException;
 import org.eclipse.equinox.p2.internal.repository.tools.Activator;
 import org.eclipse.equinox.p2.internal.repository.tools.Messages;
@@ -50,6 +56,38 @@ public class Mirroring {
 	private IArtifactMirrorLog comparatorLog;
 	private Transport transport;
 	private boolean mirrorProperties = false;
+	private int threads = 1;
+	private int artifactCount;
+	private long byteCount;
+	private long duration;
+
+	/**
+	 * A descriptor to mirror, with the repository and descriptor to take the
+	 * artifact from and the descriptor to give it in the destination.
+	 */
+	private static class Transfer {
+		final IArtifactRepository sourceRepository;
+		final IArtifactDescriptor sourceDescriptor;
+		final IArtifactDescriptor targetDescriptor;
+		// collects the comparisons, null when not comparing
+		final MultiStatus compareStatus;
+		// the outcome, once known
+		IStatus result;
+
+		Transfer(IArtifactRepository sourceRepository, IArtifactDescriptor sourceDescriptor, IArtifactDescriptor targetDescriptor, MultiStatus compareStatus) {
+			this.sourceRepository = sourceRepository;
+			this.sourceDescriptor = sourceDescriptor;
+			this.targetDescriptor = targetDescriptor;
+			this.compareStatus = compareStatus;
+		}
+
+		IStatus complete(IStatus status) {
+			if (compareStatus == null)
+				return status;
+			compareStatus.add(status);
+			return compareStatus;
+		}
+	}
 
 	private IArtifactComparator getComparator() {
 		if (comparator == null)
@@ -108,20 +146,29 @@ public class Mirroring {
 			compareExclusions = exclusions.toUnmodifiableSet();
 		}
 		MultiStatus multiStatus = new MultiStatus(Activator.ID, IStatus.OK, Messages.message_mirroringStatus, null);
+		artifactCount = 0;
+		byteCount = 0;
+		long start = System.nanoTime();
 		IStatus batchStatus = destination.executeBatch(monitor -> {
-			while (keys.hasNext()) {
-				IArtifactKey key = keys.next();
-				IArtifactDescriptor[] descriptors = source.getArtifactDescriptors(key);
-				for (IArtifactDescriptor descriptor : descriptors) {
-					IStatus result = mirror(descriptor, verbose);
-					// Only log INFO and WARNING if we want verbose logging. Always log ERRORs
-					if (!result.isOK() && (verbose || result.getSeverity() == IStatus.ERROR))
-						multiStatus.add(result);
-					// stop mirroring as soon as we have an error
-					if (failOnError && multiStatus.getSeverity() == IStatus.ERROR)
-						return;
+			if (threads > 1) {
+				mirrorConcurrently(keys, multiStatus, failOnError, verbose);
+			} else {
+				while (keys.hasNext()) {
+					IArtifactKey key = keys.next();
+					IArtifactDescriptor[] descriptors = source.getArtifactDescriptors(key);
+					for (IArtifactDescriptor descriptor : descriptors) {
+						IStatus result = mirror(descriptor, verbose);
+						// Only log INFO and WARNING if we want verbose logging. Always log ERRORs
+						if (!result.isOK() && (verbose || result.getSeverity() == IStatus.ERROR))
+							multiStatus.add(result);
+						// stop mirroring as soon as we have an error
+						if (failOnError && multiStatus.getSeverity() == IStatus.ERROR)
+							return;
+					}
 				}
 			}
+			if (failOnError && multiStatus.getSeverity() == IStatus.ERROR)
+				return;
 			// mirror the source repository's properties unless they are already set up
 			// in the destination repository
 			if (mirrorProperties) {
@@ -139,6 +186,12 @@ public class Mirroring {
 			}
 		}, new NullProgressMonitor());
 		multiStatus.add(batchStatus);
+		duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		if (verbose) {
+			IStatus statistics = getStatistics();
+			System.out.println(statistics.getMessage());
+			multiStatus.add(statistics);
+		}
 
 		if (validate) {
 			// Simple validation of the mirror
@@ -150,6 +203,20 @@ public class Mirroring {
 	}
 
 	private IStatus mirror(IArtifactDescriptor sourceDescriptor, boolean verbose) {
+		Transfer transfer = prepare(sourceDescriptor, verbose);
+		if (transfer.result != null)
+			return transfer.result;
+		IStatus status = downloadArtifact(transfer.sourceRepository, transfer.targetDescriptor, transfer.sourceDescriptor);
+		count(transfer, status);
+		return transfer.complete(status);
+	}
+
+	/**
+	 * Does the comparisons and checks the destination for the given descriptor.
+	 * The result of the returned transfer is set unless the artifact is still to
+	 * be downloaded.
+	 */
+	private Transfer prepare(IArtifactDescriptor sourceDescriptor, boolean verbose) {
 		IArtifactDescriptor targetDescriptor = raw ? sourceDescriptor : new ArtifactDescriptor(sourceDescriptor);
 		IArtifactDescriptor baselineDescriptor = getBaselineDescriptor(sourceDescriptor);
 
@@ -166,11 +233,11 @@ public class Mirroring {
 				// compare baseline & destination
 				if (destination.contains(baselineDescriptor)) {
 					compareStatus.add(compareToDestination(baselineDescriptor));
-					return compareStatus;
+					return done(compareStatus);
 				}
 			} else if (destination.contains(targetDescriptor)) {
 				compareStatus.add(compareToDestination(sourceDescriptor));
-				return compareStatus;
+				return done(compareStatus);
 			}
 		}
 
@@ -178,20 +245,194 @@ public class Mirroring {
 		IArtifactRepository sourceRepository = baselineDescriptor != null ? baseline : source;
 		sourceDescriptor = baselineDescriptor != null ? baselineDescriptor : sourceDescriptor;
 		targetDescriptor = baselineDescriptor != null ? baselineDescriptor : targetDescriptor;
-		IStatus status = null;
-		if (!destination.contains(targetDescriptor))
-			// actual download
-			status = downloadArtifact(sourceRepository, targetDescriptor, sourceDescriptor);
-		else {
+		Transfer transfer = new Transfer(sourceRepository, sourceDescriptor, targetDescriptor, comparing ? compareStatus : null);
+		if (destination.contains(targetDescriptor)) {
 			String message = NLS.bind(Messages.mirror_alreadyExists, sourceDescriptor, destination);
-			status = new Status(IStatus.INFO, Activator.ID, ProvisionException.ARTIFACT_EXISTS, message, null);
+			transfer.result = transfer.complete(new Status(IStatus.INFO, Activator.ID, ProvisionException.ARTIFACT_EXISTS, message, null));
 		}
+		return transfer;
+	}
 
-		if (comparing) {
-			compareStatus.add(status);
-			return compareStatus;
+	private static Transfer done(IStatus status) {
+		Transfer transfer = new Transfer(null, null, null, null);
+		transfer.result = status;
+		return transfer;
+	}
+
+	/**
+	 * Mirrors the descriptors of the given keys with a pool of threads. The
+	 * artifacts are downloaded and verified by the pool into a staging area,
+	 * while the calling thread, which holds the destination for the batch,
+	 * moves the staged artifacts into the destination as they complete.
+	 */
+	private void mirrorConcurrently(Iterator<IArtifactKey> keys, MultiStatus multiStatus, boolean failOnError, boolean verbose) {
+		Path directory;
+		try {
+			directory = Files.createTempDirectory("p2-mirror"); //$NON-NLS-1$
+		} catch (IOException e) {
+			multiStatus.add(new Status(IStatus.ERROR, Activator.ID, e.getMessage(), e));
+			return;
 		}
-		return status;
+		StagingArtifactRepository staging = new StagingArtifactRepository(destination, directory);
+		ExecutorService executor = ThreadPoolHelper.newFixedDaemonThreadPool("mirror", threads); //$NON-NLS-1$
+		CompletionService<Transfer> completion = new ExecutorCompletionService<>(executor);
+		// bound the number of staged artifacts waiting to be written
+		int maxInFlight = threads * 2;
+		int inFlight = 0;
+		boolean stopped = false;
+		try {
+			mirroring: while (keys.hasNext()) {
+				for (IArtifactDescriptor descriptor : source.getArtifactDescriptors(keys.next())) {
+					Transfer transfer = prepare(descriptor, verbose);
+					if (transfer.result == null) {
+						while (inFlight >= maxInFlight) {
+							inFlight--;
+							if (collect(commit(completion, staging), multiStatus, failOnError, verbose)) {
+								stopped = true;
+								break mirroring;
+							}
+						}
+						completion.submit(() -> stage(transfer, staging));
+						inFlight++;
+						continue;
+					}
+					if (collect(transfer.result, multiStatus, failOnError, verbose)) {
+						stopped = true;
+						break mirroring;
+					}
+				}
+				// collect what has completed in the meantime
+				Future<Transfer> completed;
+				while ((completed = completion.poll()) != null) {
+					inFlight--;
+					if (collect(commit(completed, staging), multiStatus, failOnError, verbose)) {
+						stopped = true;
+						break mirroring;
+					}
+				}
+			}
+			// once stopped, the transfers still in flight are dropped rather than written
+			for (; inFlight > 0 && !stopped; inFlight--)
+				stopped = collect(commit(completion, staging), multiStatus, failOnError, verbose);
+		} finally {
+			executor.shutdownNow();
+			// no staged file may be written once the staging directory is deleted
+			ThreadPoolHelper.awaitTermination(executor);
+			try (var files = Files.list(directory)) {
+				files.forEach(file -> file.toFile().delete());
+			} catch (IOException e) {
+				// leave the files behind
+			}
+			directory.toFile().delete();
+		}
+	}
+
+	/**
+	 * Adds the given result to the overall status.
+	 *
+	 * @return whether mirroring is to stop
+	 */
+	private static boolean collect(IStatus result, MultiStatus multiStatus, boolean failOnError, boolean verbose) {
+		// Only log INFO and WARNING if we want verbose logging. Always log ERRORs
+		if (!result.isOK() && (verbose || result.getSeverity() == IStatus.ERROR))
+			multiStatus.add(result);
+		// stop mirroring as soon as we have an error
+		return failOnError && multiStatus.getSeverity() == IStatus.ERROR;
+	}
+
+	/*
+	 * Downloads the artifact of a transfer into the staging repository.
+	 */
+	private Transfer stage(Transfer transfer, StagingArtifactRepository staging) {
+		RawMirrorRequest request = new RawMirrorRequest(transfer.sourceDescriptor, transfer.targetDescriptor, staging, transport);
+		request.perform(transfer.sourceRepository, new NullProgressMonitor());
+		transfer.result = request.getResult();
+		return transfer;
+	}
+
+	private IStatus commit(CompletionService<Transfer> completion, StagingArtifactRepository staging) {
+		try {
+			return commit(completion.take(), staging);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		}
+	}
+
+	/*
+	 * Writes a staged artifact to the destination, returns the outcome of the
+	 * transfer.
+	 */
+	private IStatus commit(Future<Transfer> completed, StagingArtifactRepository staging) {
+		Transfer transfer;
+		try {
+			transfer = completed.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} catch (ExecutionException e) {
+			return new Status(IStatus.ERROR, Activator.ID, e.getCause().getMessage(), e.getCause());
+		}
+		IStatus status = transfer.result;
+		Path file = staging.getStagedFile(transfer.targetDescriptor);
+		if (status.isOK() && file != null) {
+			try (InputStream input = Files.newInputStream(file)) {
+				OutputStream output = destination.getOutputStream(transfer.targetDescriptor);
+				try {
+					input.transferTo(output);
+				} finally {
+					output.close();
+				}
+				if (output instanceof IStateful stateful && !stateful.getStatus().isOK())
+					status = stateful.getStatus();
+			} catch (ProvisionException e) {
+				status = e.getStatus();
+			} catch (IOException e) {
+				status = new Status(IStatus.ERROR, Activator.ID, e.getMessage(), e);
+			} finally {
+				staging.release(transfer.targetDescriptor);
+			}
+		}
+		count(transfer, status);
+		return transfer.complete(status);
+	}
+
+	private synchronized void count(Transfer transfer, IStatus status) {
+		if (!status.isOK())
+			return;
+		artifactCount++;
+		String size = transfer.sourceDescriptor.getProperty(IArtifactDescriptor.DOWNLOAD_SIZE);
+		if (size != null) {
+			try {
+				byteCount += Long.parseLong(size);
+			} catch (NumberFormatException e) {
+				// size unknown
+			}
+		}
+	}
+
+	/**
+	 * Returns an INFO status describing the throughput of the last run.
+	 */
+	public IStatus getStatistics() {
+		double seconds = Math.max(duration, 1) / 1000.0;
+		String message = NLS.bind(Messages.Mirroring_statistics, new Object[] {artifactCount, byteCount, duration, String.format("%.1f", artifactCount / seconds), String.format("%.0f", byteCount / seconds)}); //$NON-NLS-1$ //$NON-NLS-2$
+		return new Status(IStatus.INFO, Activator.ID, message);
+	}
+
+	public int getArtifactCount() {
+		return artifactCount;
+	}
+
+	public long getByteCount() {
+		return byteCount;
+	}
+
+	/**
+	 * Returns the time the last run took to mirror the artifacts, in milliseconds.
+	 */
+	public long getDuration() {
+		return duration;
 	}
 
 	/**
@@ -237,6 +478,15 @@ public class Mirroring {
 		return request.getResult();
 	}
 
+	/**
+	 * Sets the number of threads downloading artifacts. With more than one
+	 * thread the artifacts are downloaded and verified concurrently, and
+	 * written to the destination as they complete.
+	 */
+	public void setThreads(int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
 	public void setArtifactKeys(IArtifactKey[] keys) {
 		this.keysToMirror = Arrays.asList(keys);
 	}
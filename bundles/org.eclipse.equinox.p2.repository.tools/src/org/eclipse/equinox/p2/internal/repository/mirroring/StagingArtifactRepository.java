@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.internal.repository.mirroring;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.core.runtime.*;
+import org.eclipse.equinox.internal.provisional.p2.repository.IStateful;
+import org.eclipse.equinox.p2.core.ProvisionException;
+import org.eclipse.equinox.p2.internal.repository.tools.Activator;
+import org.eclipse.equinox.p2.metadata.IArtifactKey;
+import org.eclipse.equinox.p2.query.*;
+import org.eclipse.equinox.p2.repository.artifact.*;
+import org.eclipse.equinox.p2.repository.artifact.spi.AbstractArtifactRepository;
+
+/**
+ * A repository that keeps the artifacts written to it in files of a staging
+ * directory. It lets the artifacts be downloaded and verified concurrently
+ * while the destination repository of a mirror is locked by the thread that
+ * moves the staged artifacts into it. The artifacts that are not staged are
+ * read from the destination repository.
+ */
+class StagingArtifactRepository extends AbstractArtifactRepository {
+	private final IArtifactRepository destination;
+	private final Path directory;
+	private final Map<IArtifactDescriptor, Path> staged = new ConcurrentHashMap<>();
+	private final AtomicLong counter = new AtomicLong();
+
+	StagingArtifactRepository(IArtifactRepository destination, Path directory) {
+		super(destination.getProvisioningAgent(), destination.getName(), destination.getType(), destination.getVersion(), destination.getLocation(), null, null, null);
+		this.destination = destination;
+		this.directory = directory;
+	}
+
+	/**
+	 * Returns the file holding the staged artifact of the given descriptor, or
+	 * <code>null</code> if the descriptor has not been staged successfully.
+	 */
+	Path getStagedFile(IArtifactDescriptor descriptor) {
+		return staged.get(descriptor);
+	}
+
+	/**
+	 * Forgets the staged artifact of the given descriptor and deletes its file.
+	 */
+	void release(IArtifactDescriptor descriptor) {
+		Path file = staged.remove(descriptor);
+		if (file != null) {
+			try {
+				Files.deleteIfExists(file);
+			} catch (IOException e) {
+				file.toFile().deleteOnExit();
+			}
+		}
+	}
+
+	@Override
+	public boolean contains(IArtifactDescriptor descriptor) {
+		return staged.containsKey(descriptor);
+	}
+
+	@Override
+	public boolean contains(IArtifactKey key) {
+		return staged.keySet().stream().anyMatch(descriptor -> descriptor.getArtifactKey().equals(key));
+	}
+
+	@Override
+	public void removeDescriptor(IArtifactDescriptor descriptor, IProgressMonitor monitor) {
+		release(descriptor);
+	}
+
+	@Override
+	public IArtifactDescriptor createArtifactDescriptor(IArtifactKey key) {
+		return destination.createArtifactDescriptor(key);
+	}
+
+	@Override
+	public OutputStream getOutputStream(IArtifactDescriptor descriptor) throws ProvisionException {
+		try {
+			Path file = directory.resolve(counter.incrementAndGet() + ".staged"); //$NON-NLS-1$
+			return new StagedOutputStream(descriptor, file);
+		} catch (IOException e) {
+			throw new ProvisionException(new Status(IStatus.ERROR, Activator.ID, e.getMessage(), e));
+		}
+	}
+
+	/**
+	 * Records the artifact as staged when it is closed, unless a failure has
+	 * been reported through its status.
+	 */
+	private class StagedOutputStream extends FilterOutputStream implements IStateful {
+		private final IArtifactDescriptor descriptor;
+		private final Path file;
+		private IStatus status = Status.OK_STATUS;
+		private boolean closed;
+
+		StagedOutputStream(IArtifactDescriptor descriptor, Path file) throws IOException {
+			super(new BufferedOutputStream(Files.newOutputStream(file)));
+			this.descriptor = descriptor;
+			this.file = file;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (closed)
+				return;
+			closed = true;
+			try {
+				super.close();
+			} finally {
+				if (!status.matches(IStatus.ERROR | IStatus.CANCEL))
+					staged.put(descriptor, file);
+				else
+					Files.deleteIfExists(file);
+			}
+		}
+
+		@Override
+		public IStatus getStatus() {
+			return status;
+		}
+
+		@Override
+		public void setStatus(IStatus status) {
+			this.status = status == null ? Status.OK_STATUS : status;
+		}
+	}
+
+	/**
+	 * Reads a staged artifact that needs no processing from its file, and any
+	 * other artifact from the destination repository.
+	 */
+	@Override
+	public IStatus getArtifact(IArtifactDescriptor descriptor, OutputStream destinationStream, IProgressMonitor monitor) {
+		Path file = staged.get(descriptor);
+		if (file == null || descriptor.getProcessingSteps().length > 0)
+			return destination.getArtifact(descriptor, destinationStream, monitor);
+		return copy(file, destinationStream);
+	}
+
+	/**
+	 * Reads a staged artifact from its file, and any other artifact from the
+	 * destination repository.
+	 */
+	@Override
+	public IStatus getRawArtifact(IArtifactDescriptor descriptor, OutputStream destinationStream, IProgressMonitor monitor) {
+		Path file = staged.get(descriptor);
+		if (file == null)
+			return destination.getRawArtifact(descriptor, destinationStream, monitor);
+		return copy(file, destinationStream);
+	}
+
+	private static IStatus copy(Path file, OutputStream destinationStream) {
+		try (InputStream input = Files.newInputStream(file)) {
+			input.transferTo(destinationStream);
+			return Status.OK_STATUS;
+		} catch (IOException e) {
+			return new Status(IStatus.ERROR, Activator.ID, e.getMessage(), e);
+		}
+	}
+
+	@Override
+	public IArtifactDescriptor[] getArtifactDescriptors(IArtifactKey key) {
+		return staged.keySet().stream().filter(descriptor -> descriptor.getArtifactKey().equals(key)).toArray(IArtifactDescriptor[]::new);
+	}
+
+	@Override
+	public IStatus getArtifacts(IArtifactRequest[] requests, IProgressMonitor monitor) {
+		SubMonitor subMonitor = SubMonitor.convert(monitor, requests.length);
+		MultiStatus multiStatus = new MultiStatus(Activator.ID, IStatus.OK, null, null);
+		for (IArtifactRequest request : requests) {
+			if (subMonitor.isCanceled())
+				return Status.CANCEL_STATUS;
+			request.perform(this, subMonitor.newChild(1));
+			multiStatus.add(request.getResult());
+		}
+		return multiStatus;
+	}
+
+	@Override
+	public IQueryable<IArtifactDescriptor> descriptorQueryable() {
+		return (query, monitor) -> query.perform(staged.keySet().iterator());
+	}
+
+	@Override
+	public IQueryResult<IArtifactKey> query(IQuery<IArtifactKey> query, IProgressMonitor monitor) {
+		return query.perform(staged.keySet().stream().map(IArtifactDescriptor::getArtifactKey).distinct().iterator());
+	}
+
+	@Override
+	public boolean isModifiable() {
+		return true;
+	}
+}
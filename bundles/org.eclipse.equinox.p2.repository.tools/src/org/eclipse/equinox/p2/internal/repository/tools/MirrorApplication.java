@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2021 IBM Corporation and others.
+ * Copyright (c) 2009, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -58,6 +58,7 @@ public class MirrorApplication extends AbstractApplication implements IApplicati
 	private String metadataOrArtifacts = null;
 	private String[] rootIUs = null;
 	private boolean mirrorProperties = false;
+	private int threads = 1;
 
 	private File mirrorLogFile; // file to log mirror output to (optional)
 	private File comparatorLogFile; // file to comparator output to (optional)
@@ -172,6 +173,8 @@ public class MirrorApplication extends AbstractApplication implements IApplicati
 				mirrorLogLocation = new File(arg);
 			} else if (args[i - 1].equalsIgnoreCase("-roots")) { //$NON-NLS-1$
 				rootIUs = getArrayArgsFromString(arg, ","); //$NON-NLS-1$
+			} else if (args[i - 1].equalsIgnoreCase("-threads")) { //$NON-NLS-1$
+				threads = parseThreads(arg);
 			} else if (args[i - 1].equalsIgnoreCase("-references")) {//$NON-NLS-1$
 				mirrorReferences = Boolean.parseBoolean(args[i]);
 			} else {
@@ -199,6 +202,17 @@ public class MirrorApplication extends AbstractApplication implements IApplicati
 			comparatorLog = getLog(comparatorLogLocation, comparatorID);
 	}
 
+	private static int parseThreads(String arg) {
+		try {
+			int value = Integer.parseInt(arg.trim());
+			if (value > 0)
+				return value;
+		} catch (NumberFormatException e) {
+			// reported below
+		}
+		throw new IllegalArgumentException(NLS.bind(Messages.MirrorApplication_invalid_threads, arg));
+	}
+
 	@Override
 	public IStatus run(IProgressMonitor monitor) throws ProvisionException {
 		IStatus mirrorStatus = Status.OK_STATUS;
@@ -253,6 +267,7 @@ public class MirrorApplication extends AbstractApplication implements IApplicati
 		mirror.setCompareExclusions(compareExclusions);
 		mirror.setTransport((Transport) agent.getService(Transport.SERVICE_NAME));
 		mirror.setMirrorProperties(mirrorProperties);
+		mirror.setThreads(threads);
 
 		// If IUs have been specified then only they should be mirrored, otherwise
 		// mirror everything.
@@ -496,4 +511,11 @@ public class MirrorApplication extends AbstractApplication implements IApplicati
 	public void setMirrorProperties(boolean mirrorProperties) {
 		this.mirrorProperties = mirrorProperties;
 	}
+
+	/*
+	 * Set the number of threads downloading artifacts concurrently
+	 */
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
 }
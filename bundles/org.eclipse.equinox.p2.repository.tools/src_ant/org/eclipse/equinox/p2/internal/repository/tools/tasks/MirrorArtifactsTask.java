@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2017 IBM Corporation and others.
+ * Copyright (c) 2008, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -39,6 +39,7 @@ public class MirrorArtifactsTask extends Task {
 	boolean raw = false; // use raw artifact descriptors?
 	boolean verbose = false;
 	boolean references = true;
+	int threads = 1;
 
 	@Override
 	public void execute() {
@@ -65,6 +66,7 @@ public class MirrorArtifactsTask extends Task {
 		app.setComparatorID(comparatorID);
 		app.setBaseline(baseline);
 		app.setReferences(references);
+		app.setThreads(threads);
 		if (comparatorLog != null)
 			app.setComparatorLog(comparatorLog);
 		if (mirrorLog != null)
@@ -188,4 +190,11 @@ public class MirrorArtifactsTask extends Task {
 	public void setReferences(boolean value) {
 		references = value;
 	}
+
+	/*
+	 * Set the number of threads downloading artifacts concurrently
+	 */
+	public void setThreads(int value) {
+		threads = value;
+	}
 }
@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.repository.helpers;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.eclipse.core.runtime.*;
+import org.eclipse.equinox.internal.p2.core.helpers.ThreadPoolHelper;
+import org.eclipse.equinox.p2.core.ProvisionException;
+import org.eclipse.osgi.util.NLS;
+
+/**
+ * Loads the children of a composite repository using a bounded number of
+ * threads. The results are always returned in the order of the given children,
+ * independent of the order in which the loads complete, so that the content of
+ * the composite does not depend on the timing of the individual loads.
+ * <p>
+ * Progress is reported on the calling thread as each child completes. The
+ * monitor handed to the individual child loads only propagates cancellation.
+ * </p>
+ */
+public class CompositeChildLoader {
+
+	/**
+	 * The framework property used to configure the default number of threads
+	 * used to load the children of a composite repository. A value of 1 (the
+	 * default) loads the children sequentially.
+	 */
+	public static final String PROP_LOADING_THREADS_DEFAULT = "eclipse.p2.composite.loading.threads"; //$NON-NLS-1$
+
+	/**
+	 * The repository property used to configure the number of threads used to
+	 * load the children of a particular composite repository. Overrides
+	 * {@link #PROP_LOADING_THREADS_DEFAULT}.
+	 */
+	public static final String PROP_LOADING_THREADS = "p2.composite.loading.threads"; //$NON-NLS-1$
+
+	/**
+	 * Loads a single child of a composite repository.
+	 */
+	@FunctionalInterface
+	public interface ChildLoader<T> {
+		T load(URI child, IProgressMonitor monitor) throws ProvisionException;
+	}
+
+	/**
+	 * The outcome of loading a single child. Exactly one of
+	 * {@link #repository()} and {@link #failure()} is non-<code>null</code>,
+	 * unless the load was skipped because a previous child failed.
+	 */
+	public record ChildResult<T>(URI child, T repository, ProvisionException failure) {
+		public boolean isSkipped() {
+			return repository == null && failure == null;
+		}
+	}
+
+	/**
+	 * Returns the number of threads to use for loading the children of a
+	 * composite with the given properties.
+	 *
+	 * @param properties   the properties of the composite repository, may be
+	 *                     <code>null</code>
+	 * @param defaultValue the value of {@link #PROP_LOADING_THREADS_DEFAULT},
+	 *                     may be <code>null</code>
+	 * @return the number of threads, at least 1
+	 */
+	public static int getLoadingThreads(Map<String, String> properties, String defaultValue) {
+		int threads = parseThreads(defaultValue, 1);
+		if (properties != null)
+			threads = parseThreads(properties.get(PROP_LOADING_THREADS), threads);
+		return threads;
+	}
+
+	private static int parseThreads(String value, int defaultValue) {
+		if (value == null)
+			return defaultValue;
+		try {
+			return Math.max(1, Integer.parseInt(value.trim()));
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
+	/**
+	 * Loads the given children with at most <code>threads</code> concurrent
+	 * loads.
+	 *
+	 * @param children      the children to load
+	 * @param threads       the maximum number of concurrent loads
+	 * @param stopOnFailure whether pending loads should be skipped as soon as one
+	 *                      child fails to load
+	 * @param loader        the loader invoked for each child
+	 * @param monitor       the progress monitor, may be <code>null</code>
+	 * @return the results in the order of <code>children</code>
+	 * @throws OperationCanceledException if the monitor was canceled
+	 */
+	public static <T> List<ChildResult<T>> loadChildren(List<URI> children, int threads, boolean stopOnFailure, ChildLoader<T> loader, IProgressMonitor monitor) {
+		SubMonitor sub = SubMonitor.convert(monitor, 100 * children.size());
+		AtomicBoolean stopped = new AtomicBoolean();
+		IProgressMonitor childMonitor = new NullProgressMonitor() {
+			@Override
+			public boolean isCanceled() {
+				return stopped.get() || (monitor != null && monitor.isCanceled());
+			}
+		};
+		ExecutorService executor = ThreadPoolHelper.newFixedDaemonThreadPool("composite-child-loader", Math.min(threads, Math.max(1, children.size()))); //$NON-NLS-1$
+		try {
+			CompletionService<ChildResult<T>> completion = new ExecutorCompletionService<>(executor);
+			Map<Future<ChildResult<T>>, Integer> pending = new HashMap<>();
+			for (int i = 0; i < children.size(); i++) {
+				URI child = children.get(i);
+				pending.put(completion.submit(() -> {
+					if (stopped.get())
+						return new ChildResult<>(child, null, null);
+					try {
+						return new ChildResult<>(child, loader.load(child, childMonitor), null);
+					} catch (ProvisionException e) {
+						return new ChildResult<>(child, null, e);
+					}
+				}), i);
+			}
+			List<ChildResult<T>> results = new ArrayList<>(Collections.nCopies(children.size(), null));
+			RuntimeException unexpected = null;
+			while (!pending.isEmpty()) {
+				Future<ChildResult<T>> done;
+				try {
+					done = completion.poll(100, TimeUnit.MILLISECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					stopped.set(true);
+					throw new OperationCanceledException();
+				}
+				if (done == null) {
+					if (sub.isCanceled())
+						stopped.set(true);
+					continue;
+				}
+				int index = pending.remove(done);
+				URI child = children.get(index);
+				ChildResult<T> result;
+				try {
+					result = done.get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					stopped.set(true);
+					throw new OperationCanceledException();
+				} catch (ExecutionException e) {
+					// a cancellation caused by an earlier failure is expected, everything else is propagated
+					boolean wasStopped = stopped.getAndSet(true);
+					result = new ChildResult<>(child, null, null);
+					Throwable cause = e.getCause();
+					if (cause instanceof Error)
+						throw (Error) cause;
+					if (unexpected == null && !(wasStopped && cause instanceof OperationCanceledException))
+						unexpected = cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+				}
+				if (result.failure() != null && stopOnFailure)
+					stopped.set(true);
+				results.set(index, result);
+				sub.subTask(NLS.bind(Messages.repoMan_adding, child));
+				sub.worked(100);
+			}
+			if (unexpected != null)
+				throw unexpected;
+			if (sub.isCanceled())
+				throw new OperationCanceledException();
+			return results;
+		} finally {
+			executor.shutdownNow();
+			sub.done();
+		}
+	}
+}
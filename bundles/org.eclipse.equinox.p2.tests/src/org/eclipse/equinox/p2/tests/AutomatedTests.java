@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2010 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -42,7 +42,8 @@ import org.junit.runners.Suite;
 		org.eclipse.equinox.p2.tests.metadata.expression.AllTests.class,
 		org.eclipse.equinox.p2.tests.metadata.repository.AllTests.class,
 		org.eclipse.equinox.p2.tests.mirror.AllTests.class, org.eclipse.equinox.p2.tests.omniVersion.AllTests.class,
-		org.eclipse.equinox.p2.tests.planner.AllTests.class, org.eclipse.equinox.p2.tests.ql.AllTests.class,
+		org.eclipse.equinox.p2.tests.planner.AllTests.class,
+		org.eclipse.equinox.p2.tests.planner.PortfolioAllTests.class, org.eclipse.equinox.p2.tests.ql.AllTests.class,
 		org.eclipse.equinox.p2.tests.repository.AllTests.class,
 		org.eclipse.equinox.p2.tests.sat4j.smoke.AllTests.class,
 		org.eclipse.equinox.p2.tests.simpleconfigurator.SimpleConfiguratorTests.class,
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.equinox.internal.p2.repository.DownloadStatus;
+import org.eclipse.equinox.internal.p2.repository.Transport;
+import org.eclipse.equinox.p2.core.ProvisionException;
+
+/**
+ * A transport that serves the files below a local directory as if they were
+ * located at a remote location, adding a fixed latency to every request. Used
+ * to measure the effect of concurrent requests without depending on a real
+ * server.
+ */
+public class SlowTransport extends Transport {
+	private final URI remoteBase;
+	private final File localBase;
+	private final long latency;
+	private final AtomicInteger requests = new AtomicInteger();
+
+	/**
+	 * @param remoteBase the remote location that is mapped to <code>localBase</code>, must end with a slash
+	 * @param localBase the local directory holding the served files
+	 * @param latency the delay in milliseconds added to every request
+	 */
+	public SlowTransport(URI remoteBase, File localBase, long latency) {
+		this.remoteBase = remoteBase;
+		this.localBase = localBase;
+		this.latency = latency;
+	}
+
+	/**
+	 * Returns the number of requests served so far.
+	 */
+	public int getRequestCount() {
+		return requests.get();
+	}
+
+	private File toLocalFile(URI location) throws FileNotFoundException {
+		URI relative = remoteBase.relativize(location);
+		if (relative.isAbsolute())
+			throw new FileNotFoundException(location.toString());
+		File file = new File(localBase, relative.getPath());
+		if (!file.isFile())
+			throw new FileNotFoundException(location.toString());
+		return file;
+	}
+
+	private void delay(IProgressMonitor monitor) {
+		requests.incrementAndGet();
+		try {
+			Thread.sleep(latency);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		}
+		if (monitor != null && monitor.isCanceled())
+			throw new OperationCanceledException();
+	}
+
+	@Override
+	public IStatus download(URI toDownload, OutputStream target, IProgressMonitor monitor) {
+		delay(monitor);
+		try {
+			Files.copy(toLocalFile(toDownload).toPath(), target);
+			return new DownloadStatus(IStatus.OK, TestActivator.PI_PROV_TESTS, "");
+		} catch (FileNotFoundException e) {
+			return new DownloadStatus(IStatus.ERROR, TestActivator.PI_PROV_TESTS, ProvisionException.ARTIFACT_NOT_FOUND, e.getMessage(), e);
+		} catch (IOException e) {
+			return new DownloadStatus(IStatus.ERROR, TestActivator.PI_PROV_TESTS, ProvisionException.REPOSITORY_FAILED_READ, e.getMessage(), e);
+		}
+	}
+
+	@Override
+	public InputStream stream(URI toDownload, IProgressMonitor monitor) throws FileNotFoundException {
+		delay(monitor);
+		return new FileInputStream(toLocalFile(toDownload));
+	}
+
+	@Override
+	public long getLastModified(URI toDownload, IProgressMonitor monitor) throws FileNotFoundException {
+		delay(monitor);
+		return toLocalFile(toDownload).lastModified();
+	}
+}
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.artifact.processors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.equinox.internal.p2.artifact.processors.checksum.ChecksumVerifier;
+import org.eclipse.equinox.internal.p2.artifact.processors.checksum.MultiDigestProcessingStep;
+import org.eclipse.equinox.internal.p2.repository.helpers.ChecksumHelper;
+import org.eclipse.equinox.internal.provisional.p2.artifact.repository.processing.ProcessingStep;
+import org.eclipse.equinox.internal.provisional.p2.artifact.repository.processing.ProcessingStepHandler;
+import org.eclipse.equinox.internal.provisional.p2.artifact.repository.processing.ZipVerifierStep;
+import org.eclipse.equinox.p2.core.ProvisionException;
+import org.eclipse.equinox.p2.repository.artifact.spi.ProcessingStepDescriptor;
+import org.junit.After;
+import org.junit.Test;
+
+public class MultiDigestProcessingStepTest {
+	private final byte[] content = new byte[100_000];
+
+	public MultiDigestProcessingStepTest() {
+		new Random(42).nextBytes(content);
+	}
+
+	@After
+	public void tearDown() {
+		System.clearProperty(MultiDigestProcessingStep.PROP_FUSE);
+	}
+
+	@Test
+	public void testFusesConsecutiveVerifiers() throws Exception {
+		ZipVerifierStep zipVerifier = new ZipVerifierStep();
+		ProcessingStep[] steps = new ProcessingStep[] {zipVerifier, verifier("MD5", "md5", digest("MD5")),
+				verifier("SHA-256", "sha-256", digest("SHA-256"))};
+		ProcessingStep[] fused = MultiDigestProcessingStep.fuse(steps);
+		assertEquals(2, fused.length);
+		assertSame(zipVerifier, fused[0]);
+		assertTrue(fused[1] instanceof MultiDigestProcessingStep);
+		assertEquals(2, ((MultiDigestProcessingStep) fused[1]).getVerifiers().length);
+
+		ProcessingStep[] single = new ProcessingStep[] {zipVerifier, verifier("MD5", "md5", digest("MD5"))};
+		assertSame(single, MultiDigestProcessingStep.fuse(single));
+	}
+
+	@Test
+	public void testFusingDisabled() throws Exception {
+		System.setProperty(MultiDigestProcessingStep.PROP_FUSE, "false");
+		ProcessingStep[] steps = new ProcessingStep[] {verifier("MD5", "md5", digest("MD5")),
+				verifier("SHA-256", "sha-256", digest("SHA-256"))};
+		assertSame(steps, MultiDigestProcessingStep.fuse(steps));
+	}
+
+	@Test
+	public void testVerifiesAllDigests() throws Exception {
+		ProcessingStep[] steps = new ProcessingStep[] {verifier("MD5", "md5", digest("MD5")),
+				verifier("SHA-256", "sha-256", digest("SHA-256")), verifier("SHA-512", "sha-512", digest("SHA-512"))};
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		OutputStream stream = new ProcessingStepHandler().link(steps, result, new NullProgressMonitor());
+		assertTrue(stream instanceof MultiDigestProcessingStep);
+		write(stream);
+
+		assertArrayEquals(content, result.toByteArray());
+		assertTrue(ProcessingStepHandler.checkStatus(stream).isOK());
+		for (ProcessingStep step : steps)
+			assertTrue(step.getStatus().isOK());
+	}
+
+	@Test
+	public void testReportsMismatch() throws Exception {
+		ProcessingStep[] steps = new ProcessingStep[] {verifier("MD5", "md5", digest("MD5")),
+				verifier("SHA-256", "sha-256", digest("SHA-512").substring(0, 64))};
+		OutputStream stream = new ProcessingStepHandler().link(steps, new ByteArrayOutputStream(), new NullProgressMonitor());
+		write(stream);
+
+		IStatus status = ProcessingStepHandler.getStatus(stream);
+		assertEquals(IStatus.ERROR, status.getSeverity());
+		assertEquals(ProvisionException.ARTIFACT_MD5_NOT_MATCH, status.getCode());
+		assertTrue(steps[0].getStatus().isOK());
+	}
+
+	private void write(OutputStream stream) throws IOException {
+		try (stream) {
+			// mix single bytes and blocks of several sizes
+			stream.write(content[0]);
+			int offset = 1;
+			int length = 1;
+			while (offset < content.length) {
+				int count = Math.min(length, content.length - offset);
+				stream.write(content, offset, count);
+				offset += count;
+				length = length * 3 + 1;
+			}
+		}
+	}
+
+	private String digest(String algorithm) throws NoSuchAlgorithmException {
+		return ChecksumHelper.toHexString(MessageDigest.getInstance(algorithm).digest(content));
+	}
+
+	private static ChecksumVerifier verifier(String algorithm, String id, String expected) {
+		ChecksumVerifier verifier = new ChecksumVerifier(algorithm, null, id, false, 0);
+		verifier.initialize(null, new ProcessingStepDescriptor(null, expected, true), null);
+		return verifier;
+	}
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.artifact.repository;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.equinox.internal.p2.artifact.repository.simple.SimpleArtifactDescriptor;
+import org.eclipse.equinox.internal.p2.artifact.repository.simple.SimpleArtifactRepository;
+import org.eclipse.equinox.internal.p2.artifact.repository.simple.SimpleArtifactRepositoryFactory;
+import org.eclipse.equinox.internal.p2.metadata.ArtifactKey;
+import org.eclipse.equinox.p2.core.ProvisionException;
+import org.eclipse.equinox.p2.metadata.Version;
+import org.eclipse.equinox.p2.repository.artifact.ArtifactKeyQuery;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactDescriptor;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactRepository;
+import org.eclipse.equinox.p2.tests.AbstractProvisioningTest;
+
+/**
+ * Tests the journal of the descriptors added to and removed from a simple
+ * artifact repository.
+ */
+public class JournaledArtifactRepositoryTest extends AbstractProvisioningTest {
+	private File repositoryFile;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		repositoryFile = getTempFolder();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		delete(repositoryFile);
+		super.tearDown();
+	}
+
+	private SimpleArtifactRepository createRepository() {
+		Map<String, String> properties = new HashMap<>();
+		properties.put(SimpleArtifactRepository.PROP_JOURNAL, "true");
+		return new SimpleArtifactRepository(getAgent(), "journaled", repositoryFile.toURI(), properties);
+	}
+
+	private IArtifactRepository loadRepository() throws ProvisionException {
+		SimpleArtifactRepositoryFactory factory = new SimpleArtifactRepositoryFactory();
+		factory.setAgent(getAgent());
+		return factory.load(repositoryFile.toURI(), 0, new NullProgressMonitor());
+	}
+
+	private static IArtifactDescriptor descriptor(String id) {
+		return new SimpleArtifactDescriptor(new ArtifactKey("osgi.bundle", id, Version.create("1.0.0")));
+	}
+
+	private static int count(IArtifactRepository repository) {
+		return repository.query(ArtifactKeyQuery.ALL_KEYS, new NullProgressMonitor()).toSet().size();
+	}
+
+	private File journal() {
+		return new File(repositoryFile, "artifacts.journal");
+	}
+
+	public void testChangesAreReplayed() throws Exception {
+		SimpleArtifactRepository repository = createRepository();
+		repository.addDescriptor(descriptor("a"), new NullProgressMonitor());
+		repository.addDescriptors(new IArtifactDescriptor[] {descriptor("b"), descriptor("c")}, new NullProgressMonitor());
+		repository.removeDescriptor(descriptor("b"), new NullProgressMonitor());
+
+		assertTrue("1.0", journal().isFile());
+		assertFalse("1.1", Files.readString(new File(repositoryFile, "artifacts.xml").toPath()).contains("id='a'"));
+
+		IArtifactRepository loaded = loadRepository();
+		assertEquals("2.0", 2, count(loaded));
+		assertTrue("2.1", loaded.contains(descriptor("a")));
+		assertFalse("2.2", loaded.contains(descriptor("b")));
+		assertTrue("2.3", loaded.contains(descriptor("c")));
+	}
+
+	public void testFullSaveClearsJournal() throws Exception {
+		SimpleArtifactRepository repository = createRepository();
+		repository.addDescriptor(descriptor("a"), new NullProgressMonitor());
+		assertTrue("1.0", journal().isFile());
+
+		repository.setProperty("foo", "bar", new NullProgressMonitor());
+		assertFalse("2.0", journal().exists());
+		assertEquals("2.1", 1, count(loadRepository()));
+	}
+
+	public void testCompaction() throws Exception {
+		SimpleArtifactRepository repository = createRepository();
+		for (int i = 0; i < 1000; i++)
+			repository.addDescriptor(descriptor("a" + i), new NullProgressMonitor());
+		assertFalse("1.0", journal().exists());
+		assertEquals("1.1", 1000, count(loadRepository()));
+	}
+
+	public void testTornRecordIsIgnored() throws Exception {
+		SimpleArtifactRepository repository = createRepository();
+		repository.addDescriptor(descriptor("a"), new NullProgressMonitor());
+		appendGarbage();
+
+		IArtifactRepository loaded = loadRepository();
+		assertEquals("1.0", 1, count(loaded));
+
+		loaded.addDescriptor(descriptor("b"), new NullProgressMonitor());
+		loaded = loadRepository();
+		assertEquals("2.0", 2, count(loaded));
+		assertTrue("2.1", loaded.contains(descriptor("b")));
+	}
+
+	private void appendGarbage() throws IOException {
+		try (FileOutputStream output = new FileOutputStream(journal(), true)) {
+			// the length and checksum of a record, and a part of it
+			output.write(new byte[] {0, 0, 0, 100, 1, 2, 3, 4, 1, 0});
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2017 compeople AG and others.
+ * Copyright (c) 2007, 2026 compeople AG and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -28,6 +28,9 @@ import java.net.URISyntaxException;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
@@ -49,6 +52,7 @@ import org.eclipse.equinox.p2.repository.artifact.ArtifactDescriptorQuery;
 import org.eclipse.equinox.p2.repository.artifact.IArtifactDescriptor;
 import org.eclipse.equinox.p2.repository.artifact.IArtifactRepository;
 import org.eclipse.equinox.p2.repository.artifact.IArtifactRepositoryManager;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactRequest;
 import org.eclipse.equinox.p2.repository.artifact.IProcessingStepDescriptor;
 import org.eclipse.equinox.p2.repository.artifact.spi.ArtifactDescriptor;
 import org.eclipse.equinox.p2.tests.AbstractProvisioningTest;
@@ -474,4 +478,59 @@ public class SimpleArtifactRepositoryTest extends AbstractProvisioningTest {
 	private int getIntVal(Method m, Object repo) throws IllegalArgumentException, IllegalAccessException, InvocationTargetException {
 		return ((Integer) m.invoke(repo)).intValue();
 	}
+
+	/*
+	 * Tests that the requests run on virtual threads when asked to, and on jobs
+	 * when the VM has no virtual threads.
+	 */
+	public void testVirtualThreads() throws Exception {
+		File folder = getTestFolder("ArtifactRepository_testVirtualThreads");
+		repositoryURI = folder.toURI();
+		IArtifactRepository repo = getArtifactRepositoryManager().createRepository(repositoryURI, "test", IArtifactRepositoryManager.TYPE_SIMPLE_REPOSITORY, new HashMap<>());
+		repo.setProperty(SimpleArtifactRepository.PROP_FORCE_THREADING, "true");
+		repo.setProperty(SimpleArtifactRepository.PROP_VIRTUAL_THREADS, "true");
+		repo.setProperty(SimpleArtifactRepository.PROP_MAX_THREADS, "16");
+
+		Set<String> threads = ConcurrentHashMap.newKeySet();
+		AtomicInteger active = new AtomicInteger();
+		AtomicInteger maxActive = new AtomicInteger();
+		IArtifactRequest[] requests = new IArtifactRequest[40];
+		for (int i = 0; i < requests.length; i++) {
+			IArtifactKey key = new ArtifactKey("osgi.bundle", "bundle" + i, Version.createOSGi(1, 0, 0));
+			requests[i] = new IArtifactRequest() {
+				private IStatus result;
+
+				@Override
+				public void perform(IArtifactRepository sourceRepository, IProgressMonitor monitor) {
+					threads.add(Thread.currentThread().getName());
+					maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+					try {
+						Thread.sleep(50);
+						result = Status.OK_STATUS;
+					} catch (InterruptedException e) {
+						result = Status.CANCEL_STATUS;
+					} finally {
+						active.decrementAndGet();
+					}
+				}
+
+				@Override
+				public IStatus getResult() {
+					return result;
+				}
+
+				@Override
+				public IArtifactKey getArtifactKey() {
+					return key;
+				}
+			};
+		}
+		assertOK(repo.getArtifacts(requests, new NullProgressMonitor()));
+		for (IArtifactRequest request : requests)
+			assertOK(request.getResult());
+		boolean virtual = threads.stream().allMatch(name -> name.startsWith("p2-download-"));
+		assertEquals(threads.toString(), Runtime.version().feature() >= 21, virtual);
+		if (virtual)
+			assertTrue("downloads in flight: " + maxActive.get(), maxActive.get() > 4 && maxActive.get() <= 16);
+	}
 }
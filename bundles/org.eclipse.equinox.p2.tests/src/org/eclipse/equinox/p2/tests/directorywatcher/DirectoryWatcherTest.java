@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2017 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,11 +16,20 @@ package org.eclipse.equinox.p2.tests.directorywatcher;
 import static org.junit.Assert.assertThrows;
 
 import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.net.URL;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.equinox.internal.provisional.p2.directorywatcher.DirectoryChangeListener;
@@ -58,6 +67,21 @@ public class DirectoryWatcherTest extends AbstractProvisioningTest {
 		watcher.stop();
 	}
 
+	public void testCreateDirectoryWatcherMalformedProps() throws Exception {
+		URL base = TestActivator.getContext().getBundle().getEntry("/testData/directorywatcher1");
+		File folder = new File(FileLocator.toFileURL(base).getPath());
+
+		Hashtable<String, String> props = new Hashtable<>();
+		props.put(DirectoryWatcher.DIR, folder.getAbsolutePath());
+		props.put(DirectoryWatcher.POLL, "2s");
+		props.put(DirectoryWatcher.COALESCE, "fast");
+
+		// the malformed values are replaced by the defaults
+		DirectoryWatcher watcher = new DirectoryWatcher(props, TestActivator.getContext());
+		watcher.start();
+		watcher.stop();
+	}
+
 	public void testDirectoryWatcherListener() throws Exception {
 		URL base = TestActivator.getContext().getBundle().getEntry("/testData/directorywatcher1");
 		File folder = new File(FileLocator.toFileURL(base).getPath());
@@ -105,4 +129,161 @@ public class DirectoryWatcherTest extends AbstractProvisioningTest {
 		watcher.poll();
 		assertEquals(2, list.size());
 	}
+
+	/**
+	 * A listener remembering the files it has been told about, like the
+	 * repository listener does.
+	 */
+	static class RecordingListener extends DirectoryChangeListener {
+		final Map<File, Long> seen = Collections.synchronizedMap(new HashMap<>());
+		final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+		final AtomicInteger polls = new AtomicInteger();
+
+		@Override
+		public void startPoll() {
+			polls.incrementAndGet();
+		}
+
+		@Override
+		public boolean isInterested(File file) {
+			return true;
+		}
+
+		@Override
+		public boolean added(File file) {
+			seen.put(file, file.lastModified());
+			events.add("added " + file.getName());
+			return true;
+		}
+
+		@Override
+		public boolean changed(File file) {
+			seen.put(file, file.lastModified());
+			events.add("changed " + file.getName());
+			return true;
+		}
+
+		@Override
+		public boolean removed(File file) {
+			seen.remove(file);
+			events.add("removed " + file.getName());
+			return true;
+		}
+
+		@Override
+		public Long getSeenFile(File file) {
+			return seen.get(file);
+		}
+	}
+
+	public void testEventDrivenLatencyAndIdleCost() throws Exception {
+		File folder = getTempFolder();
+		folder.mkdirs();
+		new File(folder, "a.jar").createNewFile();
+		DirectoryWatcher watcher = new DirectoryWatcher(folder);
+		RecordingListener listener = new RecordingListener();
+		watcher.addListener(listener);
+		// with such a poll frequency, only events can explain a quick reaction
+		watcher.start(60000);
+		try {
+			assertEquals("added a.jar", listener.events.poll(10, TimeUnit.SECONDS));
+			if (!watcher.isEventDriven())
+				return; // the file system only supports polling
+
+			long start = System.nanoTime();
+			Files.write(new File(folder, "b.jar").toPath(), new byte[100]);
+			assertEquals("added b.jar", listener.events.poll(10, TimeUnit.SECONDS));
+			long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			assertTrue("Reaction took " + latency + "ms", latency < 5000);
+
+			assertTrue(new File(folder, "a.jar").delete());
+			assertEquals("removed a.jar", listener.events.poll(10, TimeUnit.SECONDS));
+
+			// nothing is scanned, and almost no time is spent, while the folder does not change
+			Thread watcherThread = Thread.getAllStackTraces().keySet().stream()
+					.filter(thread -> thread.getName().equals("Directory Watcher")).findFirst().orElse(null);
+			ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+			boolean measureCpu = watcherThread != null && threads.isThreadCpuTimeSupported();
+			long cpu = measureCpu ? threads.getThreadCpuTime(watcherThread.getId()) : 0;
+			int polls = listener.polls.get();
+			Thread.sleep(2000);
+			assertEquals(polls, listener.polls.get());
+			if (measureCpu) {
+				long idleCpu = TimeUnit.NANOSECONDS.toMillis(threads.getThreadCpuTime(watcherThread.getId()) - cpu);
+				assertTrue("Idle watcher used " + idleCpu + "ms of CPU", idleCpu < 100);
+			}
+		} finally {
+			watcher.stop();
+			delete(folder);
+		}
+	}
+
+	/**
+	 * Checks that adding or removing a file in a directory-shaped bundle is
+	 * noticed in event mode, as the polling of its modification time did.
+	 */
+	public void testEventDrivenDirectoryEntryChange() throws Exception {
+		File folder = getTempFolder();
+		File bundle = new File(folder, "bundle_1.0.0");
+		bundle.mkdirs();
+		new File(bundle, "a.txt").createNewFile();
+		DirectoryWatcher watcher = new DirectoryWatcher(folder);
+		RecordingListener listener = new RecordingListener();
+		watcher.addListener(listener);
+		watcher.start(60000);
+		try {
+			assertEquals("added bundle_1.0.0", listener.events.poll(10, TimeUnit.SECONDS));
+			if (!watcher.isEventDriven())
+				return; // the file system only supports polling
+
+			// let the modification time of the directory change on coarse file systems
+			Thread.sleep(1000);
+			new File(bundle, "b.txt").createNewFile();
+			assertEquals("changed bundle_1.0.0", listener.events.poll(10, TimeUnit.SECONDS));
+
+			Thread.sleep(1000);
+			assertTrue(new File(bundle, "a.txt").delete());
+			assertEquals("changed bundle_1.0.0", listener.events.poll(10, TimeUnit.SECONDS));
+		} finally {
+			watcher.stop();
+			delete(folder);
+		}
+	}
+
+	public void testSnapshot() throws Exception {
+		File folder = getTempFolder();
+		folder.mkdirs();
+		File snapshot = new File(getTempFolder(), "watcher.snapshot");
+		try {
+			new File(folder, "a.jar").createNewFile();
+			new File(folder, "b.jar").createNewFile();
+			DirectoryWatcher watcher = new DirectoryWatcher(folder);
+			watcher.setSnapshotFile(snapshot);
+			RecordingListener listener = new RecordingListener();
+			watcher.addListener(listener);
+			watcher.poll();
+			assertEquals(2, listener.seen.size());
+			assertTrue(snapshot.exists());
+
+			// a new session sees the same files
+			watcher = new DirectoryWatcher(folder);
+			watcher.setSnapshotFile(snapshot);
+			RecordingListener restarted = new RecordingListener();
+			watcher.addListener(restarted);
+			watcher.poll();
+			assertEquals(listener.seen, restarted.seen);
+
+			// a removal made in between is noticed through the timestamp of the folder
+			assertTrue(new File(folder, "a.jar").delete());
+			assertTrue(folder.setLastModified(folder.lastModified() + 2000));
+			watcher = new DirectoryWatcher(folder);
+			watcher.setSnapshotFile(snapshot);
+			watcher.addListener(restarted);
+			watcher.poll();
+			assertEquals(Collections.singleton(new File(folder, "b.jar")), restarted.seen.keySet());
+		} finally {
+			delete(folder);
+			delete(snapshot.getParentFile());
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2007, 2012 IBM Corporation and others.
+ *  Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -21,10 +21,10 @@ import org.junit.runners.Suite;
  */
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
-		CertificateCheckerTest.class, DownloadManagerTest.class, InstructionParserTest.class, EngineTest.class,
+		CertificateCheckerTest.class, DownloadManagerTest.class, DownloadSchedulerTest.class, InstructionParserTest.class, EngineTest.class,
 		PhaseApplicabilityTest.class, PhaseSetTest.class, PhaseTest.class, ParameterizedProvisioningActionTest.class,
 		ProfileMetadataRepositoryTest.class, ProfileTest.class, ProfilePreferencesTest.class, ProfileRegistryTest.class,
-		ProvisioningContextTest.class, SurrogateProfileHandlerTest.class, ActionManagerTest.class,
+		ProvisioningContextTest.class, SignatureVerificationCacheTest.class, SurrogateProfileHandlerTest.class, ActionManagerTest.class,
 		TouchpointManagerTest.class, TouchpointTest.class, ProvisioningEventTest.class, VariableTest.class,
 		VariableTest2.class, VariableTest3.class, DebugHelperTest.class
 })
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2019 IBM Corporation and others.
+ * Copyright (c) 2009, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -20,6 +20,7 @@ import java.nio.file.Path;
 import java.security.cert.Certificate;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Stream;
@@ -29,6 +30,7 @@ import org.eclipse.equinox.internal.p2.core.AgentLocation;
 import org.eclipse.equinox.internal.p2.core.ProvisioningAgent;
 import org.eclipse.equinox.internal.p2.engine.EngineActivator;
 import org.eclipse.equinox.internal.p2.engine.phases.CertificateChecker;
+import org.eclipse.equinox.internal.p2.engine.phases.SignatureVerificationCache;
 import org.eclipse.equinox.internal.p2.metadata.ArtifactKey;
 import org.eclipse.equinox.internal.provisional.p2.repository.DefaultPGPPublicKeyService;
 import org.eclipse.equinox.p2.core.IAgentLocation;
@@ -36,6 +38,7 @@ import org.eclipse.equinox.p2.core.ProvisionException;
 import org.eclipse.equinox.p2.core.UIServices;
 import org.eclipse.equinox.p2.engine.IProfileRegistry;
 import org.eclipse.equinox.p2.metadata.Version;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactDescriptor;
 import org.eclipse.equinox.p2.repository.artifact.spi.ArtifactDescriptor;
 import org.eclipse.equinox.p2.repository.spi.PGPPublicKeyService;
 import org.eclipse.equinox.p2.tests.AbstractProvisioningTest;
@@ -235,6 +238,62 @@ public class CertificateCheckerTest extends AbstractProvisioningTest {
 		}
 	}
 
+	/**
+	 * Tests that the artifacts verified concurrently are all reported.
+	 */
+	public void testPolicyFailConcurrent() throws IOException {
+		try {
+			System.getProperties().setProperty(EngineActivator.PROP_UNSIGNED_POLICY, EngineActivator.UNSIGNED_FAIL);
+			System.getProperties().setProperty(CertificateChecker.PROP_VERIFICATION_THREADS, "4");
+			Map<IArtifactDescriptor, File> artifacts = new HashMap<>();
+			for (int i = 0; i < 8; i++) {
+				Path copy = agentLocation.resolve("unsigned" + i + ".jar");
+				Files.copy(unsigned.toPath(), copy);
+				artifacts.put(new ArtifactDescriptor(new ArtifactKey("what", "ever" + i, Version.create("1"))), copy.toFile());
+			}
+			checker.add(artifacts);
+			IStatus result = checker.start();
+			assertEquals("1.0", IStatus.ERROR, result.getSeverity());
+			for (File file : artifacts.values())
+				assertTrue("1.1", result.getMessage().contains(file.toString()));
+		} finally {
+			System.getProperties().remove(EngineActivator.PROP_UNSIGNED_POLICY);
+			System.getProperties().remove(CertificateChecker.PROP_VERIFICATION_THREADS);
+		}
+	}
+
+	/**
+	 * Tests that the artifacts whose verification failed or whose signers are not
+	 * trusted are verified again the next time.
+	 */
+	public void testFailedAndUntrustedVerificationsAreNotCached() throws IOException {
+		File untrusted = TestData.getFile("CertificateChecker/selfsigned/plugins", "blah_1.0.0.123456.jar");
+		Path corrupt = agentLocation.resolve("corrupt.jar");
+		Files.writeString(corrupt, "not a jar");
+		try {
+			System.getProperties().setProperty(EngineActivator.PROP_UNSIGNED_POLICY, EngineActivator.UNSIGNED_PROMPT);
+			for (int i = 0; i < 2; i++) {
+				serviceUI.wasPrompted = false;
+				checker = new CertificateChecker(testAgent);
+				checker.add(Map.of(new ArtifactDescriptor(new ArtifactKey("what", "untrusted", Version.create("1"))), untrusted));
+				checker.start();
+				assertTrue("1." + i, serviceUI.wasPrompted);
+
+				checker = new CertificateChecker(testAgent);
+				checker.add(Map.of(new ArtifactDescriptor(new ArtifactKey("what", "corrupt", Version.create("1"))), corrupt.toFile()));
+				assertEquals("2." + i, IStatus.ERROR, checker.start().getSeverity());
+			}
+			Path cache = agentLocation.resolve(EngineActivator.ID).resolve("signatures.cache");
+			if (Files.exists(cache)) {
+				String content = Files.readString(cache);
+				assertFalse("3.0", content.contains(SignatureVerificationCache.hash(untrusted)));
+				assertFalse("3.1", content.contains(SignatureVerificationCache.hash(corrupt.toFile())));
+			}
+		} finally {
+			System.getProperties().remove(EngineActivator.PROP_UNSIGNED_POLICY);
+		}
+	}
+
 	/**
 	 * Tests that installing unsigned content with the "prompt" policy and the
 	 * prompt succeeds.
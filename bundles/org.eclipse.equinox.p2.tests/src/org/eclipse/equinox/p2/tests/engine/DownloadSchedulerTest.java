@@ -0,0 +1,468 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.engine;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.core.runtime.*;
+import org.eclipse.equinox.internal.p2.engine.CollectEvent;
+import org.eclipse.equinox.internal.p2.engine.DownloadScheduler;
+import org.eclipse.equinox.internal.p2.metadata.ArtifactKey;
+import org.eclipse.equinox.p2.metadata.IArtifactKey;
+import org.eclipse.equinox.p2.metadata.Version;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactDescriptor;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactRepository;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactRequest;
+import org.eclipse.equinox.p2.repository.artifact.spi.ArtifactDescriptor;
+import org.eclipse.equinox.p2.tests.AbstractProvisioningTest;
+import org.eclipse.equinox.p2.tests.TestArtifactRepository;
+
+/**
+ * Tests for {@link DownloadScheduler}.
+ */
+public class DownloadSchedulerTest extends AbstractProvisioningTest {
+
+	/**
+	 * A request that records the repository it has been performed in.
+	 */
+	static class Request implements IArtifactRequest {
+		final IArtifactKey key;
+		volatile IStatus result;
+		volatile URI performedIn;
+
+		Request(IArtifactKey key) {
+			this.key = key;
+		}
+
+		@Override
+		public IArtifactKey getArtifactKey() {
+			return key;
+		}
+
+		@Override
+		public void perform(IArtifactRepository sourceRepository, IProgressMonitor monitor) {
+			performedIn = sourceRepository.getLocation();
+		}
+
+		@Override
+		public IStatus getResult() {
+			return result;
+		}
+	}
+
+	final AtomicInteger activeOverall = new AtomicInteger();
+	final AtomicInteger maxActiveOverall = new AtomicInteger();
+	/** The downloads and the notifications of the listener, in order. */
+	final List<String> log = Collections.synchronizedList(new ArrayList<>());
+
+	/**
+	 * A repository that takes some time for each download, and fails the
+	 * downloads of the keys it has been told to.
+	 */
+	class Repository extends TestArtifactRepository {
+		final Map<IArtifactKey, Long> sizes = new HashMap<>();
+		final Set<IArtifactKey> failing = new HashSet<>();
+		final List<IArtifactKey> order = Collections.synchronizedList(new ArrayList<>());
+		final AtomicInteger active;
+		final AtomicInteger maxActive = new AtomicInteger();
+		final long delay;
+
+		Repository(String location, AtomicInteger active, long delay) {
+			super(getAgent(), URI.create(location));
+			this.active = active;
+			this.delay = delay;
+		}
+
+		void add(IArtifactKey key, long size) {
+			sizes.put(key, size);
+		}
+
+		@Override
+		public boolean contains(IArtifactKey key) {
+			return sizes.containsKey(key);
+		}
+
+		@Override
+		public IArtifactDescriptor[] getArtifactDescriptors(IArtifactKey key) {
+			ArtifactDescriptor descriptor = new ArtifactDescriptor(key);
+			descriptor.setProperty(IArtifactDescriptor.DOWNLOAD_SIZE, Long.toString(sizes.get(key)));
+			return new IArtifactDescriptor[] {descriptor};
+		}
+
+		@Override
+		public IStatus getArtifacts(IArtifactRequest[] requests, IProgressMonitor monitor) {
+			maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+			maxActiveOverall.accumulateAndGet(activeOverall.incrementAndGet(), Math::max);
+			try {
+				for (IArtifactRequest request : requests) {
+					order.add(request.getArtifactKey());
+					log.add("download " + getLocation());
+					long end = System.currentTimeMillis() + delay;
+					while (System.currentTimeMillis() < end) {
+						if (monitor.isCanceled()) {
+							((Request) request).result = Status.CANCEL_STATUS;
+							return Status.CANCEL_STATUS;
+						}
+						Thread.sleep(5);
+					}
+					if (failing.contains(request.getArtifactKey())) {
+						((Request) request).result = Status.error("failed");
+					} else {
+						request.perform(this, monitor);
+						((Request) request).result = Status.OK_STATUS;
+					}
+				}
+				return Status.OK_STATUS;
+			} catch (InterruptedException e) {
+				return Status.CANCEL_STATUS;
+			} finally {
+				active.decrementAndGet();
+				activeOverall.decrementAndGet();
+			}
+		}
+	}
+
+	private static IArtifactKey key(int i) {
+		return new ArtifactKey("osgi.bundle", "bundle" + i, Version.createOSGi(1, 0, 0));
+	}
+
+	private static Request[] requests(int count) {
+		Request[] requests = new Request[count];
+		for (int i = 0; i < count; i++)
+			requests[i] = new Request(key(i));
+		return requests;
+	}
+
+	public void testLargestFirst() {
+		Repository repository = new Repository("http://one.example.org/repo", new AtomicInteger(), 20);
+		Request[] requests = requests(5);
+		long[] sizes = {10, 500, -1, 3000, 40};
+		for (int i = 0; i < requests.length; i++)
+			repository.add(requests[i].key, sizes[i]);
+		DownloadScheduler scheduler = new DownloadScheduler(1, 1, false);
+		assertOK(scheduler.fetch(requests, new Repository[] {repository}, new NullProgressMonitor()));
+		assertEquals(List.of(key(3), key(1), key(4), key(0), key(2)), repository.order);
+		for (Request request : requests)
+			assertOK(request.getResult());
+	}
+
+	public void testLimits() {
+		AtomicInteger hostOne = new AtomicInteger();
+		Repository first = new Repository("http://one.example.org/a", hostOne, 50);
+		Repository second = new Repository("http://one.example.org/b", hostOne, 50);
+		Repository third = new Repository("http://two.example.org/c", new AtomicInteger(), 50);
+		Request[] requests = requests(30);
+		Repository[] repositories = {first, second, third};
+		for (int i = 0; i < requests.length; i++)
+			repositories[i % 3].add(requests[i].key, 100);
+		DownloadScheduler scheduler = new DownloadScheduler(3, 2, false);
+		assertOK(scheduler.fetch(requests, repositories, new NullProgressMonitor()));
+		for (Request request : requests)
+			assertOK(request.getResult());
+		assertEquals("global limit", 3, maxActiveOverall.get());
+		// the first host fills its two slots, leaving one to the second host
+		assertEquals("host limit", 2, first.maxActive.get());
+		assertEquals("host limit", 1, third.maxActive.get());
+	}
+
+	public void testLocalRepositoryReadSequentially() {
+		AtomicInteger active = new AtomicInteger();
+		Repository local = new Repository(getTempFolder().toURI().toString(), active, 10);
+		Request[] requests = requests(8);
+		for (Request request : requests)
+			local.add(request.key, 1);
+		assertOK(new DownloadScheduler(4, 4, false).fetch(requests, new Repository[] {local}, new NullProgressMonitor()));
+		assertEquals(1, local.maxActive.get());
+	}
+
+	public void testFailover() {
+		AtomicInteger active = new AtomicInteger();
+		Repository first = new Repository("http://one.example.org/repo", active, 5);
+		Repository second = new Repository("http://two.example.org/repo", active, 5);
+		Request[] requests = requests(4);
+		for (Request request : requests) {
+			first.add(request.key, 1);
+			second.add(request.key, 1);
+		}
+		first.failing.add(requests[1].key);
+		first.failing.add(requests[2].key);
+		assertOK(new DownloadScheduler(2, 2, false).fetch(requests, new Repository[] {first, second}, new NullProgressMonitor()));
+		assertEquals(first.getLocation(), requests[0].performedIn);
+		assertEquals(second.getLocation(), requests[1].performedIn);
+		assertEquals(second.getLocation(), requests[2].performedIn);
+		assertEquals(first.getLocation(), requests[3].performedIn);
+		for (Request request : requests)
+			assertOK(request.getResult());
+		assertEquals(2, second.order.size());
+	}
+
+	public void testFailureInAllRepositories() {
+		Repository repository = new Repository("http://one.example.org/repo", new AtomicInteger(), 1);
+		Request[] requests = requests(2);
+		for (Request request : requests)
+			repository.add(request.key, 1);
+		repository.failing.add(requests[0].key);
+		assertOK(new DownloadScheduler(2, 2, false).fetch(requests, new Repository[] {repository}, new NullProgressMonitor()));
+		assertEquals(IStatus.ERROR, requests[0].getResult().getSeverity());
+		assertOK(requests[1].getResult());
+	}
+
+	public void testCancel() {
+		Repository repository = new Repository("http://one.example.org/repo", new AtomicInteger(), 200);
+		Request[] requests = requests(20);
+		for (Request request : requests)
+			repository.add(request.key, 1);
+		NullProgressMonitor monitor = new NullProgressMonitor() {
+			@Override
+			public boolean isCanceled() {
+				return super.isCanceled() || !repository.order.isEmpty();
+			}
+		};
+		long start = System.currentTimeMillis();
+		IStatus status = new DownloadScheduler(2, 2, false).fetch(requests, new Repository[] {repository}, monitor);
+		assertEquals(IStatus.CANCEL, status.getSeverity());
+		assertTrue("pending downloads dropped", repository.order.size() <= 2);
+		assertTrue("in progress downloads canceled", System.currentTimeMillis() - start < 2000);
+	}
+
+	public void testThreadFactory() {
+		Set<Thread> created = ConcurrentHashMap.newKeySet();
+		Set<Thread> used = ConcurrentHashMap.newKeySet();
+		Repository repository = new Repository("http://one.example.org/repo", new AtomicInteger(), 50) {
+			@Override
+			public IStatus getArtifacts(IArtifactRequest[] requests, IProgressMonitor monitor) {
+				used.add(Thread.currentThread());
+				return super.getArtifacts(requests, monitor);
+			}
+		};
+		Request[] requests = requests(10);
+		for (Request request : requests)
+			repository.add(request.key, 1);
+		DownloadScheduler scheduler = new DownloadScheduler(3, 3, false, runnable -> {
+			Thread thread = new Thread(runnable);
+			created.add(thread);
+			return thread;
+		});
+		assertOK(scheduler.fetch(requests, new Repository[] {repository}, new NullProgressMonitor()));
+		for (Request request : requests)
+			assertOK(request.getResult());
+		assertFalse(used.isEmpty());
+		assertTrue(created.containsAll(used));
+		assertTrue(created.size() <= requests.length);
+		assertEquals(3, maxActiveOverall.get());
+	}
+
+	/**
+	 * Records the progress and the task names reported to the monitor of a
+	 * fetch.
+	 */
+	static class RecordingMonitor extends NullProgressMonitor {
+		final List<String> tasks = Collections.synchronizedList(new ArrayList<>());
+		volatile int totalWork;
+		volatile double worked;
+
+		@Override
+		public void beginTask(String name, int work) {
+			totalWork = work;
+		}
+
+		@Override
+		public void internalWorked(double work) {
+			worked += work;
+		}
+
+		@Override
+		public void worked(int work) {
+			internalWorked(work);
+		}
+
+		@Override
+		public void subTask(String name) {
+			tasks.add(name);
+		}
+	}
+
+	public void testProgress() {
+		RecordingMonitor monitor = new RecordingMonitor();
+		Map<IArtifactKey, Boolean> shown = new ConcurrentHashMap<>();
+		Repository repository = new Repository("http://one.example.org/repo", new AtomicInteger(), 1) {
+			@Override
+			public IStatus getArtifacts(IArtifactRequest[] requests, IProgressMonitor requestMonitor) {
+				SubMonitor subMonitor = SubMonitor.convert(requestMonitor, 2);
+				String task = "fetching " + requests[0].getArtifactKey().getId();
+				subMonitor.subTask(task);
+				subMonitor.worked(1);
+				// the task and the progress reach the monitor of the fetch while downloading
+				long end = System.currentTimeMillis() + 5000;
+				while (!(monitor.tasks.contains(task) && monitor.worked > 0) && System.currentTimeMillis() < end) {
+					try {
+						Thread.sleep(10);
+					} catch (InterruptedException e) {
+						return Status.CANCEL_STATUS;
+					}
+				}
+				shown.put(requests[0].getArtifactKey(), monitor.tasks.contains(task) && monitor.worked > 0);
+				return super.getArtifacts(requests, subMonitor.newChild(1));
+			}
+		};
+		Request[] requests = requests(2);
+		for (Request request : requests)
+			repository.add(request.key, 1);
+		assertOK(new DownloadScheduler(1, 1, false).fetch(requests, new Repository[] {repository}, monitor));
+		for (Request request : requests) {
+			assertOK(request.getResult());
+			assertEquals(Boolean.TRUE, shown.get(request.key));
+		}
+		assertEquals(monitor.totalWork, monitor.worked, 0.001);
+	}
+
+	/**
+	 * Checks that the workers stopped by a repository throwing an exception
+	 * are replaced, so that the later fetches of the scheduler still complete.
+	 */
+	public void testRepositoryThrowing() throws Exception {
+		Repository throwing = new Repository("http://one.example.org/repo", new AtomicInteger(), 1) {
+			@Override
+			public IStatus getArtifacts(IArtifactRequest[] requests, IProgressMonitor monitor) {
+				throw new IllegalStateException("broken repository");
+			}
+		};
+		throwing.add(key(10), 1);
+		DownloadScheduler scheduler = new DownloadScheduler(2, 2, false, runnable -> {
+			Thread thread = new Thread(runnable);
+			// the exception ends the worker, which is expected here
+			thread.setUncaughtExceptionHandler((t, e) -> {
+				// ignore
+			});
+			return thread;
+		});
+		// more failures than workers
+		for (int i = 0; i < 3; i++) {
+			Request[] failing = {new Request(key(10))};
+			assertOK(scheduler.fetch(failing, new Repository[] {throwing}, new NullProgressMonitor()));
+			assertNull(failing[0].getResult());
+		}
+
+		Repository repository = new Repository("http://two.example.org/repo", new AtomicInteger(), 1);
+		Request[] requests = requests(4);
+		for (Request request : requests)
+			repository.add(request.key, 1);
+		NullProgressMonitor monitor = new NullProgressMonitor();
+		Thread fetch = new Thread(() -> scheduler.fetch(requests, new Repository[] {repository}, monitor));
+		fetch.start();
+		fetch.join(10000);
+		boolean stuck = fetch.isAlive();
+		monitor.setCanceled(true);
+		fetch.join(10000);
+		assertFalse("no worker left to download", stuck);
+		for (Request request : requests)
+			assertOK(request.getResult());
+	}
+
+	/**
+	 * Checks that a monitor slow to answer does not hold up the downloads of
+	 * the other fetches of the scheduler.
+	 */
+	public void testSlowMonitor() throws Exception {
+		DownloadScheduler scheduler = new DownloadScheduler(2, 2, false);
+		Repository slow = new Repository("http://one.example.org/repo", new AtomicInteger(), 5);
+		Repository other = new Repository("http://two.example.org/repo", new AtomicInteger(), 5);
+		Request[] slowRequests = requests(2);
+		for (Request request : slowRequests)
+			slow.add(request.key, 1);
+		Request[] otherRequests = {new Request(key(10)), new Request(key(11))};
+		for (Request request : otherRequests)
+			other.add(request.key, 1);
+		CountDownLatch entered = new CountDownLatch(1);
+		CountDownLatch released = new CountDownLatch(1);
+		NullProgressMonitor blocking = new NullProgressMonitor() {
+			@Override
+			public boolean isCanceled() {
+				entered.countDown();
+				try {
+					released.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return super.isCanceled();
+			}
+		};
+		Thread slowFetch = new Thread(() -> scheduler.fetch(slowRequests, new Repository[] {slow}, blocking));
+		slowFetch.start();
+		try {
+			assertTrue(entered.await(10, TimeUnit.SECONDS));
+			long start = System.currentTimeMillis();
+			assertOK(scheduler.fetch(otherRequests, new Repository[] {other}, new NullProgressMonitor()));
+			assertTrue("blocked by the monitor of another fetch", System.currentTimeMillis() - start < 5000);
+			for (Request request : otherRequests)
+				assertOK(request.getResult());
+		} finally {
+			released.countDown();
+			slowFetch.join(10000);
+		}
+		for (Request request : slowRequests)
+			assertOK(request.getResult());
+	}
+
+	public void testRepositoryNotifications() {
+		Repository first = new Repository("http://one.example.org/repo", new AtomicInteger(), 5);
+		Repository second = new Repository("http://two.example.org/repo", new AtomicInteger(), 5);
+		Repository unused = new Repository("http://three.example.org/repo", new AtomicInteger(), 5);
+		Request[] requests = requests(6);
+		for (Request request : requests) {
+			first.add(request.key, 1);
+			second.add(request.key, 1);
+		}
+		first.failing.add(requests[1].key);
+		first.failing.add(requests[4].key);
+		Map<URI, Set<IArtifactKey>> started = new HashMap<>();
+		IStatus status = new DownloadScheduler(4, 2, false).fetch(requests, new Repository[] {first, second, unused}, new NullProgressMonitor(), (type, repository, batch) -> {
+			if (type == CollectEvent.TYPE_REPOSITORY_START) {
+				Set<IArtifactKey> keys = new HashSet<>();
+				for (IArtifactRequest request : batch)
+					keys.add(request.getArtifactKey());
+				started.put(repository.getLocation(), keys);
+			}
+			log.add((type == CollectEvent.TYPE_REPOSITORY_START ? "start " : "end ") + repository.getLocation());
+		});
+		assertOK(status);
+		List<String> events = new ArrayList<>(log);
+		for (Repository repository : List.of(first, second)) {
+			String location = repository.getLocation().toString();
+			int start = events.indexOf("start " + location);
+			int end = events.indexOf("end " + location);
+			assertTrue(events.toString(), start >= 0 && end > start);
+			assertEquals(events.toString(), start, events.lastIndexOf("start " + location));
+			assertEquals(events.toString(), end, events.lastIndexOf("end " + location));
+			// every download from the repository is within its notifications
+			for (int i = 0; i < events.size(); i++) {
+				if (events.get(i).equals("download " + location))
+					assertTrue(events.toString(), i > start && i < end);
+			}
+		}
+		assertFalse(events.toString(), events.stream().anyMatch(event -> event.endsWith(unused.getLocation().toString())));
+		Set<IArtifactKey> keys = new HashSet<>();
+		for (Request request : requests)
+			keys.add(request.key);
+		assertEquals(keys, started.get(first.getLocation()));
+		// the failed downloads are retried from the second repository
+		assertTrue(started.get(second.getLocation()).containsAll(Set.of(requests[1].key, requests[4].key)));
+		for (Request request : requests)
+			assertOK(request.getResult());
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2007, 2017 IBM Corporation and others.
+ *  Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -21,13 +21,18 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EventObject;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.equinox.internal.p2.engine.CollectEvent;
 import org.eclipse.equinox.internal.p2.engine.InstallableUnitOperand;
 import org.eclipse.equinox.internal.p2.engine.InstallableUnitPhase;
@@ -43,10 +48,12 @@ import org.eclipse.equinox.p2.engine.IProvisioningPlan;
 import org.eclipse.equinox.p2.engine.spi.ProvisioningAction;
 import org.eclipse.equinox.p2.metadata.IInstallableUnit;
 import org.eclipse.equinox.p2.metadata.IProvidedCapability;
+import org.eclipse.equinox.p2.metadata.IRequirement;
 import org.eclipse.equinox.p2.metadata.ITouchpointData;
 import org.eclipse.equinox.p2.metadata.ITouchpointType;
 import org.eclipse.equinox.p2.metadata.MetadataFactory;
 import org.eclipse.equinox.p2.metadata.Version;
+import org.eclipse.equinox.p2.metadata.VersionRange;
 import org.eclipse.equinox.p2.query.QueryUtil;
 import org.eclipse.equinox.p2.repository.artifact.IArtifactRepositoryManager;
 import org.eclipse.equinox.p2.repository.metadata.IMetadataRepository;
@@ -294,6 +301,143 @@ public class PhaseTest extends AbstractProvisioningTest {
 		}
 	}
 
+	public static class ConcurrentTestAction extends ProvisioningAction {
+		static final AtomicInteger undone = new AtomicInteger();
+		static final List<String> events = Collections.synchronizedList(new ArrayList<>());
+		// the actions of the waiting units wait for the gate, after counting it down for the arriving units
+		static volatile CountDownLatch gate;
+		static volatile Set<String> arriving = Set.of();
+		static volatile Set<String> waiting = Set.of();
+		static volatile boolean timedOut;
+
+		@Override
+		public IStatus execute(Map<String, Object> parameters) {
+			IInstallableUnit unit = (IInstallableUnit) parameters.get(InstallableUnitPhase.PARM_IU);
+			events.add("start " + unit.getId());
+			if (arriving.contains(unit.getId()))
+				gate.countDown();
+			if (waiting.contains(unit.getId())) {
+				try {
+					if (!gate.await(30, TimeUnit.SECONDS))
+						timedOut = true;
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					timedOut = true;
+				}
+			}
+			events.add("end " + unit.getId());
+			return unit.getId().equals("fail") ? new Status(IStatus.ERROR, "test", "failed") : null;
+		}
+
+		@Override
+		public IStatus undo(Map<String, Object> parameters) {
+			undone.incrementAndGet();
+			return null;
+		}
+	}
+
+	public static class ConcurrentTestPhase extends InstallableUnitPhase {
+		protected ConcurrentTestPhase() {
+			super("test", 1);
+		}
+
+		@Override
+		protected IStatus initializeOperand(IProfile profile, InstallableUnitOperand operand, Map<String, Object> parameters, IProgressMonitor monitor) {
+			parameters.put(PARM_IU, operand.second());
+			if (operand.second().getId().equals("broken")) {
+				// the failure is merged before the lock of the phase is released
+				ConcurrentTestAction.gate.countDown();
+				return new Status(IStatus.ERROR, "test", "broken");
+			}
+			return super.initializeOperand(profile, operand, parameters, monitor);
+		}
+
+		@Override
+		protected Set<String> getConcurrentActionIds() {
+			return Set.of("test.concurrent");
+		}
+
+		@Override
+		protected List<ProvisioningAction> getActions(InstallableUnitOperand operand) {
+			return List.of(new ParameterizedProvisioningAction(new ConcurrentTestAction(), Collections.emptyMap(), "concurrent()", "test.concurrent"));
+		}
+	}
+
+	private IStatus performConcurrently(IProvisioningPlan plan, CountDownLatch gate, Set<String> arriving, Set<String> waiting) {
+		ConcurrentTestAction.undone.set(0);
+		ConcurrentTestAction.events.clear();
+		ConcurrentTestAction.gate = gate;
+		ConcurrentTestAction.arriving = arriving;
+		ConcurrentTestAction.waiting = waiting;
+		ConcurrentTestAction.timedOut = false;
+		String threads = System.setProperty(Phase.PROP_OPERAND_THREADS, "4");
+		try {
+			return engine.perform(plan, new TestPhaseSet(new ConcurrentTestPhase()), new NullProgressMonitor());
+		} finally {
+			if (threads == null)
+				System.clearProperty(Phase.PROP_OPERAND_THREADS);
+			else
+				System.setProperty(Phase.PROP_OPERAND_THREADS, threads);
+		}
+	}
+
+	public void testConcurrentOperands() {
+		IProfile profile = createProfile("testConcurrentOperands");
+		IProvisioningPlan plan = engine.createPlan(profile, null);
+		for (int i = 0; i < 8; i++)
+			plan.addInstallableUnit(createIU("unit" + i));
+		IRequirement requirement = MetadataFactory.createRequirement(IInstallableUnit.NAMESPACE_IU_ID, "unit7", VersionRange.emptyRange, null, false, false);
+		plan.addInstallableUnit(createIU("dependent", new IRequirement[] {requirement}));
+
+		// the first four units wait for each other, which only ends if they are performed at the same time
+		Set<String> first = Set.of("unit0", "unit1", "unit2", "unit3");
+		IStatus status = performConcurrently(plan, new CountDownLatch(first.size()), first, first);
+		assertOK(status);
+		assertFalse("operands were not performed concurrently", ConcurrentTestAction.timedOut);
+		assertEquals(18, ConcurrentTestAction.events.size());
+		// the dependent unit is only installed once the unit it requires is
+		List<String> events = new ArrayList<>(ConcurrentTestAction.events);
+		assertTrue(events.toString(), events.indexOf("end unit7") < events.indexOf("start dependent"));
+	}
+
+	public void testConcurrentOperandsRollback() {
+		IProfile profile = createProfile("testConcurrentOperandsRollback");
+		IProvisioningPlan plan = engine.createPlan(profile, null);
+		for (int i = 0; i < 4; i++)
+			plan.addInstallableUnit(createIU("unit" + i));
+		plan.addInstallableUnit(createIU("fail"));
+		for (int i = 4; i < 12; i++)
+			plan.addInstallableUnit(createIU("unit" + i));
+
+		IStatus status = performConcurrently(plan, null, Set.of(), Set.of());
+		assertEquals(IStatus.ERROR, status.getSeverity());
+		// every action that was started is undone
+		List<String> events = new ArrayList<>(ConcurrentTestAction.events);
+		assertEquals(events.toString(), events.stream().filter(event -> event.startsWith("start ")).count(), ConcurrentTestAction.undone.get());
+	}
+
+	public void testConcurrentOperandsStopAfterFailure() {
+		IProfile profile = createProfile("testConcurrentOperandsStopAfterFailure");
+		IProvisioningPlan plan = engine.createPlan(profile, null);
+		Set<String> later = new HashSet<>();
+		for (int i = 0; i < 4; i++)
+			plan.addInstallableUnit(createIU("unit" + i));
+		plan.addInstallableUnit(createIU("broken"));
+		for (int i = 4; i < 12; i++) {
+			plan.addInstallableUnit(createIU("unit" + i));
+			later.add("unit" + i);
+		}
+
+		// the units after the broken one only end once it failed, so at most three of them can be started before
+		IStatus status = performConcurrently(plan, new CountDownLatch(1), Set.of(), later);
+		assertEquals(IStatus.ERROR, status.getSeverity());
+		assertFalse(ConcurrentTestAction.timedOut);
+		List<String> events = new ArrayList<>(ConcurrentTestAction.events);
+		assertEquals(events.toString(), events.stream().filter(event -> event.startsWith("start ")).count(), ConcurrentTestAction.undone.get());
+		for (int i = 7; i < 12; i++)
+			assertFalse(events.toString(), events.contains("start unit" + i));
+	}
+
 	public void testGetAction() {
 		final ArrayList<ProvisioningAction> actionsList1 = new ArrayList<>();
 		InstallableUnitPhase phase1 = new InstallableUnitPhase("test", 1) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2007, 2017 IBM Corporation and others.
+ *  Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -22,6 +22,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.equinox.internal.p2.engine.EngineActivator;
@@ -676,6 +677,61 @@ public class ProfileRegistryTest extends AbstractProvisioningTest {
 		assertEquals(1, fail);
 	}
 
+	public void testProfileDeltas() throws ProvisionException {
+		System.setProperty(EngineActivator.PROP_PROFILE_DELTAS, "2");
+		try {
+			File folder = getTempFolder();
+			folder.mkdirs();
+			SimpleProfileRegistry profileRegistry = new SimpleProfileRegistry(getAgent(), folder, null, false);
+			Profile profile = (Profile) profileRegistry.addProfile(getName(), Map.of("test", "0"));
+			Map<Long, String> states = new HashMap<>();
+			states.put(profile.getTimestamp(), describe(profile));
+			IInstallableUnit previous = null;
+			for (int i = 1; i <= 4; i++) {
+				IInstallableUnit iu = createIU("iu" + i);
+				profile.addInstallableUnit(iu);
+				profile.setInstallableUnitProperty(iu, "index", Integer.toString(i));
+				if (previous != null)
+					profile.removeInstallableUnit(previous);
+				profile.setProperty("test", Integer.toString(i));
+				saveProfile(profileRegistry, profile);
+				states.put(profile.getTimestamp(), describe(profile));
+				previous = iu;
+			}
+
+			// the snapshot written when adding the profile is followed by two deltas,
+			// then a new snapshot is written
+			File profileFolder = new File(folder, getName() + ".profile");
+			assertEquals(2, profileFolder.listFiles((FileFilter) pathname -> pathname.getName().endsWith(".profile.gz")).length);
+			assertEquals(2, profileFolder.listFiles((FileFilter) pathname -> pathname.getName().endsWith(".profile.deltas")).length);
+
+			long[] timestamps = profileRegistry.listProfileTimestamps(getName());
+			assertEquals(5, timestamps.length);
+			SimpleProfileRegistry restored = new SimpleProfileRegistry(getAgent(), folder, null, false);
+			for (long timestamp : timestamps)
+				assertEquals(states.get(timestamp), describe(restored.getProfile(getName(), timestamp)));
+			assertEquals(states.get(timestamps[4]), describe(restored.getProfile(getName())));
+
+			// removing a state recorded as a delta keeps the states following it
+			profileRegistry.removeProfile(getName(), timestamps[1]);
+			assertNull(profileRegistry.getProfile(getName(), timestamps[1]));
+			assertEquals(states.get(timestamps[2]), describe(profileRegistry.getProfile(getName(), timestamps[2])));
+			profileRegistry.removeProfile(getName(), timestamps[0]);
+			profileRegistry.removeProfile(getName(), timestamps[2]);
+			assertEquals(2, profileRegistry.listProfileTimestamps(getName()).length);
+			assertEquals(1, profileFolder.listFiles((FileFilter) pathname -> pathname.getName().endsWith(".profile.gz")).length);
+		} finally {
+			System.getProperties().remove(EngineActivator.PROP_PROFILE_DELTAS);
+		}
+	}
+
+	private static String describe(IProfile profile) {
+		Map<String, Map<String, String>> units = new TreeMap<>();
+		for (IInstallableUnit iu : profile.query(QueryUtil.createIUAnyQuery(), null))
+			units.put(iu.toString(), new TreeMap<>(profile.getInstallableUnitProperties(iu)));
+		return new TreeMap<>(profile.getProperties()) + " " + units;
+	}
+
 	public void testSetProfileStateProperties() throws ProvisionException {
 		assertNull(registry.getProfile(PROFILE_NAME));
 		Profile profile = (Profile) registry.addProfile(PROFILE_NAME);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2008, 2017 IBM Corporation and others.
+ *  Copyright (c) 2008, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -14,8 +14,13 @@
  *******************************************************************************/
 package org.eclipse.equinox.p2.tests.engine;
 
+import java.io.File;
 import java.net.URI;
+import java.time.Duration;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.eclipse.equinox.internal.p2.director.ProfileChangeRequest;
 import org.eclipse.equinox.p2.engine.IProvisioningPlan;
 import org.eclipse.equinox.p2.engine.ProvisioningContext;
@@ -203,4 +208,36 @@ public class ProvisioningContextTest extends AbstractProvisioningTest {
 		plan = getPlanner(getAgent()).getProvisioningPlan(request, context, getMonitor());
 		assertTrue("resolve should pass", plan.getStatus().isOK());
 	}
+
+	public void testReferencesLoadedOnce() throws Exception {
+		File folder = getTempFolder();
+		URI missing = new File(folder, "missing").toURI();
+		URI disabled = new File(folder, "disabled").toURI();
+		IMetadataRepository root = createMetadataRepository(new File(folder, "root").toURI(), null);
+		root.addReferences(List.of(new RepositoryReference(uriA, null, IRepository.TYPE_METADATA, IRepository.ENABLED),
+				new RepositoryReference(missing, null, IRepository.TYPE_METADATA, IRepository.ENABLED),
+				new RepositoryReference(disabled, null, IRepository.TYPE_METADATA, IRepository.NONE)));
+		try {
+			ProvisioningContext context = new ProvisioningContext(getAgent());
+			context.setMetadataRepositories(new URI[] {root.getLocation(), repoB.getLocation()});
+			context.setArtifactRepositories(new URI[0]);
+			context.setProperty(ProvisioningContext.FOLLOW_REPOSITORY_REFERENCES, "true");
+			IQueryable<IInstallableUnit> queryable = context.getMetadata(getMonitor());
+			assertFalse("should find A", queryable.query(QueryUtil.createIUQuery("A"), getMonitor()).isEmpty());
+			assertFalse("should find C", queryable.query(QueryUtil.createIUQuery("C"), getMonitor()).isEmpty());
+
+			// each enabled repository is loaded once, including the one that cannot be loaded
+			Map<URI, Duration> times = context.getMetadataRepositoryLoadTimes();
+			assertEquals("1.0", Set.of(root.getLocation(), uriA, uriB, uriC, missing), times.keySet());
+			// the repositories are loaded level by level, but visited depth first as when loaded one after the other
+			assertEquals("1.1", List.of(root.getLocation(), uriA, uriB, uriC, missing), List.copyOf(times.keySet()));
+
+			// loaded and failed repositories are not loaded again
+			context.getMetadata(getMonitor());
+			assertEquals("2.0", times, context.getMetadataRepositoryLoadTimes());
+		} finally {
+			getMetadataRepositoryManager().removeRepository(root.getLocation());
+			delete(folder);
+		}
+	}
 }
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import org.eclipse.equinox.internal.p2.engine.phases.SignatureVerificationCache;
+import org.eclipse.equinox.p2.tests.AbstractProvisioningTest;
+import org.eclipse.equinox.p2.tests.TestData;
+import org.eclipse.osgi.signedcontent.SignerInfo;
+
+/**
+ * Tests for {@link SignatureVerificationCache}.
+ */
+public class SignatureVerificationCacheTest extends AbstractProvisioningTest {
+	private static final String TRUST_STORE = "trust store 1";
+
+	private record Signer(boolean isTrusted, Certificate... getCertificateChain) implements SignerInfo {
+		@Override
+		public Certificate getTrustAnchor() {
+			return isTrusted ? getCertificateChain[getCertificateChain.length - 1] : null;
+		}
+
+		@Override
+		public String getMessageDigestAlgorithm() {
+			return "SHA-256";
+		}
+	}
+
+	private File folder;
+	private File cacheFile;
+	private File artifact;
+	private X509Certificate certificate;
+	/** The time of the clock of the caches. */
+	private long now;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		folder = getTempFolder();
+		cacheFile = new File(folder, "signatures.cache");
+		artifact = new File(folder, "artifact.jar");
+		File signed = TestData.getFile("CertificateChecker/selfsigned/plugins", "blah_1.0.0.123456.jar");
+		Files.copy(signed.toPath(), artifact.toPath());
+		certificate = getCertificate(signed);
+		now = certificate.getNotBefore().getTime();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		delete(folder);
+		super.tearDown();
+	}
+
+	private static X509Certificate getCertificate(File jar) throws IOException {
+		try (JarFile jarFile = new JarFile(jar, true)) {
+			JarEntry entry = jarFile.getJarEntry("lol");
+			// the certificates are known once the entry has been read
+			try (InputStream input = jarFile.getInputStream(entry)) {
+				input.readAllBytes();
+			}
+			return (X509Certificate) entry.getCertificates()[0];
+		}
+	}
+
+	private SignatureVerificationCache load(String trustStoreVersion) {
+		return SignatureVerificationCache.load(cacheFile, trustStoreVersion, () -> now);
+	}
+
+	private SignerInfo[] trusted() {
+		return new SignerInfo[] {new Signer(true, certificate)};
+	}
+
+	public void testHitOnlyForSameContent() throws IOException {
+		SignatureVerificationCache cache = load(TRUST_STORE);
+		String hash = SignatureVerificationCache.hash(artifact);
+		assertFalse(cache.isTrusted(hash));
+		assertTrue(cache.record(hash, trusted(), List.of()));
+		assertTrue(cache.isTrusted(hash));
+		cache.save();
+
+		assertTrue(load(TRUST_STORE).isTrusted(SignatureVerificationCache.hash(artifact)));
+		// the same artifact with another content must be verified again
+		Files.write(artifact.toPath(), new byte[] {0}, StandardOpenOption.APPEND);
+		String changed = SignatureVerificationCache.hash(artifact);
+		assertFalse(hash.equals(changed));
+		assertFalse(load(TRUST_STORE).isTrusted(changed));
+	}
+
+	public void testTrustStoreChangeInvalidatesEntries() throws IOException {
+		SignatureVerificationCache cache = load(TRUST_STORE);
+		String hash = SignatureVerificationCache.hash(artifact);
+		cache.record(hash, trusted(), List.of());
+		cache.save();
+
+		// the version covers the trust anchors and the signature validity policy
+		SignatureVerificationCache other = load("trust store 2");
+		assertFalse(other.isTrusted(hash));
+		other.save();
+		// the entries of the previous trust store have been dropped
+		assertFalse(load(TRUST_STORE).isTrusted(hash));
+	}
+
+	public void testEntriesExpire() throws IOException {
+		long notAfter = certificate.getNotAfter().getTime();
+		SignatureVerificationCache cache = load(TRUST_STORE);
+		String hash = SignatureVerificationCache.hash(artifact);
+		cache.record(hash, trusted(), List.of());
+		cache.save();
+
+		now = notAfter - 1;
+		assertTrue(cache.isTrusted(hash));
+		assertTrue(load(TRUST_STORE).isTrusted(hash));
+		now = notAfter;
+		assertFalse(cache.isTrusted(hash));
+		assertFalse(load(TRUST_STORE).isTrusted(hash));
+		// an artifact signed by an expired certificate is not recorded
+		assertFalse(load(TRUST_STORE).record(hash, trusted(), List.of()));
+	}
+
+	public void testUntrustedResultsAreNotCached() throws IOException {
+		SignatureVerificationCache cache = load(TRUST_STORE);
+		String hash = SignatureVerificationCache.hash(artifact);
+		// unsigned
+		assertFalse(cache.record(hash, new SignerInfo[0], List.of()));
+		// signed by an untrusted certificate
+		assertFalse(cache.record(hash, new SignerInfo[] {new Signer(false, certificate)}, List.of()));
+		// signed by a trusted certificate outside of its validity range
+		SignerInfo[] signers = trusted();
+		assertFalse(cache.record(hash, signers, List.of(signers)));
+		assertFalse(cache.isTrusted(hash));
+		cache.save();
+		assertFalse(cacheFile.exists());
+
+		// one trusted and valid signature is enough
+		SignerInfo untrusted = new Signer(false, certificate);
+		assertTrue(cache.record(hash, new SignerInfo[] {untrusted, signers[0]}, List.of(untrusted)));
+		assertTrue(cache.isTrusted(hash));
+	}
+}
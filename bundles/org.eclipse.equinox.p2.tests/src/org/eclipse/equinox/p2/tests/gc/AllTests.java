@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2010 IBM Corporation and others.
+ *  Copyright (c) 2010, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -20,7 +20,7 @@ import org.junit.runners.Suite;
  * Performs all automated gc tests.
  */
 @RunWith(Suite.class)
-@Suite.SuiteClasses({ GCCleanTest.class })
+@Suite.SuiteClasses({ GCCleanTest.class, PersistentMarkSetsTest.class })
 public class AllTests {
 // test suite
 }
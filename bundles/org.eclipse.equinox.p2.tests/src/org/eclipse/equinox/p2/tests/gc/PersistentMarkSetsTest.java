@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.gc;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.equinox.internal.p2.garbagecollector.CoreGarbageCollector;
+import org.eclipse.equinox.internal.p2.garbagecollector.PersistentMarkSets;
+import org.eclipse.equinox.internal.p2.metadata.ArtifactKey;
+import org.eclipse.equinox.p2.core.ProvisionException;
+import org.eclipse.equinox.p2.metadata.IArtifactKey;
+import org.eclipse.equinox.p2.metadata.Version;
+import org.eclipse.equinox.p2.repository.artifact.ArtifactKeyQuery;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactRepository;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactRepositoryManager;
+import org.eclipse.equinox.p2.repository.artifact.spi.ArtifactDescriptor;
+import org.eclipse.equinox.p2.tests.AbstractProvisioningTest;
+
+/**
+ * Tests for the mark sets kept next to a repository by the incremental garbage
+ * collection.
+ */
+public class PersistentMarkSetsTest extends AbstractProvisioningTest {
+	private static final IArtifactKey A = new ArtifactKey("osgi.bundle", "a", Version.create("1.0.0"));
+	private static final IArtifactKey B = new ArtifactKey("osgi.bundle", "b", Version.create("1.0.0"));
+	private static final IArtifactKey C = new ArtifactKey("osgi.bundle", "c", Version.create("1.0.0"));
+
+	@SuppressWarnings("removal")
+	private IArtifactRepository createRepository(String name) throws ProvisionException {
+		File folder = getTestFolder(name);
+		IArtifactRepository repo = getArtifactRepositoryManager().createRepository(folder.toURI(), "test", IArtifactRepositoryManager.TYPE_SIMPLE_REPOSITORY, new HashMap<>());
+		for (IArtifactKey key : List.of(A, B, C))
+			repo.addDescriptor(new ArtifactDescriptor(key), new NullProgressMonitor());
+		return repo;
+	}
+
+	public void testReferenceCounts() throws ProvisionException, IOException {
+		try (PersistentMarkSets markSets = PersistentMarkSets.load(createRepository("PersistentMarkSetsTest.testReferenceCounts"))) {
+			checkReferenceCounts(markSets);
+		}
+	}
+
+	private void checkReferenceCounts(PersistentMarkSets markSets) {
+		assertTrue("1.0", markSets.isEmpty());
+
+		Set<IArtifactKey> released = new HashSet<>();
+		markSets.update("p1", 1, List.of(A, B), released);
+		markSets.update("p2", 1, List.of(B, C), released);
+		assertTrue("1.1", released.isEmpty());
+		assertEquals("1.2", 2, markSets.getReferenceCount(B));
+		assertTrue("1.3", markSets.isCurrent("p1", 1));
+		assertFalse("1.4", markSets.isCurrent("p1", 2));
+
+		// p1 no longer uses A, and B is still used by p2
+		markSets.update("p1", 2, List.of(B), released);
+		assertEquals("2.0", Set.of(A), released);
+		assertEquals("2.1", 2, markSets.getReferenceCount(B));
+
+		released.clear();
+		markSets.remove("p2", released);
+		assertEquals("3.0", Set.of(C), released);
+		assertEquals("3.1", Set.of(B), markSets.getReferencedKeys());
+		assertEquals("3.2", Set.of("p1"), markSets.getProfiles());
+
+		// a key referenced again is no longer released
+		markSets.update("p3", 1, List.of(C), released);
+		assertTrue("4.0", released.isEmpty());
+	}
+
+	public void testSaveAndLoad() throws Exception {
+		IArtifactRepository repository = createRepository("PersistentMarkSetsTest.testSaveAndLoad");
+		try (PersistentMarkSets markSets = PersistentMarkSets.load(repository)) {
+			markSets.update("p1", 5, List.of(A, B), new HashSet<>());
+			markSets.update("p2", 7, List.of(B), new HashSet<>());
+			markSets.save();
+		}
+
+		try (PersistentMarkSets loaded = PersistentMarkSets.load(repository)) {
+			assertEquals("1.0", Set.of("p1", "p2"), loaded.getProfiles());
+			assertTrue("1.1", loaded.isCurrent("p1", 5));
+			assertTrue("1.2", loaded.isCurrent("p2", 7));
+			assertEquals("1.3", Set.of(A, B), loaded.getReferencedKeys());
+			assertEquals("1.4", 2, loaded.getReferenceCount(B));
+		}
+	}
+
+	public void testExclusiveAccess() throws Exception {
+		IArtifactRepository repository = createRepository("PersistentMarkSetsTest.testExclusiveAccess");
+		CountDownLatch loaded = new CountDownLatch(1);
+		AtomicReference<Object> seen = new AtomicReference<>();
+		Thread other;
+		try (PersistentMarkSets markSets = PersistentMarkSets.load(repository)) {
+			markSets.update("p1", 1, List.of(A), new HashSet<>());
+			// another agent collecting the same repository
+			other = new Thread(() -> {
+				try (PersistentMarkSets otherMarkSets = PersistentMarkSets.load(repository)) {
+					seen.set(new HashSet<>(otherMarkSets.getProfiles()));
+				} catch (IOException e) {
+					seen.set(e);
+				}
+				loaded.countDown();
+			});
+			other.start();
+			assertFalse("1.0", loaded.await(200, TimeUnit.MILLISECONDS));
+			markSets.save();
+		}
+		assertTrue("1.1", loaded.await(10, TimeUnit.SECONDS));
+		other.join();
+		// the other agent reads the mark sets once they have been saved
+		assertEquals("1.2", Set.of("p1"), seen.get());
+	}
+
+	public void testRemoveReleasedKeys() throws ProvisionException {
+		IArtifactRepository repository = createRepository("PersistentMarkSetsTest.testRemoveReleasedKeys");
+		IArtifactKey unknown = new ArtifactKey("osgi.bundle", "d", Version.create("1.0.0"));
+
+		new CoreGarbageCollector().remove(List.of(A, unknown), repository);
+
+		assertEquals("1.0", Set.of(B, C), repository.query(ArtifactKeyQuery.ALL_KEYS, null).toSet());
+	}
+}
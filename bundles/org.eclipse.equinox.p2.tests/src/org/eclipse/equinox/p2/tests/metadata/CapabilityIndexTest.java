@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.metadata;
+
+import java.util.*;
+import org.eclipse.equinox.internal.p2.metadata.IUMap;
+import org.eclipse.equinox.internal.p2.metadata.InstallableUnit;
+import org.eclipse.equinox.internal.p2.metadata.index.CapabilityIndex;
+import org.eclipse.equinox.internal.p2.metadata.index.IndexProvider;
+import org.eclipse.equinox.p2.metadata.*;
+import org.eclipse.equinox.p2.metadata.index.IIndex;
+import org.eclipse.equinox.p2.query.IQuery;
+import org.eclipse.equinox.p2.query.QueryUtil;
+import org.eclipse.equinox.p2.tests.AbstractProvisioningTest;
+
+/**
+ * Tests that the {@link CapabilityIndex} kept by an {@link IUMap} stays
+ * consistent with the map as units are added and removed.
+ */
+public class CapabilityIndexTest extends AbstractProvisioningTest {
+	private static final String NS = "test.namespace";
+
+	/**
+	 * Queries an {@link IUMap}, failing if a query does not use the capability index.
+	 */
+	static class IUMapQueryable extends IndexProvider<IInstallableUnit> {
+		final IUMap units;
+		boolean everythingUsed;
+
+		IUMapQueryable(IUMap units) {
+			this.units = units;
+		}
+
+		@Override
+		public IIndex<IInstallableUnit> getIndex(String memberName) {
+			return InstallableUnit.MEMBER_PROVIDED_CAPABILITIES.equals(memberName) ? units.getCapabilityIndex() : null;
+		}
+
+		@Override
+		public Iterator<IInstallableUnit> everything() {
+			everythingUsed = true;
+			return units.iterator();
+		}
+
+		@Override
+		public boolean contains(IInstallableUnit element) {
+			return units.contains(element);
+		}
+
+		@Override
+		public Object getManagedProperty(Object client, String memberName, Object key) {
+			return null;
+		}
+	}
+
+	private static IInstallableUnit createUnit(int id) {
+		IProvidedCapability[] provides = new IProvidedCapability[] {MetadataFactory.createProvidedCapability(NS, "cap" + (id % 7), Version.createOSGi(1, 0, 0)), MetadataFactory.createProvidedCapability(NS, "cap" + (id % 3), Version.createOSGi(1, 0, 0)), MetadataFactory.createProvidedCapability(NS, "unit" + id, Version.createOSGi(1, 0, 0))};
+		return createIU("iu" + (id % 20), Version.createOSGi(1, id, 0), provides);
+	}
+
+	private static Set<IInstallableUnit> expected(IUMap units, IRequirement requirement) {
+		Set<IInstallableUnit> result = new HashSet<>();
+		for (Iterator<IInstallableUnit> iter = units.iterator(); iter.hasNext();) {
+			IInstallableUnit iu = iter.next();
+			if (requirement.isMatch(iu))
+				result.add(iu);
+		}
+		return result;
+	}
+
+	private static void assertConsistent(IUMap units) {
+		List<String> names = new ArrayList<>();
+		for (int i = 0; i < 8; i++)
+			names.add("cap" + i);
+		for (int i = 0; i < 1000; i += 7)
+			names.add("unit" + i);
+		assertConsistent(units, names);
+	}
+
+	private static void assertConsistent(IUMap units, List<String> names) {
+		IUMapQueryable queryable = new IUMapQueryable(units);
+		for (String name : names) {
+			IRequirement requirement = MetadataFactory.createRequirement(NS, name, VersionRange.emptyRange, null, false, true);
+			IQuery<IInstallableUnit> query = QueryUtil.createMatchQuery(requirement.getMatches());
+			assertEquals(name, expected(units, requirement), queryable.query(query, null).toUnmodifiableSet());
+		}
+		IRequirement byName = MetadataFactory.createRequirement(IInstallableUnit.NAMESPACE_IU_ID, "iu3", VersionRange.emptyRange, null, false, true);
+		assertEquals(expected(units, byName), queryable.query(QueryUtil.createMatchQuery(byName.getMatches()), null).toUnmodifiableSet());
+		assertFalse("Index was not used", queryable.everythingUsed);
+	}
+
+	public void testIncrementalUpdates() {
+		IUMap units = new IUMap();
+		for (int i = 0; i < 100; i++)
+			units.add(createUnit(i));
+		assertConsistent(units);
+
+		// changes after the index has been created must be reflected by it
+		for (int i = 100; i < 200; i++)
+			units.add(createUnit(i));
+		assertConsistent(units);
+		for (int i = 0; i < 200; i += 3)
+			units.remove(createUnit(i));
+		assertConsistent(units);
+
+		// removing most units compacts the index
+		for (int i = 0; i < 190; i++)
+			units.remove(createUnit(i));
+		assertConsistent(units);
+		units.add(createUnit(0));
+		assertConsistent(units);
+	}
+
+	public void testRandomUpdates() {
+		Random random = new Random(4711);
+		IUMap units = new IUMap();
+		units.getCapabilityIndex();
+		for (int round = 0; round < 10; round++) {
+			for (int i = 0; i < 500; i++) {
+				int id = random.nextInt(1000);
+				if (random.nextBoolean())
+					units.add(createUnit(id));
+				else
+					units.remove(createUnit(id));
+			}
+			assertConsistent(units);
+		}
+	}
+
+	public void testDuplicateAdd() {
+		IUMap units = new IUMap();
+		units.add(createUnit(1));
+		CapabilityIndex index = units.getCapabilityIndex();
+		units.add(createUnit(1));
+		units.remove(createUnit(1));
+		assertSame(index, units.getCapabilityIndex());
+		assertConsistent(units);
+		assertFalse(units.iterator().hasNext());
+	}
+
+	public void testCloneIsIndependent() {
+		IUMap units = new IUMap();
+		for (int i = 0; i < 50; i++)
+			units.add(createUnit(i));
+		units.getCapabilityIndex();
+		IUMap copy = units.clone();
+		for (int i = 50; i < 100; i++)
+			copy.add(createUnit(i));
+		for (int i = 0; i < 50; i += 2) {
+			copy.remove(createUnit(i));
+			units.remove(createUnit(i + 1));
+		}
+		assertConsistent(units);
+		assertConsistent(copy);
+	}
+
+	public void testUnitsWithoutCapabilities() {
+		IUMap units = new IUMap();
+		IInstallableUnit bare = InstallableUnit.contextIU(Collections.emptyMap());
+		units.add(bare);
+		units.add(createUnit(1));
+		assertConsistent(units);
+		units.remove(bare);
+		assertConsistent(units);
+	}
+}
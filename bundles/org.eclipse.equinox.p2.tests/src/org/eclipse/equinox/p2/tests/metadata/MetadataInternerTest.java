@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.metadata;
+
+import java.io.*;
+import java.net.URL;
+import java.util.*;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.equinox.internal.p2.metadata.MetadataInterner;
+import org.eclipse.equinox.internal.p2.metadata.repository.MetadataRepositoryIO;
+import org.eclipse.equinox.p2.metadata.*;
+import org.eclipse.equinox.p2.repository.metadata.IMetadataRepository;
+import org.eclipse.equinox.p2.repository.metadata.IMetadataRepositoryManager;
+import org.eclipse.equinox.p2.repository.metadata.spi.AbstractMetadataRepository.RepositoryState;
+import org.eclipse.equinox.p2.tests.AbstractProvisioningTest;
+
+/**
+ * Tests the {@link MetadataInterner} agent service.
+ */
+public class MetadataInternerTest extends AbstractProvisioningTest {
+
+	public void testSharesEqualObjects() {
+		MetadataInterner interner = new MetadataInterner(true);
+		IProvidedCapability capability = MetadataFactory.createProvidedCapability("ns", "name", Version.create("1.0.0"));
+		IRequirement requirement = MetadataFactory.createRequirement("ns", "name", new VersionRange("[1.0.0,2.0.0)"), null, false, false);
+		Version version = Version.create("1.2.3.qualifier");
+
+		assertSame(capability, interner.intern(capability));
+		assertSame(requirement, interner.intern(requirement));
+		assertSame(version, interner.intern(version));
+		assertEquals(3, interner.getMisses());
+		assertEquals(0, interner.getHits());
+
+		assertSame(capability, interner.intern(MetadataFactory.createProvidedCapability("ns", "name", Version.create("1.0.0"))));
+		assertSame(requirement, interner.intern(MetadataFactory.createRequirement("ns", "name", new VersionRange("[1.0.0,2.0.0)"), null, false, false)));
+		assertSame(version, interner.intern(Version.create("1.2.3.qualifier")));
+		assertEquals(3, interner.getHits());
+		assertEquals(3, interner.size());
+	}
+
+	public void testKeepsStateOutsideOfEquals() {
+		MetadataInterner interner = new MetadataInterner(true);
+		IRequirement described = MetadataFactory.createRequirement("ns", "name", VersionRange.emptyRange, null, 0, 1, true, "first");
+		IRequirement other = MetadataFactory.createRequirement("ns", "name", VersionRange.emptyRange, null, 0, 1, true, "second");
+		assertEquals(described, other);
+		assertSame(described, interner.intern(described));
+		assertSame(other, interner.intern(other));
+	}
+
+	public void testDisabled() {
+		MetadataInterner interner = new MetadataInterner(false);
+		IProvidedCapability capability = MetadataFactory.createProvidedCapability("ns", "name", Version.create("1.0.0"));
+		interner.intern(capability);
+		IProvidedCapability equal = MetadataFactory.createProvidedCapability("ns", "name", Version.create("1.0.0"));
+		assertSame(equal, interner.intern(equal));
+		assertEquals(0, interner.size());
+		assertEquals(0, interner.getHits() + interner.getMisses());
+	}
+
+	public void testSharedAcrossRepositories() throws Exception {
+		assertNotNull(getAgent().getService(MetadataInterner.class));
+		File repoFolder = getTempFolder();
+		IMetadataRepository repository = getMetadataRepositoryManager().createRepository(repoFolder.toURI(), "interner", IMetadataRepositoryManager.TYPE_SIMPLE_REPOSITORY, null);
+		IRequirement requirement = MetadataFactory.createRequirement(IInstallableUnit.NAMESPACE_IU_ID, "b", new VersionRange("[1.0.0,2.0.0)"), null, false, false);
+		repository.addInstallableUnits(List.of(createIU("a", Version.create("1.0.0"), new IRequirement[] {requirement}), createIU("b", Version.create("1.0.0"))));
+		ByteArrayOutputStream content = new ByteArrayOutputStream();
+		new MetadataRepositoryIO(getAgent()).write(repository, content);
+		getMetadataRepositoryManager().removeRepository(repoFolder.toURI());
+		delete(repoFolder);
+
+		Map<String, IInstallableUnit> first = read(content.toByteArray());
+		Map<String, IInstallableUnit> second = read(content.toByteArray());
+		assertNotSame(first.get("a"), second.get("a"));
+		assertSame(first.get("a").getRequirements().iterator().next(), second.get("a").getRequirements().iterator().next());
+		assertSame(first.get("b").getProvidedCapabilities().iterator().next(), second.get("b").getProvidedCapabilities().iterator().next());
+		assertSame(first.get("b").getVersion(), second.get("b").getVersion());
+	}
+
+	private Map<String, IInstallableUnit> read(byte[] content) throws Exception {
+		RepositoryState state = new MetadataRepositoryIO(getAgent()).readState(new URL("file:/interner"), new ByteArrayInputStream(content), new NullProgressMonitor());
+		Map<String, IInstallableUnit> units = new HashMap<>();
+		for (IInstallableUnit unit : state.Units)
+			units.put(unit.getId(), unit);
+		return units;
+	}
+}
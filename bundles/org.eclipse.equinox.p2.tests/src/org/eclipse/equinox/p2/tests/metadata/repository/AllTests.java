@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2007, 2015 IBM Corporation and others.
+ *  Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -24,7 +24,7 @@ import org.junit.runners.Suite;
 @Suite.SuiteClasses({
 		BatchExecuteMetadataRepositoryTest.class, CompositeMetadataRepositoryTest.class,
 		JarURLMetadataRepositoryTest.class, LocalMetadataRepositoryTest.class, SPIMetadataRepositoryTest.class,
-		StandaloneSerializationTest.class, MetadataRepositoryManagerTest.class, NoFailOver.class,
+		IUStreamReaderTest.class, StandaloneSerializationTest.class, MetadataRepositoryManagerTest.class, MetadataSnapshotTest.class, NoFailOver.class,
 		SiteIndexFileTest.class, XZedRepositoryTest.class
 })
 public class AllTests {
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.metadata.repository;
+
+import java.io.*;
+import java.util.*;
+import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+import org.eclipse.equinox.p2.metadata.Version;
+import org.eclipse.equinox.p2.metadata.expression.IExpression;
+import org.eclipse.equinox.p2.metadata.io.IUSerializer;
+import org.eclipse.equinox.p2.metadata.io.IUStreamReader;
+import org.eclipse.equinox.p2.query.*;
+import org.eclipse.equinox.p2.repository.metadata.IMetadataRepository;
+import org.eclipse.equinox.p2.tests.AbstractProvisioningTest;
+
+/**
+ * Tests reading units one at a time with {@link IUStreamReader}.
+ */
+public class IUStreamReaderTest extends AbstractProvisioningTest {
+
+	public void testRepositoryContent() throws Exception {
+		assertSameUnits("testData/metadataRepo/good");
+		assertSameUnits("testData/metadataRepo/multipleversions1");
+	}
+
+	public void testSerializedUnits() throws Exception {
+		List<IInstallableUnit> units = List.of(createIU("a", Version.create("1.0.0")), createIU("b", Version.create("2.0.0")), createIU("c", Version.create("3.0.0")));
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		new IUSerializer(output).write(units);
+
+		List<IInstallableUnit> read = new ArrayList<>();
+		new IUStreamReader().read(new ByteArrayInputStream(output.toByteArray()), read::add);
+		assertEquals(units, read);
+	}
+
+	public void testFilter() throws Exception {
+		File content = getTestData("content", "testData/metadataRepo/multipleversions1/content.xml");
+		IMetadataRepository repository = getMetadataRepositoryManager().loadRepository(content.getParentFile().toURI(), null);
+		IInstallableUnit expected = repository.query(QueryUtil.ALL_UNITS, null).iterator().next();
+
+		List<IInstallableUnit> read = new ArrayList<>();
+		try (InputStream input = new FileInputStream(content)) {
+			new IUStreamReader(QueryUtil.createIUQuery(expected.getId())).read(input, read::add);
+		}
+		assertFalse(read.isEmpty());
+		for (IInstallableUnit unit : read)
+			assertEquals(expected.getId(), unit.getId());
+		assertEquals(repository.query(QueryUtil.createIUQuery(expected.getId()), null).toUnmodifiableSet(), new HashSet<>(read));
+	}
+
+	public void testCompoundFilter() throws Exception {
+		File content = getTestData("content", "testData/metadataRepo/multipleversions1/content.xml");
+		IMetadataRepository repository = getMetadataRepositoryManager().loadRepository(content.getParentFile().toURI(), null);
+		IInstallableUnit expected = repository.query(QueryUtil.ALL_UNITS, null).iterator().next();
+		IQuery<IInstallableUnit> filter = QueryUtil.createCompoundQuery(QueryUtil.createIUQuery(expected.getId()), QueryUtil.createMatchQuery("version == $0", expected.getVersion()), true);
+
+		List<IInstallableUnit> read = new ArrayList<>();
+		try (InputStream input = new FileInputStream(content)) {
+			new IUStreamReader(filter).read(input, read::add);
+		}
+		assertEquals(List.of(expected), read);
+	}
+
+	public void testRejectsQueriesOnAllUnits() {
+		try {
+			new IUStreamReader(QueryUtil.createLatestIUQuery());
+			fail("The latest query cannot be applied to a stream");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	public void testRejectsQueriesWithoutExpression() {
+		IQuery<IInstallableUnit> query = new IQuery<>() {
+			@Override
+			public IQueryResult<IInstallableUnit> perform(Iterator<IInstallableUnit> iterator) {
+				return new Collector<>();
+			}
+
+			@Override
+			public IExpression getExpression() {
+				return null;
+			}
+		};
+		try {
+			new IUStreamReader(query);
+			fail("A query without expression cannot be applied to a stream");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	public void testInvalidDocument() {
+		try {
+			new IUStreamReader().read(new ByteArrayInputStream("<units><unit".getBytes()), unit -> fail());
+			fail("The document is not valid");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+
+	private void assertSameUnits(String location) throws Exception {
+		File content = getTestData(location, location + "/content.xml");
+		IMetadataRepository repository = getMetadataRepositoryManager().loadRepository(content.getParentFile().toURI(), null);
+		Set<IInstallableUnit> read = new HashSet<>();
+		try (InputStream input = new FileInputStream(content)) {
+			new IUStreamReader().read(input, read::add);
+		}
+		assertEquals(repository.query(QueryUtil.ALL_UNITS, null).toUnmodifiableSet(), read);
+	}
+}
@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.metadata.repository;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.*;
+import org.eclipse.equinox.internal.p2.metadata.repository.MetadataSnapshotCache;
+import org.eclipse.equinox.p2.core.IProvisioningAgent;
+import org.eclipse.equinox.p2.core.ProvisionException;
+import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+import org.eclipse.equinox.p2.metadata.IInstallableUnitPatch;
+import org.eclipse.equinox.p2.query.QueryUtil;
+import org.eclipse.equinox.p2.repository.metadata.IMetadataRepository;
+import org.eclipse.equinox.p2.repository.metadata.IMetadataRepositoryManager;
+import org.eclipse.equinox.p2.tests.AbstractProvisioningTest;
+
+/**
+ * Tests loading metadata repositories from the binary snapshots kept by
+ * {@link MetadataSnapshotCache}.
+ */
+public class MetadataSnapshotTest extends AbstractProvisioningTest {
+	private File agentLocation;
+	private final List<IProvisioningAgent> agents = new ArrayList<>();
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		System.setProperty(MetadataSnapshotCache.PROP_SNAPSHOTS, "true");
+		agentLocation = getTempFolder();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		System.clearProperty(MetadataSnapshotCache.PROP_SNAPSHOTS);
+		for (IProvisioningAgent agent : agents)
+			agent.stop();
+		delete(agentLocation);
+		super.tearDown();
+	}
+
+	public void testOrbitRepository() throws Exception {
+		assertSnapshotLoad("testData/orbitRepo");
+	}
+
+	public void testPatchRepository() throws Exception {
+		assertSnapshotLoad("testData/bug300104/hellopatch1");
+	}
+
+	public void testExternalizedRepository() throws Exception {
+		assertSnapshotLoad("testData/metadataRepo/externalized");
+	}
+
+	public void testXZRepository() throws Exception {
+		assertSnapshotLoad("testData/xzRepoTests/metadata/xzOnly");
+	}
+
+	public void testStaleSnapshot() throws Exception {
+		File repoFolder = getTempFolder();
+		IMetadataRepository repo = createAgent().getService(IMetadataRepositoryManager.class).createRepository(repoFolder.toURI(), "test", IMetadataRepositoryManager.TYPE_SIMPLE_REPOSITORY, null);
+		repo.addInstallableUnits(List.of(createIU("a")));
+
+		// the first load writes the snapshot
+		IMetadataRepository loaded = createAgent().getService(IMetadataRepositoryManager.class).loadRepository(repoFolder.toURI(), null);
+		assertEquals(1, loaded.query(QueryUtil.createIUAnyQuery(), null).toUnmodifiableSet().size());
+		loaded.addInstallableUnits(List.of(createIU("b")));
+
+		// the repository file changed, so the snapshot must not be used
+		loaded = createAgent().getService(IMetadataRepositoryManager.class).loadRepository(repoFolder.toURI(), null);
+		assertEquals(2, loaded.query(QueryUtil.createIUAnyQuery(), null).toUnmodifiableSet().size());
+		// the stale snapshot has been replaced
+		assertEquals(1, getSnapshots().length);
+		delete(repoFolder);
+	}
+
+	public void testOrphanedSnapshotIsPruned() throws Exception {
+		File keptFolder = getTempFolder();
+		copy("Copying test repository", getTestData("Loading test data", "testData/metadataRepo/externalized"), keptFolder);
+		File removedFolder = getTempFolder();
+		copy("Copying test repository", getTestData("Loading test data", "testData/orbitRepo"), removedFolder);
+		IProvisioningAgent agent = createAgent();
+		load(agent, keptFolder);
+		load(agent, removedFolder);
+		MetadataSnapshotCache cache = MetadataSnapshotCache.getCache(agent);
+		File kept = cache.getSnapshotFile(new File(keptFolder, "content.xml"));
+		File removed = cache.getSnapshotFile(new File(removedFolder, "content.xml"));
+		File unreadable = new File(kept.getParentFile(), "unreadable.snapshot");
+		Files.write(unreadable.toPath(), new byte[] {1, 2, 3});
+		assertTrue(kept.isFile());
+		assertTrue(removed.isFile());
+
+		delete(removedFolder);
+		cache.prune();
+		assertTrue(kept.isFile());
+		assertFalse(removed.exists());
+		assertFalse(unreadable.exists());
+		assertEquals(1, getSnapshots().length);
+		delete(keptFolder);
+	}
+
+	public void testCorruptSnapshot() throws Exception {
+		File repoFolder = getTempFolder();
+		copy("Copying test repository", getTestData("Loading test data", "testData/orbitRepo"), repoFolder);
+		IProvisioningAgent agent = createAgent();
+		Set<IInstallableUnit> expected = load(agent, repoFolder);
+		File snapshot = MetadataSnapshotCache.getCache(agent).getSnapshotFile(new File(repoFolder, "content.xml"));
+		assertTrue("Snapshot has not been written", snapshot.isFile());
+		byte[] content = Files.readAllBytes(snapshot.toPath());
+		Files.write(snapshot.toPath(), Arrays.copyOf(content, content.length / 2));
+
+		assertEquals(expected, load(createAgent(), repoFolder));
+		// the broken snapshot has been replaced
+		assertEquals(content.length, snapshot.length());
+		delete(repoFolder);
+	}
+
+	private void assertSnapshotLoad(String testData) throws Exception {
+		File repoFolder = getTempFolder();
+		copy("Copying test repository", getTestData("Loading test data", testData), repoFolder);
+
+		// the first load parses the XML, the second one reads the snapshot
+		Set<IInstallableUnit> parsed = load(createAgent(), repoFolder);
+		File[] snapshots = getSnapshots();
+		assertNotNull("No snapshot has been written", snapshots);
+		assertEquals(1, snapshots.length);
+		Set<IInstallableUnit> restored = load(createAgent(), repoFolder);
+
+		assertEquals(parsed.size(), restored.size());
+		Map<IInstallableUnit, IInstallableUnit> byKey = new HashMap<>();
+		for (IInstallableUnit iu : restored)
+			byKey.put(iu, iu);
+		for (IInstallableUnit expected : parsed) {
+			IInstallableUnit actual = byKey.get(expected);
+			assertNotNull("Missing " + expected, actual);
+			assertEquivalent(expected, actual);
+		}
+		delete(repoFolder);
+	}
+
+	private static void assertEquivalent(IInstallableUnit expected, IInstallableUnit actual) {
+		String message = expected.toString();
+		assertEquals(message, expected.isSingleton(), actual.isSingleton());
+		assertEquals(message, expected.getProperties(), actual.getProperties());
+		assertEquals(message, new ArrayList<>(expected.getProvidedCapabilities()), new ArrayList<>(actual.getProvidedCapabilities()));
+		assertEquals(message, new ArrayList<>(expected.getRequirements()), new ArrayList<>(actual.getRequirements()));
+		assertEquals(message, new ArrayList<>(expected.getMetaRequirements()), new ArrayList<>(actual.getMetaRequirements()));
+		assertEquals(message, expected.getFilter(), actual.getFilter());
+		assertEquals(message, new ArrayList<>(expected.getArtifacts()), new ArrayList<>(actual.getArtifacts()));
+		assertEquals(message, expected.getTouchpointType(), actual.getTouchpointType());
+		assertEquals(message, new ArrayList<>(expected.getTouchpointData()), new ArrayList<>(actual.getTouchpointData()));
+		assertEquals(message, new ArrayList<>(expected.getLicenses()), new ArrayList<>(actual.getLicenses()));
+		assertEquals(message, expected.getCopyright() == null, actual.getCopyright() == null);
+		if (expected.getCopyright() != null) {
+			assertEquals(message, expected.getCopyright().getBody(), actual.getCopyright().getBody());
+			assertEquals(message, expected.getCopyright().getLocation(), actual.getCopyright().getLocation());
+		}
+		assertEquals(message, expected.getUpdateDescriptor() == null, actual.getUpdateDescriptor() == null);
+		assertEquals(message, expected instanceof IInstallableUnitPatch, actual instanceof IInstallableUnitPatch);
+		if (expected instanceof IInstallableUnitPatch) {
+			IInstallableUnitPatch expectedPatch = (IInstallableUnitPatch) expected;
+			IInstallableUnitPatch actualPatch = (IInstallableUnitPatch) actual;
+			assertEquals(message, expectedPatch.getRequirementsChange(), actualPatch.getRequirementsChange());
+			assertEquals(message, expectedPatch.getLifeCycle(), actualPatch.getLifeCycle());
+			assertTrue(message, Arrays.deepEquals(expectedPatch.getApplicabilityScope(), actualPatch.getApplicabilityScope()));
+		}
+	}
+
+	private File[] getSnapshots() {
+		return new File(agentLocation, "org.eclipse.equinox.p2.metadata.repository/snapshots").listFiles();
+	}
+
+	private Set<IInstallableUnit> load(IProvisioningAgent agent, File repoFolder) throws ProvisionException {
+		IMetadataRepository repo = agent.getService(IMetadataRepositoryManager.class).loadRepository(repoFolder.toURI(), null);
+		return repo.query(QueryUtil.createIUAnyQuery(), null).toUnmodifiableSet();
+	}
+
+	private IProvisioningAgent createAgent() throws ProvisionException {
+		IProvisioningAgent agent = getAgentProvider().createAgent(agentLocation.toURI());
+		agents.add(agent);
+		return agent;
+	}
+}
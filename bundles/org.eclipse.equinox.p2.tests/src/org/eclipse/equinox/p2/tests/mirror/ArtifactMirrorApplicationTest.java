@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2008, 2017, 2021 IBM Corporation and others.
+ *  Copyright (c) 2008, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -1257,4 +1257,53 @@ public class ArtifactMirrorApplicationTest extends AbstractProvisioningTest {
 			fail("Error mirroring", e);
 		}
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Tests mirroring with several download threads
+	 */
+	public void testArtifactMirrorWithThreads() {
+		String[] args = {"-source", sourceRepo3Location.toURI().toString(), "-destination", destRepoLocation.toURI().toString(), "-threads", "4", "-verbose"};
+		try {
+			StringBuilder output = runMirrorApplication("Mirroring with threads", args);
+			assertContentEquals("1.0", getArtifactRepositoryManager().loadRepository(sourceRepo3Location.toURI(), null), getArtifactRepositoryManager().loadRepository(destRepoLocation.toURI(), null));
+			assertTrue(output.toString(), output.toString().contains("artifacts/s"));
+		} catch (Exception e) {
+			fail("Error mirroring", e);
+		}
+		// mirroring again only finds existing artifacts
+		try {
+			runMirrorApplication("Mirroring again", args);
+			assertContentEquals("2.0", getArtifactRepositoryManager().loadRepository(sourceRepo3Location.toURI(), null), getArtifactRepositoryManager().loadRepository(destRepoLocation.toURI(), null));
+		} catch (Exception e) {
+			fail("Error mirroring again", e);
+		}
+	}
+
+	/**
+	 * Tests that a missing artifact is reported when mirroring with several
+	 * download threads, and the others are mirrored
+	 */
+	public void testIgnoreErrorsWithThreads() throws Exception {
+		File errorSourceLocation = getTestData("loading error data", "testData/mirror/mirrorErrorSourceRepo");
+		String[] args = new String[] {"-source", errorSourceLocation.toURI().toString(), "-destination", destRepoLocation.toURI().toString(), "-ignoreErrors", "-threads", "4"};
+		runMirrorApplication("Running with errored source", args);
+		assertEquals("Verifying correct number of Keys", 1, getArtifactKeyCount(destRepoLocation.toURI()));
+	}
+
+	/**
+	 * Tests that a number of threads that is not a positive integer is reported
+	 */
+	public void testInvalidThreads() {
+		for (String threads : new String[] {"0", "many"}) {
+			String[] args = {"-source", sourceRepoLocation.toURI().toString(), "-destination", destRepoLocation.toURI().toString(), "-threads", threads};
+			try {
+				runMirrorApplication("Mirroring with invalid threads", args);
+				fail("Mirroring with " + threads + " threads should have failed");
+			} catch (IllegalArgumentException e) {
+				assertEquals(NLS.bind(Messages.MirrorApplication_invalid_threads, threads), e.getMessage());
+			} catch (Exception e) {
+				fail("Unexpected error", e);
+			}
+		}
+	}
+}
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.perf;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.*;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.tests.harness.PerformanceTestRunner;
+import org.eclipse.equinox.internal.p2.repository.Transport;
+import org.eclipse.equinox.internal.p2.transport.ecf.RepositoryTransport;
+import org.eclipse.equinox.internal.p2.transport.http.HttpClientTransport;
+
+/**
+ * Performance tests comparing the {@link HttpClientTransport} with the ECF
+ * based {@link RepositoryTransport} when downloading many small files
+ * concurrently from an HTTP server embedded in the test.
+ */
+public class TransportPerformanceTest extends ProvisioningPerformanceTest {
+	private static final int REPEATS = 5;
+	private static final int FILES = 200;
+	private static final int FILE_SIZE = 16 * 1024;
+	private static final int THREADS = 8;
+
+	private HttpServer server;
+	private URI base;
+	private Map<String, byte[]> files;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		files = new HashMap<>();
+		Random random = new Random(42);
+		for (int i = 0; i < FILES; i++) {
+			byte[] content = new byte[FILE_SIZE];
+			random.nextBytes(content);
+			files.put("/files/" + i + ".jar", content);
+		}
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		server.createContext("/files/", this::handle);
+		server.setExecutor(Executors.newFixedThreadPool(THREADS));
+		server.start();
+		base = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/files/");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		server.stop(0);
+		((ExecutorService) server.getExecutor()).shutdownNow();
+		super.tearDown();
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try (exchange) {
+			byte[] content = files.get(exchange.getRequestURI().getPath());
+			if (content == null) {
+				exchange.sendResponseHeaders(404, -1);
+				return;
+			}
+			exchange.sendResponseHeaders(200, content.length);
+			exchange.getResponseBody().write(content);
+		}
+	}
+
+	/**
+	 * Allows plain http for the local server, which would be redirected to https
+	 * otherwise.
+	 */
+	private static Map<String, Transport.ProtocolRule> allowHttp() {
+		return Map.of("http", Transport.ProtocolRule.ALLOW);
+	}
+
+	public void testConcurrentDownloadsHttpClient() {
+		Transport transport = new HttpClientTransport(getAgent()) {
+			@Override
+			public Map<String, ProtocolRule> getProtocolRules() {
+				return allowHttp();
+			}
+		};
+		runDownloads(transport, "Test concurrent downloads of " + FILES + " files with HttpClient");
+	}
+
+	public void testConcurrentDownloadsEcf() {
+		Transport transport = new RepositoryTransport(getAgent()) {
+			@Override
+			public Map<String, ProtocolRule> getProtocolRules() {
+				return allowHttp();
+			}
+		};
+		runDownloads(transport, "Test concurrent downloads of " + FILES + " files with ECF");
+	}
+
+	private void runDownloads(Transport transport, String name) {
+		new PerformanceTestRunner() {
+			ExecutorService executor;
+
+			@Override
+			protected void setUp() {
+				executor = Executors.newFixedThreadPool(THREADS);
+			}
+
+			@Override
+			protected void tearDown() {
+				executor.shutdownNow();
+			}
+
+			@Override
+			protected void test() throws Exception {
+				List<Future<?>> results = new ArrayList<>();
+				for (int i = 0; i < FILES; i++) {
+					URI location = base.resolve(i + ".jar");
+					results.add(executor.submit(() -> {
+						ByteArrayOutputStream target = new ByteArrayOutputStream(FILE_SIZE);
+						assertOK(transport.download(location, target, new NullProgressMonitor()));
+						return null;
+					}));
+				}
+				for (Future<?> result : results)
+					result.get();
+			}
+		}.run(this, name, REPEATS, 1);
+	}
+}
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.planner;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.equinox.internal.p2.director.PermissiveSlicer;
+import org.eclipse.equinox.internal.p2.director.Slicer;
+import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+import org.eclipse.equinox.p2.metadata.IRequirement;
+import org.eclipse.equinox.p2.query.IQueryable;
+import org.eclipse.equinox.p2.query.QueryUtil;
+import org.eclipse.equinox.p2.repository.metadata.IMetadataRepository;
+import org.eclipse.equinox.p2.tests.AbstractProvisioningTest;
+
+/**
+ * Slices the planner test repositories sequentially and with several threads,
+ * and checks that both produce the same slice and status.
+ */
+public class ParallelSlicerTest extends AbstractProvisioningTest {
+
+	protected IMetadataRepository loadRepository(String name, String path) throws Exception {
+		return getMetadataRepositoryManager().loadRepository(getTestData(name, path).toURI(), new NullProgressMonitor());
+	}
+
+	private static Map<String, String> win32() {
+		Map<String, String> context = new HashMap<>();
+		context.put("osgi.os", "win32");
+		context.put("osgi.ws", "win32");
+		context.put("osgi.arch", "x86");
+		return context;
+	}
+
+	private static Set<IInstallableUnit> featureGroups(IMetadataRepository repo) {
+		return repo.query(QueryUtil.createIUGroupQuery(), new NullProgressMonitor()).toUnmodifiableSet();
+	}
+
+	private void assertSameSlice(Supplier<Slicer> slicers, Collection<IInstallableUnit> roots) {
+		Slicer sequential = slicers.get();
+		IQueryable<IInstallableUnit> expected = sequential.slice(roots, new NullProgressMonitor());
+		for (int threads : new int[] {2, 4, 8}) {
+			Slicer parallel = slicers.get();
+			parallel.setThreads(threads);
+			IQueryable<IInstallableUnit> actual = parallel.slice(roots, new NullProgressMonitor());
+			if (expected == null) {
+				assertNull(actual);
+			} else {
+				assertNotNull(actual);
+				assertEquals(expected.query(QueryUtil.ALL_UNITS, null).toUnmodifiableSet(), actual.query(QueryUtil.ALL_UNITS, null).toUnmodifiableSet());
+			}
+			assertSameStatus(sequential.getStatus(), parallel.getStatus());
+		}
+	}
+
+	private static void assertSameStatus(IStatus expected, IStatus actual) {
+		assertEquals(expected.getSeverity(), actual.getSeverity());
+		assertEquals(expected.getMessage(), actual.getMessage());
+		IStatus[] expectedChildren = expected.getChildren();
+		IStatus[] actualChildren = actual.getChildren();
+		assertEquals(expectedChildren.length, actualChildren.length);
+		for (int i = 0; i < expectedChildren.length; i++)
+			assertSameStatus(expectedChildren[i], actualChildren[i]);
+	}
+
+	public void testPermissiveSlicerRepository() throws Exception {
+		IMetadataRepository repo = loadRepository("Repo for permissive slicer test", "testData/permissiveSlicer");
+		Set<IInstallableUnit> roots = featureGroups(repo);
+		assertFalse(roots.isEmpty());
+		assertSameSlice(() -> new Slicer(repo, win32(), false), roots);
+		assertSameSlice(() -> new Slicer(repo, win32(), true), roots);
+		assertSameSlice(() -> new PermissiveSlicer(repo, Map.of(), true, false, true, false, false), roots);
+		assertSameSlice(() -> new PermissiveSlicer(repo, win32(), true, true, false, false, false), roots);
+		assertSameSlice(() -> new PermissiveSlicer(repo, win32(), true, false, false, true, false), roots);
+	}
+
+	public void testGalileoRepository() throws Exception {
+		IMetadataRepository repo = loadRepository("Galileo M7", "testData/galileoM7");
+		Set<IInstallableUnit> roots = featureGroups(repo);
+		assertFalse(roots.isEmpty());
+		assertSameSlice(() -> new Slicer(repo, win32(), false), roots);
+		assertSameSlice(() -> new PermissiveSlicer(repo, Map.of(), true, true, true, false, false), roots);
+	}
+
+	public void testUnsatisfiedDependencies() throws Exception {
+		IMetadataRepository repo = loadRepository("Repo for slicer test", "testData/slicerBug365124Test");
+		Set<IInstallableUnit> roots = repo.query(QueryUtil.createIUAnyQuery(), new NullProgressMonitor()).toUnmodifiableSet();
+		Map<String, String> context = new HashMap<>();
+		context.put("osgi.os", "macosx");
+		context.put("osgi.ws", "cocoa");
+		context.put("osgi.arch", "x86_64");
+		Slicer slicer = new Slicer(repo, context, true);
+		slicer.slice(roots, new NullProgressMonitor());
+		assertNotOK(slicer.getStatus());
+		assertSameSlice(() -> new Slicer(repo, context, true), roots);
+	}
+
+	public void testOverriddenProcessIU() throws Exception {
+		IMetadataRepository repo = loadRepository("Repo for permissive slicer test", "testData/permissiveSlicer");
+		Set<IInstallableUnit> roots = featureGroups(repo);
+		Set<IInstallableUnit> processed = new HashSet<>();
+		Slicer slicer = new Slicer(repo, win32(), false) {
+			@Override
+			protected void processIU(IInstallableUnit iu) {
+				processed.add(iu);
+				super.processIU(iu);
+			}
+		};
+		slicer.setThreads(4);
+		IQueryable<IInstallableUnit> slice = slicer.slice(roots, new NullProgressMonitor());
+		assertNotNull(slice);
+		// every unit of the slice went through the override
+		assertEquals(slice.query(QueryUtil.ALL_UNITS, null).toUnmodifiableSet(), processed);
+	}
+
+	public void testConcurrentSlicingOptIn() throws Exception {
+		IMetadataRepository repo = loadRepository("Repo for permissive slicer test", "testData/permissiveSlicer");
+		Set<IInstallableUnit> roots = featureGroups(repo);
+		Thread caller = Thread.currentThread();
+		Set<Thread> threads = ConcurrentHashMap.newKeySet();
+		Slicer slicer = new Slicer(repo, win32(), false) {
+			@Override
+			protected boolean supportsConcurrentSlicing() {
+				return true;
+			}
+
+			@Override
+			protected boolean isApplicable(IInstallableUnit unit, IRequirement req) {
+				threads.add(Thread.currentThread());
+				return super.isApplicable(unit, req);
+			}
+		};
+		slicer.setThreads(4);
+		assertNotNull(slicer.slice(roots, new NullProgressMonitor()));
+		// the requirements were expanded by the threads of the slicer
+		threads.remove(caller);
+		assertFalse(threads.isEmpty());
+	}
+}
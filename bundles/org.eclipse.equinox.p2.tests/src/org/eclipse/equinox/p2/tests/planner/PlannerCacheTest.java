@@ -0,0 +1,195 @@
+/*******************************************************************************
+ *  Copyright (c) 2026 Eclipse contributors and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *  Contributors:
+ *      Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.planner;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.equinox.internal.p2.director.*;
+import org.eclipse.equinox.internal.provisional.p2.core.eventbus.ProvisioningListener;
+import org.eclipse.equinox.internal.provisional.p2.repository.RepositoryEvent;
+import org.eclipse.equinox.p2.engine.*;
+import org.eclipse.equinox.p2.metadata.*;
+import org.eclipse.equinox.p2.query.QueryUtil;
+import org.eclipse.equinox.p2.repository.IRepository;
+import org.eclipse.equinox.p2.tests.AbstractProvisioningTest;
+
+/**
+ * Tests that the {@link SimplePlanner} reuses the solution of a request it has
+ * already resolved, and only as long as its inputs are unchanged.
+ */
+public class PlannerCacheTest extends AbstractProvisioningTest {
+	IInstallableUnit a1;
+	IInstallableUnit c1;
+	List<IInstallableUnit> b;
+
+	IProfile profile;
+	private final List<SimplePlanner> planners = new ArrayList<>();
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		a1 = createIU("A", Version.create("1.0.0"), createRequiredCapabilities(IInstallableUnit.NAMESPACE_IU_ID, "B1", new VersionRange("[1.0.0, 2.0.0)")));
+		c1 = createIU("C", Version.create("1.0.0"), createRequiredCapabilities(IInstallableUnit.NAMESPACE_IU_ID, "B1", new VersionRange("[1.0.0, 2.0.0)")));
+		b = new ArrayList<>();
+		for (int i = 0; i < 5; i++)
+			b.add(createIU("B1", Version.create("1." + i + ".0"), true));
+		profile = createProfile("TestProfile." + getName());
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		// the planners are not services of the agent, which would stop them
+		for (SimplePlanner planner : planners)
+			planner.stop();
+		planners.clear();
+		super.tearDown();
+	}
+
+	private SimplePlanner createPlanner(int cacheSize) {
+		SimplePlanner planner = new SimplePlanner(getAgent(), cacheSize);
+		planners.add(planner);
+		return planner;
+	}
+
+	/**
+	 * Publishes a repository event and waits until it has been delivered to all
+	 * the listeners of the event bus.
+	 */
+	private void publishRepositoryEvent() throws InterruptedException {
+		CountDownLatch delivered = new CountDownLatch(1);
+		Object marker = new Object();
+		ProvisioningListener listener = event -> {
+			if (event.getSource() == marker)
+				delivered.countDown();
+		};
+		getEventBus().addListener(listener);
+		try {
+			getEventBus().publishEvent(new RepositoryEvent(URI.create("file:/planner/cache/test"), IRepository.TYPE_METADATA, RepositoryEvent.ADDED, true)); //$NON-NLS-1$
+			// the events are delivered in order by a single thread
+			getEventBus().publishEvent(new EventObject(marker));
+			assertTrue(delivered.await(10, TimeUnit.SECONDS));
+		} finally {
+			getEventBus().removeListener(listener);
+		}
+	}
+
+	/**
+	 * Returns a context that only offers the given units, so that the test does
+	 * not depend on the repositories known to the agent.
+	 */
+	private ProvisioningContext createContext(Collection<IInstallableUnit> units) {
+		ProvisioningContext context = new ProvisioningContext(getAgent());
+		context.setMetadataRepositories();
+		context.setArtifactRepositories();
+		context.setExtraInstallableUnits(new ArrayList<>(units));
+		return context;
+	}
+
+	private List<IInstallableUnit> available() {
+		List<IInstallableUnit> units = new ArrayList<>(b);
+		units.add(a1);
+		units.add(c1);
+		return units;
+	}
+
+	private IProvisioningPlan install(SimplePlanner planner, IInstallableUnit iu, ProvisioningContext context) {
+		ProfileChangeRequest request = new ProfileChangeRequest(profile);
+		request.addInstallableUnits(iu);
+		IProvisioningPlan plan = planner.getProvisioningPlan(request, context, null);
+		assertEquals(IStatus.OK, plan.getStatus().getSeverity());
+		return plan;
+	}
+
+	private Set<IInstallableUnit> futureState(IProvisioningPlan plan) {
+		return plan.getFutureState().query(QueryUtil.createIUAnyQuery(), null).toUnmodifiableSet();
+	}
+
+	public void testDisabled() {
+		SimplePlanner planner = createPlanner(0);
+		install(planner, a1, createContext(available()));
+		install(planner, a1, createContext(available()));
+		assertFalse(planner.getCache().isEnabled());
+		assertEquals(0, planner.getCache().size());
+		assertEquals(0, planner.getCache().getHits());
+	}
+
+	public void testUnchangedRequestIsCached() {
+		SimplePlanner planner = createPlanner(4);
+		IProvisioningPlan first = install(planner, a1, createContext(available()));
+		assertEquals(0, planner.getCache().getHits());
+		IProvisioningPlan second = install(planner, a1, createContext(available()));
+		assertTrue(planner.getCache().getHits() > 0);
+		assertEquals(futureState(first), futureState(second));
+		assertTrue(futureState(second).contains(b.get(4)));
+		assertEquals(countPlanElements(first), countPlanElements(second));
+	}
+
+	public void testChangedUnitsAreNotCached() {
+		SimplePlanner planner = createPlanner(4);
+		install(planner, a1, createContext(available()));
+		int misses = planner.getCache().getMisses();
+
+		IInstallableUnit b15 = createIU("B1", Version.create("1.5.0"), true);
+		List<IInstallableUnit> units = available();
+		units.add(b15);
+		IProvisioningPlan plan = install(planner, a1, createContext(units));
+		assertTrue(planner.getCache().getMisses() > misses);
+		assertTrue(futureState(plan).contains(b15));
+
+		// a different selection context is a different input as well
+		misses = planner.getCache().getMisses();
+		ProfileChangeRequest request = new ProfileChangeRequest(profile);
+		request.addInstallableUnits(a1);
+		request.setProfileProperty(IProfile.PROP_ENVIRONMENTS, "osgi.os=linux"); //$NON-NLS-1$
+		assertEquals(IStatus.OK, planner.getProvisioningPlan(request, createContext(units), null).getStatus().getSeverity());
+		assertTrue(planner.getCache().getMisses() > misses);
+	}
+
+	public void testCacheIsBounded() {
+		SimplePlanner planner = createPlanner(1);
+		install(planner, a1, createContext(available()));
+		install(planner, c1, createContext(available()));
+		assertEquals(1, planner.getCache().size());
+	}
+
+	public void testClearCache() {
+		SimplePlanner planner = createPlanner(4);
+		install(planner, a1, createContext(available()));
+		assertTrue(planner.getCache().size() > 0);
+		planner.clearCache();
+		assertEquals(0, planner.getCache().size());
+		install(planner, a1, createContext(available()));
+		assertTrue(planner.getCache().size() > 0);
+	}
+
+	public void testRepositoryEventClearsCache() throws InterruptedException {
+		SimplePlanner planner = createPlanner(4);
+		install(planner, a1, createContext(available()));
+		assertTrue(planner.getCache().size() > 0);
+		publishRepositoryEvent();
+		assertEquals(0, planner.getCache().size());
+	}
+
+	public void testStoppedPlannerIsNotNotified() throws InterruptedException {
+		SimplePlanner planner = createPlanner(4);
+		planner.stop();
+		install(planner, a1, createContext(available()));
+		assertTrue(planner.getCache().size() > 0);
+		publishRepositoryEvent();
+		assertTrue(planner.getCache().size() > 0);
+	}
+}
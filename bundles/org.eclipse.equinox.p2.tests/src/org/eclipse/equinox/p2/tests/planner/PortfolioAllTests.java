@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.planner;
+
+import org.eclipse.equinox.internal.p2.director.PortfolioSolver;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+
+/**
+ * Performs all automated planner tests with the portfolio of solvers, which
+ * have to find the solutions the tests expect from the default solver.
+ */
+@RunWith(Suite.class)
+@Suite.SuiteClasses({ AllTests.class })
+public class PortfolioAllTests {
+	private static String previous;
+
+	@BeforeClass
+	public static void enablePortfolio() {
+		previous = System.setProperty(PortfolioSolver.PROP_PORTFOLIO, Boolean.TRUE.toString());
+	}
+
+	@AfterClass
+	public static void restorePortfolio() {
+		if (previous == null)
+			System.clearProperty(PortfolioSolver.PROP_PORTFOLIO);
+		else
+			System.setProperty(PortfolioSolver.PROP_PORTFOLIO, previous);
+	}
+}
@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.planner;
+
+import java.util.*;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.equinox.internal.p2.director.*;
+import org.eclipse.equinox.internal.p2.director.PortfolioSolver.Configuration;
+import org.eclipse.equinox.p2.metadata.*;
+import org.eclipse.equinox.p2.query.*;
+import org.eclipse.equinox.p2.repository.metadata.IMetadataRepository;
+import org.eclipse.equinox.p2.tests.AbstractProvisioningTest;
+
+/**
+ * Solves planning problems with the default solver, with each configuration of
+ * the {@link PortfolioSolver} on its own and with all of them at the same time,
+ * and checks that they all find the same solution, or, for problems with
+ * several optimal solutions, that the portfolio finds the one of the default
+ * solver.
+ */
+public class PortfolioSolverTest extends AbstractProvisioningTest {
+
+	private static Map<String, String> win32() {
+		Map<String, String> context = new HashMap<>();
+		context.put("osgi.os", "win32");
+		context.put("osgi.ws", "win32");
+		context.put("osgi.arch", "x86");
+		return context;
+	}
+
+	private static IRequirement requirement(String id, VersionRange range, boolean optional) {
+		return MetadataFactory.createRequirement(IInstallableUnit.NAMESPACE_IU_ID, id, range, null, optional, false, true);
+	}
+
+	/**
+	 * Returns the solution found with the given configurations, or a
+	 * description of the failure.
+	 */
+	private static Object solve(IQueryable<IInstallableUnit> slice, Map<String, String> context, IInstallableUnit entryPoint, List<Configuration> configurations) {
+		Projector projector = new Projector(slice, context, new HashSet<>(), false);
+		if (configurations != null)
+			projector.setPortfolio(configurations);
+		projector.encode(entryPoint, new IInstallableUnit[0], new Collector<>(), List.of(), new NullProgressMonitor());
+		try {
+			IStatus status = projector.invokeSolver(new NullProgressMonitor());
+			if (status.getSeverity() == IStatus.ERROR) {
+				Set<Explanation> explanation = projector.getExplanation(new NullProgressMonitor());
+				assertFalse(explanation.isEmpty());
+				return status.getMessage();
+			}
+			return new HashSet<>(projector.extractSolution());
+		} finally {
+			projector.close();
+		}
+	}
+
+	private static void assertSameSolution(IQueryable<IInstallableUnit> slice, Map<String, String> context, IInstallableUnit entryPoint) {
+		Object expected = solve(slice, context, entryPoint, null);
+		for (Configuration configuration : Configuration.values())
+			assertEquals(configuration.toString(), expected, solve(slice, context, entryPoint, List.of(configuration)));
+		assertEquals("portfolio", expected, solve(slice, context, entryPoint, List.of(Configuration.values())));
+	}
+
+	/**
+	 * Creates a problem with several versions of each unit, singletons and
+	 * optional requirements, which may have no solution.
+	 */
+	private static List<IInstallableUnit> createProblem(Random random, int size) {
+		List<IInstallableUnit> units = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			boolean singleton = random.nextInt(3) > 0;
+			int versions = 1 + random.nextInt(4);
+			for (int v = 0; v < versions; v++) {
+				List<IRequirement> requirements = new ArrayList<>();
+				for (int j = random.nextInt(4); j > 0; j--) {
+					int target = random.nextInt(size);
+					int low = random.nextInt(3);
+					VersionRange range = new VersionRange(Version.create(low + ".0.0"), true, Version.create(low + 1 + random.nextInt(3) + ".0.0"), false);
+					if (target != i)
+						requirements.add(requirement("u" + target, range, random.nextInt(4) == 0));
+				}
+				units.add(createIU("u" + i, Version.create(v + ".0.0"), null, requirements.toArray(new IRequirement[0]), new IProvidedCapability[0], new HashMap<>(), null, null, singleton));
+			}
+		}
+		return units;
+	}
+
+	public void testGeneratedProblems() {
+		int unsatisfiable = 0;
+		for (int seed = 0; seed < 50; seed++) {
+			Random random = new Random(seed);
+			List<IInstallableUnit> units = createProblem(random, 30);
+			List<IRequirement> roots = new ArrayList<>();
+			for (int i = 0; i < 5; i++)
+				roots.add(requirement("u" + random.nextInt(30), VersionRange.emptyRange, random.nextInt(3) == 0));
+			IInstallableUnit entryPoint = createIU("entryPoint", Version.create("1.0.0"), roots.toArray(new IRequirement[0]));
+			units.add(entryPoint);
+			IQueryable<IInstallableUnit> slice = new QueryableArray(units);
+			if (solve(slice, Map.of(), entryPoint, null) instanceof String)
+				unsatisfiable++;
+			assertSameSolution(slice, Map.of(), entryPoint);
+		}
+		// both outcomes are covered
+		assertTrue(unsatisfiable > 0);
+		assertTrue(unsatisfiable < 50);
+	}
+
+	/**
+	 * Creates a problem with services that several singleton units provide
+	 * equally well, so that it often has several optimal solutions.
+	 */
+	private static List<IInstallableUnit> createProblemWithAlternatives(Random random, int services, List<IRequirement> roots) {
+		List<IInstallableUnit> units = new ArrayList<>();
+		for (int s = 0; s < services; s++) {
+			if (random.nextInt(3) == 0)
+				roots.add(MetadataFactory.createRequirement("service", "s" + s, VersionRange.emptyRange, null, false, false, true));
+			for (int p = 2 + random.nextInt(4); p > 0; p--) {
+				for (int v = 0; v < 2; v++) {
+					List<IRequirement> requirements = new ArrayList<>();
+					for (int j = random.nextInt(3); j > 0; j--)
+						requirements.add(MetadataFactory.createRequirement("service", "s" + random.nextInt(services), VersionRange.emptyRange, null, false, false, true));
+					IProvidedCapability service = MetadataFactory.createProvidedCapability("service", "s" + s, Version.create("1.0.0"));
+					units.add(createIU("s" + s + "p" + p, Version.create(v + ".0.0"), null, requirements.toArray(new IRequirement[0]), new IProvidedCapability[] {service}, new HashMap<>(), null, null, true));
+				}
+			}
+		}
+		return units;
+	}
+
+	/**
+	 * Checks that the portfolio keeps the solution of the default solver when
+	 * the configurations find different optimal solutions.
+	 */
+	public void testEqualCostAlternatives() {
+		int alternatives = 0;
+		for (int seed = 0; seed < 30; seed++) {
+			List<IRequirement> roots = new ArrayList<>();
+			List<IInstallableUnit> units = createProblemWithAlternatives(new Random(seed), 10, roots);
+			IInstallableUnit entryPoint = createIU("entryPoint", Version.create("1.0.0"), roots.toArray(new IRequirement[0]));
+			units.add(entryPoint);
+			IQueryable<IInstallableUnit> slice = new QueryableArray(units);
+
+			Object expected = solve(slice, Map.of(), entryPoint, null);
+			Set<Object> solutions = new HashSet<>();
+			for (Configuration configuration : Configuration.values())
+				solutions.add(solve(slice, Map.of(), entryPoint, List.of(configuration)));
+			if (solutions.size() > 1)
+				alternatives++;
+			// whichever solver finishes first
+			for (int run = 0; run < 5; run++)
+				assertEquals("seed " + seed, expected, solve(slice, Map.of(), entryPoint, List.of(Configuration.values())));
+		}
+		// the configurations do not all find the same optimal solution
+		assertTrue(alternatives > 0);
+	}
+
+	public void testGalileoRepository() throws Exception {
+		IMetadataRepository repo = getMetadataRepositoryManager().loadRepository(getTestData("Galileo M7", "testData/galileoM7").toURI(), new NullProgressMonitor());
+		List<IInstallableUnit> groups = new ArrayList<>(repo.query(QueryUtil.createIUGroupQuery(), new NullProgressMonitor()).toUnmodifiableSet());
+		assertFalse(groups.isEmpty());
+		groups.sort(null);
+		for (int i = 0; i < groups.size(); i += Math.max(1, groups.size() / 10)) {
+			IInstallableUnit group = groups.get(i);
+			IInstallableUnit entryPoint = createIU("entryPoint", Version.create("1.0.0"), new IRequirement[] {requirement(group.getId(), new VersionRange(group.getVersion(), true, group.getVersion(), true), false)});
+			Slicer slicer = new Slicer(repo, win32(), false);
+			IQueryable<IInstallableUnit> slice = slicer.slice(List.of(entryPoint), new NullProgressMonitor());
+			if (slice == null)
+				continue;
+			assertSameSolution(new CompoundQueryable<>(List.of(slice, new QueryableArray(List.of(entryPoint)))), win32(), entryPoint);
+		}
+	}
+}
@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.planner;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.function.Consumer;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.equinox.internal.p2.director.*;
+import org.eclipse.equinox.p2.metadata.*;
+import org.eclipse.equinox.p2.query.Collector;
+import org.eclipse.equinox.p2.tests.AbstractProvisioningTest;
+import org.sat4j.core.VecInt;
+import org.sat4j.specs.IVecInt;
+
+/**
+ * Tests the explanations of unsatisfiable problems, which are first found
+ * quickly and then reduced within a time budget.
+ */
+public class ProgressiveExplanationTest extends AbstractProvisioningTest {
+	private static final String PROP_EXPLANATION_TIMEOUT = "eclipse.p2.projector.explanationTimeout";
+
+	private String previous;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		previous = System.getProperty(PROP_EXPLANATION_TIMEOUT);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		if (previous == null)
+			System.clearProperty(PROP_EXPLANATION_TIMEOUT);
+		else
+			System.setProperty(PROP_EXPLANATION_TIMEOUT, previous);
+		super.tearDown();
+	}
+
+	private static IRequirement requirement(String id, VersionRange range, boolean optional) {
+		return MetadataFactory.createRequirement(IInstallableUnit.NAMESPACE_IU_ID, id, range, null, optional, false, true);
+	}
+
+	/**
+	 * Returns the explanation of the problem computed with the given time
+	 * budget, or <code>null</code> if the problem has a solution.
+	 */
+	private static Set<Explanation> explain(List<IInstallableUnit> units, IInstallableUnit entryPoint, long budget) {
+		return explain(units, entryPoint, budget, null);
+	}
+
+	private static Set<Explanation> explain(List<IInstallableUnit> units, IInstallableUnit entryPoint, long budget, Consumer<Set<Explanation>> progress) {
+		System.setProperty(PROP_EXPLANATION_TIMEOUT, Long.toString(budget));
+		Projector projector = new Projector(new QueryableArray(units), Map.of(), new HashSet<>(), false);
+		projector.encode(entryPoint, new IInstallableUnit[0], new Collector<>(), List.of(), new NullProgressMonitor());
+		try {
+			IStatus status = projector.invokeSolver(new NullProgressMonitor());
+			if (status.getSeverity() != IStatus.ERROR)
+				return null;
+			return projector.getExplanation(new NullProgressMonitor(), progress);
+		} finally {
+			projector.close();
+		}
+	}
+
+	/**
+	 * Creates a problem with several versions of each unit, singletons and
+	 * optional requirements, which may have no solution.
+	 */
+	private static List<IInstallableUnit> createProblem(Random random, int size) {
+		List<IInstallableUnit> units = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			boolean singleton = random.nextInt(3) > 0;
+			int versions = 1 + random.nextInt(4);
+			for (int v = 0; v < versions; v++) {
+				List<IRequirement> requirements = new ArrayList<>();
+				for (int j = random.nextInt(4); j > 0; j--) {
+					int target = random.nextInt(size);
+					int low = random.nextInt(3);
+					VersionRange range = new VersionRange(Version.create(low + ".0.0"), true, Version.create(low + 1 + random.nextInt(3) + ".0.0"), false);
+					if (target != i)
+						requirements.add(requirement("u" + target, range, random.nextInt(4) == 0));
+				}
+				units.add(createIU("u" + i, Version.create(v + ".0.0"), null, requirements.toArray(new IRequirement[0]), new IProvidedCapability[0], new HashMap<>(), null, null, singleton));
+			}
+		}
+		return units;
+	}
+
+	public void testReducedExplanationIsPartOfFirstOne() {
+		int unsatisfiable = 0;
+		for (int seed = 0; seed < 50; seed++) {
+			Random random = new Random(seed);
+			List<IInstallableUnit> units = createProblem(random, 60);
+			List<IRequirement> roots = new ArrayList<>();
+			for (int i = 0; i < 5; i++)
+				roots.add(requirement("u" + random.nextInt(60), VersionRange.emptyRange, random.nextInt(3) == 0));
+			IInstallableUnit entryPoint = createIU("entryPoint", Version.create("1.0.0"), roots.toArray(new IRequirement[0]));
+			units.add(entryPoint);
+
+			Set<Explanation> first = explain(units, entryPoint, 0);
+			if (first == null)
+				continue;
+			unsatisfiable++;
+			Set<Explanation> reduced = explain(units, entryPoint, 60000);
+			assertFalse(first.isEmpty());
+			assertFalse(reduced.isEmpty());
+			assertTrue(first.containsAll(reduced));
+		}
+		assertTrue(unsatisfiable > 0);
+	}
+
+	/**
+	 * Creates a long chain of units that ends with a missing requirement, next
+	 * to units that can be installed, and adds the requirements on all of them
+	 * to the given roots.
+	 */
+	private static List<IInstallableUnit> createChain(List<IRequirement> roots) {
+		List<IInstallableUnit> units = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			String next = i < 49 ? "chain" + (i + 1) : "missing";
+			units.add(createIU("chain" + i, Version.create("1.0.0"), new IRequirement[] {requirement(next, VersionRange.emptyRange, false)}));
+			units.add(createIU("other" + i, Version.create("1.0.0"), new IRequirement[] {requirement("other" + (i + 1) % 50, VersionRange.emptyRange, false)}));
+			roots.add(requirement("other" + i, VersionRange.emptyRange, false));
+		}
+		roots.add(requirement("chain0", VersionRange.emptyRange, false));
+		return units;
+	}
+
+	public void testOnlyConflictIsKept() {
+		List<IRequirement> roots = new ArrayList<>();
+		List<IInstallableUnit> units = createChain(roots);
+		IInstallableUnit entryPoint = createIU("entryPoint", Version.create("1.0.0"), roots.toArray(new IRequirement[0]));
+		units.add(entryPoint);
+
+		Set<Explanation> explanation = explain(units, entryPoint, 60000);
+		assertNotNull(explanation);
+		int missing = 0;
+		for (Explanation e : explanation) {
+			assertFalse(e.toString(), e.toString().contains("other"));
+			if (e instanceof Explanation.MissingIU)
+				missing++;
+		}
+		assertEquals(1, missing);
+		// the chain to install, the requirements of the 49 first units of the chain and the missing one
+		assertEquals(explanation.toString(), 51, explanation.size());
+
+		Set<Explanation> first = explain(units, entryPoint, 0);
+		assertTrue(first.containsAll(explanation));
+	}
+
+	/**
+	 * Checks that the constraints given to a solver are all kept when the
+	 * solver proves that they have no solution without naming any of their
+	 * selectors, rather than being taken for constraints with a solution.
+	 */
+	public void testCoreWithoutSelectors() throws Exception {
+		Class<?> explanation = Projector.class.getClassLoader().loadClass("org.eclipse.equinox.internal.p2.director.ProgressiveExplanation");
+		Method getCore = explanation.getDeclaredMethod("getCore", IVecInt.class, Map.class, List.class);
+		getCore.setAccessible(true);
+		List<Integer> indices = List.of(4, 1, 7);
+		assertEquals(List.of(1, 4, 7), getCore.invoke(null, null, Map.of(), indices));
+		// only the literal of an assumed variable
+		assertEquals(List.of(1, 4, 7), getCore.invoke(null, new VecInt(new int[] {-3}), Map.of(3, "assumption"), indices));
+	}
+
+	public void testIntermediateExplanations() {
+		List<IRequirement> roots = new ArrayList<>();
+		List<IInstallableUnit> units = createChain(roots);
+		IInstallableUnit entryPoint = createIU("entryPoint", Version.create("1.0.0"), roots.toArray(new IRequirement[0]));
+		units.add(entryPoint);
+
+		List<Set<Explanation>> reported = new ArrayList<>();
+		Set<Explanation> explanation = explain(units, entryPoint, 60000, current -> reported.add(new HashSet<>(current)));
+		assertFalse(reported.isEmpty());
+		// each explanation passed is part of the previous one, and the last one is returned
+		for (int i = 1; i < reported.size(); i++)
+			assertTrue(reported.get(i - 1).containsAll(reported.get(i)));
+		assertEquals(explanation, reported.get(reported.size() - 1));
+	}
+}
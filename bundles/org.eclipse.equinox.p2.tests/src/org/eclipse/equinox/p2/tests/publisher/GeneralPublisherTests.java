@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2005, 2010 IBM Corporation and others.
+ *  Copyright (c) 2005, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -27,6 +27,7 @@ import org.eclipse.equinox.internal.p2.publisher.QuotedTokenizer;
 import org.eclipse.equinox.internal.p2.publisher.eclipse.ProductFile;
 import org.eclipse.equinox.p2.publisher.eclipse.FeaturesAndBundlesPublisherApplication;
 import org.eclipse.equinox.p2.tests.StringBufferStream;
+import org.eclipse.osgi.util.NLS;
 import org.junit.Test;
 
 public class GeneralPublisherTests {
@@ -79,6 +80,27 @@ public class GeneralPublisherTests {
 
 	}
 
+	@Test
+	public void testInvalidThreads() {
+		for (String threads : new String[] {"zero", "0", "1.5", ""}) {
+			FeaturesAndBundlesPublisherApplication application = new FeaturesAndBundlesPublisherApplication();
+			StringBuilder buffer = new StringBuilder();
+			PrintStream err = System.err;
+			try {
+				System.setErr(new PrintStream(new StringBufferStream(buffer)));
+				application.run(new String[] {"-threads", threads});
+				fail("1.0 " + threads);
+			} catch (IllegalArgumentException e) {
+				assertEquals("1.1", NLS.bind(Messages.exception_threads, threads), e.getMessage());
+			} catch (Exception e) {
+				fail("1.2 " + e);
+			} finally {
+				System.setErr(err);
+			}
+			assertTrue(buffer.toString().contains("must be a positive integer"));
+		}
+	}
+
 	@Test
 	public void testQuotedTokenizer() throws Exception {
 		QuotedTokenizer tokenizer = new QuotedTokenizer("abra ca dabra");
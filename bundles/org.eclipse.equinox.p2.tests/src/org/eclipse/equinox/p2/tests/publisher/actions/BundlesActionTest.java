@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2017 Code 9 and others.
+ * Copyright (c) 2008, 2026 Code 9 and others.
  *
  * This
  * program and the accompanying materials are made available under the terms of
@@ -75,6 +75,7 @@ import org.eclipse.equinox.p2.publisher.eclipse.BundlesAction;
 import org.eclipse.equinox.p2.publisher.eclipse.IBundleShapeAdvice;
 import org.eclipse.equinox.p2.query.IQueryResult;
 import org.eclipse.equinox.p2.query.QueryUtil;
+import org.eclipse.equinox.p2.repository.artifact.ArtifactKeyQuery;
 import org.eclipse.equinox.p2.repository.artifact.IArtifactDescriptor;
 import org.eclipse.equinox.p2.tests.TestActivator;
 import org.eclipse.equinox.p2.tests.TestData;
@@ -516,6 +517,50 @@ public class BundlesActionTest extends ActionTest {
 		assertThat(ius.size(), is(1));
 	}
 
+	public void testPublishConcurrently() throws Exception {
+		File fragmentData = new File(TestActivator.getTestDataFolder(), "FragmentPublisherTest");//$NON-NLS-1$
+		File[] locations = {TEST_FILE1, TEST_FILE2, new File(TEST_BASE, TEST3_PROV_BUNDLE_NAME),
+				new File(TEST_BASE, TEST4_PROV_BUNDLE_NAME), new File(TEST_BASE, TEST5_PROV_BUNDLE_NAME),
+				new File(fragmentData, "foo"), new File(fragmentData, "foo.fragment"), TEST_FILE2 };//$NON-NLS-1$ //$NON-NLS-2$
+
+		TestArtifactRepository sequentialArtifacts = new TestArtifactRepository(getAgent());
+		List<IInstallableUnit> sequential = publishWithThreads(locations, 1, sequentialArtifacts);
+		TestArtifactRepository concurrentArtifacts = new TestArtifactRepository(getAgent());
+		List<IInstallableUnit> concurrent = publishWithThreads(locations, 4, concurrentArtifacts);
+
+		// the same units are added to the result
+		assertEquals(8, sequential.size());
+		assertEquals(sequential, concurrent);
+		for (int i = 0; i < sequential.size(); i++) {
+			assertEquals(sequential.get(i).getProperties(), concurrent.get(i).getProperties());
+			assertEquals(sequential.get(i).getRequirements(), concurrent.get(i).getRequirements());
+			assertEquals(sequential.get(i).getProvidedCapabilities(), concurrent.get(i).getProvidedCapabilities());
+		}
+		IArtifactDescriptor[] sequentialDescriptors = sequentialArtifacts.getArtifactDescriptors(
+				ArtifactKey.parse("osgi.bundle,test2,1.0.0.qualifier"));//$NON-NLS-1$
+		IArtifactDescriptor[] concurrentDescriptors = concurrentArtifacts.getArtifactDescriptors(
+				ArtifactKey.parse("osgi.bundle,test2,1.0.0.qualifier"));//$NON-NLS-1$
+		assertEquals(1, concurrentDescriptors.length);
+		assertEquals(sequentialDescriptors[0].getProperties(), concurrentDescriptors[0].getProperties());
+		assertEquals(queryResultSize(sequentialArtifacts.query(ArtifactKeyQuery.ALL_KEYS, null)),
+				queryResultSize(concurrentArtifacts.query(ArtifactKeyQuery.ALL_KEYS, null)));
+	}
+
+	private List<IInstallableUnit> publishWithThreads(File[] locations, int threads,
+			TestArtifactRepository destination) {
+		PublisherInfo info = new PublisherInfo();
+		info.setThreads(threads);
+		info.setArtifactRepository(destination);
+		info.setArtifactOptions(IPublisherInfo.A_INDEX | IPublisherInfo.A_PUBLISH);
+		PublisherResult results = new PublisherResult();
+		IStatus status = new BundlesAction(locations).perform(info, results, new NullProgressMonitor());
+		assertTrue(status.isOK());
+		// the order of the result is the iteration order of its maps
+		List<IInstallableUnit> ius = new ArrayList<>(results.getIUs(null, null));
+		ius.sort(Comparator.comparing(IInstallableUnit::getId).thenComparing(IInstallableUnit::getVersion));
+		return ius;
+	}
+
 	public void testMultiRequired() throws Exception {
 		File testData = new File(TestActivator.getTestDataFolder(), "requireMultiple");
 		IInstallableUnit iu = BundlesAction.createBundleIU(BundlesAction.createBundleDescription(testData), null,
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2007, 2010 IBM Corporation and others.
+ *  Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -20,7 +20,7 @@ import org.junit.runners.Suite;
  * Performs all automated director tests.
  */
 @RunWith(Suite.class)
-@Suite.SuiteClasses({ EvaluatorTest.class, PerformanceTest.class, TestQueryReimplementation.class })
+@Suite.SuiteClasses({ EvaluatorTest.class, ExpressionCompilerTest.class, PerformanceTest.class, TestQueryReimplementation.class })
 public class AllTests {
 // test suite
 }
@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.ql;
+
+import java.util.*;
+import org.eclipse.equinox.internal.p2.metadata.expression.Expression;
+import org.eclipse.equinox.internal.p2.metadata.expression.ExpressionCompiler;
+import org.eclipse.equinox.p2.metadata.*;
+import org.eclipse.equinox.p2.metadata.expression.ExpressionUtil;
+import org.eclipse.equinox.p2.metadata.expression.IMatchExpression;
+import org.eclipse.equinox.p2.tests.AbstractProvisioningTest;
+
+/**
+ * Tests that compiled match expressions give the same results as the
+ * interpreter.
+ */
+public class ExpressionCompilerTest extends AbstractProvisioningTest {
+	private List<IInstallableUnit> units;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		units = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			Map<String, String> properties = new HashMap<>();
+			properties.put("count", Integer.toString(i * 3));
+			if (i % 2 == 0)
+				properties.put("org.eclipse.equinox.p2.type.group", "true");
+			IProvidedCapability[] provides = {MetadataFactory.createProvidedCapability("org.example.ns", "cap" + i, Version.createOSGi(1, i, 0)), MetadataFactory.createProvidedCapability("org.example.other", "cap" + (i + 1), Version.createOSGi(2, 0, 0))};
+			IRequirement[] requires = i % 3 == 0 ? NO_REQUIRES : new IRequirement[] {MetadataFactory.createRequirement("org.example.ns", "cap" + (i - 1), VersionRange.emptyRange, null, false, false)};
+			units.add(createIU("org.example.unit" + i, Version.createOSGi(1, i, 0), null, requires, provides, properties, null, null, i % 2 == 1));
+		}
+	}
+
+	private void assertSameResults(boolean compilable, String expression, Object... parameters) {
+		IMatchExpression<IInstallableUnit> matchExpression = ExpressionUtil.getFactory().matchExpression(ExpressionUtil.parse(expression), parameters);
+		assertEquals(expression, compilable, ExpressionCompiler.compile((Expression) ExpressionUtil.parse(expression), parameters) != null);
+		for (IInstallableUnit unit : units)
+			assertEquals(expression + " on " + unit, matchExpression.isMatch(matchExpression.createContext(), unit), matchExpression.isMatch(unit));
+	}
+
+	public void testMembersAndComparisons() {
+		assertSameResults(true, "id == $0", "org.example.unit2");
+		assertSameResults(true, "id != $0", "org.example.unit2");
+		assertSameResults(true, "version == '1.3.0'");
+		assertSameResults(true, "version >= $0 && version < $1", Version.createOSGi(1, 1, 0), Version.createOSGi(1, 4, 0));
+		assertSameResults(true, "version ~= $0", new VersionRange("[1.2.0,1.5.0)"));
+		assertSameResults(true, "singleton || !singleton && id ~= /*unit4/");
+		assertSameResults(true, "singleton == 'true'");
+		assertSameResults(true, "properties['count'] > 5");
+		assertSameResults(true, "properties[$0] == 'true'", "org.eclipse.equinox.p2.type.group");
+		assertSameResults(true, "requirements.empty");
+		assertSameResults(true, "providedCapabilities.length == 2 && requirements.length > 0");
+	}
+
+	public void testCapabilities() {
+		assertSameResults(true, "providedCapabilities.exists(x | x.name == $0 && x.namespace == $1)", "cap3", "org.example.other");
+		assertSameResults(true, "providedCapabilities.exists(x | x.namespace == $0 && x.version >= $1 && x.version < $2)", "org.example.ns", Version.createOSGi(1, 2, 0), Version.createOSGi(1, 4, 0));
+		assertSameResults(true, "providedCapabilities.all(x | x.version >= $0)", Version.createOSGi(1, 3, 0));
+		assertSameResults(true, "providedCapabilities.exists(x | requirements.exists(r | r.min == 1 && x.name == $0))", "cap4");
+		assertSameResults(true, "this ~= $0", MetadataFactory.createRequirement("org.example.ns", "cap2", new VersionRange("[1.0.0,2.0.0)"), null, false, false));
+		for (IInstallableUnit unit : units)
+			for (IRequirement requirement : unit.getRequirements())
+				for (IInstallableUnit candidate : units)
+					assertEquals(requirement.getMatches().isMatch(requirement.getMatches().createContext(), candidate), requirement.isMatch(candidate));
+	}
+
+	public void testInterpreted() {
+		// not compiled
+		assertSameResults(false, "singleton ? id == 'org.example.unit1' : version > '1.2.0'");
+		assertSameResults(true, "$0.exists(x | x == id)", List.of("org.example.unit1"));
+		// compiled, but maps are iterated by the interpreter
+		assertSameResults(true, "$0.exists(x | x.key == id)", Map.of("org.example.unit3", "value"));
+	}
+}
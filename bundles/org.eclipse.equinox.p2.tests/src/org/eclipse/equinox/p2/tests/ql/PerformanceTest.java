@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2017 Cloudsmith Inc. and others.
+ * Copyright (c) 2009, 2026 Cloudsmith Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,9 +14,11 @@
 package org.eclipse.equinox.p2.tests.ql;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.eclipse.core.runtime.NullProgressMonitor;
@@ -34,6 +36,7 @@ import org.eclipse.equinox.p2.metadata.Version;
 import org.eclipse.equinox.p2.metadata.VersionRange;
 import org.eclipse.equinox.p2.metadata.expression.ExpressionUtil;
 import org.eclipse.equinox.p2.metadata.expression.IExpressionParser;
+import org.eclipse.equinox.p2.metadata.expression.IMatchExpression;
 import org.eclipse.equinox.p2.publisher.actions.JREAction;
 import org.eclipse.equinox.p2.query.IQuery;
 import org.eclipse.equinox.p2.query.IQueryResult;
@@ -255,6 +258,43 @@ public class PerformanceTest extends AbstractProvisioningTest {
 		System.out.println();
 	}
 
+	public void testCompiledExpressionPerformance() throws Exception {
+
+		IMetadataRepository repo = getMDR("/testData/galileoM7");
+		List<IInstallableUnit> units = new ArrayList<>(repo.query(QueryUtil.createIUAnyQuery(), new NullProgressMonitor()).toUnmodifiableSet());
+
+		IRequirement capability = MetadataFactory.createRequirement("org.eclipse.equinox.p2.eclipse.type", "feature", new VersionRange("[1.0.0,2.0.0)"), null, false, false);
+		List<IMatchExpression<IInstallableUnit>> expressions = new ArrayList<>();
+		expressions.add(capability.getMatches());
+		expressions.add(ExpressionUtil.getFactory().matchExpression(ExpressionUtil.parse("touchpointType.id == $0 && version >= '3.5'"), "org.eclipse.equinox.p2.osgi"));
+		for (IMatchExpression<IInstallableUnit> expression : expressions) {
+			long interpretedMS = 0;
+			long compiledMS = 0;
+			for (int i = 0; i < 5; ++i) {
+				int interpreted = 0;
+				long start = System.currentTimeMillis();
+				for (int idx = 0; idx < 80; ++idx)
+					for (IInstallableUnit unit : units)
+						if (expression.isMatch(expression.createContext(), unit))
+							interpreted++;
+				interpretedMS += (System.currentTimeMillis() - start);
+
+				int compiled = 0;
+				start = System.currentTimeMillis();
+				for (int idx = 0; idx < 80; ++idx)
+					for (IInstallableUnit unit : units)
+						if (expression.isMatch(unit))
+							compiled++;
+				compiledMS += (System.currentTimeMillis() - start);
+				assertEquals(interpreted, compiled);
+			}
+			System.out.println(expression);
+			System.out.println("Interpreted took: " + interpretedMS + " milliseconds");
+			System.out.println("Compiled took: " + compiledMS + " milliseconds");
+			System.out.println();
+		}
+	}
+
 	public void testCapabilityQueryPerformanceEE() throws Exception {
 
 		IMetadataRepository repo = getMDR("/testData/galileoM7");
@@ -0,0 +1,298 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.repository;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import org.eclipse.core.runtime.*;
+import org.eclipse.equinox.internal.p2.repository.DownloadStatus;
+import org.eclipse.equinox.internal.p2.repository.Transport;
+import org.eclipse.equinox.internal.p2.transport.ecf.RepositoryTransport;
+import org.eclipse.equinox.internal.p2.transport.http.HttpClientTransport;
+import org.eclipse.equinox.p2.core.ProvisionException;
+import org.eclipse.equinox.p2.tests.AbstractProvisioningTest;
+
+/**
+ * Tests the {@link HttpClientTransport} against an HTTP server embedded in the
+ * test.
+ */
+public class HttpClientTransportTest extends AbstractProvisioningTest {
+	private static final long LAST_MODIFIED = Instant.parse("2026-01-15T10:00:00Z").toEpochMilli();
+	private static final int FILES = 200;
+	private static final int FILE_SIZE = 16 * 1024;
+	private static final int PARALLEL_REQUESTS = 4;
+
+	private HttpServer server;
+	private URI base;
+	private Map<String, byte[]> files;
+	private List<String> upgrades;
+	private CountDownLatch inFlight;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		files = new HashMap<>();
+		Random random = new Random(42);
+		for (int i = 0; i < FILES; i++) {
+			byte[] content = new byte[FILE_SIZE];
+			random.nextBytes(content);
+			files.put("/files/" + i + ".jar", content);
+		}
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		upgrades = Collections.synchronizedList(new ArrayList<>());
+		inFlight = new CountDownLatch(PARALLEL_REQUESTS);
+		server.createContext("/files/", this::handle);
+		server.createContext("/parallel/", this::handleParallel);
+		server.setExecutor(Executors.newFixedThreadPool(8));
+		server.start();
+		base = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/files/");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		server.stop(0);
+		((ExecutorService) server.getExecutor()).shutdownNow();
+		super.tearDown();
+	}
+
+	/**
+	 * Serves the files, honoring range requests, like a typical mirror.
+	 */
+	private void handle(HttpExchange exchange) throws IOException {
+		try (exchange) {
+			String upgrade = exchange.getRequestHeaders().getFirst("Upgrade");
+			if (upgrade != null)
+				upgrades.add(upgrade);
+			byte[] content = files.get(exchange.getRequestURI().getPath());
+			if (content == null) {
+				exchange.sendResponseHeaders(404, -1);
+				return;
+			}
+			exchange.getResponseHeaders().add("Last-Modified", DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.ofInstant(Instant.ofEpochMilli(LAST_MODIFIED), ZoneOffset.UTC)));
+			int start = 0;
+			int code = 200;
+			String range = exchange.getRequestHeaders().getFirst("Range");
+			if (range != null && range.startsWith("bytes=") && range.endsWith("-")) {
+				start = Integer.parseInt(range.substring(6, range.length() - 1));
+				code = 206;
+				exchange.getResponseHeaders().add("Content-Range", "bytes " + start + '-' + (content.length - 1) + '/' + content.length);
+			}
+			if ("HEAD".equals(exchange.getRequestMethod())) {
+				exchange.getResponseHeaders().add("Content-Length", Integer.toString(content.length));
+				exchange.sendResponseHeaders(code, -1);
+				return;
+			}
+			exchange.sendResponseHeaders(code, content.length - start);
+			exchange.getResponseBody().write(content, start, content.length - start);
+		}
+	}
+
+	/**
+	 * Serves a file only once {@link #PARALLEL_REQUESTS} requests are being
+	 * served at the same time.
+	 */
+	private void handleParallel(HttpExchange exchange) throws IOException {
+		try (exchange) {
+			inFlight.countDown();
+			boolean parallel;
+			try {
+				parallel = inFlight.await(30, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				parallel = false;
+			}
+			if (!parallel) {
+				exchange.sendResponseHeaders(503, -1);
+				return;
+			}
+			byte[] content = files.get(exchange.getRequestURI().getPath().replace("/parallel/", "/files/"));
+			exchange.sendResponseHeaders(200, content.length);
+			exchange.getResponseBody().write(content);
+		}
+	}
+
+	/**
+	 * Allows plain http for the local server, which would be redirected to https
+	 * otherwise.
+	 */
+	private static Map<String, Transport.ProtocolRule> allowHttp() {
+		return Map.of("http", Transport.ProtocolRule.ALLOW);
+	}
+
+	private HttpClientTransport createTransport() {
+		return new HttpClientTransport(getAgent()) {
+			@Override
+			public Map<String, ProtocolRule> getProtocolRules() {
+				return allowHttp();
+			}
+		};
+	}
+
+	private URI file(int i) {
+		return base.resolve(i + ".jar");
+	}
+
+	private byte[] content(int i) {
+		return files.get("/files/" + i + ".jar");
+	}
+
+	public void testDownload() {
+		ByteArrayOutputStream target = new ByteArrayOutputStream();
+		IStatus status = createTransport().download(file(3), target, new NullProgressMonitor());
+		assertOK("1.0", status);
+		assertTrue("1.1", Arrays.equals(content(3), target.toByteArray()));
+		assertTrue("1.2", status instanceof DownloadStatus);
+		assertEquals("1.3", FILE_SIZE, ((DownloadStatus) status).getFileSize());
+		assertEquals("1.4", LAST_MODIFIED, ((DownloadStatus) status).getLastModified());
+	}
+
+	public void testStream() throws Exception {
+		try (InputStream stream = createTransport().stream(file(5), new NullProgressMonitor())) {
+			assertTrue(Arrays.equals(content(5), stream.readAllBytes()));
+		}
+	}
+
+	public void testNotFound() throws Exception {
+		HttpClientTransport transport = createTransport();
+		IStatus status = transport.download(base.resolve("missing.jar"), new ByteArrayOutputStream(), new NullProgressMonitor());
+		assertEquals("1.0", IStatus.ERROR, status.getSeverity());
+		assertEquals("1.1", ProvisionException.ARTIFACT_NOT_FOUND, status.getCode());
+		try {
+			transport.stream(base.resolve("missing.jar"), new NullProgressMonitor()).close();
+			fail("2.0");
+		} catch (FileNotFoundException e) {
+			// expected
+		}
+		try {
+			transport.getLastModified(base.resolve("missing.jar"), new NullProgressMonitor());
+			fail("3.0");
+		} catch (FileNotFoundException e) {
+			// expected
+		}
+	}
+
+	public void testLastModified() throws Exception {
+		assertEquals(LAST_MODIFIED, createTransport().getLastModified(file(1), new NullProgressMonitor()));
+	}
+
+	@SuppressWarnings("removal")
+	public void testResume() {
+		ByteArrayOutputStream target = new ByteArrayOutputStream();
+		int startPos = 1000;
+		IStatus status = createTransport().download(file(7), target, startPos, new NullProgressMonitor());
+		assertOK("1.0", status);
+		assertTrue("1.1", Arrays.equals(Arrays.copyOfRange(content(7), startPos, FILE_SIZE), target.toByteArray()));
+		assertEquals("1.2", FILE_SIZE, ((DownloadStatus) status).getFileSize());
+	}
+
+	public void testCanceled() {
+		NullProgressMonitor monitor = new NullProgressMonitor();
+		monitor.setCanceled(true);
+		try {
+			createTransport().download(file(2), new ByteArrayOutputStream(), monitor);
+			fail("1.0");
+		} catch (OperationCanceledException e) {
+			// expected
+		}
+	}
+
+	public void testLocalFile() throws IOException {
+		File file = getTempFolder();
+		file = new File(file, "local.jar");
+		try (OutputStream output = new FileOutputStream(file)) {
+			output.write(content(9));
+		}
+		ByteArrayOutputStream target = new ByteArrayOutputStream();
+		assertOK("1.0", createTransport().download(file.toURI(), target, new NullProgressMonitor()));
+		assertTrue("1.1", Arrays.equals(content(9), target.toByteArray()));
+	}
+
+	/**
+	 * Downloads files from several threads with one transport, which has to send
+	 * the requests at the same time for the server to answer any of them.
+	 */
+	public void testConcurrentDownloads() throws Exception {
+		HttpClientTransport transport = createTransport();
+		ExecutorService executor = Executors.newFixedThreadPool(PARALLEL_REQUESTS);
+		try {
+			List<Future<IStatus>> results = new ArrayList<>();
+			List<ByteArrayOutputStream> targets = new ArrayList<>();
+			for (int i = 0; i < PARALLEL_REQUESTS; i++) {
+				ByteArrayOutputStream target = new ByteArrayOutputStream();
+				URI location = base.resolve("../parallel/" + i + ".jar");
+				targets.add(target);
+				results.add(executor.submit(() -> transport.download(location, target, new NullProgressMonitor())));
+			}
+			for (int i = 0; i < PARALLEL_REQUESTS; i++) {
+				assertOK(Integer.toString(i), results.get(i).get(60, TimeUnit.SECONDS));
+				assertTrue(Integer.toString(i), Arrays.equals(content(i), targets.get(i).toByteArray()));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Downloads all files from several threads with both transports, which
+	 * have to get the same content.
+	 */
+	public void testSameContentAsEcf() throws Exception {
+		RepositoryTransport ecf = new RepositoryTransport(getAgent()) {
+			@Override
+			public Map<String, ProtocolRule> getProtocolRules() {
+				return allowHttp();
+			}
+		};
+		downloadAll(createTransport());
+		downloadAll(ecf);
+	}
+
+	/**
+	 * The transport asks for HTTP/2, which a server without it declines by
+	 * answering the upgrade request with HTTP/1.1.
+	 */
+	public void testHttp2UpgradeIsOffered() {
+		ByteArrayOutputStream target = new ByteArrayOutputStream();
+		assertOK(createTransport().download(file(4), target, new NullProgressMonitor()));
+		assertTrue(Arrays.equals(content(4), target.toByteArray()));
+		assertTrue(upgrades.toString(), upgrades.contains("h2c"));
+	}
+
+	private void downloadAll(Transport transport) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> results = new ArrayList<>();
+			for (int i = 0; i < FILES; i++) {
+				int index = i;
+				results.add(executor.submit(() -> {
+					ByteArrayOutputStream target = new ByteArrayOutputStream();
+					assertOK(transport.download(file(index), target, new NullProgressMonitor()));
+					assertTrue(Arrays.equals(content(index), target.toByteArray()));
+					return null;
+				}));
+			}
+			for (Future<?> result : results)
+				result.get();
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
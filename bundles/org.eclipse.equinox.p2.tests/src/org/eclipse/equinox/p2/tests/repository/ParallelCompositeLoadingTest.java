@@ -0,0 +1,266 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.repository;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.equinox.internal.p2.artifact.repository.CompositeArtifactRepository;
+import org.eclipse.equinox.internal.p2.metadata.repository.CompositeMetadataRepository;
+import org.eclipse.equinox.internal.p2.repository.Transport;
+import org.eclipse.equinox.internal.p2.repository.helpers.CompositeChildLoader;
+import org.eclipse.equinox.p2.core.IProvisioningAgent;
+import org.eclipse.equinox.p2.core.ProvisionException;
+import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+import org.eclipse.equinox.p2.query.QueryUtil;
+import org.eclipse.equinox.p2.repository.ICompositeRepository;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactRepository;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactRepositoryManager;
+import org.eclipse.equinox.p2.repository.metadata.IMetadataRepository;
+import org.eclipse.equinox.p2.repository.metadata.IMetadataRepositoryManager;
+import org.eclipse.equinox.p2.tests.AbstractProvisioningTest;
+import org.eclipse.equinox.p2.tests.SlowTransport;
+
+/**
+ * Loads composite repositories with many children through a transport with a
+ * fixed latency per request, and checks that the children are loaded one after
+ * the other or at the same time according to the number of loading threads of
+ * the composite.
+ */
+public class ParallelCompositeLoadingTest extends AbstractProvisioningTest {
+	private static final URI REMOTE = URI.create("https://slow.invalid/");
+	private static final int CHILDREN = 8;
+	private static final long LATENCY = 100;
+
+	private File root;
+	private final List<IProvisioningAgent> agents = new ArrayList<>();
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		root = getTempFolder();
+		for (int i = 0; i < CHILDREN; i++) {
+			URI child = new File(root, "child" + i).toURI();
+			IMetadataRepository repo = createMetadataRepository(child, null);
+			repo.addInstallableUnits(List.of(createIU("iu" + i)));
+			getMetadataRepositoryManager().removeRepository(child);
+			createArtifactRepository(child, null);
+		}
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		for (IProvisioningAgent agent : agents)
+			agent.stop();
+		delete(root);
+		super.tearDown();
+	}
+
+	public void testMetadataChildOrder() throws Exception {
+		writeComposite("compositeContent.xml", "compositeMetadataRepository", CompositeMetadataRepository.REPOSITORY_TYPE, CHILDREN, false, CHILDREN);
+		IMetadataRepository composite = createSlowAgent().getService(IMetadataRepositoryManager.class).loadRepository(REMOTE, null);
+		List<URI> children = ((ICompositeRepository<?>) composite).getChildren();
+		assertEquals(CHILDREN, children.size());
+		Iterator<IInstallableUnit> ius = composite.query(QueryUtil.createIUAnyQuery(), null).iterator();
+		for (int i = 0; i < CHILDREN; i++) {
+			assertEquals(URI.create(REMOTE + "child" + i), children.get(i));
+			assertEquals("iu" + i, ius.next().getId());
+		}
+	}
+
+	public void testArtifactChildOrder() throws Exception {
+		writeComposite("compositeArtifacts.xml", "compositeArtifactRepository", CompositeArtifactRepository.REPOSITORY_TYPE, CHILDREN, false, CHILDREN);
+		IArtifactRepository composite = createSlowAgent().getService(IArtifactRepositoryManager.class).loadRepository(REMOTE, null);
+		List<IArtifactRepository> loaded = ((CompositeArtifactRepository) composite).getLoadedChildren();
+		assertEquals(CHILDREN, loaded.size());
+		for (int i = 0; i < CHILDREN; i++)
+			assertEquals(URI.create(REMOTE + "child" + i), loaded.get(i).getLocation());
+	}
+
+	public void testAtomicLoadingFailure() throws Exception {
+		// the last child does not exist
+		writeComposite("compositeContent.xml", "compositeMetadataRepository", CompositeMetadataRepository.REPOSITORY_TYPE, CHILDREN + 1, true, CHILDREN);
+		IProvisioningAgent agent = createSlowAgent();
+		IMetadataRepositoryManager manager = agent.getService(IMetadataRepositoryManager.class);
+		try {
+			manager.loadRepository(REMOTE, null);
+			fail("Composite with a missing child must not load");
+		} catch (ProvisionException e) {
+			assertEquals(ProvisionException.REPOSITORY_FAILED_READ, e.getStatus().getCode());
+		}
+		for (int i = 0; i < CHILDREN; i++)
+			assertFalse(manager.contains(URI.create(REMOTE + "child" + i)));
+	}
+
+	public void testNonAtomicLoadingFailure() throws Exception {
+		writeComposite("compositeContent.xml", "compositeMetadataRepository", CompositeMetadataRepository.REPOSITORY_TYPE, CHILDREN + 1, false, CHILDREN);
+		IMetadataRepository composite = createSlowAgent().getService(IMetadataRepositoryManager.class).loadRepository(REMOTE, null);
+		assertEquals(CHILDREN + 1, ((ICompositeRepository<?>) composite).getChildren().size());
+		assertEquals(CHILDREN, composite.query(QueryUtil.createIUAnyQuery(), null).toUnmodifiableSet().size());
+	}
+
+	public void testSequentialLoading() throws Exception {
+		writeComposite("compositeContent.xml", "compositeMetadataRepository", CompositeMetadataRepository.REPOSITORY_TYPE, CHILDREN, false, 1);
+		OverlapTransport transport = new OverlapTransport(false);
+		loadMetadata(transport);
+		assertEquals(1, transport.maxInFlight.get());
+	}
+
+	public void testConcurrentLoading() throws Exception {
+		writeComposite("compositeContent.xml", "compositeMetadataRepository", CompositeMetadataRepository.REPOSITORY_TYPE, CHILDREN, false, CHILDREN);
+		OverlapTransport transport = new OverlapTransport(true);
+		loadMetadata(transport);
+		// the first request for every child was made while the others were waiting
+		assertTrue(transport.overlapped);
+	}
+
+	public void testConcurrentLoadingRequests() throws Exception {
+		writeComposite("compositeContent.xml", "compositeMetadataRepository", CompositeMetadataRepository.REPOSITORY_TYPE, CHILDREN, false, 1);
+		SlowTransport sequential = new SlowTransport(REMOTE, root, 0);
+		loadMetadata(sequential);
+		writeComposite("compositeContent.xml", "compositeMetadataRepository", CompositeMetadataRepository.REPOSITORY_TYPE, CHILDREN, false, CHILDREN);
+		SlowTransport concurrent = new SlowTransport(REMOTE, root, 0);
+		loadMetadata(concurrent);
+		// every child is fetched once, whatever the number of loading threads
+		assertEquals(sequential.getRequestCount(), concurrent.getRequestCount());
+	}
+
+	/**
+	 * Checks that loading the children at the same time through the slow
+	 * transport takes much less time than the sum of the latencies of its
+	 * requests, which is what loading them one after the other takes.
+	 */
+	public void testConcurrentLoadingTime() throws Exception {
+		writeComposite("compositeContent.xml", "compositeMetadataRepository", CompositeMetadataRepository.REPOSITORY_TYPE, CHILDREN, false, CHILDREN);
+		SlowTransport transport = new SlowTransport(REMOTE, root, LATENCY);
+		long start = System.currentTimeMillis();
+		loadMetadata(transport);
+		long elapsed = System.currentTimeMillis() - start;
+		long sequential = transport.getRequestCount() * LATENCY;
+		assertTrue("Loading took " + elapsed + "ms, " + sequential + "ms of latency", elapsed < sequential / 2);
+	}
+
+	private void loadMetadata(Transport transport) throws ProvisionException {
+		IMetadataRepository composite = createAgent(transport).getService(IMetadataRepositoryManager.class).loadRepository(REMOTE, null);
+		assertEquals(CHILDREN, composite.query(QueryUtil.createIUAnyQuery(), null).toUnmodifiableSet().size());
+	}
+
+	/**
+	 * A transport without latency that counts the requests in progress. When
+	 * holding, the first request for each child waits until the first requests
+	 * for all the children are made, which only happens if the children are
+	 * loaded at the same time.
+	 */
+	private class OverlapTransport extends SlowTransport {
+		private final boolean hold;
+		private final CountDownLatch allStarted = new CountDownLatch(CHILDREN);
+		private final Set<String> started = ConcurrentHashMap.newKeySet();
+		final AtomicInteger inFlight = new AtomicInteger();
+		final AtomicInteger maxInFlight = new AtomicInteger();
+		volatile boolean overlapped = true;
+
+		OverlapTransport(boolean hold) {
+			super(REMOTE, root, 0);
+			this.hold = hold;
+		}
+
+		private void enter(URI location) {
+			maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+			String child = REMOTE.relativize(location).getPath().split("/")[0];
+			if (!hold || !child.startsWith("child") || !started.add(child))
+				return;
+			allStarted.countDown();
+			try {
+				if (!allStarted.await(30, TimeUnit.SECONDS))
+					overlapped = false;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				overlapped = false;
+			}
+		}
+
+		@Override
+		public IStatus download(URI toDownload, OutputStream target, IProgressMonitor monitor) {
+			enter(toDownload);
+			try {
+				return super.download(toDownload, target, monitor);
+			} finally {
+				inFlight.decrementAndGet();
+			}
+		}
+
+		@Override
+		public InputStream stream(URI toDownload, IProgressMonitor monitor) throws FileNotFoundException {
+			enter(toDownload);
+			try {
+				return super.stream(toDownload, monitor);
+			} finally {
+				inFlight.decrementAndGet();
+			}
+		}
+
+		@Override
+		public long getLastModified(URI toDownload, IProgressMonitor monitor) throws FileNotFoundException {
+			enter(toDownload);
+			try {
+				return super.getLastModified(toDownload, monitor);
+			} finally {
+				inFlight.decrementAndGet();
+			}
+		}
+	}
+
+	private IProvisioningAgent createSlowAgent() throws ProvisionException {
+		return createAgent(new SlowTransport(REMOTE, root, LATENCY));
+	}
+
+	private IProvisioningAgent createAgent(Transport transport) throws ProvisionException {
+		IProvisioningAgent agent = getAgentProvider().createAgent(getTempFolder().toURI());
+		agent.registerService(Transport.SERVICE_NAME, transport);
+		agents.add(agent);
+		return agent;
+	}
+
+	private void writeComposite(String fileName, String processingInstruction, String type, int children, boolean atomic, int threads) throws IOException {
+		StringBuilder buffer = new StringBuilder();
+		buffer.append("<?xml version='1.0' encoding='UTF-8'?>\n");
+		buffer.append("<?").append(processingInstruction).append(" version='1.0.0'?>\n");
+		buffer.append("<repository name='composite' type='").append(type).append("' version='1.0.0'>\n");
+		buffer.append("  <properties size='3'>\n");
+		buffer.append("    <property name='p2.timestamp' value='1234'/>\n");
+		buffer.append("    <property name='p2.atomic.composite.loading' value='").append(atomic).append("'/>\n");
+		buffer.append("    <property name='").append(CompositeChildLoader.PROP_LOADING_THREADS).append("' value='").append(threads).append("'/>\n");
+		buffer.append("  </properties>\n");
+		buffer.append("  <children size='").append(children).append("'>\n");
+		for (int i = 0; i < children; i++)
+			buffer.append("    <child location='child").append(i).append("'/>\n");
+		buffer.append("  </children>\n");
+		buffer.append("</repository>\n");
+		Files.writeString(new File(root, fileName).toPath(), buffer);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2017 IBM Corporation and others.
+ * Copyright (c) 2008, 2026 IBM Corporation and others.
  *
  * This
  * program and the accompanying materials are made available under the terms of
@@ -14,7 +14,10 @@
 package org.eclipse.equinox.p2.tests.touchpoint.natives;
 
 import java.io.*;
+import java.nio.file.Files;
 import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 import org.eclipse.equinox.internal.p2.touchpoint.natives.IBackupStore;
 import org.eclipse.equinox.internal.p2.touchpoint.natives.NativeTouchpoint;
 import org.eclipse.equinox.internal.p2.touchpoint.natives.actions.ActionConstants;
@@ -137,6 +140,82 @@ public class UnzipActionTest extends AbstractProvisioningTest {
 		backup.discard();
 	}
 
+	/**
+	 * Tests that an archive large enough to be extracted by several threads is
+	 * extracted completely, and that all the files it overwrites are restored.
+	 */
+	public void testExecuteUndoBackupConcurrently() throws IOException {
+		Map<String, String> profileProperties = new HashMap<>();
+		File installFolder = getTempFolder();
+		profileProperties.put(IProfile.PROP_INSTALL_FOLDER, installFolder.toString());
+		IProfile profile = createProfile("testExecuteUndoBackupConcurrently", profileProperties);
+
+		File zipTarget = new File(installFolder, "large.zip");
+		Map<String, byte[]> contents = new LinkedHashMap<>();
+		Random random = new Random(42);
+		try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(zipTarget))) {
+			zip.putNextEntry(new ZipEntry("empty/"));
+			for (int i = 0; i < 48; i++) {
+				String name = "dir" + (i % 4) + "/file" + i + ".bin";
+				byte[] content = new byte[32 * 1024 + i];
+				random.nextBytes(content);
+				contents.put(name, content);
+				zip.putNextEntry(new ZipEntry(name));
+				zip.write(content);
+				zip.closeEntry();
+			}
+		}
+		for (int i = 0; i < 48; i += 3) {
+			writeToFile(new File(installFolder, "dir" + (i % 4) + "/file" + i + ".bin"), "ORIGINAL-" + i);
+		}
+
+		InstallableUnitDescription iuDesc = new MetadataFactory.InstallableUnitDescription();
+		iuDesc.setId("testExecuteUndoBackupConcurrently");
+		iuDesc.setVersion(DEFAULT_VERSION);
+		IArtifactKey key = PublisherHelper.createBinaryArtifactKey("testExecuteUndoBackupConcurrently", DEFAULT_VERSION);
+		iuDesc.setArtifacts(new IArtifactKey[] {key});
+		iuDesc.setTouchpointType(PublisherHelper.TOUCHPOINT_NATIVE);
+		IInstallableUnit iu = MetadataFactory.createInstallableUnit(iuDesc);
+
+		Map<String, Object> parameters = new HashMap<>();
+		parameters.put(ActionConstants.PARM_PROFILE, profile);
+		parameters.put("iu", iu);
+		NativeTouchpoint touchpoint = new NativeTouchpoint();
+		touchpoint.initializePhase(null, profile, "testExecuteUndoBackupConcurrently", parameters);
+
+		parameters.put(ActionConstants.PARM_SOURCE, zipTarget.getAbsolutePath());
+		parameters.put(ActionConstants.PARM_TARGET, installFolder.getAbsolutePath());
+		parameters = Collections.unmodifiableMap(parameters);
+
+		String threads = System.setProperty("eclipse.p2.natives.unzip.threads", "4");
+		try {
+			UnzipAction action = new UnzipAction();
+			assertTrue(action.execute(parameters).isOK());
+			assertEquals(contents.size() + 1, action.getResult().getValue().length);
+			assertTrue(new File(installFolder, "empty").isDirectory());
+			for (Map.Entry<String, byte[]> entry : contents.entrySet()) {
+				assertTrue(entry.getKey(), Arrays.equals(entry.getValue(), Files.readAllBytes(new File(installFolder, entry.getKey()).toPath())));
+			}
+
+			action.undo(parameters);
+			IBackupStore backup = (IBackupStore) parameters.get(NativeTouchpoint.PARM_BACKUP);
+			backup.restore();
+			for (int i = 0; i < 48; i++) {
+				File file = new File(installFolder, "dir" + (i % 4) + "/file" + i + ".bin");
+				if (i % 3 == 0)
+					assertFileContent("Should contain the original content", file, "ORIGINAL-" + i);
+				else
+					assertFalse(file.getPath(), file.exists());
+			}
+			backup.discard();
+		} finally {
+			if (threads == null)
+				System.clearProperty("eclipse.p2.natives.unzip.threads");
+			else
+				System.setProperty("eclipse.p2.natives.unzip.threads", threads);
+		}
+	}
+
 	/**
 	 * Tests executing and undoing an unzip action when the profile
 	 * id contains characters that are not valid in file names. See bug 274182.
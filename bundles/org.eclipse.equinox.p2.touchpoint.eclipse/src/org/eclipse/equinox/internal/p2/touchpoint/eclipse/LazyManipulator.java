@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2012 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -41,7 +41,7 @@ public class LazyManipulator implements Manipulator {
 		this.agent = agent;
 	}
 
-	private void loadDelegate() {
+	private synchronized void loadDelegate() {
 		if (manipulator != null)
 			return;
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009 Cloudsmith Inc. and others.
+ * Copyright (c) 2009, 2026 Cloudsmith Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,6 +16,7 @@ package org.eclipse.equinox.internal.p2.touchpoint.natives;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collection;
 
 public interface IBackupStore {
 
@@ -39,6 +40,22 @@ public interface IBackupStore {
 	 */
 	public boolean backup(File file) throws IOException;
 
+	/**
+	 * Backs up a batch of files, as if {@link #backup(File)} was called for each
+	 * of them in the order of the collection. Implementations may share the work
+	 * common to the files, such as the creation of the backup directories.
+	 * 
+	 * @param files - the files (or empty directories) to backup
+	 * @throws IOException - if the backup of a file fails, or a file does not exist
+	 * @throws IllegalStateException - if the IBackupStore has been closed
+	 * @throws IllegalArgumentException - on type mismatch (file vs. directory) of earlier backup
+	 */
+	public default void backup(Collection<File> files) throws IOException {
+		for (File file : files) {
+			backup(file);
+		}
+	}
+
 	/**
 	 * Same as {@link #backup(File)} except that a copy is kept in the original location.
 	 * Can not be used to copy directories.
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2017 Cloudsmith Inc. and others.
+ * Copyright (c) 2009, 2026 Cloudsmith Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,6 +15,7 @@ package org.eclipse.equinox.internal.p2.touchpoint.natives;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collection;
 
 /**
  * LazyBackupStore is a BackupStore that only instantiates a real backup store
@@ -38,6 +39,14 @@ public class LazyBackupStore implements IBackupStore {
 		return delegate.backup(file);
 	}
 
+	@Override
+	public void backup(Collection<File> files) throws IOException {
+		if (files.isEmpty())
+			return;
+		loadDelegate();
+		delegate.backup(files);
+	}
+
 	@Override
 	public boolean backupDirectory(File file) throws IOException {
 		loadDelegate();
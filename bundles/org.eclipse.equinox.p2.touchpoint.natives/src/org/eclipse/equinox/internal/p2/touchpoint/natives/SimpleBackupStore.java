@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2018 Cloudsmith Inc. and others.
+ * Copyright (c) 2009, 2026 Cloudsmith Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -223,8 +223,33 @@ public class SimpleBackupStore implements IBackupStore {
 	public boolean backup(File file) throws IOException {
 		assertOpen();
 
-		Path path = file.toPath();
+		return backup(file.toPath(), null);
+	}
+
+	/**
+	 * Backs up the files by moving them to the backup store, as
+	 * {@link #backup(File)} does for each of them. The backup directories are
+	 * created once for all the files they receive.
+	 *
+	 * @param files - the files (or empty directories) to backup
+	 *
+	 * @throws IOException                - if a backup operation fails, or a
+	 *                                    file does not exist
+	 * @throws ClosedBackupStoreException - if the BackupStore has been closed
+	 * @throws IllegalArgumentException   - on type mismatch (file vs. directory)
+	 *                                    of earlier backup
+	 */
+	@Override
+	public void backup(Collection<File> files) throws IOException {
+		assertOpen();
 
+		Set<Path> backupDirs = new HashSet<>();
+		for (File file : files) {
+			backup(file.toPath(), backupDirs);
+		}
+	}
+
+	private boolean backup(Path path, Set<Path> backupDirs) throws IOException {
 		if (Files.isDirectory(path)) {
 			return backupDirectory(path.toFile());
 		}
@@ -241,7 +266,7 @@ public class SimpleBackupStore implements IBackupStore {
 					NLS.bind(Messages.BackupStore_directory_file_mismatch, buPath.toAbsolutePath()));
 		}
 
-		return moveToBackup(path, buPath);
+		return moveToBackup(path, buPath, backupDirs);
 	}
 
 	/**
@@ -528,7 +553,7 @@ public class SimpleBackupStore implements IBackupStore {
 		}
 
 		Path buPlaceholderPath = buPath.resolve(DIR_PLACEHOLDER);
-		moveToBackup(placeholderPath, buPlaceholderPath);
+		moveToBackup(placeholderPath, buPlaceholderPath, null);
 		return true;
 	}
 
@@ -559,7 +584,7 @@ public class SimpleBackupStore implements IBackupStore {
 	 *
 	 * @throws IOException if the backup operation fails
 	 */
-	private boolean moveToBackup(Path path, Path buPath) throws IOException {
+	private boolean moveToBackup(Path path, Path buPath, Set<Path> backupDirs) throws IOException {
 		// Already backed up. Can only be done once with one BackupStore.
 		if (Files.exists(buPath)) {
 			/*
@@ -576,13 +601,19 @@ public class SimpleBackupStore implements IBackupStore {
 			return false;
 		}
 
-		// make sure all of the directories exist / gets created
+		// make sure all of the directories exist / gets created, only once
+		// per directory when a batch of files is backed up
 		Path buPathDir = buPath.getParent();
-		try {
-			Files.createDirectories(buPathDir);
-		} catch (IOException e) {
-			throw new IllegalArgumentException(
-					NLS.bind(Messages.BackupStore_file_directory_mismatch, buPathDir.toAbsolutePath()), e);
+		if (backupDirs == null || !backupDirs.contains(buPathDir)) {
+			try {
+				Files.createDirectories(buPathDir);
+			} catch (IOException e) {
+				throw new IllegalArgumentException(
+						NLS.bind(Messages.BackupStore_file_directory_mismatch, buPathDir.toAbsolutePath()), e);
+			}
+			if (backupDirs != null) {
+				backupDirs.add(buPathDir);
+			}
 		}
 
 		move(path, buPath);
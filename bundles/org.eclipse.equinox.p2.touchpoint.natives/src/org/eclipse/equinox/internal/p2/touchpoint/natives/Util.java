@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2019 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,11 +17,12 @@ package org.eclipse.equinox.internal.p2.touchpoint.natives;
 
 import java.io.*;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.zip.*;
 import org.eclipse.core.runtime.*;
 import org.eclipse.equinox.internal.p2.core.helpers.LogHelper;
 import org.eclipse.equinox.p2.core.*;
@@ -31,6 +32,8 @@ import org.eclipse.equinox.p2.repository.artifact.*;
 import org.eclipse.osgi.util.NLS;
 
 public class Util {
+	private static final int BUFFER_SIZE = 64 * 1024;
+
 	/*
 	 * Logging
 	 */
@@ -143,9 +146,27 @@ public class Util {
 	public static File[] unzipFile(File zipFile, File outputDir, String path, String[] includePatterns,
 			String[] excludePatterns, IBackupStore store, String taskName, IProgressMonitor monitor)
 			throws IOException {
-		try (InputStream in = new FileInputStream(zipFile)) {
-			return unzipStream(in, zipFile.length(), outputDir, path, includePatterns, excludePatterns, store, taskName,
-					monitor);
+		try (ZipFile zip = new ZipFile(zipFile)) {
+			if (zip.size() == 0) {
+				// There must be at least one entry in a zip file.
+				throw new IOException(Messages.Util_Invalid_Zip_File_Format);
+			}
+			EntrySelector selector = new EntrySelector(path, includePatterns, excludePatterns);
+			// all the entries are known from the central directory, so the
+			// files can be backed up at once and written concurrently
+			ZipExtractor extractor = new ZipExtractor(zip, store);
+			ArrayList<File> unzippedFiles = new ArrayList<>();
+			for (Enumeration<? extends ZipEntry> entries = zip.entries(); entries.hasMoreElements();) {
+				ZipEntry ze = entries.nextElement();
+				String name = selector.select(ze.getName());
+				if (name != null) {
+					File outFile = createSubPathFile(outputDir, name);
+					unzippedFiles.add(outFile);
+					extractor.add(ze, outFile);
+				}
+			}
+			extractor.extract();
+			return unzippedFiles.toArray(new File[unzippedFiles.size()]);
 		} catch (IOException e) {
 			// add the file name to the message
 			IOException ioExc = new IOException(NLS.bind(Messages.Util_Error_Unzipping, zipFile, e.getMessage()), e);
@@ -184,13 +205,49 @@ public class Util {
 				throw new IOException(Messages.Util_Invalid_Zip_File_Format);
 			}
 
+			EntrySelector selector = new EntrySelector(path, includePatterns, excludePatterns);
+			ArrayList<File> unzippedFiles = new ArrayList<>();
+			do {
+				String name = selector.select(ze.getName());
+				if (name != null) {
+					File outFile = createSubPathFile(outputDir, name);
+					unzippedFiles.add(outFile);
+					if (ze.isDirectory()) {
+						outFile.mkdirs();
+					} else {
+						if (outFile.exists()) {
+							if (store != null) {
+								store.backup(outFile);
+							} else {
+								outFile.delete();
+							}
+						} else {
+							outFile.getParentFile().mkdirs();
+						}
+						writeEntry(in, outFile, ze.getSize(), ze.getTime());
+					}
+				}
+				in.closeEntry();
+			} while ((ze = in.getNextEntry()) != null);
+			return unzippedFiles.toArray(new File[unzippedFiles.size()]);
+		}
+
+	}
+
+	/**
+	 * Selects the zip entries to extract according to the path, include and
+	 * exclude patterns of an unzip.
+	 */
+	private static class EntrySelector {
+		private final Pattern pathRegex;
+		private final Collection<Pattern> includeRegexp = new ArrayList<>();
+		private final Collection<Pattern> excludeRegexp = new ArrayList<>();
+
+		EntrySelector(String path, String[] includePatterns, String[] excludePatterns) {
 			if (path != null && path.trim().length() == 0) {
 				path = null;
 			}
-			Pattern pathRegex = path == null ? null : createAntStylePattern("(" + path + ")(*)"); //$NON-NLS-1$ //$NON-NLS-2$
-
-			Collection<Pattern> includeRegexp = new ArrayList<>();
-			Collection<Pattern> excludeRegexp = new ArrayList<>();
+			pathRegex = path == null ? null : createAntStylePattern("(" + path + ")(*)"); //$NON-NLS-1$ //$NON-NLS-2$
 			if (includePatterns != null) {
 				for (String pattern : includePatterns) {
 					if (pattern != null) {
@@ -205,66 +262,80 @@ public class Util {
 					}
 				}
 			}
-			ArrayList<File> unzippedFiles = new ArrayList<>();
-			do {
-				String name = ze.getName();
-				if (pathRegex == null || pathRegex.matcher(name).matches()) {
-					boolean unzip = includeRegexp.isEmpty();
-					for (Pattern pattern : includeRegexp) {
-						unzip = pattern.matcher(name).matches();
-						if (unzip) {
-							break;
-						}
-					}
-					if (unzip && !excludeRegexp.isEmpty()) {
-						for (Pattern pattern : excludeRegexp) {
-							if (pattern.matcher(name).matches()) {
-								unzip = false;
-								break;
-							}
-						}
+		}
+
+		/**
+		 * Returns the name under which the entry is extracted, relative to the
+		 * output directory, or <code>null</code> if the entry is not extracted.
+		 */
+		String select(String name) {
+			if (pathRegex != null && !pathRegex.matcher(name).matches()) {
+				return null;
+			}
+			boolean unzip = includeRegexp.isEmpty();
+			for (Pattern pattern : includeRegexp) {
+				unzip = pattern.matcher(name).matches();
+				if (unzip) {
+					break;
+				}
+			}
+			if (unzip && !excludeRegexp.isEmpty()) {
+				for (Pattern pattern : excludeRegexp) {
+					if (pattern.matcher(name).matches()) {
+						unzip = false;
+						break;
 					}
-					if (unzip) {
-						if (pathRegex != null) {
-							Matcher matcher = pathRegex.matcher(name);
-							if (matcher.matches()) {
-								name = matcher.group(2);
-								if (name.startsWith("/")) { //$NON-NLS-1$
-									name = name.substring(1);
-								}
-							}
-						}
-						File outFile = createSubPathFile(outputDir, name);
-						unzippedFiles.add(outFile);
-						if (ze.isDirectory()) {
-							outFile.mkdirs();
-						} else {
-							if (outFile.exists()) {
-								if (store != null) {
-									store.backup(outFile);
-								} else {
-									outFile.delete();
-								}
-							} else {
-								outFile.getParentFile().mkdirs();
-							}
-							try {
-								copyStream(in, false, new FileOutputStream(outFile), true);
-							} catch (FileNotFoundException e) {
-								// TEMP: ignore this for now in case we're trying to replace
-								// a running eclipse.exe
-								// TODO: This is very questionable as it will shadow any other
-								// issue with extraction!!
-							}
-							outFile.setLastModified(ze.getTime());
-						}
+				}
+			}
+			if (!unzip) {
+				return null;
+			}
+			if (pathRegex != null) {
+				Matcher matcher = pathRegex.matcher(name);
+				if (matcher.matches()) {
+					name = matcher.group(2);
+					if (name.startsWith("/")) { //$NON-NLS-1$
+						name = name.substring(1);
 					}
 				}
-				in.closeEntry();
-			} while ((ze = in.getNextEntry()) != null);
-			return unzippedFiles.toArray(new File[unzippedFiles.size()]);
+			}
+			return name;
 		}
+	}
 
+	/**
+	 * Writes the content of a zip entry to a file through a file channel, leaving
+	 * the input stream open. The file is first extended to the size of the
+	 * entry, when known, so that the file system can allocate it at once.
+	 */
+	static void writeEntry(InputStream in, File outFile, long size, long time) throws IOException {
+		try (RandomAccessFile out = new RandomAccessFile(outFile, "rw")) { //$NON-NLS-1$
+			FileChannel channel = out.getChannel();
+			if (size > 0) {
+				out.setLength(size);
+			}
+			ReadableByteChannel source = Channels.newChannel(in);
+			ByteBuffer buffer = ByteBuffer.allocate(size < 0 ? BUFFER_SIZE : (int) Math.max(Math.min(size, BUFFER_SIZE), 1));
+			long written = 0;
+			while (source.read(buffer) != -1) {
+				buffer.flip();
+				while (buffer.hasRemaining()) {
+					written += channel.write(buffer);
+				}
+				buffer.clear();
+			}
+			if (channel.size() > written) {
+				// the entry was shorter than announced, or a file that could not be
+				// removed is overwritten
+				channel.truncate(written);
+			}
+		} catch (FileNotFoundException e) {
+			// TEMP: ignore this for now in case we're trying to replace
+			// a running eclipse.exe
+			// TODO: This is very questionable as it will shadow any other
+			// issue with extraction!!
+		}
+		outFile.setLastModified(time);
 	}
 
 	private static File createSubPathFile(File root, String subPath) throws IOException {
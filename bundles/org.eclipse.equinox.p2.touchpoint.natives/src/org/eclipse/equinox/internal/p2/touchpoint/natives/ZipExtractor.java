@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.touchpoint.natives;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.eclipse.equinox.internal.p2.core.helpers.ThreadPoolHelper;
+
+/**
+ * Extracts a set of entries of a zip file. The entries are known upfront from
+ * the central directory of the zip file, which allows to back up all the files
+ * overwritten by the extraction in one batch before any of them is written, and
+ * then to write the files concurrently.
+ * <p>
+ * The number of threads writing the files is given by the system property
+ * {@value #PROP_THREADS} and defaults to the number of processors. Small
+ * archives are extracted on the calling thread.
+ * </p>
+ */
+final class ZipExtractor {
+	static final String PROP_THREADS = "eclipse.p2.natives.unzip.threads"; //$NON-NLS-1$
+
+	/**
+	 * The uncompressed size below which the archive is extracted on the calling
+	 * thread, where starting threads costs more than it saves.
+	 */
+	private static final long PARALLEL_THRESHOLD = 1024 * 1024;
+
+	private final ZipFile zip;
+	private final IBackupStore store;
+	private final List<File> directories = new ArrayList<>();
+	private final Map<File, ZipEntry> files = new LinkedHashMap<>();
+	private long totalSize;
+
+	/**
+	 * @param zip   the zip file to extract entries from
+	 * @param store the store receiving the overwritten files, or
+	 *              <code>null</code> if they are deleted
+	 */
+	ZipExtractor(ZipFile zip, IBackupStore store) {
+		this.zip = zip;
+		this.store = store;
+	}
+
+	/**
+	 * Adds an entry to extract to the given file or directory.
+	 */
+	void add(ZipEntry entry, File outFile) {
+		if (entry.isDirectory()) {
+			directories.add(outFile);
+			return;
+		}
+		// as when extracting in sequence, the last entry for a file wins
+		ZipEntry previous = files.put(outFile, entry);
+		if (previous != null) {
+			totalSize -= Math.max(previous.getSize(), 0);
+		}
+		totalSize += Math.max(entry.getSize(), 0);
+	}
+
+	/**
+	 * Creates the directories, backs up or deletes the existing files and then
+	 * writes the files of all the added entries.
+	 */
+	void extract() throws IOException {
+		for (File directory : directories) {
+			directory.mkdirs();
+		}
+
+		List<File> existing = new ArrayList<>();
+		Set<File> parents = new HashSet<>();
+		for (File outFile : files.keySet()) {
+			if (outFile.exists()) {
+				existing.add(outFile);
+			} else if (parents.add(outFile.getParentFile())) {
+				outFile.getParentFile().mkdirs();
+			}
+		}
+		if (store != null) {
+			store.backup(existing);
+		} else {
+			for (File outFile : existing) {
+				outFile.delete();
+			}
+		}
+
+		int threads = Math.min(getThreads(), files.size());
+		if (threads <= 1 || totalSize < PARALLEL_THRESHOLD) {
+			for (Map.Entry<File, ZipEntry> file : files.entrySet()) {
+				write(file.getValue(), file.getKey());
+			}
+			return;
+		}
+		extractConcurrently(threads);
+	}
+
+	private void extractConcurrently(int threads) throws IOException {
+		ExecutorService executor = ThreadPoolHelper.newFixedDaemonThreadPool("unzip", threads); //$NON-NLS-1$
+		try {
+			List<Future<?>> writes = new ArrayList<>(files.size());
+			for (Map.Entry<File, ZipEntry> file : files.entrySet()) {
+				writes.add(executor.submit(() -> {
+					write(file.getValue(), file.getKey());
+					return null;
+				}));
+			}
+			for (Future<?> write : writes) {
+				try {
+					write.get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException();
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof IOException ioException)
+						throw ioException;
+					if (cause instanceof RuntimeException runtimeException)
+						throw runtimeException;
+					if (cause instanceof Error error)
+						throw error;
+					throw new IOException(cause);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+			// no file may be written once the extraction returned
+			ThreadPoolHelper.awaitTermination(executor);
+		}
+	}
+
+	/**
+	 * Writes an entry, preallocating the file to the size recorded in the
+	 * central directory.
+	 */
+	private void write(ZipEntry entry, File outFile) throws IOException {
+		try (InputStream in = zip.getInputStream(entry)) {
+			Util.writeEntry(in, outFile, entry.getSize(), entry.getTime());
+		}
+	}
+
+	private static int getThreads() {
+		int processors = Runtime.getRuntime().availableProcessors();
+		String value = System.getProperty(PROP_THREADS);
+		if (value == null) {
+			return processors;
+		}
+		try {
+			return Math.max(1, Integer.parseInt(value.trim()));
+		} catch (NumberFormatException e) {
+			return processors;
+		}
+	}
+}
@@ -0,0 +1,414 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.transport.http;
+
+import java.io.*;
+import java.net.*;
+import java.net.http.*;
+import java.net.http.HttpResponse.BodyHandler;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.concurrent.*;
+import org.eclipse.core.runtime.*;
+import org.eclipse.equinox.internal.p2.repository.*;
+import org.eclipse.equinox.internal.p2.repository.Credentials.LoginCanceledException;
+import org.eclipse.equinox.internal.provisional.p2.repository.IStateful;
+import org.eclipse.equinox.p2.core.IProvisioningAgent;
+import org.eclipse.equinox.p2.core.ProvisionException;
+import org.eclipse.equinox.p2.core.UIServices.AuthenticationInfo;
+import org.eclipse.osgi.util.NLS;
+
+/**
+ * A {@link Transport} on top of the {@link HttpClient} of the JDK. All requests
+ * of a transport share one client, which keeps the connections to a server open
+ * and multiplexes concurrent requests over a single connection when the server
+ * speaks HTTP/2. Requests are sent asynchronously and awaited while checking the
+ * progress monitor, so that a canceled download is aborted right away.
+ * <p>
+ * Locations that are not <code>http</code> or <code>https</code>, such as local
+ * repositories, are read through their {@link URL}.
+ * </p>
+ */
+public class HttpClientTransport extends Transport {
+
+	public static final String ID = "org.eclipse.equinox.p2.transport.http"; //$NON-NLS-1$
+
+	/**
+	 * System property giving the connect timeout in milliseconds.
+	 */
+	public static final String PROP_CONNECT_TIMEOUT = "org.eclipse.equinox.p2.transport.http.connectTimeout"; //$NON-NLS-1$
+
+	/**
+	 * System property giving the read timeout in milliseconds, that is the time
+	 * to wait for the response headers of a request.
+	 */
+	public static final String PROP_READ_TIMEOUT = "org.eclipse.equinox.p2.transport.http.readTimeout"; //$NON-NLS-1$
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final long POLL_INTERVAL = 100;
+
+	private final IProvisioningAgent agent;
+	private final HttpClient client;
+	private final Duration readTimeout;
+
+	/**
+	 * Signals an HTTP response code that is not handled otherwise.
+	 */
+	static class HttpStatusException extends IOException {
+		private static final long serialVersionUID = 1L;
+		final int code;
+
+		HttpStatusException(int code, URI location) {
+			super("HTTP " + code + ": " + location); //$NON-NLS-1$ //$NON-NLS-2$
+			this.code = code;
+		}
+	}
+
+	public HttpClientTransport() {
+		this(null);
+	}
+
+	/**
+	 * @param agent If agent is <code>null</code>, download progress is not
+	 *              published.
+	 */
+	public HttpClientTransport(IProvisioningAgent agent) {
+		this(agent, createClient());
+	}
+
+	public HttpClientTransport(IProvisioningAgent agent, HttpClient client) {
+		this.agent = agent;
+		this.client = client;
+		this.readTimeout = Duration.ofMillis(Long.getLong(PROP_READ_TIMEOUT, 120000));
+	}
+
+	private static HttpClient createClient() {
+		HttpClient.Builder builder = HttpClient.newBuilder() //
+				.version(HttpClient.Version.HTTP_2) //
+				.followRedirects(HttpClient.Redirect.NORMAL) //
+				.connectTimeout(Duration.ofMillis(Long.getLong(PROP_CONNECT_TIMEOUT, 10000)));
+		ProxySelector proxySelector = ProxySelector.getDefault();
+		if (proxySelector != null)
+			builder.proxy(proxySelector);
+		return builder.build();
+	}
+
+	/**
+	 * Returns the client used for all requests of this transport.
+	 */
+	public HttpClient getClient() {
+		return client;
+	}
+
+	@Override
+	public IStatus download(URI toDownload, OutputStream target, IProgressMonitor monitor) {
+		return downloadFrom(toDownload, target, -1L, monitor);
+	}
+
+	@Override
+	@Deprecated(forRemoval = true)
+	@SuppressWarnings("removal")
+	public IStatus download(URI toDownload, OutputStream target, long startPos, IProgressMonitor monitor) {
+		return downloadFrom(toDownload, target, startPos, monitor);
+	}
+
+	/**
+	 * Downloads the content starting at <code>startPos</code>, e.g. to resume an
+	 * interrupted download. The server is asked for the remaining range only;
+	 * when it ignores the range, the leading bytes are skipped.
+	 */
+	private IStatus downloadFrom(URI toDownload, OutputStream target, long startPos, IProgressMonitor monitor) {
+		URI location;
+		try {
+			location = getSecureLocation(toDownload);
+		} catch (CoreException e) {
+			return e.getStatus();
+		}
+		SubMonitor sub = SubMonitor.convert(monitor, 1000);
+		Download download = null;
+		try {
+			download = open(location, startPos, sub);
+			download.copyTo(target, sub);
+			DownloadStatus status = new DownloadStatus(IStatus.OK, ID, Status.OK_STATUS.getMessage());
+			return statusOn(target, status, download);
+		} catch (OperationCanceledException e) {
+			statusOn(target, new DownloadStatus(IStatus.CANCEL, ID, 1, "", null), download); //$NON-NLS-1$
+			throw e;
+		} catch (AuthenticationFailedException e) {
+			DownloadStatus status = new DownloadStatus(IStatus.ERROR, ID,
+					ProvisionException.REPOSITORY_FAILED_AUTHENTICATION,
+					NLS.bind(Messages.UnableToRead_0_TooManyAttempts, location), e);
+			return statusOn(target, status, download);
+		} catch (LoginCanceledException e) {
+			DownloadStatus status = new DownloadStatus(IStatus.ERROR, ID,
+					ProvisionException.REPOSITORY_FAILED_AUTHENTICATION,
+					NLS.bind(Messages.UnableToRead_0_UserCanceled, location), null);
+			return statusOn(target, status, download);
+		} catch (IOException e) {
+			return statusOn(target, forException(e, location), download);
+		} catch (CoreException e) {
+			IStatus status = e.getStatus();
+			return statusOn(target, new DownloadStatus(IStatus.ERROR, ID, status.getCode(), status.getMessage(),
+					status.getException()), download);
+		} finally {
+			if (download != null)
+				download.close();
+		}
+	}
+
+	@Override
+	public InputStream stream(URI toDownload, IProgressMonitor monitor)
+			throws FileNotFoundException, CoreException, AuthenticationFailedException {
+		URI location = getSecureLocation(toDownload);
+		try {
+			return open(location, -1, SubMonitor.convert(monitor)).body;
+		} catch (FileNotFoundException | AuthenticationFailedException e) {
+			throw e;
+		} catch (LoginCanceledException e) {
+			// same behavior when the user cancels as when failing n attempts
+			throw new AuthenticationFailedException();
+		} catch (IOException e) {
+			throw new CoreException(forException(e, location));
+		}
+	}
+
+	@Override
+	public long getLastModified(URI toDownload, IProgressMonitor monitor)
+			throws CoreException, FileNotFoundException, AuthenticationFailedException {
+		URI location = getSecureLocation(toDownload);
+		try {
+			if (!isHttp(location)) {
+				URLConnection connection = location.toURL().openConnection();
+				connection.getInputStream().close();
+				return connection.getLastModified();
+			}
+			HttpResponse<Void> response = send(location, "HEAD", -1, BodyHandlers.discarding(), //$NON-NLS-1$
+					SubMonitor.convert(monitor));
+			checkResponse(response, location);
+			return getLastModified(response);
+		} catch (FileNotFoundException | AuthenticationFailedException e) {
+			throw e;
+		} catch (LoginCanceledException e) {
+			throw new AuthenticationFailedException();
+		} catch (IOException e) {
+			throw new CoreException(forException(e, location));
+		}
+	}
+
+	/**
+	 * An open response body with what is known about the content.
+	 */
+	private class Download {
+		final URI location;
+		final InputStream body;
+		final long length;
+		final long lastModified;
+		long skip;
+		long offset;
+		long transferred;
+		ProgressStatistics statistics;
+
+		Download(URI location, InputStream body, long length, long lastModified) {
+			this.location = location;
+			this.body = body;
+			this.length = length;
+			this.lastModified = lastModified;
+		}
+
+		void copyTo(OutputStream target, SubMonitor monitor) throws IOException {
+			String path = location.getPath();
+			String fileName = path == null ? null : path.substring(path.lastIndexOf('/') + 1);
+			statistics = new ProgressStatistics(agent, location, fileName, length);
+			monitor.subTask(statistics.report());
+			while (skip > 0) {
+				long skipped = body.skip(skip);
+				if (skipped <= 0)
+					throw new EOFException(location.toString());
+				skip -= skipped;
+			}
+			byte[] buffer = new byte[BUFFER_SIZE];
+			long reported = 0;
+			int read;
+			while ((read = body.read(buffer)) != -1) {
+				if (monitor.isCanceled())
+					throw new OperationCanceledException();
+				target.write(buffer, 0, read);
+				transferred += read;
+				statistics.increase(read);
+				if (length > 0 && statistics.shouldReport()) {
+					monitor.subTask(statistics.report());
+					monitor.worked((int) (1000 * (transferred - reported) / length));
+					reported = transferred;
+				}
+			}
+		}
+
+		void close() {
+			try {
+				body.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+
+	/**
+	 * Sends the request for the content at the given location, starting at
+	 * <code>startPos</code> if it is positive.
+	 */
+	private Download open(URI location, long startPos, SubMonitor monitor)
+			throws IOException, LoginCanceledException, CoreException {
+		if (!isHttp(location)) {
+			URLConnection connection = location.toURL().openConnection();
+			Download download = new Download(location, connection.getInputStream(),
+					connection.getContentLengthLong(), connection.getLastModified());
+			download.skip = Math.max(0, startPos);
+			download.offset = download.skip;
+			return download;
+		}
+		HttpResponse<InputStream> response = send(location, "GET", startPos, BodyHandlers.ofInputStream(), monitor); //$NON-NLS-1$
+		try {
+			checkResponse(response, location);
+		} catch (IOException e) {
+			response.body().close();
+			throw e;
+		}
+		long length = response.headers().firstValueAsLong("Content-Length").orElse(-1); //$NON-NLS-1$
+		Download download = new Download(location, response.body(), length, getLastModified(response));
+		if (startPos > 0) {
+			download.offset = startPos;
+			// the server sent the whole content instead of the range
+			if (response.statusCode() != HttpURLConnection.HTTP_PARTIAL)
+				download.skip = startPos;
+		}
+		return download;
+	}
+
+	/**
+	 * Sends a request, asking for credentials when the server requires them.
+	 */
+	private <T> HttpResponse<T> send(URI location, String method, long startPos, BodyHandler<T> handler,
+			SubMonitor monitor) throws IOException, LoginCanceledException, CoreException {
+		boolean promptUser = false;
+		AuthenticationInfo loginDetails = null;
+		for (int i = RepositoryPreferences.getLoginRetryCount(); i > 0; i--) {
+			loginDetails = Credentials.forLocation(location, promptUser, loginDetails);
+			HttpRequest.Builder request = HttpRequest.newBuilder(location).timeout(readTimeout)
+					.method(method, HttpRequest.BodyPublishers.noBody());
+			if (startPos > 0)
+				request.header("Range", "bytes=" + startPos + '-'); //$NON-NLS-1$ //$NON-NLS-2$
+			if (loginDetails != null) {
+				String credentials = loginDetails.getUserName() + ':' + loginDetails.getPassword();
+				request.header("Authorization", "Basic " //$NON-NLS-1$ //$NON-NLS-2$
+						+ Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8)));
+			}
+			HttpResponse<T> response = await(client.sendAsync(request.build(), handler), monitor);
+			if (response.statusCode() != HttpURLConnection.HTTP_UNAUTHORIZED)
+				return response;
+			if (response.body() instanceof Closeable body)
+				body.close();
+			promptUser = true;
+		}
+		throw new AuthenticationFailedException();
+	}
+
+	/**
+	 * Waits for the response, aborting the request when the monitor is canceled.
+	 */
+	private static <T> T await(CompletableFuture<T> future, IProgressMonitor monitor) throws IOException {
+		try {
+			while (true) {
+				if (monitor.isCanceled()) {
+					future.cancel(true);
+					throw new OperationCanceledException();
+				}
+				try {
+					return future.get(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+				} catch (TimeoutException e) {
+					// check the monitor again
+				}
+			}
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException io)
+				throw io;
+			throw new IOException(e.getCause());
+		}
+	}
+
+	private static void checkResponse(HttpResponse<?> response, URI location) throws IOException {
+		int code = response.statusCode();
+		if (code == HttpURLConnection.HTTP_NOT_FOUND || code == HttpURLConnection.HTTP_GONE)
+			throw new FileNotFoundException(location.toString());
+		if (code >= HttpURLConnection.HTTP_BAD_REQUEST)
+			throw new HttpStatusException(code, location);
+	}
+
+	private static long getLastModified(HttpResponse<?> response) {
+		String value = response.headers().firstValue("Last-Modified").orElse(null); //$NON-NLS-1$
+		if (value == null)
+			return 0;
+		try {
+			return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+		} catch (DateTimeParseException e) {
+			return 0;
+		}
+	}
+
+	private static boolean isHttp(URI location) {
+		String scheme = location.getScheme();
+		return "http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Sets the status on the output stream if it implements IStateful.
+	 */
+	private static DownloadStatus statusOn(OutputStream target, DownloadStatus status, Download download) {
+		if (download != null) {
+			status.setLastModified(download.lastModified);
+			if (download.statistics != null) {
+				status.setFileSize(download.offset + download.transferred);
+				status.setTransferRate(download.statistics.getAverageSpeed());
+			}
+		}
+		if (target instanceof IStateful stateful)
+			stateful.setStatus(status);
+		return status;
+	}
+
+	public static DownloadStatus forException(IOException t, URI location) {
+		if (t instanceof FileNotFoundException)
+			return new DownloadStatus(IStatus.ERROR, ID, ProvisionException.ARTIFACT_NOT_FOUND,
+					NLS.bind(Messages.artifact_not_found, location), t);
+		if (t instanceof ConnectException)
+			return new DownloadStatus(IStatus.ERROR, ID, ProvisionException.REPOSITORY_FAILED_READ,
+					NLS.bind(Messages.TransportErrorTranslator_UnableToConnectToRepository_0, location), t);
+		if (t instanceof UnknownHostException)
+			return new DownloadStatus(IStatus.ERROR, ID, ProvisionException.REPOSITORY_INVALID_LOCATION,
+					NLS.bind(Messages.TransportErrorTranslator_UnknownHost, location), t);
+		if (t instanceof HttpStatusException httpStatus && httpStatus.code == HttpURLConnection.HTTP_FORBIDDEN)
+			return new DownloadStatus(IStatus.ERROR, ID, ProvisionException.REPOSITORY_FAILED_AUTHENTICATION,
+					NLS.bind(Messages.TransportErrorTranslator_403, location), t);
+		return new DownloadStatus(IStatus.ERROR, ID, ProvisionException.REPOSITORY_FAILED_READ,
+				NLS.bind(Messages.io_failedRead, location), t);
+	}
+}
@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.transport.http;
+
+import org.eclipse.equinox.p2.core.IProvisioningAgent;
+import org.eclipse.equinox.p2.core.spi.IAgentServiceFactory;
+
+/**
+ * Creates the {@link HttpClientTransport} of an agent. The component is
+ * registered with a service ranking of -1, so that the ECF based transport is
+ * used when both are installed. Configure the component, e.g. through the
+ * configuration admin with the pid
+ * <code>org.eclipse.equinox.p2.transport.http</code>, with a higher
+ * <code>service.ranking</code> to use this transport instead.
+ */
+public class HttpClientTransportComponent implements IAgentServiceFactory {
+
+	@Override
+	public Object createService(IProvisioningAgent agent) {
+		return new HttpClientTransport(agent);
+	}
+
+}